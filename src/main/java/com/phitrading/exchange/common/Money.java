@@ -0,0 +1,254 @@
+package com.phitrading.exchange.common;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Immutable fixed-point amount (money, price or percentage) with 4 decimal places, held as a {@code long} count
+ * of 0.0001 units, the same scale as the {@code precision = 19, scale = 4} columns.
+ * <p>
+ * Addition, subtraction and multiplication by a quantity are plain {@code long} arithmetic without allocation
+ * beyond the result. Every operation is overflow-checked and throws {@link ArithmeticException} rather than
+ * wrapping; products and quotients of two amounts are rounded HALF_UP to 4 places, like
+ * {@code setScale(4, HALF_UP)} on the equivalent {@link BigDecimal} expression.
+ * <p>
+ * Serialized to JSON as a plain number, stored through {@code MoneyConverter}, and usable with Thymeleaf's
+ * {@code #numbers} since it is a {@link Number}.
+ */
+public final class Money extends Number implements Comparable<Money> {
+
+    public static final int SCALE = 4;
+    public static final long ONE_UNITS = 10_000L;
+
+    public static final Money ZERO = new Money(0);
+    public static final Money ONE = new Money(ONE_UNITS);
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+    private static final BigInteger MIN_LONG = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final long units;
+
+    private Money(long units) {
+        this.units = units;
+    }
+
+    /** Amount from a raw count of 0.0001 units. */
+    public static Money ofUnits(long units) {
+        return units == 0 ? ZERO : new Money(units);
+    }
+
+    /** Whole amount, e.g. {@code of(100)} is 100.0000. */
+    public static Money of(long whole) {
+        return ofUnits(Math.multiplyExact(whole, ONE_UNITS));
+    }
+
+    /**
+     * Amount rounded HALF_UP to 4 places.
+     * @throws ArithmeticException if it does not fit
+     */
+    @JsonCreator
+    public static Money of(BigDecimal value) {
+        if (value.scale() == SCALE) {
+            // Values read from scale-4 columns: no rescaling needed
+            return ofUnits(value.unscaledValue().longValueExact());
+        }
+        return ofUnits(value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /** Null-tolerant {@link #of(BigDecimal)}: null becomes {@link #ZERO}. */
+    public static Money ofNullable(BigDecimal value) {
+        return value == null ? ZERO : of(value);
+    }
+
+    public static Money parse(String text) {
+        return of(new BigDecimal(text.trim()));
+    }
+
+    public long units() {
+        return units;
+    }
+
+    public Money plus(Money other) {
+        return other.units == 0 ? this : ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Money minus(Money other) {
+        return other.units == 0 ? this : ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    public Money negate() {
+        return ofUnits(Math.negateExact(units));
+    }
+
+    /** This amount times a whole quantity, e.g. price times shares. Exact. */
+    public Money times(long quantity) {
+        return ofUnits(Math.multiplyExact(units, quantity));
+    }
+
+    /** This amount times another, e.g. an amount times an exchange rate, rounded HALF_UP to 4 places. */
+    public Money times(Money factor) {
+        return ofUnits(mulDiv(units, factor.units, ONE_UNITS));
+    }
+
+    /** This amount divided by a whole count, rounded HALF_UP. */
+    public Money dividedBy(long divisor) {
+        return ofUnits(divideHalfUp(units, divisor));
+    }
+
+    /** This amount divided by another (e.g. by an exchange rate), rounded HALF_UP to 4 places. */
+    public Money dividedBy(Money divisor) {
+        return ofUnits(mulDiv(units, ONE_UNITS, divisor.units));
+    }
+
+    /**
+     * This amount times {@code numerator / denominator} with a single rounding (HALF_UP to 4 places), e.g. a
+     * conversion between two currencies quoted against the same base.
+     */
+    public Money timesRatio(Money numerator, Money denominator) {
+        return ofUnits(mulDiv(units, numerator.units, denominator.units));
+    }
+
+    /**
+     * This amount as a percentage of {@code base} (4 places), or zero when the base is zero.
+     * E.g. 25 of 200 is 12.5000.
+     */
+    public Money percentOf(Money base) {
+        if (base.units == 0) {
+            return ZERO;
+        }
+        return ofUnits(mulDiv(units, 100 * ONE_UNITS, base.units));
+    }
+
+    /** Rounded HALF_UP to {@code scale} (0..4) decimal places; the result keeps 4 places with trailing zeros. */
+    public Money rounded(int scale) {
+        if (scale < 0 || scale > SCALE) {
+            throw new IllegalArgumentException("Scale must be between 0 and " + SCALE);
+        }
+        if (scale == SCALE) {
+            return this;
+        }
+        long step = POWERS_OF_TEN[SCALE - scale];
+        return ofUnits(Math.multiplyExact(divideHalfUp(units, step), step));
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public boolean isZero() {
+        return units == 0;
+    }
+
+    public boolean isNegative() {
+        return units < 0;
+    }
+
+    public Money max(Money other) {
+        return units >= other.units ? this : other;
+    }
+
+    public Money min(Money other) {
+        return units <= other.units ? this : other;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    /** Value rounded HALF_UP to {@code scale} places, e.g. 2 for display amounts. */
+    public BigDecimal toBigDecimal(int scale) {
+        Money rounded = rounded(scale);
+        return BigDecimal.valueOf(rounded.units / POWERS_OF_TEN[SCALE - scale], scale);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money other && units == other.units);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    /** Plain decimal with 4 places, e.g. {@code 123.4500}. */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    /** Whole part, truncated toward zero. */
+    @Override
+    public long longValue() {
+        return units / ONE_UNITS;
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return units / (double) ONE_UNITS;
+    }
+
+    /** {@code a * b / c} rounded HALF_UP, without intermediate overflow. */
+    static long mulDiv(long a, long b, long c) {
+        if (c == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        // The product fits in a long when the high word is just the sign extension of the low word
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divideHalfUp(low, c);
+        }
+        BigInteger[] qr = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).divideAndRemainder(BigInteger.valueOf(c));
+        BigInteger q = qr[0];
+        if (qr[1].abs().shiftLeft(1).compareTo(BigInteger.valueOf(c).abs()) >= 0) {
+            q = q.add(BigInteger.valueOf((long) qr[1].signum() * Long.signum(c)));
+        }
+        if (q.compareTo(MIN_LONG) < 0 || q.compareTo(MAX_LONG) > 0) {
+            throw new ArithmeticException("Money overflow");
+        }
+        return q.longValue();
+    }
+
+    /** {@code n / d} rounded HALF_UP (ties away from zero), as BigDecimal does. */
+    static long divideHalfUp(long n, long d) {
+        if (d == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (n == Long.MIN_VALUE && d == -1) {
+            throw new ArithmeticException("Money overflow");
+        }
+        long q = n / d;
+        long r = n % d;
+        if (r != 0) {
+            long absR = Math.abs(r);
+            long absD = Math.abs(d);
+            // absR >= absD - absR  <=>  2 * absR >= absD, without overflowing
+            if (absR >= absD - absR) {
+                q += ((n ^ d) < 0) ? -1 : 1;
+            }
+        }
+        return q;
+    }
+}
@@ -0,0 +1,7 @@
+package com.phitrading.exchange.common.exception;
+
+public class DuplicateRequestException extends RuntimeException {
+    public DuplicateRequestException(String message) {
+        super(message);
+    }
+}
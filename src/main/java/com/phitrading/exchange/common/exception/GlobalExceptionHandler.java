@@ -3,9 +3,11 @@ package com.phitrading.exchange.common.exception;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.thymeleaf.exceptions.TemplateInputException;
 
@@ -29,6 +31,15 @@ public class GlobalExceptionHandler {
         return "error/generic-error";
     }
 
+    @ExceptionHandler(PricingUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handlePricingUnavailable(PricingUnavailableException ex, Model model, HttpServletRequest request) {
+        log.warn("Pricing unavailable at URI {}: {}", request.getRequestURI(), ex.getMessage());
+        model.addAttribute("title", "Prices temporarily unavailable");
+        model.addAttribute("message", "We cannot reach the pricing service right now. Trading is paused until it recovers; please try again shortly.");
+        return "error/generic-error";
+    }
+
     @ExceptionHandler(SymbolInUseException.class)
     public String handleSymbolInUse(SymbolInUseException ex, RedirectAttributes redirectAttributes, HttpServletRequest request) {
         log.warn("SymbolInUseException at {}: {}", request.getRequestURI(), ex.getMessage());
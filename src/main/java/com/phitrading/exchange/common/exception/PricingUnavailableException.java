@@ -0,0 +1,7 @@
+package com.phitrading.exchange.common.exception;
+
+public class PricingUnavailableException extends RuntimeException {
+    public PricingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.phitrading.exchange.common.exception;
+
+/**
+ * An order would breach one of the account's pre-trade risk limits. An {@link IllegalArgumentException}, so it is
+ * reported and replayed like any other rejected order.
+ */
+public class RiskLimitExceededException extends IllegalArgumentException {
+
+    private final String limit;
+
+    public RiskLimitExceededException(String limit, String message) {
+        super(message);
+        this.limit = limit;
+    }
+
+    /** Which limit was hit, e.g. {@code max-order-notional}. */
+    public String getLimit() {
+        return limit;
+    }
+}
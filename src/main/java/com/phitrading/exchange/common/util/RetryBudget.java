@@ -0,0 +1,67 @@
+package com.phitrading.exchange.common.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that caps retries (and hedged requests) to a fraction of regular traffic, so retrying
+ * cannot multiply load on a struggling service. Every original request deposits {@code ratio} tokens,
+ * a retry spends one. A small time-based allowance ({@code minPerSecond}) lets low-traffic callers retry too.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double maxBalance;
+    private final LongSupplier nanoTime;
+
+    // Guarded by this
+    private double balance;
+    private long lastRefillNanos;
+
+    public RetryBudget(double ratio, int minPerSecond) {
+        this(ratio, minPerSecond, System::nanoTime);
+    }
+
+    public RetryBudget(double ratio, int minPerSecond, LongSupplier nanoTime) {
+        this.ratio = Math.max(0, ratio);
+        this.minPerSecond = Math.max(0, minPerSecond);
+        this.maxBalance = Math.max(10, minPerSecond);
+        this.nanoTime = nanoTime;
+        this.lastRefillNanos = nanoTime.getAsLong();
+        this.balance = this.minPerSecond;
+    }
+
+    /** Record an original (non-retry) request. */
+    public synchronized void deposit() {
+        refill();
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    /**
+     * Spend one token for a retry.
+     * @return false when the budget is exhausted and the retry must not be sent
+     */
+    public synchronized boolean tryWithdraw() {
+        refill();
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+
+    public synchronized double getBalance() {
+        refill();
+        return balance;
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        double seconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        lastRefillNanos = now;
+        if (seconds > 0) {
+            balance = Math.min(maxBalance, balance + seconds * minPerSecond);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.phitrading.exchange.common.util;
+
+import java.util.Locale;
+
+/**
+ * The one spelling of an instrument symbol used for every key: caches, books, the catalog, triggers, positions.
+ */
+public final class Symbols {
+
+    private Symbols() {
+    }
+
+    /**
+     * Trimmed and upper-cased independent of the default locale, or {@code null} for a missing or blank symbol.
+     */
+    public static String normalize(String symbol) {
+        return symbol == null || symbol.isBlank() ? null : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+}
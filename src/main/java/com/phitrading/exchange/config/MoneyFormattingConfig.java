@@ -0,0 +1,46 @@
+package com.phitrading.exchange.config;
+
+import com.phitrading.exchange.common.Money;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.Formatter;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Locale;
+
+/**
+ * Registers {@link Money} with the MVC conversion service, so form fields bind to it and Thymeleaf's
+ * {@code ${{...}}} prints it. JSON needs nothing here: Money serializes itself as a plain number.
+ */
+@Configuration
+public class MoneyFormattingConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addFormatter(new MoneyFormatter());
+    }
+
+    /**
+     * Prints at least 2 decimal places and only as many more as the value needs (145.00, 145.1234), so a
+     * printed price parses back to the same value.
+     */
+    static final class MoneyFormatter implements Formatter<Money> {
+
+        @Override
+        public String print(Money money, Locale locale) {
+            BigDecimal value = money.toBigDecimal().stripTrailingZeros();
+            return (value.scale() < 2 ? value.setScale(2) : value).toPlainString();
+        }
+
+        @Override
+        public Money parse(String text, Locale locale) throws ParseException {
+            try {
+                return Money.parse(text);
+            } catch (ArithmeticException | NumberFormatException ex) {
+                throw new ParseException("Not a valid amount: " + text, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.phitrading.exchange.config;
+
+import com.phitrading.exchange.integration.InstrumentedConnectionManager;
+import com.phitrading.exchange.integration.LoadBalancingFeignClient;
+import com.phitrading.exchange.integration.PricingLoadBalancer;
+import com.phitrading.exchange.integration.PricingProperties;
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Pooled Apache HttpClient 5 transport for the Feign pricing client.
+ * Replaces the connection manager Spring Cloud OpenFeign would create (same
+ * {@code spring.cloud.openfeign.httpclient.*} settings) to add per-route limits
+ * ({@code pricing.http.route-max-connections}) and pool metrics:
+ * {@code httpcomponents.httpclient.pool.*} for utilization and {@code pricing.http.pool.wait} for lease wait time.
+ * Per-endpoint latency histograms come from Feign's Micrometer capability ({@code http.client.requests}).
+ * Requests are spread over the configured pricing instances by {@link LoadBalancingFeignClient}.
+ */
+@Configuration
+public class PricingHttpClientConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(PricingHttpClientConfig.class);
+
+    @Bean
+    public HttpClientConnectionManager hc5ConnectionManager(FeignHttpClientProperties httpClientProperties,
+                                                            PricingProperties pricingProperties,
+                                                            MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager pool = pooledConnectionManager(httpClientProperties,
+                pricingProperties.getHttp().getRouteMaxConnections());
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, "pricing").bindTo(meterRegistry);
+        return new InstrumentedConnectionManager(pool, meterRegistry);
+    }
+
+    /**
+     * HttpClient's own retries would resend to the same instance; failover, hedging and the
+     * circuit breaker already decide when a pricing request is repeated.
+     */
+    @Bean
+    public HttpClient5FeignConfiguration.HttpClientBuilderCustomizer disableAutomaticRetries() {
+        return HttpClientBuilder::disableAutomaticRetries;
+    }
+
+    @Bean
+    public Client pricingFeignClient(CloseableHttpClient httpClient5,
+                                     PricingLoadBalancer loadBalancer,
+                                     PricingProperties pricingProperties,
+                                     MeterRegistry meterRegistry) {
+        return new LoadBalancingFeignClient(new ApacheHttp5Client(httpClient5), loadBalancer,
+                pricingProperties.getService(), meterRegistry);
+    }
+
+    static PoolingHttpClientConnectionManager pooledConnectionManager(FeignHttpClientProperties properties,
+                                                                      Map<String, Integer> routeMaxConnections) {
+        FeignHttpClientProperties.Hc5Properties hc5 = properties.getHc5();
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setConnPoolPolicy(PoolReusePolicy.valueOf(hc5.getPoolReusePolicy().name()))
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.valueOf(hc5.getPoolConcurrencyPolicy().name()))
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.of(properties.getTimeToLive(), properties.getTimeToLiveUnit()))
+                        .build())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(Timeout.of(hc5.getSocketTimeout(), hc5.getSocketTimeoutUnit()))
+                        .build())
+                .build();
+        routeMaxConnections.forEach((baseUrl, max) -> {
+            URI uri = URI.create(baseUrl);
+            HttpHost host = new HttpHost(uri.getScheme(), uri.getHost(), portOf(uri));
+            pool.setMaxPerRoute(new HttpRoute(host, null, "https".equalsIgnoreCase(uri.getScheme())), max);
+            log.info("Pricing HTTP pool: max {} connections to {}", max, host);
+        });
+        return pool;
+    }
+
+    private static int portOf(URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+}
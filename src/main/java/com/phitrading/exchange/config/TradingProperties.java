@@ -0,0 +1,171 @@
+package com.phitrading.exchange.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for order handling on the exchange side (prefix {@code trading}).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "trading")
+public class TradingProperties {
+
+    private LimitOrders limitOrders = new LimitOrders();
+    private Sequencer sequencer = new Sequencer();
+    private OptimisticRetry optimisticRetry = new OptimisticRetry();
+    private Idempotency idempotency = new Idempotency();
+    private AsyncOrders asyncOrders = new AsyncOrders();
+    private Outbox outbox = new Outbox();
+    private Triggers triggers = new Triggers();
+    private Risk risk = new Risk();
+    private Quotes quotes = new Quotes();
+    private Portfolio portfolio = new Portfolio();
+    private Exposure exposure = new Exposure();
+
+    @Data
+    public static class LimitOrders {
+        // How often resting limit orders are checked against current prices
+        private Duration matchInterval = Duration.ofMillis(500);
+        // Oldest price the matcher accepts; older cached prices are refetched first
+        private Duration priceStaleness = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Sequencer {
+        // Writer threads; an account always maps to the same one
+        private int partitions = 4;
+        // Commands that may wait per partition before new ones have to wait for room
+        private int queueCapacity = 1024;
+        // Most commands committed together in one transaction
+        private int maxBatch = 32;
+        // How long a new command waits for room in a full partition before it is rejected
+        private Duration enqueueTimeout = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class OptimisticRetry {
+        // Attempts per command, including the first, when it hits a version conflict
+        private int maxAttempts = 4;
+        // Backoff before the first retry; doubles per retry up to max-backoff, with full jitter
+        private Duration initialBackoff = Duration.ofMillis(5);
+        private Duration maxBackoff = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class Idempotency {
+        // How long a client key is remembered after its request
+        private Duration ttl = Duration.ofMinutes(10);
+        // Most keys kept in memory per node; the oldest completed ones are evicted beyond that
+        private int maxEntries = 100_000;
+        // How long a repeat waits for the original submission to finish before giving up
+        private Duration inFlightWait = Duration.ofSeconds(5);
+        // Also record keys in the database so that every node recognises them
+        private boolean databaseEnabled = false;
+        private Duration purgeInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class AsyncOrders {
+        // Accept market orders from the trade forms immediately and execute them in the background
+        private boolean enabled = false;
+        // How long a status event stream stays open waiting for the order to finish
+        private Duration eventTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Outbox {
+        // Where order events go: in-process (Spring event listeners), file or broker (in-memory stand-in)
+        private String sink = "in-process";
+        // Run the relay on this node; keep it on exactly one node
+        private boolean relayEnabled = true;
+        private Duration relayInterval = Duration.ofMillis(200);
+        // Most events handed to the sink at once
+        private int batchSize = 500;
+        // How long published events stay in the table before they are purged
+        private Duration retention = Duration.ofDays(1);
+        private Duration purgeInterval = Duration.ofMinutes(10);
+        // Every node follows the outbox table to keep its in-memory portfolios and exposure current; leave it on outside tests
+        private boolean followEnabled = true;
+        private Duration followInterval = Duration.ofMillis(200);
+        // How long an id skipped by the follower is looked for again before it is taken for a rolled back insert
+        private Duration gapTimeout = Duration.ofMinutes(1);
+        // File sink: JSON lines appended here
+        private String filePath = "outbox/order-events.jsonl";
+        // Broker sink: partitions (keyed by account) and events kept per partition
+        private int brokerPartitions = 8;
+        private int brokerRetention = 10_000;
+    }
+
+    @Data
+    public static class Triggers {
+        // How often armed stop-loss and take-profit triggers are checked against current prices
+        private Duration evaluateInterval = Duration.ofMillis(500);
+        // Oldest price the evaluation accepts; older cached prices are refetched first
+        private Duration priceStaleness = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Risk {
+        // Check buys against the limits below before they execute
+        private boolean enabled = true;
+        // Role whose limits apply to accounts whose role has no entry of its own
+        private String defaultRole = "USER";
+        // Per-account state the checks run against is reloaded from the database at least this often
+        private Duration resyncInterval = Duration.ofMinutes(1);
+        // Limits per user role (USER, ADMIN, ...); reloaded on POST /actuator/refresh
+        private Map<String, RoleLimits> roles = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class RoleLimits {
+        // Most a single order may be worth; unset means no limit, likewise below
+        private BigDecimal maxOrderNotional;
+        // Most shares of one symbol an account may hold
+        private Long maxPositionQuantity;
+        // Most an account may trade per day, buys and sells together
+        private BigDecimal maxDailyTurnover;
+        // Largest share of the account (cash plus holdings at cost) one symbol may take, in percent
+        private BigDecimal maxConcentrationPct;
+    }
+
+    @Data
+    public static class Quotes {
+        // How long a quote can be executed at its price after it is issued
+        private Duration ttl = Duration.ofSeconds(5);
+        // Most unexpired quotes kept per node; the oldest are dropped beyond that
+        private int maxOutstanding = 10_000;
+        // Key quotes are signed with; blank means a random key per start, so quotes never outlive the node
+        private String signingKey = "";
+    }
+
+    @Data
+    public static class Portfolio {
+        // Keep the portfolios of recently active accounts valued in memory; off values every request from scratch
+        private boolean incremental = true;
+        // How often held symbols are repriced; answered from the price stream or cache where possible
+        private Duration refreshInterval = Duration.ofMillis(500);
+        // Reload an account's positions from the database this often, for changes made on other nodes
+        private Duration resyncInterval = Duration.ofMinutes(1);
+        // Accounts whose portfolio was not read for this long are dropped from memory
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        // Most accounts kept in memory; the least recently read are dropped beyond that
+        private int maxAccounts = 10_000;
+    }
+
+    @Data
+    public static class Exposure {
+        // How often the symbols clients hold are repriced for the house-wide exposure
+        private Duration refreshInterval = Duration.ofSeconds(1);
+        // Recompute the exposure from all positions this often, correcting any drift; also done at startup
+        private Duration rebuildInterval = Duration.ofHours(1);
+        // Positions read per query during a rebuild
+        private int rebuildPageSize = 1000;
+    }
+}
@@ -0,0 +1,40 @@
+package com.phitrading.exchange.config.scheduling;
+
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.integration.InstrumentCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Keeps the instrument catalog snapshot revalidated in the background so page renders rarely wait for it.
+ */
+@Component
+public class CatalogRefreshScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogRefreshScheduler.class);
+
+    private final InstrumentCatalog instrumentCatalog;
+
+    public CatalogRefreshScheduler(InstrumentCatalog instrumentCatalog) {
+        this.instrumentCatalog = instrumentCatalog;
+    }
+
+    @Scheduled(fixedDelayString = "${pricing.catalog.refresh-interval:2s}",
+            initialDelayString = "${pricing.catalog.refresh-interval:2s}")
+    public void refreshCatalog() {
+        if (!instrumentCatalog.isEnabled()) {
+            return;
+        }
+        try {
+            instrumentCatalog.refresh(Duration.ZERO);
+        } catch (PricingUnavailableException e) {
+            log.debug("Skipped catalog refresh: {}", e.getMessage());
+        } catch (Exception e) {
+            log.warn("Failed to refresh instrument catalog: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.phitrading.exchange.config.scheduling;
+
+import com.phitrading.exchange.domain.service.ExposureService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the house-wide exposure priced, and recomputes it from the positions table at startup and then
+ * periodically.
+ */
+@Component
+public class ExposureScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ExposureScheduler.class);
+
+    private final ExposureService exposureService;
+
+    public ExposureScheduler(ExposureService exposureService) {
+        this.exposureService = exposureService;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.exposure.refresh-interval:1s}",
+            initialDelayString = "${trading.exposure.refresh-interval:1s}")
+    public void refreshPrices() {
+        try {
+            exposureService.refreshPrices();
+        } catch (Exception e) {
+            log.warn("Exposure repricing failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trading.exposure.rebuild-interval:1h}")
+    public void rebuild() {
+        try {
+            exposureService.rebuild();
+        } catch (Exception e) {
+            log.warn("Exposure rebuild failed: {}", e.getMessage());
+        }
+    }
+}
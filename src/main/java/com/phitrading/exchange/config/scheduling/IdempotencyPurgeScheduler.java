@@ -0,0 +1,35 @@
+package com.phitrading.exchange.config.scheduling;
+
+import com.phitrading.exchange.domain.service.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes expired idempotency keys so the stores only hold recent submissions.
+ */
+@Component
+public class IdempotencyPurgeScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyPurgeScheduler.class);
+
+    private final IdempotencyService idempotencyService;
+
+    public IdempotencyPurgeScheduler(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.idempotency.purge-interval:1m}",
+            initialDelayString = "${trading.idempotency.purge-interval:1m}")
+    public void purgeExpiredKeys() {
+        try {
+            int removed = idempotencyService.purgeExpired();
+            if (removed > 0) {
+                log.debug("Purged {} expired idempotency keys", removed);
+            }
+        } catch (Exception e) {
+            log.warn("Idempotency key purge failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.phitrading.exchange.config.scheduling;
+
+import com.phitrading.exchange.domain.service.LimitOrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks resting limit orders against current prices so they fill as the market moves.
+ */
+@Component
+public class LimitOrderMatchingScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(LimitOrderMatchingScheduler.class);
+
+    private final LimitOrderService limitOrderService;
+
+    public LimitOrderMatchingScheduler(LimitOrderService limitOrderService) {
+        this.limitOrderService = limitOrderService;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.limit-orders.match-interval:500ms}",
+            initialDelayString = "${trading.limit-orders.match-interval:500ms}")
+    public void matchRestingOrders() {
+        try {
+            int filled = limitOrderService.matchAll();
+            if (filled > 0) {
+                log.info("Filled {} resting limit orders", filled);
+            }
+        } catch (Exception e) {
+            log.warn("Limit order matching failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.phitrading.exchange.config.scheduling;
+
+import com.phitrading.exchange.domain.outbox.OutboxFollower;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Follows the outbox table on every node, unlike the relay, so fills from all nodes reach this node's in-memory
+ * state. Turning it off (trading.outbox.follow-enabled=false) leaves trades from other nodes unseen until the next
+ * resync.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trading.outbox", name = "follow-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxFollowerScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxFollowerScheduler.class);
+
+    private final OutboxFollower follower;
+
+    public OutboxFollowerScheduler(OutboxFollower follower) {
+        this.follower = follower;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.outbox.follow-interval:200ms}",
+            initialDelayString = "${trading.outbox.follow-interval:200ms}")
+    public void follow() {
+        try {
+            int published = follower.poll();
+            if (published > 0) {
+                log.debug("Followed {} outbox events", published);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox follower failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.phitrading.exchange.config.scheduling;
+
+import com.phitrading.exchange.domain.outbox.OutboxRelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relays committed outbox events to the sink and removes old published ones. Disable it
+ * (trading.outbox.relay-enabled=false) on all nodes but one.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trading.outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelayScheduler.class);
+
+    private final OutboxRelay relay;
+
+    public OutboxRelayScheduler(OutboxRelay relay) {
+        this.relay = relay;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.outbox.relay-interval:200ms}",
+            initialDelayString = "${trading.outbox.relay-interval:200ms}")
+    public void relayEvents() {
+        try {
+            int published = relay.relay();
+            if (published > 0) {
+                log.debug("Relayed {} outbox events", published);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trading.outbox.purge-interval:10m}",
+            initialDelayString = "${trading.outbox.purge-interval:10m}")
+    public void purgePublishedEvents() {
+        try {
+            int removed = relay.purgePublished();
+            if (removed > 0) {
+                log.debug("Purged {} published outbox events", removed);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox purge failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.phitrading.exchange.config.scheduling;
+
+import com.phitrading.exchange.domain.valuation.PortfolioValuation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reprices the symbols held by accounts whose portfolio is kept valued in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "trading.portfolio.incremental", havingValue = "true", matchIfMissing = true)
+public class PortfolioValuationScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioValuationScheduler.class);
+
+    private final PortfolioValuation portfolioValuation;
+
+    public PortfolioValuationScheduler(PortfolioValuation portfolioValuation) {
+        this.portfolioValuation = portfolioValuation;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.portfolio.refresh-interval:500ms}",
+            initialDelayString = "${trading.portfolio.refresh-interval:500ms}")
+    public void refreshPrices() {
+        try {
+            int changed = portfolioValuation.refreshPrices();
+            if (changed > 0) {
+                log.debug("Repriced {} held symbols", changed);
+            }
+        } catch (Exception e) {
+            log.warn("Portfolio repricing failed: {}", e.getMessage());
+        }
+    }
+}
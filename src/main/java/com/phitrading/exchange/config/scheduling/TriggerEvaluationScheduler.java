@@ -0,0 +1,35 @@
+package com.phitrading.exchange.config.scheduling;
+
+import com.phitrading.exchange.domain.service.TriggerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks armed stop-loss and take-profit triggers against current prices so they fire as the market moves.
+ */
+@Component
+public class TriggerEvaluationScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(TriggerEvaluationScheduler.class);
+
+    private final TriggerService triggerService;
+
+    public TriggerEvaluationScheduler(TriggerService triggerService) {
+        this.triggerService = triggerService;
+    }
+
+    @Scheduled(fixedDelayString = "${trading.triggers.evaluate-interval:500ms}",
+            initialDelayString = "${trading.triggers.evaluate-interval:500ms}")
+    public void evaluateTriggers() {
+        try {
+            int sold = triggerService.evaluateAll();
+            if (sold > 0) {
+                log.info("Fired {} position triggers", sold);
+            }
+        } catch (Exception e) {
+            log.warn("Trigger evaluation failed: {}", e.getMessage());
+        }
+    }
+}
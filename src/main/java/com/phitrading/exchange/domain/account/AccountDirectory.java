@@ -0,0 +1,38 @@
+package com.phitrading.exchange.domain.account;
+
+import com.phitrading.exchange.domain.repository.AccountRef;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Username to account id (and role), resolved once per node. Usernames, ids and roles never change after an
+ * account is created, so entries need no invalidation; a trade then addresses its account by primary key
+ * without reading it first.
+ */
+@Component
+public class AccountDirectory {
+
+    private final UserAccountRepository userAccountRepository;
+    private final Map<String, AccountRef> refs = new ConcurrentHashMap<>();
+
+    public AccountDirectory(UserAccountRepository userAccountRepository) {
+        this.userAccountRepository = userAccountRepository;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no such account
+     */
+    public AccountRef resolve(String username) {
+        AccountRef ref = refs.get(username);
+        if (ref != null) {
+            return ref;
+        }
+        ref = userAccountRepository.findRefByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        refs.put(username, ref);
+        return ref;
+    }
+}
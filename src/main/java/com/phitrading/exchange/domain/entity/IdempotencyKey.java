@@ -0,0 +1,41 @@
+package com.phitrading.exchange.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Shared record of a client idempotency key, used when several nodes must agree on which submissions
+ * they have already processed (trading.idempotency.database-enabled).
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_expires", columnList = "expiresAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdempotencyKey {
+
+    // username:client key
+    @Id
+    @Column(name = "idempotency_key", nullable = false, updatable = false, length = 200)
+    private String key;
+
+    @Column(nullable = false, length = 200)
+    private String operation;
+
+    @Column(nullable = false, length = 20)
+    private String status;
+
+    // Result JSON, or the error message of a rejected request
+    @Lob
+    private String body;
+
+    @Column(length = 40)
+    private String errorType;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
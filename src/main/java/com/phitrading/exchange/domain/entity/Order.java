@@ -1,5 +1,6 @@
 package com.phitrading.exchange.domain.entity;
 
+import com.phitrading.exchange.common.Money;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -38,6 +39,11 @@ public class Order {
     @Column(nullable = false)
     private OrderStatus status;
 
+    // Limit price for LIMIT orders (resting as PENDING until the market reaches it); null for market orders
+    @Convert(converter = MoneyConverter.class)
+    @Column(precision = 19, scale = 4)
+    private Money limitPrice;
+
     @Column(precision = 19, scale = 4)
     private BigDecimal executionPrice;
 
@@ -45,6 +51,10 @@ public class Order {
     @Column(precision = 19, scale = 4)
     private BigDecimal realizedPnl;
 
+    // Why an accepted order was canceled instead of executed (asynchronous market orders); null otherwise
+    @Column(length = 255)
+    private String rejectReason;
+
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime executedAt;
 
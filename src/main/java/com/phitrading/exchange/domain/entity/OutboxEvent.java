@@ -0,0 +1,42 @@
+package com.phitrading.exchange.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event written in the same transaction as the change it describes, then handed to downstream consumers
+ * by the outbox relay. The id gives the publication order.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_unpublished", columnList = "publishedAt, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String eventType;
+
+    // Account the event belongs to (username); consumers get each account's events in order
+    @Column(nullable = false)
+    private String aggregateKey;
+
+    // Event JSON
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Null until the relay has handed the event to the sink
+    private LocalDateTime publishedAt;
+}
@@ -36,4 +36,9 @@ public class PortfolioPosition {
 
     private LocalDateTime createdAt = LocalDateTime.now();
     private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Optimistic lock: a write based on a stale read fails instead of overwriting a concurrent update
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,60 @@
+package com.phitrading.exchange.domain.entity;
+
+import com.phitrading.exchange.common.Money;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Stop-loss or take-profit on a position: when the market price crosses {@code triggerPrice}, up to
+ * {@code quantity} shares of the position are sold at the market.
+ */
+@Entity
+@Table(name = "position_triggers", indexes = @Index(name = "idx_trigger_status", columnList = "status"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class PositionTrigger {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private UUID id = UUID.randomUUID();
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private UserAccount user;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TriggerType type;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(nullable = false, precision = 19, scale = 4)
+    private Money triggerPrice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TriggerStatus status = TriggerStatus.ACTIVE;
+
+    // Why a fired trigger could not sell; null otherwise
+    @Column(length = 255)
+    private String message;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime triggeredAt;
+
+    /** STOP_LOSS fires when the price falls to the trigger price or below, TAKE_PROFIT when it rises to it or above. */
+    public enum TriggerType { STOP_LOSS, TAKE_PROFIT }
+
+    public enum TriggerStatus { ACTIVE, TRIGGERED, FAILED, CANCELED }
+}
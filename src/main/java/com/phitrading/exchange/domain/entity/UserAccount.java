@@ -39,4 +39,9 @@ public class UserAccount {
 
     @Column(nullable = false)
     private LocalDateTime updatedAt;
+
+    // Optimistic lock: a write based on a stale read fails instead of overwriting a concurrent update
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
@@ -0,0 +1,43 @@
+package com.phitrading.exchange.domain.exposure;
+
+import com.phitrading.exchange.common.Money;
+
+/**
+ * Client holdings of one symbol summed over all accounts: how many accounts hold it, how many shares, what they
+ * cost (average price times quantity) and the price they are valued at. Immutable; every change makes a copy.
+ */
+public record SymbolExposure(String symbol, long holders, long quantity, Money cost, Money price, String priceStatus) {
+
+    public static final String LIVE = "LIVE";
+    public static final String STALE = "STALE";
+    public static final String UNAVAILABLE = "UNAVAILABLE";
+
+    public static SymbolExposure of(String symbol, long holders, long quantity, Money cost) {
+        return new SymbolExposure(symbol, holders, quantity, cost, Money.ZERO, UNAVAILABLE);
+    }
+
+    /** This exposure with holdings added (or, with negative arguments, removed); the price stays. */
+    public SymbolExposure plus(long holders, long quantity, Money cost) {
+        return new SymbolExposure(symbol, this.holders + holders, this.quantity + quantity, this.cost.plus(cost),
+                price, priceStatus);
+    }
+
+    public SymbolExposure priced(Money price, String priceStatus) {
+        return new SymbolExposure(symbol, holders, quantity, cost, price, priceStatus);
+    }
+
+    /** No account holds the symbol any more. */
+    public boolean isFlat() {
+        return holders <= 0 && quantity == 0;
+    }
+
+    /** Current value of all holdings; zero while there is no price. */
+    public Money notional() {
+        return UNAVAILABLE.equals(priceStatus) ? Money.ZERO : price.times(quantity);
+    }
+
+    /** What the holdings would gain (or lose) if sold at the current price; zero while there is no price. */
+    public Money unrealizedPnl() {
+        return UNAVAILABLE.equals(priceStatus) ? Money.ZERO : notional().minus(cost);
+    }
+}
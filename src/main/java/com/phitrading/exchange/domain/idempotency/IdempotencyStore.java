@@ -0,0 +1,27 @@
+package com.phitrading.exchange.domain.idempotency;
+
+import java.time.Instant;
+
+/**
+ * Records which idempotency keys have been seen and what came of them. Expired keys behave as unseen.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Claim a key for a new request.
+     * @return null if the caller now owns the key; otherwise the live record already stored under it
+     */
+    IdempotentOutcome claim(String key, String operation, Instant expiresAt);
+
+    /** Record the final outcome of a claimed key. */
+    void complete(String key, IdempotentOutcome outcome);
+
+    /** Forget a claimed key, e.g. after a transient failure, so the request may be retried. */
+    void release(String key);
+
+    /** Current record of a key, or null if it is unknown or expired. */
+    IdempotentOutcome get(String key);
+
+    /** Drop expired keys. @return number removed */
+    int purgeExpired();
+}
@@ -0,0 +1,26 @@
+package com.phitrading.exchange.domain.idempotency;
+
+import java.time.Instant;
+
+/**
+ * What happened to the request behind an idempotency key.
+ * @param operation fingerprint of the original request; a key reused for a different request is refused
+ * @param body JSON of the result when {@code SUCCEEDED}, the error message when {@code FAILED}
+ * @param errorType kind of rejection when {@code FAILED}, so a replay can raise the same exception
+ */
+public record IdempotentOutcome(String operation, Status status, String body, String errorType, Instant expiresAt) {
+
+    public enum Status { IN_PROGRESS, SUCCEEDED, FAILED }
+
+    public static IdempotentOutcome inProgress(String operation, Instant expiresAt) {
+        return new IdempotentOutcome(operation, Status.IN_PROGRESS, null, null, expiresAt);
+    }
+
+    public boolean isCompleted() {
+        return status != Status.IN_PROGRESS;
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,99 @@
+package com.phitrading.exchange.domain.idempotency;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, node-local idempotency store.
+ * <p>
+ * Keys live in insertion order and all share the same TTL, so the oldest key is always the next to expire:
+ * expired keys are dropped from the head, and when the store is full the oldest completed keys are evicted
+ * to make room. Keys still in progress are never evicted.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, IdempotentOutcome> entries = new LinkedHashMap<>();
+    private final int maxEntries;
+    private final Clock clock;
+
+    public InMemoryIdempotencyStore(int maxEntries, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Idempotency store needs room for at least one key");
+        }
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized IdempotentOutcome claim(String key, String operation, Instant expiresAt) {
+        IdempotentOutcome existing = live(key);
+        if (existing != null) {
+            return existing;
+        }
+        makeRoom();
+        entries.put(key, IdempotentOutcome.inProgress(operation, expiresAt));
+        return null;
+    }
+
+    @Override
+    public synchronized void complete(String key, IdempotentOutcome outcome) {
+        // Re-insert so the key's position matches its new expiry
+        entries.remove(key);
+        makeRoom();
+        entries.put(key, outcome);
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        entries.remove(key);
+    }
+
+    @Override
+    public synchronized IdempotentOutcome get(String key) {
+        return live(key);
+    }
+
+    @Override
+    public synchronized int purgeExpired() {
+        Instant now = clock.instant();
+        int removed = 0;
+        Iterator<IdempotentOutcome> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (!it.next().isExpired(now)) {
+                break;
+            }
+            it.remove();
+            removed++;
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private IdempotentOutcome live(String key) {
+        IdempotentOutcome outcome = entries.get(key);
+        if (outcome != null && outcome.isExpired(clock.instant())) {
+            entries.remove(key);
+            return null;
+        }
+        return outcome;
+    }
+
+    private void makeRoom() {
+        if (entries.size() < maxEntries) {
+            return;
+        }
+        purgeExpired();
+        Iterator<IdempotentOutcome> it = entries.values().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            if (it.next().isCompleted()) {
+                it.remove();
+            }
+        }
+    }
+}
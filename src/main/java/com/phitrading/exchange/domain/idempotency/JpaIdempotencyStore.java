@@ -0,0 +1,94 @@
+package com.phitrading.exchange.domain.idempotency;
+
+import com.phitrading.exchange.domain.entity.IdempotencyKey;
+import com.phitrading.exchange.domain.repository.IdempotencyKeyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Idempotency store shared by all nodes through the {@code idempotency_keys} table. A key is claimed by
+ * inserting its row: the primary key makes exactly one node win, the others read the winner's record.
+ * Runs in its own transactions so a claim is visible to other nodes before the request executes.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trading.idempotency", name = "database-enabled", havingValue = "true")
+public class JpaIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactions;
+    private final Clock clock = Clock.systemUTC();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaIdempotencyStore(IdempotencyKeyRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.transactions.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public IdempotentOutcome claim(String key, String operation, Instant expiresAt) {
+        IdempotentOutcome existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            transactions.executeWithoutResult(status -> {
+                // An expired row may still be there; it no longer counts
+                repository.findById(key).ifPresent(repository::delete);
+                repository.flush();
+                IdempotencyKey row = new IdempotencyKey();
+                row.setKey(key);
+                row.setOperation(operation);
+                row.setStatus(IdempotentOutcome.Status.IN_PROGRESS.name());
+                row.setExpiresAt(expiresAt);
+                entityManager.persist(row);
+            });
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            // Another node claimed it between our read and insert
+            IdempotentOutcome winner = get(key);
+            return winner != null ? winner : IdempotentOutcome.inProgress(operation, expiresAt);
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentOutcome outcome) {
+        transactions.executeWithoutResult(status -> repository.findById(key).ifPresent(row -> {
+            row.setOperation(outcome.operation());
+            row.setStatus(outcome.status().name());
+            row.setBody(outcome.body());
+            row.setErrorType(outcome.errorType());
+            row.setExpiresAt(outcome.expiresAt());
+        }));
+    }
+
+    @Override
+    public void release(String key) {
+        transactions.executeWithoutResult(status -> repository.findById(key).ifPresent(repository::delete));
+    }
+
+    @Override
+    public IdempotentOutcome get(String key) {
+        return repository.findById(key)
+                .map(row -> new IdempotentOutcome(row.getOperation(), IdempotentOutcome.Status.valueOf(row.getStatus()),
+                        row.getBody(), row.getErrorType(), row.getExpiresAt()))
+                .filter(outcome -> !outcome.isExpired(clock.instant()))
+                .orElse(null);
+    }
+
+    @Override
+    public int purgeExpired() {
+        return repository.deleteExpired(clock.instant());
+    }
+}
@@ -0,0 +1,224 @@
+package com.phitrading.exchange.domain.latency;
+
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.web.dto.TradeLatencyView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage timing of market buys and sells, recorded into the {@value #METRIC} timers tagged by side, stage
+ * ({@link TradeStage}) and outcome. The timers keep an HDR histogram each, so they publish percentile buckets
+ * to the metrics endpoint and p50/p99/p999 over a decaying window of about two minutes, which
+ * {@link #percentiles()} reports.
+ * <p>
+ * A trade's stage times are held in its {@link Sample} and only recorded once the outcome is known: for a trade
+ * that executed, after its transaction completes, so the commit is timed too and a trade whose commit fails is
+ * counted as rolled back. Trades run through the account sequencer are recorded by the caller once the sequencer
+ * hands back the result, so a batch that is rolled back and replayed still records each trade once.
+ */
+@Component
+public class TradeLatency {
+
+    public static final String METRIC = "trading.trade.latency";
+
+    /** Sample that times nothing, for executions outside the timed paths. */
+    public static final Sample UNTIMED = new Sample(null, 0);
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    enum Outcome {
+        EXECUTED, REJECTED, FAILED, ROLLED_BACK;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // [side][outcome][stage], all registered up front so recording is an array lookup
+    private final Timer[][][] timers;
+
+    public TradeLatency(MeterRegistry meterRegistry) {
+        Order.OrderSide[] sides = Order.OrderSide.values();
+        Outcome[] outcomes = Outcome.values();
+        TradeStage[] stages = TradeStage.values();
+        timers = new Timer[sides.length][outcomes.length][stages.length];
+        for (Order.OrderSide side : sides) {
+            for (Outcome outcome : outcomes) {
+                for (TradeStage stage : stages) {
+                    timers[side.ordinal()][outcome.ordinal()][stage.ordinal()] = Timer.builder(METRIC)
+                            .description("Time spent per stage of a market buy or sell")
+                            .tag("side", side.name())
+                            .tag("outcome", outcome.tag())
+                            .tag("stage", stage.tag())
+                            .publishPercentiles(PERCENTILES)
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(Duration.ofNanos(1_000))
+                            .maximumExpectedValue(Duration.ofSeconds(30))
+                            .register(meterRegistry);
+                }
+            }
+        }
+    }
+
+    /** Start timing a trade; the first stage runs from now. */
+    public Sample start(Order.OrderSide side) {
+        return new Sample(this, side.ordinal());
+    }
+
+    /** p50/p99/p999 and max per side, outcome and stage, skipping combinations that never occurred. */
+    public List<TradeLatencyView> percentiles() {
+        List<TradeLatencyView> rows = new ArrayList<>();
+        for (Order.OrderSide side : Order.OrderSide.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                for (TradeStage stage : TradeStage.values()) {
+                    Timer timer = timers[side.ordinal()][outcome.ordinal()][stage.ordinal()];
+                    if (timer.count() == 0) {
+                        continue;
+                    }
+                    ValueAtPercentile[] values = timer.takeSnapshot().percentileValues();
+                    rows.add(TradeLatencyView.builder()
+                            .side(side.name())
+                            .outcome(outcome.tag())
+                            .stage(stage.tag())
+                            .count(timer.count())
+                            .p50Ms(millis(values, 0.5))
+                            .p99Ms(millis(values, 0.99))
+                            .p999Ms(millis(values, 0.999))
+                            .maxMs(round(timer.max(TimeUnit.MILLISECONDS)))
+                            .build());
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static double millis(ValueAtPercentile[] values, double percentile) {
+        for (ValueAtPercentile value : values) {
+            if (value.percentile() == percentile) {
+                return round(value.value(TimeUnit.MILLISECONDS));
+            }
+        }
+        return 0;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+
+    /**
+     * Stage times of one trade. Used by one thread at a time: the caller, then the sequencer's writer while the
+     * trade runs there, then the caller again once the writer has handed back the result.
+     */
+    public static final class Sample {
+
+        private final TradeLatency owner;
+        private final int side;
+        private final long[] nanos = new long[TradeStage.values().length];
+        private final long started;
+        private long mark;
+        // Bit per stage that was reached; stages never reached are not recorded
+        private int reached;
+        private boolean recorded;
+
+        private Sample(TradeLatency owner, int side) {
+            this.owner = owner;
+            this.side = side;
+            this.started = owner == null ? 0 : System.nanoTime();
+            this.mark = started;
+        }
+
+        /** End the given stage: the time since the previous stage ended is added to it. */
+        public void lap(TradeStage stage) {
+            if (owner == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            nanos[stage.ordinal()] += now - mark;
+            reached |= 1 << stage.ordinal();
+            mark = now;
+        }
+
+        /**
+         * The trade went through. Inside a transaction the sample is recorded once it completes, as executed if
+         * it committed and as rolled back otherwise.
+         */
+        public void executed() {
+            if (owner == null) {
+                return;
+            }
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                record(Outcome.EXECUTED);
+                return;
+            }
+            mark = System.nanoTime();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        committed();
+                    } else {
+                        rolledBack();
+                    }
+                }
+            });
+        }
+
+        /** The trade's transaction has committed: the time since the last stage is its commit. */
+        public void committed() {
+            if (owner == null) {
+                return;
+            }
+            lap(TradeStage.COMMIT);
+            record(Outcome.EXECUTED);
+        }
+
+        /** The trade ran to its end but its transaction did not commit. */
+        public void rolledBack() {
+            if (owner == null) {
+                return;
+            }
+            lap(TradeStage.COMMIT);
+            record(Outcome.ROLLED_BACK);
+        }
+
+        /**
+         * The trade threw. Invalid requests, missing funds or shares and unavailable prices count as rejected,
+         * anything else as failed.
+         */
+        public void failed(Throwable cause) {
+            if (owner == null) {
+                return;
+            }
+            boolean rejected = cause instanceof IllegalArgumentException
+                    || cause instanceof InsufficientFundsException
+                    || cause instanceof PricingUnavailableException;
+            record(rejected ? Outcome.REJECTED : Outcome.FAILED);
+        }
+
+        private void record(Outcome outcome) {
+            if (recorded) {
+                return;
+            }
+            recorded = true;
+            Timer[] stages = owner.timers[side][outcome.ordinal()];
+            for (TradeStage stage : TradeStage.values()) {
+                if ((reached & (1 << stage.ordinal())) != 0) {
+                    stages[stage.ordinal()].record(nanos[stage.ordinal()], TimeUnit.NANOSECONDS);
+                }
+            }
+            stages[TradeStage.TOTAL.ordinal()].record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
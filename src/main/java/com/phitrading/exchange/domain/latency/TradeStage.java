@@ -0,0 +1,38 @@
+package com.phitrading.exchange.domain.latency;
+
+/**
+ * Steps of a market buy or sell, in the order they run. A stage is timed from the end of the previous one, so
+ * the small amount of work in between (building the order, arithmetic) is counted with the stage that follows it.
+ */
+public enum TradeStage {
+    // Price lookup through the pricing client (cache or Feign call); quoted trades skip it
+    PRICE("price"),
+    // Waiting in the account sequencer's queue for the writer thread. A batch that is rolled back and replayed
+    // adds the wait for the replay here
+    QUEUE("queue"),
+    LOAD_USER("load_user"),
+    // Pre-trade check only
+    RISK("risk"),
+    LOAD_POSITION("load_position"),
+    SAVE_ACCOUNT("save_account"),
+    SAVE_POSITION("save_position"),
+    SAVE_ORDER("save_order"),
+    OUTBOX("outbox"),
+    // After execution: recording the trade in the risk engine and marking the cached portfolio valuation
+    POST_TRADE("post_trade"),
+    // From the service method returning to the transaction completing: flush of the pending writes and the commit.
+    // A trade run in a sequencer batch also waits here for the commands behind it in the batch
+    COMMIT("commit"),
+    // Whole trade, commit included
+    TOTAL("total");
+
+    private final String tag;
+
+    TradeStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
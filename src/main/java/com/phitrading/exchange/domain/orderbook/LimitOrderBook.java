@@ -0,0 +1,198 @@
+package com.phitrading.exchange.domain.orderbook;
+
+import com.phitrading.exchange.domain.entity.Order;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * In-memory limit order book for one symbol with price-time priority.
+ * <p>
+ * Each side keeps its price levels in a sorted {@code long[]} of ticks with a parallel array of levels,
+ * ordered so the best price is last: taking the best level, which is what matching does, never shifts
+ * the arrays. Orders within a level are FIFO. Cancels go through an id index and unlink in O(1).
+ * <p>
+ * Orders rest until the market price reaches them: bids at or above the market and asks at or below it
+ * are filled, best price first and then in arrival order. Not thread-safe; callers serialize access.
+ */
+public final class LimitOrderBook {
+
+    private final String symbol;
+    private final BookSide bids = new BookSide(true);
+    private final BookSide asks = new BookSide(false);
+    private final Map<UUID, RestingOrder> index = new HashMap<>();
+    private long sequence;
+
+    public LimitOrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Add an order at the back of its price level.
+     * @throws IllegalArgumentException if the id is already in the book or quantity/price are not positive
+     */
+    public RestingOrder add(UUID id, Order.OrderSide side, long limitTicks, long quantity) {
+        if (quantity <= 0 || limitTicks <= 0) {
+            throw new IllegalArgumentException("Quantity and limit price must be positive");
+        }
+        if (index.containsKey(id)) {
+            throw new IllegalArgumentException("Order already in book: " + id);
+        }
+        RestingOrder order = new RestingOrder(id, side, limitTicks, quantity, ++sequence);
+        sideOf(side).levelFor(limitTicks).append(order);
+        index.put(id, order);
+        return order;
+    }
+
+    /**
+     * Remove an order from the book.
+     * @return the removed order, or null if it was not resting here
+     */
+    public RestingOrder cancel(UUID id) {
+        RestingOrder order = index.remove(id);
+        if (order == null) {
+            return null;
+        }
+        PriceLevel level = order.level;
+        level.unlink(order);
+        if (level.isEmpty()) {
+            sideOf(order.getSide()).removeLevel(level.ticks);
+        }
+        return order;
+    }
+
+    /**
+     * Take every order the given market price reaches out of the book, best price first and
+     * oldest first within a price.
+     * @return number of orders passed to {@code onFill}
+     */
+    public int match(long marketTicks, Consumer<RestingOrder> onFill) {
+        return bids.drainMarketable(marketTicks, onFill) + asks.drainMarketable(marketTicks, onFill);
+    }
+
+    public RestingOrder get(UUID id) {
+        return index.get(id);
+    }
+
+    /** Highest bid in ticks, or 0 if there are no bids. */
+    public long bestBid() {
+        return bids.bestTicks();
+    }
+
+    /** Lowest ask in ticks, or 0 if there are no asks. */
+    public long bestAsk() {
+        return asks.bestTicks();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /** Number of distinct price levels on one side. */
+    public int levels(Order.OrderSide side) {
+        return sideOf(side).count;
+    }
+
+    /** Total resting quantity at one price, or 0. */
+    public long quantityAt(Order.OrderSide side, long ticks) {
+        BookSide bookSide = sideOf(side);
+        int i = bookSide.find(ticks);
+        return i >= 0 ? bookSide.levels[i].quantity : 0;
+    }
+
+    private BookSide sideOf(Order.OrderSide side) {
+        return side == Order.OrderSide.BUY ? bids : asks;
+    }
+
+    /**
+     * Price levels of one side. Bids are stored ascending and asks descending, so the best level is always at
+     * {@code count - 1}; a search key is negated for asks to keep a single ascending binary search.
+     */
+    private final class BookSide {
+        private final boolean bid;
+        private long[] keys = new long[16];
+        private PriceLevel[] levels = new PriceLevel[16];
+        private int count;
+
+        private BookSide(boolean bid) {
+            this.bid = bid;
+        }
+
+        private long key(long ticks) {
+            return bid ? ticks : -ticks;
+        }
+
+        private int find(long ticks) {
+            return Arrays.binarySearch(keys, 0, count, key(ticks));
+        }
+
+        private PriceLevel levelFor(long ticks) {
+            int i = find(ticks);
+            if (i >= 0) {
+                return levels[i];
+            }
+            int insertAt = -i - 1;
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                levels = Arrays.copyOf(levels, count * 2);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, count - insertAt);
+            System.arraycopy(levels, insertAt, levels, insertAt + 1, count - insertAt);
+            PriceLevel level = new PriceLevel(ticks);
+            keys[insertAt] = key(ticks);
+            levels[insertAt] = level;
+            count++;
+            return level;
+        }
+
+        private void removeLevel(long ticks) {
+            int i = find(ticks);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+            System.arraycopy(levels, i + 1, levels, i, count - i - 1);
+            count--;
+            levels[count] = null;
+        }
+
+        private long bestTicks() {
+            return count == 0 ? 0 : levels[count - 1].ticks;
+        }
+
+        private boolean isMarketable(long levelTicks, long marketTicks) {
+            return bid ? levelTicks >= marketTicks : levelTicks <= marketTicks;
+        }
+
+        private int drainMarketable(long marketTicks, Consumer<RestingOrder> onFill) {
+            int filled = 0;
+            while (count > 0 && isMarketable(levels[count - 1].ticks, marketTicks)) {
+                PriceLevel level = levels[--count];
+                levels[count] = null;
+                RestingOrder order = level.head;
+                while (order != null) {
+                    RestingOrder next = order.next;
+                    index.remove(order.getId());
+                    order.level = null;
+                    order.prev = null;
+                    order.next = null;
+                    onFill.accept(order);
+                    filled++;
+                    order = next;
+                }
+            }
+            return filled;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.phitrading.exchange.domain.orderbook;
+
+/**
+ * All resting orders at one price, oldest first.
+ */
+final class PriceLevel {
+
+    final long ticks;
+    RestingOrder head;
+    RestingOrder tail;
+    int orders;
+    long quantity;
+
+    PriceLevel(long ticks) {
+        this.ticks = ticks;
+    }
+
+    void append(RestingOrder order) {
+        order.level = this;
+        order.prev = tail;
+        order.next = null;
+        if (tail == null) {
+            head = order;
+        } else {
+            tail.next = order;
+        }
+        tail = order;
+        orders++;
+        quantity += order.getQuantity();
+    }
+
+    void unlink(RestingOrder order) {
+        if (order.prev == null) {
+            head = order.next;
+        } else {
+            order.prev.next = order.next;
+        }
+        if (order.next == null) {
+            tail = order.prev;
+        } else {
+            order.next.prev = order.prev;
+        }
+        order.prev = null;
+        order.next = null;
+        order.level = null;
+        orders--;
+        quantity -= order.getQuantity();
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+}
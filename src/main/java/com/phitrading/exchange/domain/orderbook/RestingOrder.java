@@ -0,0 +1,58 @@
+package com.phitrading.exchange.domain.orderbook;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.domain.entity.Order;
+
+import java.util.UUID;
+
+/**
+ * A limit order resting in a {@link LimitOrderBook}. Orders at the same price form an intrusive
+ * doubly linked FIFO list, so cancels unlink in constant time without searching the level.
+ */
+public final class RestingOrder {
+
+    private final UUID id;
+    private final Order.OrderSide side;
+    private final long limitTicks;
+    private final long quantity;
+    private final long sequence;
+
+    // Owned by the book
+    PriceLevel level;
+    RestingOrder prev;
+    RestingOrder next;
+
+    RestingOrder(UUID id, Order.OrderSide side, long limitTicks, long quantity, long sequence) {
+        this.id = id;
+        this.side = side;
+        this.limitTicks = limitTicks;
+        this.quantity = quantity;
+        this.sequence = sequence;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Order.OrderSide getSide() {
+        return side;
+    }
+
+    public long getLimitTicks() {
+        return limitTicks;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    /** Arrival sequence within the book; lower means earlier (time priority). */
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public String toString() {
+        return side + " " + quantity + " @ " + Money.ofUnits(limitTicks) + " (" + id + ")";
+    }
+}
@@ -0,0 +1,27 @@
+package com.phitrading.exchange.domain.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Delivers events to {@code @EventListener} methods in this application, synchronously on the relay thread.
+ * A listener that throws fails the batch, which is then delivered again.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trading.outbox", name = "sink", havingValue = "in-process", matchIfMissing = true)
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher publisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public void publish(List<OrderExecutedEvent> events) {
+        events.forEach(publisher::publishEvent);
+    }
+}
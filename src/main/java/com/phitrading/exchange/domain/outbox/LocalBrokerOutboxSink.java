@@ -0,0 +1,92 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.phitrading.exchange.config.TradingProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory stand-in for a message broker topic: events are keyed by account onto a fixed number of partitions,
+ * each an append-only log that consumers read from an offset they keep themselves. One account's events always
+ * land on one partition, in order. Each partition is a ring buffer that retains its latest {@code broker-retention}
+ * events, so reads from an offset cost only the events returned.
+ */
+@Component
+@ConditionalOnProperty(prefix = "trading.outbox", name = "sink", havingValue = "broker")
+public class LocalBrokerOutboxSink implements OutboxSink {
+
+    private final Partition[] partitions;
+    private final int retention;
+
+    @Autowired
+    public LocalBrokerOutboxSink(TradingProperties properties) {
+        this(properties.getOutbox().getBrokerPartitions(), properties.getOutbox().getBrokerRetention());
+    }
+
+    LocalBrokerOutboxSink(int partitionCount, int retention) {
+        if (partitionCount < 1 || retention < 1) {
+            throw new IllegalArgumentException("Broker partitions and retention must be positive");
+        }
+        this.retention = retention;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(retention);
+        }
+    }
+
+    @Override
+    public void publish(List<OrderExecutedEvent> events) {
+        for (OrderExecutedEvent event : events) {
+            Partition partition = partitions[partitionOf(event.username())];
+            synchronized (partition) {
+                partition.ring[(int) (partition.endOffset % retention)] = event;
+                partition.endOffset++;
+            }
+        }
+    }
+
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    public int partitionOf(String username) {
+        return Math.floorMod(username == null ? 0 : username.hashCode(), partitions.length);
+    }
+
+    /** Offset the next event appended to the partition will get. */
+    public long endOffset(int partition) {
+        Partition p = partitions[partition];
+        synchronized (p) {
+            return p.endOffset;
+        }
+    }
+
+    /**
+     * Up to {@code max} events of a partition starting at {@code offset}. Offsets older than the retained events
+     * are read from the oldest one still kept.
+     */
+    public List<OrderExecutedEvent> read(int partition, long offset, int max) {
+        Partition p = partitions[partition];
+        synchronized (p) {
+            long from = Math.max(offset, Math.max(0, p.endOffset - retention));
+            long to = Math.min(p.endOffset, from + Math.max(0, max));
+            List<OrderExecutedEvent> out = new ArrayList<>((int) Math.max(0, to - from));
+            for (long o = from; o < to; o++) {
+                out.add(p.ring[(int) (o % retention)]);
+            }
+            return out;
+        }
+    }
+
+    private static final class Partition {
+        private final OrderExecutedEvent[] ring;
+        private long endOffset;
+
+        private Partition(int retention) {
+            this.ring = new OrderExecutedEvent[retention];
+        }
+    }
+}
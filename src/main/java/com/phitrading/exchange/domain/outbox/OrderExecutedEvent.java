@@ -0,0 +1,43 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.phitrading.exchange.domain.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An order was executed and the account's cash and position changed.
+ * <p>
+ * Delivery is at least once: after a failed or interrupted relay the same event can arrive again, with the same
+ * {@code eventId}. Events of one account arrive in the order they happened; {@code eventId} increases along them.
+ * <p>
+ * {@code positionOpened}, {@code positionClosed} and {@code costBasis} describe the change to the position (see
+ * {@link PositionChange}); events written before they were added read as false, false and null.
+ */
+public record OrderExecutedEvent(Long eventId,
+                                 UUID orderId,
+                                 String username,
+                                 String symbol,
+                                 Order.OrderSide side,
+                                 long quantity,
+                                 BigDecimal executionPrice,
+                                 BigDecimal realizedPnl,
+                                 LocalDateTime executedAt,
+                                 boolean positionOpened,
+                                 boolean positionClosed,
+                                 BigDecimal costBasis) {
+
+    public static final String TYPE = "ORDER_EXECUTED";
+
+    public static OrderExecutedEvent of(Order order, String username, PositionChange change) {
+        return new OrderExecutedEvent(null, order.getId(), username, order.getSymbol(), order.getSide(),
+                order.getQuantity(), order.getExecutionPrice(), order.getRealizedPnl(), order.getExecutedAt(),
+                change.opened(), change.closed(), change.costBasis());
+    }
+
+    OrderExecutedEvent withEventId(long id) {
+        return new OrderExecutedEvent(id, orderId, username, symbol, side, quantity, executionPrice, realizedPnl,
+                executedAt, positionOpened, positionClosed, costBasis);
+    }
+}
@@ -0,0 +1,9 @@
+package com.phitrading.exchange.domain.outbox;
+
+/**
+ * An executed order, published in-process by the {@link OutboxFollower} on every node, once per node. Listen to
+ * this rather than {@link OrderExecutedEvent} to keep node-local state current: that event is only published on the
+ * node running the relay, and only with the in-process sink.
+ */
+public record OrderExecutedNotice(OrderExecutedEvent event) {
+}
@@ -0,0 +1,71 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.OutboxEvent;
+import com.phitrading.exchange.domain.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records order events in the outbox table. Must be called inside the transaction that executes the order,
+ * so the event is committed exactly when the trade is, and never without it.
+ * <p>
+ * Rows are written just before the transaction commits rather than when the event is recorded. Their ids come
+ * from the database ({@code IDENTITY}), and Hibernate inserts such a row at once after flushing every insert
+ * queued before it; written last, they let a transaction's order and position inserts go out as JDBC batches.
+ */
+@Component
+public class OrderOutbox {
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public OrderOutbox(OutboxEventRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderExecuted(Order order, String username, PositionChange change) {
+        OutboxEvent row = new OutboxEvent();
+        row.setEventType(OrderExecutedEvent.TYPE);
+        row.setAggregateKey(username);
+        try {
+            row.setPayload(objectMapper.writeValueAsString(OrderExecutedEvent.of(order, username, change)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event for order " + order.getId(), e);
+        }
+        pendingRows().add(row);
+    }
+
+    // Rows recorded in the current transaction, in order
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> pendingRows() {
+        List<OutboxEvent> rows = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (rows != null) {
+            return rows;
+        }
+        List<OutboxEvent> created = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                repository.saveAll(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OrderOutbox.this);
+            }
+        });
+        return created;
+    }
+}
@@ -0,0 +1,177 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.OutboxEvent;
+import com.phitrading.exchange.domain.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Follows the outbox table on this node and publishes every committed order event here as an
+ * {@link OrderExecutedNotice}, once. The relay runs on one node and hands events to a sink; the follower runs on
+ * every node, so in-memory state kept up to date from fills sees trades executed on any of them.
+ * <p>
+ * Each poll reads the events after the highest id seen so far. Ids are assigned when a row is inserted but the row
+ * only becomes visible when its transaction commits, so a lower id can appear after a higher one was read: ids
+ * skipped over are remembered and looked for again on every poll, until they show up or
+ * {@code trading.outbox.gap-timeout} passes (a rolled back insert leaves an id that never appears). Every skipped id
+ * is remembered, however far the ids jump: under load thousands of inserts can be in flight at once. The first poll
+ * starts at the newest event; consumers load earlier state from the database themselves. If the ids ever go back
+ * below the position (the database reset its sequence after the table was purged), the follower starts over the same
+ * way.
+ */
+@Component
+public class OutboxFollower {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxFollower.class);
+
+    private final OutboxEventRepository repository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher publisher;
+    private final TradingProperties.Outbox settings;
+    private final Clock clock;
+    private final Counter delivered;
+    private final Counter abandoned;
+    private final Counter restarts;
+
+    // Highest id read; -1 until the first poll
+    private long position = -1;
+    // Ids below the position not seen yet, with when they were first missed
+    private final Map<Long, Instant> gaps = new TreeMap<>();
+
+    @Autowired
+    public OutboxFollower(OutboxEventRepository repository, ObjectMapper objectMapper,
+                          ApplicationEventPublisher publisher, TradingProperties properties,
+                          MeterRegistry meterRegistry) {
+        this(repository, objectMapper, publisher, properties.getOutbox(), Clock.systemUTC(), meterRegistry);
+    }
+
+    OutboxFollower(OutboxEventRepository repository, ObjectMapper objectMapper, ApplicationEventPublisher publisher,
+                   TradingProperties.Outbox settings, Clock clock, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.publisher = publisher;
+        this.settings = settings;
+        this.clock = clock;
+        this.delivered = Counter.builder("trading.outbox.followed")
+                .description("Outbox events published on this node by the follower")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("trading.outbox.follower.gaps.abandoned")
+                .description("Skipped outbox ids that never appeared within the gap timeout")
+                .register(meterRegistry);
+        this.restarts = Counter.builder("trading.outbox.follower.restarts")
+                .description("Times the outbox ids went back below the follower's position")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publish the events committed since the last poll, including late commits of ids skipped before.
+     * Listeners run on the calling thread.
+     * @return number of events published
+     */
+    public synchronized int poll() {
+        Instant now = clock.instant();
+        if (position < 0) {
+            start(now);
+            return 0;
+        }
+        int published = 0;
+        if (!gaps.isEmpty()) {
+            List<Long> missing = List.copyOf(gaps.keySet());
+            for (int from = 0; from < missing.size(); from += settings.getBatchSize()) {
+                List<Long> chunk = missing.subList(from, Math.min(missing.size(), from + settings.getBatchSize()));
+                for (OutboxEvent row : repository.findByIdInOrderByIdAsc(chunk)) {
+                    gaps.remove(row.getId());
+                    published += publish(row);
+                }
+            }
+            Instant expiry = now.minus(settings.getGapTimeout());
+            int before = gaps.size();
+            gaps.values().removeIf(missedAt -> missedAt.isBefore(expiry));
+            abandoned.increment(before - gaps.size());
+        }
+        int read = 0;
+        while (true) {
+            List<OutboxEvent> rows = repository.findByIdGreaterThanOrderByIdAsc(position, PageRequest.of(0, settings.getBatchSize()));
+            for (OutboxEvent row : rows) {
+                skipTo(row.getId(), now);
+                published += publish(row);
+            }
+            read += rows.size();
+            if (rows.size() < settings.getBatchSize()) {
+                break;
+            }
+        }
+        if (read == 0) {
+            long newest = repository.findMaxId().orElse(position);
+            if (newest < position) {
+                log.warn("Outbox ids went back from {} to {}; following again from the newest event", position, newest);
+                restarts.increment();
+                gaps.clear();
+                start(now);
+            }
+        }
+        return published;
+    }
+
+    /** Ids skipped and still looked for. */
+    public synchronized int pendingGaps() {
+        return gaps.size();
+    }
+
+    private void start(Instant now) {
+        List<Long> latest = repository.findLatestIds(PageRequest.of(0, settings.getBatchSize()));
+        if (latest.isEmpty()) {
+            position = 0;
+            return;
+        }
+        // Newest first: ids missing among them may still be in flight
+        position = latest.get(latest.size() - 1);
+        for (int i = latest.size() - 2; i >= 0; i--) {
+            skipTo(latest.get(i), now);
+        }
+        log.info("Following the outbox from event {} ({} ids in flight)", position, gaps.size());
+    }
+
+    private void skipTo(long id, Instant now) {
+        for (long missing = position + 1; missing < id; missing++) {
+            gaps.put(missing, now);
+        }
+        position = Math.max(position, id);
+    }
+
+    private int publish(OutboxEvent row) {
+        if (!OrderExecutedEvent.TYPE.equals(row.getEventType())) {
+            return 0;
+        }
+        OrderExecutedEvent event;
+        try {
+            event = objectMapper.readValue(row.getPayload(), OrderExecutedEvent.class).withEventId(row.getId());
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable outbox event {}: {}", row.getId(), e.getMessage());
+            return 0;
+        }
+        try {
+            publisher.publishEvent(new OrderExecutedNotice(event));
+        } catch (RuntimeException e) {
+            // The feed moves on regardless; consumers resync from the database
+            log.warn("Listener failed on outbox event {}: {}", row.getId(), e.getMessage());
+        }
+        delivered.increment();
+        return 1;
+    }
+}
@@ -0,0 +1,119 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.OutboxEvent;
+import com.phitrading.exchange.domain.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves committed outbox events to the configured {@link OutboxSink} in id order, a batch at a time.
+ * <p>
+ * A batch is marked published only after the sink accepted all of it, and a failed batch stops the pass, so
+ * nothing behind it overtakes it: each account's events reach the sink in order, at least once. Events are
+ * selected by "not yet published" rather than by a high-water mark, so a transaction that commits after a
+ * later id has been relayed is still picked up. Run the relay on one node only; otherwise events may be
+ * delivered twice.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository repository;
+    private final OutboxSink sink;
+    private final ObjectMapper objectMapper;
+    private final TradingProperties.Outbox settings;
+    private final Clock clock;
+    private final Counter published;
+    private final Counter failures;
+    private final DistributionSummary batchSizes;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository repository, OutboxSink sink, ObjectMapper objectMapper,
+                       TradingProperties properties, MeterRegistry meterRegistry) {
+        this(repository, sink, objectMapper, properties.getOutbox(), Clock.systemDefaultZone(), meterRegistry);
+    }
+
+    OutboxRelay(OutboxEventRepository repository, OutboxSink sink, ObjectMapper objectMapper,
+                TradingProperties.Outbox settings, Clock clock, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.sink = sink;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.clock = clock;
+        this.published = Counter.builder("trading.outbox.published")
+                .description("Outbox events handed to the sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("trading.outbox.failures")
+                .description("Outbox batches the sink rejected; they are retried")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("trading.outbox.batch.size")
+                .description("Events per relayed batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publish pending events until none are left or the sink fails.
+     * @return number of events published
+     */
+    public int relay() {
+        int total = 0;
+        while (true) {
+            List<OutboxEvent> rows = repository.findByPublishedAtIsNullOrderByIdAsc(PageRequest.of(0, settings.getBatchSize()));
+            if (rows.isEmpty()) {
+                return total;
+            }
+            List<OrderExecutedEvent> events = new ArrayList<>(rows.size());
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (OutboxEvent row : rows) {
+                events.add(toEvent(row));
+                ids.add(row.getId());
+            }
+            try {
+                sink.publish(events);
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Outbox sink rejected {} events starting at id {}; will retry: {}",
+                        events.size(), ids.get(0), e.getMessage());
+                return total;
+            }
+            repository.markPublished(ids, LocalDateTime.now(clock));
+            published.increment(events.size());
+            batchSizes.record(events.size());
+            total += events.size();
+            if (rows.size() < settings.getBatchSize()) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Delete published events older than the retention.
+     * @return number removed
+     */
+    public int purgePublished() {
+        return repository.deletePublishedBefore(LocalDateTime.now(clock).minus(settings.getRetention()));
+    }
+
+    private OrderExecutedEvent toEvent(OutboxEvent row) {
+        try {
+            return objectMapper.readValue(row.getPayload(), OrderExecutedEvent.class).withEventId(row.getId());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox event " + row.getId(), e);
+        }
+    }
+}
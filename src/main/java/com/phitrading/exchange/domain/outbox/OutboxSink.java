@@ -0,0 +1,13 @@
+package com.phitrading.exchange.domain.outbox;
+
+import java.util.List;
+
+/**
+ * Where the outbox relay delivers events (trading.outbox.sink). A batch holds events in publication order;
+ * the relay marks it published only when {@link #publish} returns, so a sink that throws gets the whole batch
+ * again later.
+ */
+public interface OutboxSink {
+
+    void publish(List<OrderExecutedEvent> events);
+}
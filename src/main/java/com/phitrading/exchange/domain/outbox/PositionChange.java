@@ -0,0 +1,21 @@
+package com.phitrading.exchange.domain.outbox;
+
+import java.math.BigDecimal;
+
+/**
+ * What an executed order did to the account's position, carried on its {@link OrderExecutedEvent} so consumers
+ * can keep position totals without reading the positions table.
+ * @param opened the order created the position
+ * @param closed the order sold the whole position
+ * @param costBasis cost added by a buy, or the cost at the average price of the shares a sell removed
+ */
+public record PositionChange(boolean opened, boolean closed, BigDecimal costBasis) {
+
+    public static PositionChange bought(boolean opened, BigDecimal cost) {
+        return new PositionChange(opened, false, cost);
+    }
+
+    public static PositionChange sold(boolean closed, BigDecimal costRemoved) {
+        return new PositionChange(false, closed, costRemoved);
+    }
+}
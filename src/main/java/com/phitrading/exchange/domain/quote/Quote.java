@@ -0,0 +1,18 @@
+package com.phitrading.exchange.domain.quote;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.domain.entity.Order;
+
+import java.time.Instant;
+
+/**
+ * Firm price for one user, symbol and side, valid until {@code expiresAt}. The signature covers every other
+ * field (see {@link QuoteSigner}); a client must present it to execute the quote.
+ */
+public record Quote(String id, String username, String symbol, Order.OrderSide side, Money price,
+                    Instant expiresAt, String signature) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,50 @@
+package com.phitrading.exchange.domain.quote;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.domain.entity.Order;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 signatures over a quote's id, user, symbol, side, price and expiry, base64url encoded.
+ */
+public class QuoteSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public QuoteSigner(byte[] key) {
+        if (key.length == 0) {
+            throw new IllegalArgumentException("Quote signing key must not be empty");
+        }
+        this.key = new SecretKeySpec(key, ALGORITHM);
+    }
+
+    public String sign(String id, String username, String symbol, Order.OrderSide side, Money price, Instant expiresAt) {
+        String content = id + '|' + username + '|' + symbol + '|' + side + '|' + price.units() + '|' + expiresAt.toEpochMilli();
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] digest = mac.doFinal(content.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign quote " + id, e);
+        }
+    }
+
+    /** Whether {@code signature} is the quote's own; compared in constant time. */
+    public boolean verify(Quote quote, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        String expected = sign(quote.id(), quote.username(), quote.symbol(), quote.side(), quote.price(), quote.expiresAt());
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), signature.getBytes(StandardCharsets.UTF_8));
+    }
+}
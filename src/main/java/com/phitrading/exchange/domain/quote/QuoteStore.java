@@ -0,0 +1,83 @@
+package com.phitrading.exchange.domain.quote;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, node-local store of outstanding quotes, each executable once.
+ * <p>
+ * Quotes live in issue order and share the same TTL, so expired quotes are dropped from the head whenever a
+ * new one is added; when the store is full the oldest live quotes go first. A quote put back after a failed
+ * execution goes to the tail; it is still dropped as soon as it is looked up after expiring.
+ */
+public class QuoteStore {
+
+    private final Map<String, Quote> quotes = new LinkedHashMap<>();
+    private final int maxQuotes;
+    private final Clock clock;
+
+    public QuoteStore(int maxQuotes, Clock clock) {
+        if (maxQuotes < 1) {
+            throw new IllegalArgumentException("Quote store needs room for at least one quote");
+        }
+        this.maxQuotes = maxQuotes;
+        this.clock = clock;
+    }
+
+    public synchronized void put(Quote quote) {
+        purgeExpired();
+        Iterator<Quote> it = quotes.values().iterator();
+        while (quotes.size() >= maxQuotes && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+        quotes.put(quote.id(), quote);
+    }
+
+    /** The quote, or null if it is unknown, already executed or expired. */
+    public synchronized Quote get(String id) {
+        Quote quote = quotes.get(id);
+        if (quote != null && quote.isExpired(clock.instant())) {
+            quotes.remove(id);
+            return null;
+        }
+        return quote;
+    }
+
+    /**
+     * Take the quote out of the store so nobody else can execute it.
+     * @return false if it was executed, dropped or has expired meanwhile
+     */
+    public synchronized boolean take(Quote quote) {
+        return !quote.isExpired(clock.instant()) && quotes.remove(quote.id(), quote);
+    }
+
+    /** Put back a taken quote whose execution failed, unless it has expired since. */
+    public synchronized void restore(Quote quote) {
+        if (!quote.isExpired(clock.instant())) {
+            quotes.putIfAbsent(quote.id(), quote);
+        }
+    }
+
+    /** Drop expired quotes. @return number removed */
+    public synchronized int purgeExpired() {
+        Instant now = clock.instant();
+        int removed = 0;
+        Iterator<Quote> it = quotes.values().iterator();
+        while (it.hasNext()) {
+            if (!it.next().isExpired(now)) {
+                break;
+            }
+            it.remove();
+            removed++;
+        }
+        return removed;
+    }
+
+    public synchronized int size() {
+        return quotes.size();
+    }
+}
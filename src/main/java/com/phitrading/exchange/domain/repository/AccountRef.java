@@ -0,0 +1,7 @@
+package com.phitrading.exchange.domain.repository;
+
+/**
+ * Id and role of an account, read without loading the entity. Neither changes once the account exists.
+ */
+public record AccountRef(Long id, String role) {
+}
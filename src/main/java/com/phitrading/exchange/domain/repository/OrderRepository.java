@@ -2,9 +2,16 @@ package com.phitrading.exchange.domain.repository;
 
 import com.phitrading.exchange.domain.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     // Fetch orders for a user by username, most recent first
@@ -21,4 +28,35 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
 
     // Count orders for a given symbol (used for safe delete messaging)
     long countBySymbol(String symbol);
+
+    // Load an order only if it belongs to the given user
+    Optional<Order> findByIdAndUser_Username(UUID id, String username);
+
+    // Resting limit orders in arrival order (used to rebuild the order books on startup)
+    List<Order> findAllByStatusAndLimitPriceIsNotNullOrderByCreatedAtAsc(Order.OrderStatus status);
+
+    // Accepted market orders not yet executed (requeued on startup)
+    List<Order> findAllByStatusAndLimitPriceIsNullOrderByCreatedAtAsc(Order.OrderStatus status);
+
+    // Conditional status change; returns 0 if the order is no longer in the expected status.
+    // Flushes first so pending changes of the same transaction are not dropped by the clear.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :to where o.id = :id and o.status = :from")
+    int transition(@Param("id") UUID id, @Param("from") Order.OrderStatus from, @Param("to") Order.OrderStatus to);
+
+    // Cancel a still-pending order and record why; returns 0 if it already left PENDING
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = com.phitrading.exchange.domain.entity.Order.OrderStatus.CANCELED, "
+            + "o.rejectReason = :reason where o.id = :id and o.status = com.phitrading.exchange.domain.entity.Order.OrderStatus.PENDING")
+    int reject(@Param("id") UUID id, @Param("reason") String reason);
+
+    @Query("select o.user.username from Order o where o.id = :id")
+    Optional<String> findUsernameById(@Param("id") UUID id);
+
+    // Value of the user's executed orders since the given time (used to seed the daily turnover limit)
+    @Query("select coalesce(sum(o.executionPrice * o.quantity), 0) from Order o where o.user.username = :username "
+            + "and o.status = com.phitrading.exchange.domain.entity.Order.OrderStatus.EXECUTED and o.executedAt >= :since")
+    BigDecimal sumExecutedNotionalSince(@Param("username") String username, @Param("since") LocalDateTime since);
 }
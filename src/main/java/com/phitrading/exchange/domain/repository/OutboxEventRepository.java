@@ -0,0 +1,48 @@
+package com.phitrading.exchange.domain.repository;
+
+import com.phitrading.exchange.domain.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest events not yet published, in publication order
+    List<OutboxEvent> findByPublishedAtIsNullOrderByIdAsc(Pageable page);
+
+    long countByPublishedAtIsNull();
+
+    // Events after the given id, in id order, published or not
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(long id, Pageable page);
+
+    List<OutboxEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    // The given ids that exist, i.e. whose events are visible to the current transaction
+    @Query("select e.id from OutboxEvent e where e.id in :ids")
+    List<Long> findIdsIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select max(e.id) from OutboxEvent e")
+    Optional<Long> findMaxId();
+
+    // Ids of the newest events, newest first
+    @Query("select e.id from OutboxEvent e order by e.id desc")
+    List<Long> findLatestIds(Pageable page);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent e set e.publishedAt = :at where e.id in :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("at") LocalDateTime at);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEvent e where e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
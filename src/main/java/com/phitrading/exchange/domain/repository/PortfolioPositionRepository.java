@@ -2,14 +2,27 @@ package com.phitrading.exchange.domain.repository;
 
 import com.phitrading.exchange.domain.entity.PortfolioPosition;
 import com.phitrading.exchange.domain.entity.UserAccount;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface PortfolioPositionRepository extends JpaRepository<PortfolioPosition, UUID> {
     Optional<PortfolioPosition> findByUserAndSymbol(UserAccount user, String symbol);
 
+    // Positions of one user in the given symbols, in a single query (used by basket orders)
+    java.util.List<PortfolioPosition> findAllByUserAndSymbolIn(UserAccount user, java.util.Collection<String> symbols);
+
+    // One position of a user by username, without loading the account first
+    Optional<PortfolioPosition> findByUser_UsernameAndSymbol(String username, String symbol);
+
     // Fetch all positions for a given username
     java.util.List<PortfolioPosition> findAllByUser_Username(String username);
 
@@ -24,4 +37,41 @@ public interface PortfolioPositionRepository extends JpaRepository<PortfolioPosi
 
     // Count positions for a given symbol (helper)
     long countBySymbol(String symbol);
+
+    @Query("select new com.phitrading.exchange.domain.repository.PositionHolding(p.quantity, p.averagePrice) "
+            + "from PortfolioPosition p where p.user.id = :userId and p.symbol = :symbol")
+    Optional<PositionHolding> findHolding(@Param("userId") Long userId, @Param("symbol") String symbol);
+
+    // All positions ordered by symbol, one page at a time: the first page, then each next one after the last row
+    // read (keyset paging, so a page costs the same however far into the table it is)
+    @Query("select new com.phitrading.exchange.domain.repository.PositionExposureRow(p.id, p.symbol, p.quantity, p.averagePrice) "
+            + "from PortfolioPosition p order by p.symbol, p.id")
+    List<PositionExposureRow> findExposureRows(Pageable page);
+
+    @Query("select new com.phitrading.exchange.domain.repository.PositionExposureRow(p.id, p.symbol, p.quantity, p.averagePrice) "
+            + "from PortfolioPosition p where p.symbol > :symbol or (p.symbol = :symbol and p.id > :id) order by p.symbol, p.id")
+    List<PositionExposureRow> findExposureRowsAfter(@Param("symbol") String symbol, @Param("id") UUID id, Pageable page);
+
+    // Trade updates as single statements (see UserAccountRepository for why there is no clearAutomatically).
+    // The average price is assigned before the quantity: MySQL evaluates assignments left to right.
+
+    // Add bought shares and move the average price; returns 0 if the user holds no position in the symbol
+    @Modifying
+    @Query("update PortfolioPosition p set p.averagePrice = (p.averagePrice * p.quantity + :cost) / (p.quantity + :quantity), "
+            + "p.quantity = p.quantity + :quantity, p.updatedAt = :now, p.version = p.version + 1 "
+            + "where p.user.id = :userId and p.symbol = :symbol")
+    int addToPosition(@Param("userId") Long userId, @Param("symbol") String symbol, @Param("quantity") long quantity,
+                      @Param("cost") BigDecimal cost, @Param("now") LocalDateTime now);
+
+    // Remove sold shares if enough are held; returns 0 if not
+    @Modifying
+    @Query("update PortfolioPosition p set p.quantity = p.quantity - :quantity, p.updatedAt = :now, "
+            + "p.version = p.version + 1 where p.user.id = :userId and p.symbol = :symbol and p.quantity >= :quantity")
+    int removeFromPosition(@Param("userId") Long userId, @Param("symbol") String symbol,
+                           @Param("quantity") long quantity, @Param("now") LocalDateTime now);
+
+    // Delete the position if it holds exactly this many shares (selling all of them); returns 0 if not
+    @Modifying
+    @Query("delete from PortfolioPosition p where p.user.id = :userId and p.symbol = :symbol and p.quantity = :quantity")
+    int deleteHolding(@Param("userId") Long userId, @Param("symbol") String symbol, @Param("quantity") long quantity);
 }
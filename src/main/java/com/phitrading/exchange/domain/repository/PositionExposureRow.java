@@ -0,0 +1,10 @@
+package com.phitrading.exchange.domain.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Symbol, quantity and average price of one position, read in pages to recompute house-wide exposure.
+ */
+public record PositionExposureRow(UUID id, String symbol, long quantity, BigDecimal averagePrice) {
+}
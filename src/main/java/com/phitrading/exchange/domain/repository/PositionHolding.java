@@ -0,0 +1,9 @@
+package com.phitrading.exchange.domain.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Quantity and average price of one position, read without loading the entity.
+ */
+public record PositionHolding(long quantity, BigDecimal averagePrice) {
+}
@@ -0,0 +1,35 @@
+package com.phitrading.exchange.domain.repository;
+
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface PositionTriggerRepository extends JpaRepository<PositionTrigger, UUID> {
+
+    // Triggers with their owner, for rebuilding the trigger books on startup
+    @Query("select t from PositionTrigger t join fetch t.user where t.status = :status order by t.createdAt asc")
+    List<PositionTrigger> findAllWithUserByStatus(@Param("status") PositionTrigger.TriggerStatus status);
+
+    List<PositionTrigger> findAllByUser_UsernameAndStatusOrderByCreatedAtAsc(String username, PositionTrigger.TriggerStatus status);
+
+    Optional<PositionTrigger> findByIdAndUser_Username(UUID id, String username);
+
+    // Conditional status change; returns 0 if the trigger was no longer in {@code from} (fired or canceled meanwhile)
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update PositionTrigger t set t.status = :to, t.triggeredAt = :at, t.message = :message "
+            + "where t.id = :id and t.status = :from")
+    int transition(@Param("id") UUID id,
+                   @Param("from") PositionTrigger.TriggerStatus from,
+                   @Param("to") PositionTrigger.TriggerStatus to,
+                   @Param("at") LocalDateTime at,
+                   @Param("message") String message);
+}
@@ -2,11 +2,38 @@ package com.phitrading.exchange.domain.repository;
 
 import com.phitrading.exchange.domain.entity.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface UserAccountRepository extends JpaRepository<UserAccount, Long> {
     Optional<UserAccount> findByUsername(String username);
 
     Optional<UserAccount> findByEmail(String email);
+
+    @Query("select new com.phitrading.exchange.domain.repository.AccountRef(u.id, u.role) from UserAccount u "
+            + "where u.username = :username")
+    Optional<AccountRef> findRefByUsername(@Param("username") String username);
+
+    @Query("select u.cashBalance from UserAccount u where u.id = :id")
+    Optional<BigDecimal> findCashBalanceById(@Param("id") Long id);
+
+    // Trade cash moves are single conditional statements; they bump the version so that an entity read
+    // before them can no longer be written back. Accounts already loaded in the same transaction are not
+    // refreshed, hence no clearAutomatically: callers must not rely on their cash afterwards.
+
+    // Debit only if the balance covers the amount; returns 0 if it does not
+    @Modifying
+    @Query("update UserAccount u set u.cashBalance = u.cashBalance - :amount, u.updatedAt = :now, "
+            + "u.version = u.version + 1 where u.id = :id and u.cashBalance >= :amount")
+    int debitCash(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update UserAccount u set u.cashBalance = u.cashBalance + :amount, u.updatedAt = :now, "
+            + "u.version = u.version + 1 where u.id = :id")
+    int creditCash(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,69 @@
+package com.phitrading.exchange.domain.risk;
+
+import com.phitrading.exchange.common.Money;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * What the risk checks need to know about one account, in {@link Money} units: cash, quantity and cost of each
+ * holding, their total cost, and today's turnover. Guarded by its own monitor.
+ */
+final class AccountRiskState {
+
+    // When the state was read from the database; null while it is being read
+    Instant loadedAt;
+    long cashUnits;
+    long totalCostUnits;
+    LocalDate day;
+    long turnoverUnits;
+    // Keyed by upper-case symbol
+    final Map<String, Holding> holdings = new HashMap<>();
+
+    static final class Holding {
+        long quantity;
+        long costUnits;
+    }
+
+    long quantityOf(String symbol) {
+        Holding holding = holdings.get(symbol);
+        return holding != null ? holding.quantity : 0;
+    }
+
+    /** Today's turnover; starts over on the first use after midnight. */
+    long turnover(LocalDate today) {
+        if (!today.equals(day)) {
+            day = today;
+            turnoverUnits = 0;
+        }
+        return turnoverUnits;
+    }
+
+    void applyBuy(String symbol, long quantity, long notionalUnits) {
+        Holding holding = holdings.computeIfAbsent(symbol, s -> new Holding());
+        holding.quantity += quantity;
+        holding.costUnits += notionalUnits;
+        totalCostUnits += notionalUnits;
+        cashUnits -= notionalUnits;
+    }
+
+    void applySell(String symbol, long quantity, long notionalUnits) {
+        Holding holding = holdings.get(symbol);
+        if (holding != null) {
+            long sold = Math.min(quantity, holding.quantity);
+            // Cost leaves the position at its average price, as in the trade service
+            long releasedCost = holding.quantity == 0 ? 0 : Money.ofUnits(holding.costUnits).timesRatio(
+                    Money.ofUnits(sold), Money.ofUnits(holding.quantity)).units();
+            holding.quantity -= sold;
+            holding.costUnits -= releasedCost;
+            totalCostUnits -= releasedCost;
+            if (holding.quantity == 0) {
+                totalCostUnits -= holding.costUnits;
+                holdings.remove(symbol);
+            }
+        }
+        cashUnits += notionalUnits;
+    }
+}
@@ -0,0 +1,302 @@
+package com.phitrading.exchange.domain.risk;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.common.exception.RiskLimitExceededException;
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.outbox.OrderExecutedEvent;
+import com.phitrading.exchange.domain.outbox.OrderExecutedNotice;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-trade limits checked before an order executes: order value, position size per symbol, traded value per
+ * day and the share of the account one symbol may take. Limits come per user role from {@code trading.risk.*}
+ * and are swapped in whole when the configuration is refreshed ({@code POST /actuator/refresh}), without
+ * a restart.
+ * <p>
+ * Checks run against a per-account snapshot held in memory, not against the database: it is loaded (cash,
+ * positions, today's turnover) and then moved forward by {@link #onExecuted} as trades settle on this node. All of
+ * an account's trades here run on its sequencer thread, so the snapshot sees them in order; if the transaction of a
+ * trade rolls back, the snapshot is dropped and reloaded on the next check. Trades executed on other nodes reach
+ * it through the followed outbox ({@link OrderExecutedNotice}) and drop the snapshot too. A snapshot loaded while a
+ * trade of the account was committing is not kept, and every snapshot is reloaded after
+ * {@code trading.risk.resync-interval}.
+ * <p>
+ * Only buys are limited. Sells reduce exposure and are never blocked, so a stop-loss can always get out,
+ * but they still count towards the day's turnover.
+ */
+@Component
+public class PreTradeRiskEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PreTradeRiskEngine.class);
+    private static final int MAX_LOCAL_ORDERS = 10_000;
+
+    private final UserAccountRepository userAccountRepository;
+    private final PortfolioPositionRepository portfolioPositionRepository;
+    private final OrderRepository orderRepository;
+    private final TradingProperties properties;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final Timer checks;
+
+    private final ConcurrentMap<String, AccountRiskState> accounts = new ConcurrentHashMap<>();
+    // Orders executed on this node whose outbox notice has not arrived yet; their trades are in the snapshots
+    private final Set<UUID> localOrders = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                    // Forgetting one only costs a reload when its notice arrives
+                    return size() > MAX_LOCAL_ORDERS;
+                }
+            }));
+    // Replaced as a whole on reload; readers never see a half-updated set
+    private volatile Snapshot limits;
+
+    private record Snapshot(boolean enabled, Map<String, RiskLimits> byRole, RiskLimits fallback) {
+    }
+
+    @Autowired
+    public PreTradeRiskEngine(UserAccountRepository userAccountRepository,
+                              PortfolioPositionRepository portfolioPositionRepository,
+                              OrderRepository orderRepository,
+                              TradingProperties properties,
+                              MeterRegistry meterRegistry) {
+        this(userAccountRepository, portfolioPositionRepository, orderRepository, properties, Clock.systemDefaultZone(),
+                meterRegistry);
+    }
+
+    PreTradeRiskEngine(UserAccountRepository userAccountRepository,
+                       PortfolioPositionRepository portfolioPositionRepository,
+                       OrderRepository orderRepository,
+                       TradingProperties properties,
+                       Clock clock,
+                       MeterRegistry meterRegistry) {
+        this.userAccountRepository = userAccountRepository;
+        this.portfolioPositionRepository = portfolioPositionRepository;
+        this.orderRepository = orderRepository;
+        this.properties = properties;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.checks = Timer.builder("trading.risk.check")
+                .description("Time spent in pre-trade risk checks")
+                .register(meterRegistry);
+        Gauge.builder("trading.risk.accounts", accounts, Map::size)
+                .description("Accounts with risk state held in memory")
+                .register(meterRegistry);
+        reload();
+    }
+
+    /**
+     * Check an order against the limits of the account's role.
+     * @param role the account's role, e.g. USER; roles without limits of their own use {@code trading.risk.default-role}
+     * @throws RiskLimitExceededException if the order would breach a limit
+     */
+    public void check(String username, String role, String symbol, Order.OrderSide side, long quantity, Money price) {
+        Snapshot snapshot = limits;
+        if (!snapshot.enabled() || side != Order.OrderSide.BUY) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            RiskLimits l = snapshot.byRole().getOrDefault(role, snapshot.fallback());
+            long notional = price.times(quantity).units();
+            if (notional > l.maxOrderNotionalUnits()) {
+                reject("max-order-notional", "Order value " + amount(notional) + " exceeds the limit of "
+                        + amount(l.maxOrderNotionalUnits()) + " per order");
+            }
+            AccountRiskState state = stateOf(username);
+            synchronized (state) {
+                String key = Symbols.normalize(symbol);
+                long position = state.quantityOf(key) + quantity;
+                if (position > l.maxPositionQuantity()) {
+                    reject("max-position-quantity", "Position in " + key + " would be " + position
+                            + " shares; the limit is " + l.maxPositionQuantity());
+                }
+                long turnover = state.turnover(LocalDate.now(clock)) + notional;
+                if (turnover > l.maxDailyTurnoverUnits()) {
+                    reject("max-daily-turnover", "Today's traded value would reach " + amount(turnover)
+                            + "; the daily limit is " + amount(l.maxDailyTurnoverUnits()));
+                }
+                if (l.maxConcentrationPctUnits() != RiskLimits.UNLIMITED) {
+                    // Holdings at cost plus cash; a buy moves value from cash into the position, so it is unchanged
+                    long equity = state.cashUnits + state.totalCostUnits;
+                    if (equity > 0) {
+                        long exposure = price.times(position).units();
+                        long pct = Money.ofUnits(exposure).percentOf(Money.ofUnits(equity)).units();
+                        if (pct > l.maxConcentrationPctUnits()) {
+                            reject("max-concentration-pct", key + " would be " + Money.ofUnits(pct).toBigDecimal(2)
+                                    + "% of the account; the limit is "
+                                    + Money.ofUnits(l.maxConcentrationPctUnits()).toBigDecimal(2) + "%");
+                        }
+                    }
+                }
+            }
+        } finally {
+            checks.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Move the account's snapshot forward after a trade settled. Call inside the trade's transaction; a rollback
+     * drops the snapshot.
+     */
+    public void onExecuted(UUID orderId, String username, String symbol, Order.OrderSide side, long quantity, Money price) {
+        localOrders.add(orderId);
+        AccountRiskState current = accounts.get(username);
+        // Not loaded, or still loading: it is read from the database, trade included, once the trade committed
+        AccountRiskState applied = current != null && current.loadedAt != null ? current : null;
+        if (applied != null) {
+            long notional = price.times(quantity).units();
+            synchronized (applied) {
+                applied.turnoverUnits = applied.turnover(LocalDate.now(clock)) + notional;
+                if (side == Order.OrderSide.BUY) {
+                    applied.applyBuy(Symbols.normalize(symbol), quantity, notional);
+                } else {
+                    applied.applySell(Symbols.normalize(symbol), quantity, notional);
+                }
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        localOrders.remove(orderId);
+                        evict(username);
+                        return;
+                    }
+                    // A snapshot loaded (or loading) meanwhile may have read the database before the commit
+                    AccountRiskState now = accounts.get(username);
+                    if (now != null && now != applied) {
+                        accounts.remove(username, now);
+                    }
+                }
+            });
+        }
+    }
+
+    /** Trades from the followed outbox. Those executed on other nodes are not in the snapshot; it is reloaded. */
+    @EventListener
+    public void onOrderExecuted(OrderExecutedNotice notice) {
+        OrderExecutedEvent event = notice.event();
+        if (!localOrders.remove(event.orderId())) {
+            evict(event.username());
+        }
+    }
+
+    /** Forget the account's snapshot; the next check reloads it. */
+    public void evict(String username) {
+        accounts.remove(username);
+    }
+
+    /** Limits per role currently in force. */
+    public Map<String, RiskLimits> currentLimits() {
+        return limits.byRole();
+    }
+
+    public boolean isEnabled() {
+        return limits.enabled();
+    }
+
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onConfigurationRefreshed() {
+        reload();
+    }
+
+    /** Rebuild the limits from {@code trading.risk.*}. */
+    public void reload() {
+        TradingProperties.Risk risk = properties.getRisk();
+        Map<String, RiskLimits> byRole = new LinkedHashMap<>();
+        risk.getRoles().forEach((role, roleLimits) -> byRole.put(role.toUpperCase(Locale.ROOT), RiskLimits.of(roleLimits)));
+        RiskLimits fallback = byRole.getOrDefault(risk.getDefaultRole().toUpperCase(Locale.ROOT), RiskLimits.NONE);
+        limits = new Snapshot(risk.isEnabled(), Collections.unmodifiableMap(byRole), fallback);
+        log.info("Pre-trade risk limits {} for roles {}", risk.isEnabled() ? "loaded" : "disabled", byRole.keySet());
+    }
+
+    private AccountRiskState stateOf(String username) {
+        Instant now = clock.instant();
+        AccountRiskState state = accounts.get(username);
+        if (state != null && state.loadedAt != null && now.isBefore(state.loadedAt.plus(resyncInterval()))) {
+            return state;
+        }
+        // Kept only if nothing replaced or removed the placeholder while loading: a trade committing
+        // meanwhile (see onExecuted), an eviction or another load
+        AccountRiskState loading = new AccountRiskState();
+        boolean claimed = state == null
+                ? accounts.putIfAbsent(username, loading) == null
+                : accounts.replace(username, state, loading);
+        AccountRiskState loaded = load(username, now);
+        if (claimed) {
+            accounts.replace(username, loading, loaded);
+        }
+        return loaded;
+    }
+
+    private Duration resyncInterval() {
+        return properties.getRisk().getResyncInterval();
+    }
+
+    private AccountRiskState load(String username, Instant now) {
+        AccountRiskState state = new AccountRiskState();
+        state.loadedAt = now;
+        userAccountRepository.findByUsername(username)
+                .ifPresent(user -> state.cashUnits = Money.ofNullable(user.getCashBalance()).units());
+        for (PortfolioPosition position : portfolioPositionRepository.findAllByUser_Username(username)) {
+            if (position.getQuantity() <= 0) {
+                continue;
+            }
+            AccountRiskState.Holding holding = new AccountRiskState.Holding();
+            holding.quantity = position.getQuantity();
+            holding.costUnits = Money.ofNullable(position.getAveragePrice()).times(position.getQuantity()).units();
+            state.holdings.merge(Symbols.normalize(position.getSymbol()), holding, (a, b) -> {
+                a.quantity += b.quantity;
+                a.costUnits += b.costUnits;
+                return a;
+            });
+            state.totalCostUnits += holding.costUnits;
+        }
+        LocalDate today = LocalDate.now(clock);
+        state.day = today;
+        state.turnoverUnits = Money.ofNullable(
+                orderRepository.sumExecutedNotionalSince(username, today.atStartOfDay())).units();
+        return state;
+    }
+
+    private void reject(String limit, String message) {
+        meterRegistry.counter("trading.risk.rejections", "limit", limit).increment();
+        throw new RiskLimitExceededException(limit, message);
+    }
+
+    private static String amount(long units) {
+        return Money.ofUnits(units).toBigDecimal(2).toPlainString();
+    }
+}
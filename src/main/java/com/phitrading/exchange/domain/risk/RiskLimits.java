@@ -0,0 +1,33 @@
+package com.phitrading.exchange.domain.risk;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.config.TradingProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * Pre-trade limits of one role, in {@link Money} units so checks are plain {@code long} comparisons.
+ * {@link #UNLIMITED} stands for a limit that is not set.
+ */
+public record RiskLimits(long maxOrderNotionalUnits,
+                         long maxPositionQuantity,
+                         long maxDailyTurnoverUnits,
+                         long maxConcentrationPctUnits) {
+
+    public static final long UNLIMITED = Long.MAX_VALUE;
+    public static final RiskLimits NONE = new RiskLimits(UNLIMITED, UNLIMITED, UNLIMITED, UNLIMITED);
+
+    static RiskLimits of(TradingProperties.RoleLimits limits) {
+        if (limits == null) {
+            return NONE;
+        }
+        return new RiskLimits(units(limits.getMaxOrderNotional()),
+                limits.getMaxPositionQuantity() != null ? limits.getMaxPositionQuantity() : UNLIMITED,
+                units(limits.getMaxDailyTurnover()),
+                units(limits.getMaxConcentrationPct()));
+    }
+
+    private static long units(BigDecimal value) {
+        return value != null ? Money.of(value).units() : UNLIMITED;
+    }
+}
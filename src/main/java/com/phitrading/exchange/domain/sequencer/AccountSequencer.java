@@ -0,0 +1,281 @@
+package com.phitrading.exchange.domain.sequencer;
+
+import com.phitrading.exchange.common.exception.OrderQueueFullException;
+import com.phitrading.exchange.config.TradingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs every state-changing command for an account on a single writer thread.
+ * <p>
+ * Accounts are hashed onto a fixed number of partitions. Each partition owns a bounded ring buffer of
+ * commands and one thread that executes them in arrival order, so two commands for the same account never
+ * run concurrently and read-modify-write of its cash and positions cannot lose updates, without any row
+ * locks. Accounts on different partitions proceed in parallel.
+ * <p>
+ * The writer drains whatever has queued up (at most {@code max-batch} commands) and commits it in one
+ * transaction. A command that throws without marking the transaction rollback-only was rejected before it wrote
+ * anything (the trade service does not roll back for its rejections), so the batch carries on without it and
+ * only its caller sees the exception. Anything else that fails a batch rolls it back, and each command is then
+ * replayed in its own transaction, so callers still see exactly the outcome of their own command. Those
+ * single-command transactions are retried on version conflicts by {@link OptimisticRetry}, which covers writers
+ * outside this sequencer (other instances, profile edits).
+ */
+@Component
+public class AccountSequencer {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSequencer.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final TradingProperties.Sequencer settings;
+    private final TransactionOperations transactions;
+    private final OptimisticRetry retry;
+    private final Partition[] partitions;
+    private final DistributionSummary batchSizes;
+    private final Counter replays;
+    private final Counter rejected;
+    private volatile boolean running = true;
+
+    @Autowired
+    public AccountSequencer(TradingProperties properties,
+                            PlatformTransactionManager transactionManager,
+                            OptimisticRetry retry,
+                            MeterRegistry meterRegistry) {
+        this(properties.getSequencer(), new TransactionTemplate(transactionManager), retry, meterRegistry);
+    }
+
+    AccountSequencer(TradingProperties.Sequencer settings, TransactionOperations transactions,
+                     OptimisticRetry retry, MeterRegistry meterRegistry) {
+        if (settings.getPartitions() < 1 || settings.getQueueCapacity() < 1 || settings.getMaxBatch() < 1) {
+            throw new IllegalArgumentException("Sequencer partitions, queue capacity and max batch must be positive");
+        }
+        this.settings = settings;
+        this.transactions = transactions;
+        this.retry = retry;
+        this.batchSizes = DistributionSummary.builder("trading.sequencer.batch.size")
+                .description("Commands committed per transaction")
+                .register(meterRegistry);
+        this.replays = Counter.builder("trading.sequencer.batch.replays")
+                .description("Batches rolled back and replayed one command at a time")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("trading.sequencer.rejected")
+                .description("Commands refused because the partition queue stayed full")
+                .register(meterRegistry);
+        this.partitions = new Partition[settings.getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            Partition partition = new Partition(i, settings.getQueueCapacity());
+            Gauge.builder("trading.sequencer.queue.depth", partition.queue, ArrayBlockingQueue::size)
+                    .tag("partition", String.valueOf(i))
+                    .register(meterRegistry);
+            partitions[i] = partition;
+            partition.writer.start();
+        }
+        log.info("Account sequencer started: partitions={}, queueCapacity={}, maxBatch={}",
+                partitions.length, settings.getQueueCapacity(), settings.getMaxBatch());
+    }
+
+    /**
+     * Run a command on the account's writer thread and wait for its result.
+     * Exceptions thrown by the command are rethrown to the caller unchanged. A command that throws without
+     * marking the transaction rollback-only must not have written anything: the rest of its batch still commits.
+     * @param operation name of the command for metrics, e.g. {@code buy}
+     * @throws OrderQueueFullException if the partition stays full for the configured enqueue timeout
+     */
+    public <T> T execute(String account, String operation, Supplier<T> command) {
+        if (Thread.currentThread() == partitionFor(account).writer) {
+            // Nested call from a command already on this writer: it is part of the running batch
+            return command.get();
+        }
+        try {
+            return submit(account, operation, command).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Queue a command on the account's writer thread without waiting for it to run. Commands for one account
+     * still run in the order they were submitted. The future completes after the command's transaction has
+     * committed, or exceptionally with whatever the command threw.
+     * @throws OrderQueueFullException if the partition stays full for the configured enqueue timeout
+     */
+    public <T> CompletableFuture<T> submit(String account, String operation, Supplier<T> command) {
+        Partition partition = partitionFor(account);
+        if (!running) {
+            throw new IllegalStateException("Order sequencer is stopped");
+        }
+        Command<T> queued = new Command<>(operation, command);
+        boolean accepted;
+        try {
+            accepted = partition.queue.offer(queued, settings.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderQueueFullException("Interrupted while waiting to queue the order");
+        }
+        if (!accepted) {
+            rejected.increment();
+            throw new OrderQueueFullException("Too many orders in progress, please try again");
+        }
+        if (!running && !partition.writer.isAlive() && partition.queue.remove(queued)) {
+            throw new IllegalStateException("Order sequencer is stopped");
+        }
+        return queued.result;
+    }
+
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    /** Commands waiting on the given partition. */
+    public int queued(int partition) {
+        return partitions[partition].queue.size();
+    }
+
+    int partitionIndex(String account) {
+        return Math.floorMod(account == null ? 0 : account.hashCode(), partitions.length);
+    }
+
+    private Partition partitionFor(String account) {
+        return partitions[partitionIndex(account)];
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Partition partition : partitions) {
+            try {
+                partition.writer.join(settings.getEnqueueTimeout().toMillis() + POLL_MILLIS * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void run(Partition partition) {
+        List<Command<?>> batch = new ArrayList<>(settings.getMaxBatch());
+        // Keep draining after stop so nobody already queued is left waiting
+        while (running || !partition.queue.isEmpty()) {
+            Command<?> first;
+            try {
+                first = partition.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            partition.queue.drainTo(batch, settings.getMaxBatch() - 1);
+            try {
+                process(batch);
+            } catch (Throwable t) {
+                log.error("Sequencer partition {} failed a batch of {}", partition.index, batch.size(), t);
+                batch.forEach(c -> c.result.completeExceptionally(t));
+            }
+            batch.clear();
+        }
+    }
+
+    private void process(List<Command<?>> batch) {
+        batchSizes.record(batch.size());
+        if (batch.size() > 1) {
+            Object[] results = new Object[batch.size()];
+            RuntimeException[] rejections = new RuntimeException[batch.size()];
+            boolean committed;
+            try {
+                transactions.execute(status -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        try {
+                            results[i] = batch.get(i).work.get();
+                        } catch (RuntimeException e) {
+                            if (status.isRollbackOnly()) {
+                                throw e;
+                            }
+                            // Rejected before it wrote anything; the rest of the batch carries on without it
+                            rejections[i] = e;
+                        }
+                    }
+                    return null;
+                });
+                committed = true;
+            } catch (RuntimeException e) {
+                replays.increment();
+                log.debug("Batch of {} rolled back ({}); replaying commands one by one", batch.size(), e.toString());
+                committed = false;
+            }
+            if (committed) {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (rejections[i] != null) {
+                        batch.get(i).result.completeExceptionally(rejections[i]);
+                    } else {
+                        batch.get(i).complete(results[i]);
+                    }
+                }
+                return;
+            }
+        }
+        for (Command<?> command : batch) {
+            try {
+                command.complete(retry.execute(command.operation,
+                        () -> transactions.execute(status -> command.work.get())));
+            } catch (RuntimeException e) {
+                command.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private final class Partition {
+        private final int index;
+        private final ArrayBlockingQueue<Command<?>> queue;
+        private final Thread writer;
+
+        private Partition(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.writer = new Thread(() -> run(this), "order-sequencer-" + index);
+            this.writer.setDaemon(true);
+        }
+    }
+
+    private static final class Command<T> {
+        private final String operation;
+        private final Supplier<T> work;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Command(String operation, Supplier<T> work) {
+            this.operation = operation;
+            this.work = work;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object value) {
+            result.complete((T) value);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.phitrading.exchange.domain.sequencer;
+
+import com.phitrading.exchange.config.TradingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a transaction that failed on an optimistic lock ({@code @Version}) conflict.
+ * <p>
+ * The attempt must be a whole transaction: after a conflict its persistence context is stale, so only a
+ * fresh transaction that reloads the rows can succeed. Retries back off exponentially with full jitter up to
+ * {@code max-backoff}; after {@code max-attempts} the conflict is rethrown. Other exceptions are never retried.
+ * <p>
+ * Meters: {@code trading.optimistic.attempts}, {@code trading.optimistic.conflicts} and
+ * {@code trading.optimistic.exhausted}, tagged by operation; conflicts / attempts is the conflict rate.
+ */
+@Component
+public class OptimisticRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final TradingProperties.OptimisticRetry settings;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public OptimisticRetry(TradingProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getOptimisticRetry(), meterRegistry);
+    }
+
+    OptimisticRetry(TradingProperties.OptimisticRetry settings, MeterRegistry meterRegistry) {
+        if (settings.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("Optimistic retry max attempts must be at least 1");
+        }
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String operation, Supplier<T> transaction) {
+        for (int attempt = 1; ; attempt++) {
+            meterRegistry.counter("trading.optimistic.attempts", "operation", operation).increment();
+            try {
+                return transaction.get();
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                meterRegistry.counter("trading.optimistic.conflicts", "operation", operation).increment();
+                if (attempt >= settings.getMaxAttempts()) {
+                    meterRegistry.counter("trading.optimistic.exhausted", "operation", operation).increment();
+                    log.warn("Giving up {} after {} version conflicts", operation, attempt);
+                    throw e;
+                }
+                log.debug("Version conflict in {} (attempt {}); retrying", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    static boolean isConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockingFailureException || t instanceof OptimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(settings.getMaxBackoff().toNanos(),
+                settings.getInitialBackoff().toNanos() << Math.min(attempt - 1, 20));
+        if (cap <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(cap + 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
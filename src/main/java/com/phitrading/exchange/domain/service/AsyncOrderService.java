@@ -0,0 +1,40 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.web.dto.OrderStatusView;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncOrderService {
+
+    /**
+     * Accept a market order without executing it: it is validated, stored as PENDING and queued on the
+     * account's sequencer partition, which executes it at the then current price. An order that cannot
+     * execute ends up CANCELED with the reason in its status.
+     * @return the stored PENDING order
+     * @throws IllegalArgumentException if the order is invalid or the user does not exist
+     * @throws com.phitrading.exchange.common.exception.OrderQueueFullException if it cannot be queued; the order
+     *         is then canceled
+     */
+    Order submit(String username, String symbol, Order.OrderSide side, long quantity);
+
+    /**
+     * Current status of one of the user's orders.
+     * @throws IllegalArgumentException if the order does not exist or belongs to someone else
+     */
+    OrderStatusView getStatus(String username, UUID orderId);
+
+    /**
+     * Completes with the order's final status once it leaves PENDING (right away if it already has). A caller that
+     * stops waiting should cancel the future, so it is not kept until the order finishes.
+     * @throws IllegalArgumentException if the order does not exist or belongs to someone else
+     */
+    CompletableFuture<OrderStatusView> whenDone(String username, UUID orderId);
+
+    /**
+     * Queue accepted market orders that were still PENDING when the application stopped, oldest first.
+     * @return number of orders queued
+     */
+    int recover();
+}
@@ -0,0 +1,29 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.web.dto.ExposureView;
+import com.phitrading.exchange.web.dto.SymbolExposureView;
+
+public interface ExposureService {
+
+    /** Client holdings, notional and unrealized P&L per symbol across all accounts, largest notional first. */
+    ExposureView getExposure();
+
+    /**
+     * @throws IllegalArgumentException if no account holds the symbol
+     */
+    SymbolExposureView getExposure(String symbol);
+
+    /**
+     * Reprice every held symbol in one batch.
+     * @return number of symbols whose price changed
+     */
+    int refreshPrices();
+
+    /**
+     * Recompute every symbol from the positions table, read in pages ordered by symbol. Trades the read did not
+     * see are applied on top.
+     * @return number of symbols held
+     * @throws IllegalStateException if a rebuild is already running
+     */
+    int rebuild();
+}
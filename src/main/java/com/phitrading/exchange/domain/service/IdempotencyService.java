@@ -0,0 +1,23 @@
+package com.phitrading.exchange.domain.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Run a request at most once per user and client idempotency key.
+     * <p>
+     * A repeated key returns the original result (or raises the original rejection) without running the request
+     * again. A repeat that arrives while the original is still running waits briefly for its outcome.
+     * Transient failures are not remembered, so the same key may be retried after them.
+     * @param key client-supplied key; when null or blank the request simply runs
+     * @param operation fingerprint of the request (e.g. side, symbol, quantity); reusing a key for a different
+     *                  request is rejected with IllegalArgumentException
+     * @param resultType type of the result, used to restore it on a replay
+     * @throws com.phitrading.exchange.common.exception.DuplicateRequestException if the original is still running
+     */
+    <T> T execute(String username, String key, String operation, Class<T> resultType, Supplier<T> request);
+
+    /** Drop expired keys from the stores. @return number removed */
+    int purgeExpired();
+}
@@ -0,0 +1,42 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.domain.entity.Order;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface LimitOrderService {
+
+    /**
+     * Place a limit order. It is stored as PENDING and rests in the symbol's order book until the
+     * market price reaches the limit; if the current price already does, it fills right away.
+     * @param username authenticated username (non-null/non-blank)
+     * @param side BUY fills at or below the limit, SELL at or above it
+     * @return the stored order
+     */
+    Order placeLimitOrder(String username, String symbol, Order.OrderSide side, long quantity, BigDecimal limitPrice);
+
+    /**
+     * Cancel a resting limit order owned by the user.
+     * @throws IllegalArgumentException if the order does not exist, belongs to someone else or is no longer pending
+     */
+    void cancel(String username, UUID orderId);
+
+    /**
+     * Fill the resting orders of one symbol that the given price reaches.
+     * @return number of orders filled
+     */
+    int onPrice(String symbol, BigDecimal price);
+
+    /**
+     * Check every symbol with resting orders against current prices.
+     * @return number of orders filled
+     */
+    int matchAll();
+
+    /**
+     * Rebuild the order books from PENDING limit orders, oldest first so time priority is kept.
+     * @return number of orders restored
+     */
+    int recover();
+}
@@ -0,0 +1,22 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.web.dto.QuoteExecutionResult;
+import com.phitrading.exchange.web.dto.QuoteView;
+
+public interface QuoteService {
+
+    /**
+     * Issue a firm, signed quote at the current price, executable once by the same user until it expires.
+     * @throws com.phitrading.exchange.common.exception.PricingUnavailableException if there is no current price
+     */
+    QuoteView requestQuote(String username, String symbol, Order.OrderSide side);
+
+    /**
+     * Execute a market order at the quoted price, without fetching the price again. The quote is used up by a
+     * successful execution; if the order is rejected, the quote stays valid until it expires.
+     * @throws IllegalArgumentException if the quote is unknown, expired, already executed, belongs to someone
+     *         else or the signature does not match; or if the order itself is rejected
+     */
+    QuoteExecutionResult executeQuote(String username, String quoteId, String signature, long quantity);
+}
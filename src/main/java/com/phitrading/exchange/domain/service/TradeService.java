@@ -1,12 +1,27 @@
 package com.phitrading.exchange.domain.service;
 
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.latency.TradeLatency;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.BasketOrderRequest;
+import com.phitrading.exchange.web.dto.BasketOrderResult;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 public interface TradeService {
     List<InstrumentPriceDto> listInstruments();
 
+    /**
+     * Current price a market order in the symbol executes at. Callers that queue the order look the price up
+     * first and pass it along ({@link #executeAtPrice}, {@link #executeMarketOrder}), so the queued work never
+     * waits on the pricing service.
+     * @throws IllegalArgumentException if the pricing service has no price for the symbol
+     */
+    BigDecimal marketPrice(String symbol);
+
     void buy(String username, String symbol, long quantity);
 
     /**
@@ -16,4 +31,60 @@ public interface TradeService {
      * @param quantity quantity to sell (> 0)
      */
     void sell(String username, String symbol, long quantity);
+
+    /**
+     * Execute a market BUY or SELL at a price the user was quoted, like {@link #buy}/{@link #sell} but without
+     * fetching the current price. The caller is responsible for the price still being valid.
+     * @param price quoted execution price
+     */
+    void executeAtPrice(String username, String symbol, Order.OrderSide side, long quantity, BigDecimal price);
+
+    /**
+     * {@link #executeAtPrice(String, String, Order.OrderSide, long, BigDecimal)} timed on a sample the caller
+     * started, e.g. before pricing and queueing the trade. Stages are lapped on the sample; recording its outcome
+     * is left to the caller.
+     */
+    void executeAtPrice(String username, String symbol, Order.OrderSide side, long quantity, BigDecimal price,
+                        TradeLatency.Sample timing);
+
+    /**
+     * Execute a resting limit order at the given market price, settling cash and position like a market order.
+     * @param orderId id of a PENDING limit order
+     * @param price market price that reached the order's limit
+     * @return false if the order was no longer pending (e.g. canceled meanwhile)
+     */
+    boolean fillLimitOrder(UUID orderId, BigDecimal price);
+
+    /**
+     * Execute an accepted market order, settling cash and position like {@link #buy}/{@link #sell}.
+     * @param orderId id of a PENDING order without a limit price
+     * @param price execution price, looked up with {@link #marketPrice} before the order was queued
+     * @return false if the order was no longer pending
+     * @throws IllegalArgumentException or {@link com.phitrading.exchange.common.exception.InsufficientFundsException}
+     *         if it cannot execute; the order is then left PENDING for the caller to reject
+     */
+    boolean executeMarketOrder(UUID orderId, BigDecimal price);
+
+    /**
+     * Execute a basket of market orders in one transaction: prices are fetched in one pass, the user's
+     * positions in the basket's symbols in one query, and all orders are written together.
+     * Orders are applied in request order, so sells earlier in the basket can fund later buys.
+     * @param request orders plus {@link BasketOrderRequest.Mode}; in ALL_OR_NOTHING mode any order that cannot
+     *                execute fails the whole basket with an exception and nothing is written
+     * @return per-order outcome and the resulting cash balance
+     */
+    BasketOrderResult executeBasket(String username, BasketOrderRequest request);
+
+    /**
+     * Check a basket and fetch the current prices of its symbols in one batch call, for
+     * {@link #executeBasket(String, BasketOrderRequest, Map)}.
+     * @return prices keyed by upper-cased symbol; symbols without a price are missing
+     * @throws IllegalArgumentException if the basket is empty, too large or has an incomplete order
+     */
+    Map<String, InstrumentPriceDto> basketPrices(BasketOrderRequest request);
+
+    /**
+     * {@link #executeBasket(String, BasketOrderRequest)} at prices fetched beforehand with {@link #basketPrices}.
+     */
+    BasketOrderResult executeBasket(String username, BasketOrderRequest request, Map<String, InstrumentPriceDto> prices);
 }
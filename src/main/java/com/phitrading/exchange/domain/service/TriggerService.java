@@ -0,0 +1,48 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+import com.phitrading.exchange.web.dto.TriggerRowView;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+public interface TriggerService {
+
+    /**
+     * Arm a stop-loss or take-profit on one of the user's positions. When the price crosses the trigger price,
+     * up to {@code quantity} shares are sold at the market through {@link TradeService#sell}; if the position is
+     * smaller by then, what is left of it is sold.
+     * @param username authenticated username (non-null/non-blank)
+     * @return the stored trigger
+     * @throws IllegalArgumentException if there is no such position or it holds fewer than {@code quantity} shares
+     */
+    PositionTrigger place(String username, String symbol, PositionTrigger.TriggerType type, long quantity, BigDecimal triggerPrice);
+
+    /**
+     * Disarm one of the user's active triggers.
+     * @throws IllegalArgumentException if the trigger does not exist, belongs to someone else or is no longer active
+     */
+    void cancel(String username, UUID triggerId);
+
+    /** The user's armed triggers, oldest first. */
+    List<TriggerRowView> getActiveTriggers(String username);
+
+    /**
+     * Fire the triggers of one symbol that the given price crosses.
+     * @return number of triggers that sold
+     */
+    int onPrice(String symbol, BigDecimal price);
+
+    /**
+     * Check every symbol with armed triggers against current prices.
+     * @return number of triggers that sold
+     */
+    int evaluateAll();
+
+    /**
+     * Rebuild the trigger books from ACTIVE triggers.
+     * @return number of triggers armed
+     */
+    int recover();
+}
@@ -0,0 +1,246 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.domain.sequencer.AccountSequencer;
+import com.phitrading.exchange.domain.service.AsyncOrderService;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.web.dto.OrderStatusView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Accepts market orders without holding the request thread. The order is committed as PENDING, priced, and queued
+ * on the account's {@link AccountSequencer} partition, so it still runs after anything the account submitted before
+ * it; the request returns as soon as it is queued. Pricing happens before queueing, so the writer only does
+ * database work and the order executes at the price it was accepted at. When the command finishes, a failed order is canceled with its
+ * reason and anyone waiting in {@link #whenDone} is told the final status. Those follow-ups run on virtual
+ * threads, not on the sequencer's writer.
+ */
+@Service
+public class AsyncOrderServiceImpl implements AsyncOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncOrderServiceImpl.class);
+    private static final int MAX_REASON_LENGTH = 255;
+
+    private final OrderRepository orderRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final TradeService tradeService;
+    private final AccountSequencer sequencer;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Callers waiting on an order; removed when the order finishes here or the caller gives up
+    private final Map<UUID, Set<CompletableFuture<OrderStatusView>>> waiters = new ConcurrentHashMap<>();
+
+    public AsyncOrderServiceImpl(OrderRepository orderRepository,
+                                 UserAccountRepository userAccountRepository,
+                                 @Qualifier("tradeServiceImpl") TradeService tradeService,
+                                 AccountSequencer sequencer,
+                                 MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.tradeService = tradeService;
+        this.sequencer = sequencer;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("trading.async.orders.waiting", waiters, Map::size)
+                .description("Accepted orders with a client waiting for their result")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Order submit(String username, String symbol, Order.OrderSide side, long quantity) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("Username must not be null or blank when submitting an order.");
+        }
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol must not be null or blank when submitting an order.");
+        }
+        if (side == null) {
+            throw new IllegalArgumentException("Order side is required");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        symbol = Symbols.normalize(symbol);
+        UserAccount user = userAccountRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setSymbol(symbol);
+        order.setQuantity(quantity);
+        order.setSide(side);
+        order.setStatus(Order.OrderStatus.PENDING);
+        // Committed before it is queued, so the writer always finds it
+        orderRepository.save(order);
+        try {
+            queue(order.getId(), username, symbol);
+        } catch (RuntimeException ex) {
+            orderRepository.reject(order.getId(), truncate(ex.getMessage()));
+            meterRegistry.counter("trading.async.orders", "event", "rejected").increment();
+            throw ex;
+        }
+        meterRegistry.counter("trading.async.orders", "event", "accepted").increment();
+        log.info("Accepted {} order {}: user={}, symbol={}, qty={}", side, order.getId(), username, symbol, quantity);
+        return order;
+    }
+
+    @Override
+    public OrderStatusView getStatus(String username, UUID orderId) {
+        return orderRepository.findByIdAndUser_Username(orderId, username)
+                .map(AsyncOrderServiceImpl::toView)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+    }
+
+    @Override
+    public CompletableFuture<OrderStatusView> whenDone(String username, UUID orderId) {
+        OrderStatusView current = getStatus(username, orderId);
+        if (current.isDone()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        CompletableFuture<OrderStatusView> waiter = new CompletableFuture<>();
+        waiters.compute(orderId, (id, registered) -> {
+            Set<CompletableFuture<OrderStatusView>> set = registered != null ? registered : ConcurrentHashMap.newKeySet();
+            set.add(waiter);
+            return set;
+        });
+        // Completed, canceled by the caller, or finished on another node and never reported here
+        waiter.whenComplete((done, failure) -> forget(orderId, waiter));
+        // It may have finished between the first read and registering; then nobody else completes the waiter
+        current = getStatus(username, orderId);
+        if (current.isDone()) {
+            waiter.complete(current);
+        }
+        return waiter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        recover();
+    }
+
+    @Override
+    public int recover() {
+        List<Order> pending = orderRepository.findAllByStatusAndLimitPriceIsNullOrderByCreatedAtAsc(Order.OrderStatus.PENDING);
+        int queued = 0;
+        for (Order order : pending) {
+            String username = orderRepository.findUsernameById(order.getId()).orElse(null);
+            if (username == null) {
+                continue;
+            }
+            try {
+                queue(order.getId(), username, order.getSymbol());
+                queued++;
+            } catch (RuntimeException ex) {
+                log.warn("Could not requeue accepted order {}: {}", order.getId(), ex.getMessage());
+                orderRepository.reject(order.getId(), truncate(ex.getMessage()));
+            }
+        }
+        if (queued > 0) {
+            log.info("Requeued {} accepted market orders", queued);
+        }
+        return queued;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void queue(UUID orderId, String username, String symbol) {
+        BigDecimal price = tradeService.marketPrice(symbol);
+        sequencer.submit(username, "market", () -> tradeService.executeMarketOrder(orderId, price))
+                .whenCompleteAsync((executed, failure) -> finish(orderId, executed, failure), executor);
+    }
+
+    private void forget(UUID orderId, CompletableFuture<OrderStatusView> waiter) {
+        waiters.computeIfPresent(orderId, (id, registered) -> {
+            registered.remove(waiter);
+            return registered.isEmpty() ? null : registered;
+        });
+    }
+
+    private void finish(UUID orderId, Boolean executed, Throwable failure) {
+        try {
+            if (failure != null) {
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+                String reason;
+                if (cause instanceof IllegalArgumentException || cause instanceof InsufficientFundsException
+                        || cause instanceof PricingUnavailableException) {
+                    reason = cause.getMessage();
+                    log.info("Accepted order {} was not executed: {}", orderId, reason);
+                } else {
+                    reason = "Order could not be executed, please try again";
+                    log.error("Accepted order {} failed", orderId, cause);
+                }
+                if (orderRepository.reject(orderId, truncate(reason)) > 0) {
+                    meterRegistry.counter("trading.async.orders", "event", "rejected").increment();
+                }
+            } else if (Boolean.TRUE.equals(executed)) {
+                meterRegistry.counter("trading.async.orders", "event", "executed").increment();
+            } else {
+                // Settled or canceled meanwhile, e.g. requeued by recover() on another node that got there first
+                log.info("Accepted order {} was no longer pending when its turn came", orderId);
+                meterRegistry.counter("trading.async.orders", "event", "skipped").increment();
+            }
+        } catch (RuntimeException ex) {
+            log.error("Could not record the outcome of accepted order {}", orderId, ex);
+        }
+        Set<CompletableFuture<OrderStatusView>> waiting = waiters.remove(orderId);
+        if (waiting != null) {
+            try {
+                orderRepository.findById(orderId).map(AsyncOrderServiceImpl::toView)
+                        .ifPresent(view -> waiting.forEach(waiter -> waiter.complete(view)));
+            } catch (RuntimeException ex) {
+                waiting.forEach(waiter -> waiter.completeExceptionally(ex));
+            }
+        }
+    }
+
+    private static String truncate(String reason) {
+        if (reason == null) {
+            return null;
+        }
+        return reason.length() <= MAX_REASON_LENGTH ? reason : reason.substring(0, MAX_REASON_LENGTH);
+    }
+
+    private static OrderStatusView toView(Order o) {
+        return OrderStatusView.builder()
+                .orderId(o.getId())
+                .symbol(o.getSymbol())
+                .side(o.getSide() != null ? o.getSide().name() : null)
+                .quantity(o.getQuantity())
+                .status(o.getStatus() != null ? o.getStatus().name() : null)
+                .executionPrice(o.getExecutionPrice())
+                .realizedPnl(o.getRealizedPnl())
+                .message(o.getRejectReason())
+                .createdAt(o.getCreatedAt())
+                .executedAt(o.getExecutedAt())
+                .build();
+    }
+}
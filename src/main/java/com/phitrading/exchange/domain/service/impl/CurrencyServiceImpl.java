@@ -1,6 +1,7 @@
 package com.phitrading.exchange.domain.service.impl;
 
 import com.phitrading.exchange.common.CurrencyCode;
+import com.phitrading.exchange.common.Money;
 import com.phitrading.exchange.domain.service.CurrencyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,13 +19,13 @@ public class CurrencyServiceImpl implements CurrencyService {
     private static final Logger log = LoggerFactory.getLogger(CurrencyServiceImpl.class);
 
     // Base currency is USD. Values are how much 1 USD equals in the target currency.
-    private final Map<CurrencyCode, BigDecimal> usdToTarget = new EnumMap<>(CurrencyCode.class);
+    private final Map<CurrencyCode, Money> usdToTarget = new EnumMap<>(CurrencyCode.class);
 
     public CurrencyServiceImpl() {
         // Demo rates; easy to adjust later or wire from config
-        usdToTarget.put(CurrencyCode.USD, BigDecimal.ONE);
-        usdToTarget.put(CurrencyCode.EUR, new BigDecimal("0.92"));
-        usdToTarget.put(CurrencyCode.BGN, new BigDecimal("1.80"));
+        usdToTarget.put(CurrencyCode.USD, Money.ONE);
+        usdToTarget.put(CurrencyCode.EUR, Money.parse("0.92"));
+        usdToTarget.put(CurrencyCode.BGN, Money.parse("1.80"));
     }
 
     @Override
@@ -44,19 +45,10 @@ public class CurrencyServiceImpl implements CurrencyService {
         if (to == null) to = getDefaultCurrency();
         if (from == to) return amount.setScale(2, RoundingMode.HALF_UP);
 
-        // Convert via USD base
-        BigDecimal inUsd;
-        if (from == CurrencyCode.USD) {
-            inUsd = amount;
-        } else {
-            // amount_in_usd = amount / (1 USD in FROM)
-            BigDecimal rateFrom = usdToTarget.getOrDefault(from, BigDecimal.ONE);
-            if (rateFrom.compareTo(BigDecimal.ZERO) == 0) rateFrom = BigDecimal.ONE;
-            inUsd = amount.divide(rateFrom, 8, RoundingMode.HALF_UP);
-        }
-
-        BigDecimal rateTo = usdToTarget.getOrDefault(to, BigDecimal.ONE);
-        BigDecimal result = inUsd.multiply(rateTo);
-        return result.setScale(2, RoundingMode.HALF_UP);
+        // Convert via USD base: amount / (1 USD in FROM) * (1 USD in TO), rounded once
+        Money rateFrom = usdToTarget.getOrDefault(from, Money.ONE);
+        if (rateFrom.isZero()) rateFrom = Money.ONE;
+        Money rateTo = usdToTarget.getOrDefault(to, Money.ONE);
+        return Money.of(amount).timesRatio(rateTo, rateFrom).toBigDecimal(2);
     }
 }
@@ -1,5 +1,6 @@
 package com.phitrading.exchange.domain.service.impl;
 
+import com.phitrading.exchange.common.Money;
 import com.phitrading.exchange.domain.entity.Order;
 import com.phitrading.exchange.domain.entity.UserAccount;
 import com.phitrading.exchange.domain.repository.OrderRepository;
@@ -16,7 +17,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -48,22 +48,16 @@ public class DashboardServiceImpl implements DashboardService {
         // Load user for cash balance
         UserAccount user = userAccountRepository.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-        BigDecimal cash = defaultZero(user.getCashBalance());
+        Money cash = Money.ofNullable(user.getCashBalance());
 
         // Build portfolio view (totals + rows have live prices)
         PortfolioView portfolio = portfolioService.getUserPortfolioView(username);
-        BigDecimal totalCost = defaultZero(portfolio.getTotalCost());
-        BigDecimal totalCurrentValue = defaultZero(portfolio.getTotalCurrentValue());
-        BigDecimal totalPnlAbs = defaultZero(portfolio.getTotalPnlAbs());
-        BigDecimal totalPnlPct = defaultZero(portfolio.getTotalPnlPct());
-
-        BigDecimal totalAccountValue = cash.add(totalCurrentValue).setScale(2, RoundingMode.HALF_UP);
+        Money totalCurrentValue = Money.ofNullable(portfolio.getTotalCurrentValue());
+        Money totalAccountValue = cash.plus(totalCurrentValue);
 
         // Top 3 positions by current value (quantity * currentPrice)
         List<PortfolioRowView> topPositions = portfolio.getRows().stream()
-                .sorted(Comparator.comparing((PortfolioRowView r) ->
-                        safeMoney(r.getCurrentPrice()).multiply(defaultZero(r.getQuantity())))
-                        .reversed())
+                .sorted(Comparator.comparingLong(DashboardServiceImpl::positionValueUnits).reversed())
                 .limit(3)
                 .collect(Collectors.toList());
 
@@ -81,12 +75,12 @@ public class DashboardServiceImpl implements DashboardService {
                 .collect(Collectors.toList());
 
         DashboardView view = DashboardView.builder()
-                .cashBalance(safeMoney(cash))
-                .totalCost(safeMoney(totalCost))
-                .totalCurrentValue(safeMoney(totalCurrentValue))
-                .totalAccountValue(safeMoney(totalAccountValue))
-                .totalPnlAbs(safeMoney(totalPnlAbs))
-                .totalPnlPct(scalePct(totalPnlPct))
+                .cashBalance(cash.toBigDecimal(2))
+                .totalCost(Money.ofNullable(portfolio.getTotalCost()).toBigDecimal(2))
+                .totalCurrentValue(totalCurrentValue.toBigDecimal(2))
+                .totalAccountValue(totalAccountValue.toBigDecimal(2))
+                .totalPnlAbs(Money.ofNullable(portfolio.getTotalPnlAbs()).toBigDecimal(2))
+                .totalPnlPct(Money.ofNullable(portfolio.getTotalPnlPct()).toBigDecimal(2))
                 .topPositions(topPositions)
                 .recentOrders(recentOrders)
                 .build();
@@ -98,15 +92,10 @@ public class DashboardServiceImpl implements DashboardService {
         return view;
     }
 
-    private static BigDecimal defaultZero(BigDecimal v) {
-        return v == null ? BigDecimal.ZERO : v;
-    }
-
-    private static BigDecimal safeMoney(BigDecimal v) {
-        return defaultZero(v).setScale(2, RoundingMode.HALF_UP);
-    }
-
-    private static BigDecimal scalePct(BigDecimal v) {
-        return defaultZero(v).setScale(2, RoundingMode.HALF_UP);
+    // Sort key computed on scaled longs: the display price (2 places) times the quantity, in 0.0001 units
+    private static long positionValueUnits(PortfolioRowView row) {
+        Money price = Money.ofNullable(row.getCurrentPrice()).rounded(2);
+        long quantity = row.getQuantity() == null ? 0 : row.getQuantity().longValue();
+        return price.times(quantity).units();
     }
 }
@@ -1,5 +1,6 @@
 package com.phitrading.exchange.domain.service.impl;
 
+import com.phitrading.exchange.domain.outbox.OrderExecutedNotice;
 import com.phitrading.exchange.domain.repository.OrderRepository;
 import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
 import com.phitrading.exchange.domain.repository.UserAccountRepository;
@@ -9,6 +10,7 @@ import com.phitrading.exchange.web.dto.DashboardStats;
 import com.phitrading.exchange.web.dto.PortfolioView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -89,6 +91,12 @@ public class DashboardStatsServiceImpl implements DashboardStatsService {
         return computed;
     }
 
+    /** Drops the user's cached stats once one of their orders executes, on whichever node it ran. */
+    @EventListener
+    public void onOrderExecuted(OrderExecutedNotice notice) {
+        cache.evict(notice.event().username());
+    }
+
     private static BigDecimal zero(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
     private static BigDecimal money(BigDecimal v) { return zero(v).setScale(2, RoundingMode.HALF_UP); }
 
@@ -107,6 +115,12 @@ public class DashboardStatsServiceImpl implements DashboardStatsService {
             }
         }
 
+        public void evict(String username) {
+            if (username != null) {
+                map.remove(username);
+            }
+        }
+
         public void clear() { map.clear(); }
         public int size() { return map.size(); }
         public java.util.Set<String> keys() { return map.keySet(); }
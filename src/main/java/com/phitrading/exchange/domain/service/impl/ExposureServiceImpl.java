@@ -0,0 +1,315 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.exposure.SymbolExposure;
+import com.phitrading.exchange.domain.outbox.OrderExecutedEvent;
+import com.phitrading.exchange.domain.outbox.OrderExecutedNotice;
+import com.phitrading.exchange.domain.outbox.OutboxFollower;
+import com.phitrading.exchange.domain.repository.OutboxEventRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.PositionExposureRow;
+import com.phitrading.exchange.domain.service.ExposureService;
+import com.phitrading.exchange.integration.PricingProperties;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.ExposureView;
+import com.phitrading.exchange.web.dto.SymbolExposureView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * House-wide exposure per symbol, kept in memory. Every executed trade, on any node, adjusts its symbol's totals
+ * when the {@link OutboxFollower} picks up its order event, which says whether the trade opened or closed the
+ * position and how much cost it added or removed. A scheduled refresh reprices all held symbols in one batch, so
+ * reading the exposure never touches the positions table or the pricing service.
+ * <p>
+ * A rebuild recomputes the totals from the positions table, correcting drift (the database rounds average prices
+ * to 4 places; the totals add up exact trade amounts) and picking up positions changed outside the trade path. It
+ * reads the positions in one repeatable-read transaction, in pages ordered by symbol, so each symbol is summed as
+ * its rows go by. Events followed meanwhile are kept in a journal. Before the result replaces the current totals,
+ * the follower is polled inside the same transaction, so events the rows already include cannot arrive after the
+ * swap, and the journaled events whose outbox row the transaction sees are dropped as already counted; the rest
+ * are applied on top.
+ */
+@Service
+public class ExposureServiceImpl implements ExposureService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExposureServiceImpl.class);
+
+    private record Fill(long eventId, String symbol, long holders, long quantity, Money cost) {
+
+        static Fill of(OrderExecutedEvent event) {
+            // Events from before the cost was recorded adjust the quantity only, until the next rebuild
+            Money cost = Money.ofNullable(event.costBasis());
+            if (event.side() == Order.OrderSide.BUY) {
+                return new Fill(event.eventId(), Symbols.normalize(event.symbol()), event.positionOpened() ? 1 : 0,
+                        event.quantity(), cost);
+            }
+            return new Fill(event.eventId(), Symbols.normalize(event.symbol()), event.positionClosed() ? -1 : 0,
+                    -event.quantity(), cost.negate());
+        }
+    }
+
+    private final PortfolioPositionRepository portfolioRepo;
+    private final OutboxEventRepository outboxRepo;
+    private final OutboxFollower outboxFollower;
+    private final PricingServiceClient pricingClient;
+    private final PricingProperties pricingProperties;
+    private final int pageSize;
+    private final Clock clock;
+
+    private volatile ConcurrentMap<String, SymbolExposure> exposures = new ConcurrentHashMap<>();
+    private volatile Instant rebuiltAt;
+
+    // Guards the swap after a rebuild against fills applied at the same time
+    private final Object lock = new Object();
+    // Fills followed while a rebuild runs; null otherwise
+    private List<Fill> journal;
+
+    @Autowired
+    public ExposureServiceImpl(PortfolioPositionRepository portfolioRepo,
+                               OutboxEventRepository outboxRepo,
+                               OutboxFollower outboxFollower,
+                               PricingServiceClient pricingClient,
+                               PricingProperties pricingProperties,
+                               TradingProperties tradingProperties,
+                               MeterRegistry meterRegistry) {
+        this(portfolioRepo, outboxRepo, outboxFollower, pricingClient, pricingProperties, tradingProperties,
+                meterRegistry, Clock.systemUTC());
+    }
+
+    ExposureServiceImpl(PortfolioPositionRepository portfolioRepo,
+                        OutboxEventRepository outboxRepo,
+                        OutboxFollower outboxFollower,
+                        PricingServiceClient pricingClient,
+                        PricingProperties pricingProperties,
+                        TradingProperties tradingProperties,
+                        MeterRegistry meterRegistry,
+                        Clock clock) {
+        this.portfolioRepo = portfolioRepo;
+        this.outboxRepo = outboxRepo;
+        this.outboxFollower = outboxFollower;
+        this.pricingClient = pricingClient;
+        this.pricingProperties = pricingProperties;
+        this.pageSize = Math.max(1, tradingProperties.getExposure().getRebuildPageSize());
+        this.clock = clock;
+        Gauge.builder("trading.exposure.symbols", this, s -> s.exposures.size())
+                .description("Symbols held by at least one account")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ExposureView getExposure() {
+        List<SymbolExposure> all = new ArrayList<>(exposures.values());
+        all.sort(Comparator.comparing(SymbolExposure::notional).reversed().thenComparing(SymbolExposure::symbol));
+        Money cost = Money.ZERO;
+        Money notional = Money.ZERO;
+        Money pnl = Money.ZERO;
+        List<SymbolExposureView> views = new ArrayList<>(all.size());
+        for (SymbolExposure e : all) {
+            cost = cost.plus(e.cost());
+            notional = notional.plus(e.notional());
+            pnl = pnl.plus(e.unrealizedPnl());
+            views.add(toView(e));
+        }
+        return ExposureView.builder()
+                .symbols(views)
+                .totalCostBasis(cost.toBigDecimal(2))
+                .totalNotional(notional.toBigDecimal(2))
+                .totalUnrealizedPnl(pnl.toBigDecimal(2))
+                .rebuiltAt(rebuiltAt)
+                .build();
+    }
+
+    @Override
+    public SymbolExposureView getExposure(String symbol) {
+        SymbolExposure exposure = symbol != null && !symbol.isBlank() ? exposures.get(Symbols.normalize(symbol)) : null;
+        if (exposure == null) {
+            throw new IllegalArgumentException("No client holds " + symbol);
+        }
+        return toView(exposure);
+    }
+
+    /** Fills followed from the outbox, for trades executed on any node. */
+    @EventListener
+    public void onOrderExecuted(OrderExecutedNotice notice) {
+        apply(Fill.of(notice.event()));
+    }
+
+    @Override
+    public int refreshPrices() {
+        ConcurrentMap<String, SymbolExposure> current = exposures;
+        if (current.isEmpty()) {
+            return 0;
+        }
+        Map<String, InstrumentPriceDto> prices;
+        try {
+            prices = pricingClient.getPrices(List.copyOf(current.keySet()), pricingProperties.getCache().getViewStaleness());
+        } catch (Exception e) {
+            log.warn("Failed to reprice held symbols for exposure: {}", e.getMessage());
+            return 0;
+        }
+        int changed = 0;
+        for (String symbol : current.keySet()) {
+            InstrumentPriceDto dto = prices.get(symbol);
+            Money price = dto != null && dto.getLastPrice() != null ? Money.of(dto.getLastPrice()) : Money.ZERO;
+            String status = dto == null || dto.getLastPrice() == null ? SymbolExposure.UNAVAILABLE
+                    : dto.isStale() ? SymbolExposure.STALE : SymbolExposure.LIVE;
+            SymbolExposure before = current.get(symbol);
+            if (before != null && (!before.price().equals(price) || !before.priceStatus().equals(status))) {
+                current.computeIfPresent(symbol, (s, e) -> e.priced(price, status));
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public int rebuild() {
+        synchronized (lock) {
+            if (journal != null) {
+                throw new IllegalStateException("An exposure rebuild is already running");
+            }
+            journal = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            Map<String, SymbolExposure> rebuilt = new HashMap<>();
+            Pageable page = PageRequest.of(0, pageSize);
+            List<PositionExposureRow> rows = portfolioRepo.findExposureRows(page);
+            String symbol = null;
+            long holders = 0;
+            long quantity = 0;
+            Money cost = Money.ZERO;
+            int read = 0;
+            while (!rows.isEmpty()) {
+                for (PositionExposureRow row : rows) {
+                    String rowSymbol = Symbols.normalize(row.symbol());
+                    if (!rowSymbol.equals(symbol)) {
+                        if (symbol != null && holders > 0) {
+                            add(rebuilt, symbol, holders, quantity, cost);
+                        }
+                        symbol = rowSymbol;
+                        holders = 0;
+                        quantity = 0;
+                        cost = Money.ZERO;
+                    }
+                    if (row.quantity() > 0) {
+                        holders++;
+                        quantity += row.quantity();
+                        cost = cost.plus(Money.ofNullable(row.averagePrice()).times(row.quantity()));
+                    }
+                }
+                read += rows.size();
+                if (rows.size() < pageSize) {
+                    break;
+                }
+                PositionExposureRow last = rows.get(rows.size() - 1);
+                rows = portfolioRepo.findExposureRowsAfter(last.symbol(), last.id(), page);
+            }
+            if (symbol != null && holders > 0) {
+                add(rebuilt, symbol, holders, quantity, cost);
+            }
+            // Inside the snapshot: events the rows include are followed now, into the journal, not after the swap
+            outboxFollower.poll();
+
+            synchronized (lock) {
+                ConcurrentMap<String, SymbolExposure> next = new ConcurrentHashMap<>(rebuilt);
+                Set<Long> counted = countedInSnapshot(journal);
+                for (Fill fill : journal) {
+                    if (!counted.contains(fill.eventId())) {
+                        apply(next, fill);
+                    }
+                }
+                // Prices carry over; symbols new to the totals are priced by the next refresh
+                exposures.forEach((s, e) -> next.computeIfPresent(s, (k, n) -> n.priced(e.price(), e.priceStatus())));
+                exposures = next;
+                rebuiltAt = clock.instant();
+            }
+            log.info("Rebuilt exposure from {} positions: {} symbols in {} ms", read, rebuilt.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return exposures.size();
+        } finally {
+            synchronized (lock) {
+                journal = null;
+            }
+        }
+    }
+
+    /**
+     * Add a run of rows to the symbol's totals. The database may order symbols case-insensitively, so the rows of
+     * one symbol can come in several runs, interleaved with other spellings.
+     */
+    private static void add(Map<String, SymbolExposure> totals, String symbol, long holders, long quantity, Money cost) {
+        totals.merge(symbol, SymbolExposure.of(symbol, holders, quantity, cost),
+                (a, b) -> a.plus(b.holders(), b.quantity(), b.cost()));
+    }
+
+    /** Journaled events whose outbox row the rebuild's snapshot sees, so their trades are in the rows read. */
+    private Set<Long> countedInSnapshot(List<Fill> fills) {
+        if (fills.isEmpty()) {
+            return Set.of();
+        }
+        List<Long> ids = new ArrayList<>(fills.size());
+        for (Fill fill : fills) {
+            ids.add(fill.eventId());
+        }
+        return new HashSet<>(outboxRepo.findIdsIn(ids));
+    }
+
+    private void apply(Fill fill) {
+        synchronized (lock) {
+            if (journal != null) {
+                journal.add(fill);
+            }
+            apply(exposures, fill);
+        }
+    }
+
+    private static void apply(ConcurrentMap<String, SymbolExposure> target, Fill fill) {
+        target.compute(fill.symbol(), (s, e) -> {
+            SymbolExposure next = (e != null ? e : SymbolExposure.of(s, 0, 0, Money.ZERO))
+                    .plus(fill.holders(), fill.quantity(), fill.cost());
+            return next.isFlat() ? null : next;
+        });
+    }
+
+    private static SymbolExposureView toView(SymbolExposure e) {
+        return SymbolExposureView.builder()
+                .symbol(e.symbol())
+                .holders(e.holders())
+                .quantity(e.quantity())
+                .price(e.price().toBigDecimal(2))
+                .priceStatus(e.priceStatus())
+                .costBasis(e.cost().toBigDecimal(2))
+                .notional(e.notional().toBigDecimal(2))
+                .unrealizedPnl(e.unrealizedPnl().toBigDecimal(2))
+                .unrealizedPnlPct(e.unrealizedPnl().percentOf(e.cost()).toBigDecimal(2))
+                .build();
+    }
+}
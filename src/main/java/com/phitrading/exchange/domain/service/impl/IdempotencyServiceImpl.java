@@ -0,0 +1,196 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.common.exception.DuplicateRequestException;
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.idempotency.IdempotencyStore;
+import com.phitrading.exchange.domain.idempotency.IdempotentOutcome;
+import com.phitrading.exchange.domain.idempotency.InMemoryIdempotencyStore;
+import com.phitrading.exchange.domain.service.IdempotencyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Keys are scoped per user. Every node keeps recent keys in a bounded {@link InMemoryIdempotencyStore}, so a
+ * replay seen by the same node is answered from memory without touching pricing or the database. When the
+ * database store is enabled, new keys are also claimed there so that a retry landing on another node is
+ * recognised too.
+ * <p>
+ * Only deterministic rejections (invalid request, insufficient funds) are remembered as failures; anything
+ * else releases the key.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final long POLL_MILLIS = 20;
+
+    private final TradingProperties.Idempotency settings;
+    private final IdempotencyStore local;
+    private final IdempotencyStore shared;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public IdempotencyServiceImpl(TradingProperties properties,
+                                  Optional<IdempotencyStore> sharedStore,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry) {
+        this(properties.getIdempotency(), sharedStore.orElse(null), objectMapper, Clock.systemUTC(), meterRegistry);
+    }
+
+    IdempotencyServiceImpl(TradingProperties.Idempotency settings, IdempotencyStore shared, ObjectMapper objectMapper,
+                           Clock clock, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.local = new InMemoryIdempotencyStore(settings.getMaxEntries(), clock);
+        this.shared = shared;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <T> T execute(String username, String key, String operation, Class<T> resultType, Supplier<T> request) {
+        if (key == null || key.isBlank()) {
+            return request.get();
+        }
+        String scoped = username + ":" + key.trim();
+        Instant expiresAt = clock.instant().plus(settings.getTtl());
+        IdempotentOutcome existing = local.claim(scoped, operation, expiresAt);
+        IdempotencyStore owner = local;
+        if (existing == null && shared != null) {
+            try {
+                existing = shared.claim(scoped, operation, expiresAt);
+            } catch (RuntimeException e) {
+                // Otherwise every retry of this submission would find the local claim until it expires
+                local.release(scoped);
+                throw e;
+            }
+            if (existing != null) {
+                owner = shared;
+                if (existing.isCompleted()) {
+                    local.complete(scoped, existing);
+                } else {
+                    local.release(scoped);
+                }
+            }
+        }
+        if (existing != null) {
+            return replay(scoped, operation, existing, owner, resultType);
+        }
+
+        record("new");
+        T result;
+        try {
+            result = request.get();
+        } catch (IllegalArgumentException | InsufficientFundsException e) {
+            finish(scoped, new IdempotentOutcome(operation, IdempotentOutcome.Status.FAILED, e.getMessage(),
+                    e instanceof InsufficientFundsException ? "INSUFFICIENT_FUNDS" : "INVALID", completedExpiry()));
+            throw e;
+        } catch (RuntimeException | Error e) {
+            local.release(scoped);
+            if (shared != null) {
+                shared.release(scoped);
+            }
+            throw e;
+        }
+        finish(scoped, new IdempotentOutcome(operation, IdempotentOutcome.Status.SUCCEEDED, write(result), null,
+                completedExpiry()));
+        return result;
+    }
+
+    @Override
+    public int purgeExpired() {
+        int removed = local.purgeExpired();
+        if (shared != null) {
+            removed += shared.purgeExpired();
+        }
+        return removed;
+    }
+
+    private <T> T replay(String key, String operation, IdempotentOutcome outcome, IdempotencyStore owner, Class<T> resultType) {
+        if (!outcome.operation().equals(operation)) {
+            record("conflict");
+            throw new IllegalArgumentException("Idempotency key was already used for a different request");
+        }
+        if (!outcome.isCompleted()) {
+            outcome = awaitCompletion(key, owner);
+            if (outcome == null || !outcome.isCompleted()) {
+                record("in_flight");
+                throw new DuplicateRequestException("This order is already being processed");
+            }
+        }
+        record("replayed");
+        log.info("Replaying {} for idempotency key {}: {}", operation, key, outcome.status());
+        if (outcome.status() == IdempotentOutcome.Status.FAILED) {
+            if ("INSUFFICIENT_FUNDS".equals(outcome.errorType())) {
+                throw new InsufficientFundsException(outcome.body());
+            }
+            throw new IllegalArgumentException(outcome.body());
+        }
+        return read(outcome.body(), resultType);
+    }
+
+    // A double click usually arrives while the first submit is still executing; give it a moment to finish
+    private IdempotentOutcome awaitCompletion(String key, IdempotencyStore owner) {
+        long deadline = System.nanoTime() + settings.getInFlightWait().toNanos();
+        IdempotentOutcome outcome = owner.get(key);
+        while (outcome != null && !outcome.isCompleted() && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            outcome = owner.get(key);
+        }
+        return outcome;
+    }
+
+    private void finish(String key, IdempotentOutcome outcome) {
+        local.complete(key, outcome);
+        if (shared != null) {
+            try {
+                shared.complete(key, outcome);
+            } catch (RuntimeException e) {
+                // The request has already been executed; failing it now would invite a duplicate
+                log.warn("Could not record outcome of idempotency key {} in the shared store: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private Instant completedExpiry() {
+        return clock.instant().plus(settings.getTtl());
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("trading.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private String write(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store result of an idempotent request", e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> type) {
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot restore result of an idempotent request", e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.orderbook.LimitOrderBook;
+import com.phitrading.exchange.domain.orderbook.RestingOrder;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.domain.risk.PreTradeRiskEngine;
+import com.phitrading.exchange.domain.service.LimitOrderService;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limit orders on top of {@link LimitOrderBook}s, one per symbol. The database stays the record of truth
+ * (orders are PENDING until filled or canceled); the books only decide which orders a price reaches and in
+ * which order. Fills are settled by {@link TradeService#fillLimitOrder}, outside the book's lock.
+ */
+@Service
+public class LimitOrderServiceImpl implements LimitOrderService {
+
+    private static final Logger log = LoggerFactory.getLogger(LimitOrderServiceImpl.class);
+
+    private final OrderRepository orderRepository;
+    private final UserAccountRepository userAccountRepository;
+    private final PortfolioPositionRepository portfolioPositionRepository;
+    private final TradeService tradeService;
+    private final PricingServiceClient pricingServiceClient;
+    private final PreTradeRiskEngine riskEngine;
+    private final TradingProperties.LimitOrders config;
+    private final MeterRegistry meterRegistry;
+
+    // Keyed by upper-case symbol; each book is guarded by its own monitor
+    private final ConcurrentMap<String, LimitOrderBook> books = new ConcurrentHashMap<>();
+
+    public LimitOrderServiceImpl(OrderRepository orderRepository,
+                                 UserAccountRepository userAccountRepository,
+                                 PortfolioPositionRepository portfolioPositionRepository,
+                                 TradeService tradeService,
+                                 PricingServiceClient pricingServiceClient,
+                                 PreTradeRiskEngine riskEngine,
+                                 TradingProperties tradingProperties,
+                                 MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.userAccountRepository = userAccountRepository;
+        this.portfolioPositionRepository = portfolioPositionRepository;
+        this.tradeService = tradeService;
+        this.pricingServiceClient = pricingServiceClient;
+        this.riskEngine = riskEngine;
+        this.config = tradingProperties.getLimitOrders();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("orders.limit.resting", books, b -> b.values().stream().mapToInt(LimitOrderBook::size).sum())
+                .description("Limit orders resting in the order books")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Order placeLimitOrder(String username, String requestedSymbol, Order.OrderSide side, long quantity, BigDecimal limitPrice) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("Username must not be null or blank when placing a limit order.");
+        }
+        if (requestedSymbol == null || requestedSymbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol must not be null or blank when placing a limit order.");
+        }
+        if (side == null) {
+            throw new IllegalArgumentException("Order side is required");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (limitPrice == null || limitPrice.signum() <= 0) {
+            throw new IllegalArgumentException("Limit price must be positive");
+        }
+        String symbol = Symbols.normalize(requestedSymbol);
+        Money limit = Money.of(limitPrice);
+
+        UserAccount user = userAccountRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        // Checked again at the fill price when the order fills; nothing is reserved while it rests
+        riskEngine.check(username, user.getRole(), symbol, side, quantity, limit);
+        if (side == Order.OrderSide.BUY) {
+            Money cost = limit.times(quantity);
+            Money cash = Money.ofNullable(user.getCashBalance());
+            if (cash.compareTo(cost) < 0) {
+                throw new InsufficientFundsException("Insufficient funds. Required: " + cost + ", Available: " + cash);
+            }
+        } else {
+            PortfolioPosition position = portfolioPositionRepository.findByUserAndSymbol(user, symbol)
+                    .orElseThrow(() -> new IllegalArgumentException("Position not found for symbol: " + symbol));
+            if (position.getQuantity() < quantity) {
+                throw new IllegalArgumentException("Insufficient quantity. Available: " + position.getQuantity()
+                        + ", Requested: " + quantity);
+            }
+        }
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setSymbol(symbol);
+        order.setQuantity(quantity);
+        order.setSide(side);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setLimitPrice(limit);
+        // Committed before the order enters the book, so a fill always finds it
+        orderRepository.save(order);
+
+        LimitOrderBook book = bookFor(symbol);
+        synchronized (book) {
+            book.add(order.getId(), side, limit.units(), quantity);
+        }
+        meterRegistry.counter("orders.limit", "event", "placed").increment();
+        log.info("Placed LIMIT {} order {}: user={}, symbol={}, qty={}, limit={}",
+                side, order.getId(), username, symbol, quantity, limit);
+
+        // A limit the market already satisfies fills immediately
+        try {
+            InstrumentPriceDto current = pricingServiceClient.getCurrentPrice(symbol);
+            if (current != null && current.getLastPrice() != null && onPrice(symbol, current.getLastPrice()) > 0) {
+                return orderRepository.findById(order.getId()).orElse(order);
+            }
+        } catch (RuntimeException ex) {
+            log.info("No current price for {} ({}); order {} rests until the next price check",
+                    symbol, ex.getMessage(), order.getId());
+        }
+        return order;
+    }
+
+    @Override
+    public void cancel(String username, UUID orderId) {
+        Order order = orderRepository.findByIdAndUser_Username(orderId, username)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        if (order.getStatus() != Order.OrderStatus.PENDING || order.getLimitPrice() == null) {
+            throw new IllegalArgumentException("Only pending limit orders can be canceled");
+        }
+        LimitOrderBook book = books.get(Symbols.normalize(order.getSymbol()));
+        if (book != null) {
+            synchronized (book) {
+                book.cancel(orderId);
+            }
+        }
+        if (orderRepository.transition(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELED) == 0) {
+            throw new IllegalArgumentException("Order " + orderId + " was executed before it could be canceled");
+        }
+        meterRegistry.counter("orders.limit", "event", "canceled").increment();
+        log.info("Canceled LIMIT order {} for user={}", orderId, username);
+    }
+
+    @Override
+    public int onPrice(String symbol, BigDecimal price) {
+        LimitOrderBook book = symbol != null ? books.get(Symbols.normalize(symbol)) : null;
+        if (book == null || price == null || price.signum() <= 0) {
+            return 0;
+        }
+        List<RestingOrder> reached = new ArrayList<>();
+        synchronized (book) {
+            book.match(Money.of(price).units(), reached::add);
+        }
+        int filled = 0;
+        for (RestingOrder order : reached) {
+            if (fill(book, order, price)) {
+                filled++;
+            }
+        }
+        return filled;
+    }
+
+    @Override
+    public int matchAll() {
+        List<String> symbols = new ArrayList<>();
+        books.forEach((symbol, book) -> {
+            synchronized (book) {
+                if (!book.isEmpty()) {
+                    symbols.add(symbol);
+                }
+            }
+        });
+        if (symbols.isEmpty()) {
+            return 0;
+        }
+        Map<String, InstrumentPriceDto> prices;
+        try {
+            prices = pricingServiceClient.getPrices(symbols, config.getPriceStaleness());
+        } catch (RuntimeException ex) {
+            log.warn("Limit order matching skipped; prices unavailable: {}", ex.getMessage());
+            return 0;
+        }
+        int filled = 0;
+        for (Map.Entry<String, InstrumentPriceDto> entry : prices.entrySet()) {
+            InstrumentPriceDto dto = entry.getValue();
+            // A last-known price served while pricing is down must not trigger fills
+            if (dto != null && !dto.isStale() && dto.getLastPrice() != null) {
+                filled += onPrice(entry.getKey(), dto.getLastPrice());
+            }
+        }
+        return filled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        recover();
+    }
+
+    @Override
+    public int recover() {
+        List<Order> pending = orderRepository.findAllByStatusAndLimitPriceIsNotNullOrderByCreatedAtAsc(Order.OrderStatus.PENDING);
+        int restored = 0;
+        for (Order order : pending) {
+            LimitOrderBook book = bookFor(order.getSymbol());
+            synchronized (book) {
+                if (book.get(order.getId()) == null) {
+                    book.add(order.getId(), order.getSide(), order.getLimitPrice().units(), order.getQuantity());
+                    restored++;
+                }
+            }
+        }
+        log.info("Recovered {} resting limit orders across {} symbols", restored, books.size());
+        return restored;
+    }
+
+    LimitOrderBook book(String symbol) {
+        return books.get(Symbols.normalize(symbol));
+    }
+
+    private boolean fill(LimitOrderBook book, RestingOrder order, BigDecimal price) {
+        try {
+            if (tradeService.fillLimitOrder(order.getId(), price)) {
+                meterRegistry.counter("orders.limit", "event", "filled").increment();
+                return true;
+            }
+            return false;
+        } catch (InsufficientFundsException | IllegalArgumentException ex) {
+            // The user no longer has the cash or shares the order needs, or it would breach a risk limit now
+            orderRepository.transition(order.getId(), Order.OrderStatus.PENDING, Order.OrderStatus.CANCELED);
+            meterRegistry.counter("orders.limit", "event", "rejected").increment();
+            log.warn("Canceled LIMIT order {} at price {}: {}", order.getId(), price, ex.getMessage());
+            return false;
+        } catch (RuntimeException ex) {
+            // Still PENDING in the database; put it back (behind its level) and retry on the next price
+            synchronized (book) {
+                if (book.get(order.getId()) == null) {
+                    book.add(order.getId(), order.getSide(), order.getLimitTicks(), order.getQuantity());
+                }
+            }
+            log.error("Failed to fill LIMIT order {} at price {}; will retry", order.getId(), price, ex);
+            return false;
+        }
+    }
+
+    private LimitOrderBook bookFor(String symbol) {
+        return books.computeIfAbsent(Symbols.normalize(symbol), LimitOrderBook::new);
+    }
+}
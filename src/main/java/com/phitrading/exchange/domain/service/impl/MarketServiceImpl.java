@@ -28,12 +28,16 @@ public class MarketServiceImpl implements MarketService {
         log.info("Loading market overview for user={}", username);
         List<InstrumentPriceDto> all = pricingClient.getAllInstruments();
         return all.stream()
-            .map(dto -> MarketInstrumentView.of(
-                dto.getSymbol(),
-                dto.getName(),
-                dto.getLastPrice(),
-                dto.getPreviousClose()
-            ))
+            .map(dto -> {
+                MarketInstrumentView view = MarketInstrumentView.of(
+                    dto.getSymbol(),
+                    dto.getName(),
+                    dto.getLastPrice(),
+                    dto.getPreviousClose()
+                );
+                view.setStale(dto.isStale());
+                return view;
+            })
             .sorted(Comparator.comparing(MarketInstrumentView::getSymbol))
             .collect(Collectors.toList());
     }
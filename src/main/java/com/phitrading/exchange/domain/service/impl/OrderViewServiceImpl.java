@@ -59,15 +59,18 @@ public class OrderViewServiceImpl implements OrderViewService {
         }
 
         return OrderRowView.builder()
+                .id(o.getId())
                 .symbol(o.getSymbol())
                 .side(o.getSide() != null ? o.getSide().name() : null)
                 .status(o.getStatus() != null ? o.getStatus().name() : null)
                 .quantity(qty)
                 .executionPrice(execPrice)
+                .limitPrice(o.getLimitPrice() != null ? o.getLimitPrice().toBigDecimal() : null)
                 .createdAt(createdAt)
                 .executedAt(executedAt)
                 .realizedPnl(realized)
                 .realizedPnlSign(realizedSign)
+                .rejectReason(o.getRejectReason())
                 .build();
     }
 }
@@ -1,9 +1,15 @@
 package com.phitrading.exchange.domain.service.impl;
 
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.config.TradingProperties;
 import com.phitrading.exchange.domain.entity.PortfolioPosition;
 import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
 import com.phitrading.exchange.domain.repository.UserAccountRepository;
 import com.phitrading.exchange.domain.service.PortfolioService;
+import com.phitrading.exchange.domain.valuation.PortfolioValuation;
+import com.phitrading.exchange.integration.ParallelPriceFetcher;
+import com.phitrading.exchange.integration.PriceFetchResult;
+import com.phitrading.exchange.integration.PricingProperties;
 import com.phitrading.exchange.integration.PricingServiceClient;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
 import com.phitrading.exchange.web.dto.PortfolioRowView;
@@ -15,10 +21,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Service
 public class PortfolioServiceImpl implements PortfolioService {
@@ -28,13 +36,25 @@ public class PortfolioServiceImpl implements PortfolioService {
     private final PortfolioPositionRepository portfolioRepo;
     private final UserAccountRepository userRepo;
     private final PricingServiceClient pricingClient;
+    private final PricingProperties pricingProperties;
+    private final ParallelPriceFetcher parallelPriceFetcher;
+    private final PortfolioValuation portfolioValuation;
+    private final boolean incremental;
 
     public PortfolioServiceImpl(PortfolioPositionRepository portfolioRepo,
                                 UserAccountRepository userRepo,
-                                PricingServiceClient pricingClient) {
+                                PricingServiceClient pricingClient,
+                                PricingProperties pricingProperties,
+                                ParallelPriceFetcher parallelPriceFetcher,
+                                PortfolioValuation portfolioValuation,
+                                TradingProperties tradingProperties) {
         this.portfolioRepo = portfolioRepo;
         this.userRepo = userRepo;
         this.pricingClient = pricingClient;
+        this.pricingProperties = pricingProperties;
+        this.parallelPriceFetcher = parallelPriceFetcher;
+        this.portfolioValuation = portfolioValuation;
+        this.incremental = tradingProperties.getPortfolio().isIncremental();
     }
 
     @Override
@@ -50,6 +70,9 @@ public class PortfolioServiceImpl implements PortfolioService {
     }
 
     private PortfolioView buildView(String username) {
+        if (incremental) {
+            return portfolioValuation.view(username);
+        }
         if (username == null || username.isBlank()) {
             throw new IllegalArgumentException("Username must not be null or blank when loading portfolio.");
         }
@@ -59,60 +82,51 @@ public class PortfolioServiceImpl implements PortfolioService {
                 new IllegalArgumentException("User not found: " + username));
 
         List<PortfolioPosition> positions = portfolioRepo.findAllByUser_Username(username);
+        PriceFetchResult prices = loadPrices(positions);
         List<PortfolioRowView> rows = new ArrayList<>();
 
-        BigDecimal totalCost = BigDecimal.ZERO;
-        BigDecimal totalCurrentValue = BigDecimal.ZERO;
+        // Valued in fixed-point Money; BigDecimal only appears at the view boundary
+        Money totalCost = Money.ZERO;
+        Money totalCurrentValue = Money.ZERO;
 
         for (PortfolioPosition p : positions) {
             String symbol = p.getSymbol();
-            long qtyLong = p.getQuantity();
-            BigDecimal qty = BigDecimal.valueOf(qtyLong);
-            BigDecimal avgPrice = defaultZero(p.getAveragePrice());
-
-            BigDecimal currentPrice = BigDecimal.ZERO;
-            String name = null;
-            try {
-                InstrumentPriceDto dto = pricingClient.getCurrentPrice(symbol);
-                if (dto != null && dto.getLastPrice() != null) {
-                    currentPrice = dto.getLastPrice();
-                }
-                name = dto != null ? dto.getName() : null;
-            } catch (FeignException ex) {
-                log.warn("Failed to get current price for symbol={} from pricing service: status={}, msg={}",
-                        symbol, ex.status(), ex.getMessage());
-            } catch (Exception e) {
-                log.warn("Unexpected error fetching price for symbol={}: {}", symbol, e.getMessage());
-            }
+            long qty = p.getQuantity();
+            Money avgPrice = Money.ofNullable(p.getAveragePrice());
+
+            InstrumentPriceDto dto = prices.prices().get(symbol);
+            Money currentPrice = dto != null ? Money.ofNullable(dto.getLastPrice()) : Money.ZERO;
+            String name = dto != null ? dto.getName() : null;
+            String priceStatus = dto == null || dto.getLastPrice() == null ? "UNAVAILABLE"
+                    : dto.isStale() || prices.stale().contains(symbol) ? "STALE" : "LIVE";
 
-            BigDecimal costBasis = avgPrice.multiply(qty);
-            BigDecimal currentValue = currentPrice.multiply(qty);
-            BigDecimal pnlAbs = currentValue.subtract(costBasis);
-            BigDecimal pnlPct = percent(pnlAbs, costBasis);
+            Money costBasis = avgPrice.times(qty);
+            Money currentValue = currentPrice.times(qty);
+            Money pnlAbs = currentValue.minus(costBasis);
 
-            totalCost = totalCost.add(costBasis);
-            totalCurrentValue = totalCurrentValue.add(currentValue);
+            totalCost = totalCost.plus(costBasis);
+            totalCurrentValue = totalCurrentValue.plus(currentValue);
 
             rows.add(PortfolioRowView.builder()
                     .symbol(symbol)
                     .name(name)
-                    .quantity(qty)
-                    .averagePrice(money(avgPrice))
-                    .currentPrice(money(currentPrice))
-                    .pnlAbs(money(pnlAbs))
-                    .pnlPct(scalePct(pnlPct))
+                    .quantity(BigDecimal.valueOf(qty))
+                    .averagePrice(avgPrice.toBigDecimal(2))
+                    .currentPrice(currentPrice.toBigDecimal(2))
+                    .pnlAbs(pnlAbs.toBigDecimal(2))
+                    .pnlPct(pnlAbs.percentOf(costBasis).toBigDecimal(2))
+                    .priceStatus(priceStatus)
                     .build());
         }
 
-        BigDecimal totalPnlAbs = totalCurrentValue.subtract(totalCost);
-        BigDecimal totalPnlPct = percent(totalPnlAbs, totalCost);
+        Money totalPnlAbs = totalCurrentValue.minus(totalCost);
 
         PortfolioView view = PortfolioView.builder()
                 .rows(rows)
-                .totalCost(money(totalCost))
-                .totalCurrentValue(money(totalCurrentValue))
-                .totalPnlAbs(money(totalPnlAbs))
-                .totalPnlPct(scalePct(totalPnlPct))
+                .totalCost(totalCost.toBigDecimal(2))
+                .totalCurrentValue(totalCurrentValue.toBigDecimal(2))
+                .totalPnlAbs(totalPnlAbs.toBigDecimal(2))
+                .totalPnlPct(totalPnlAbs.percentOf(totalCost).toBigDecimal(2))
                 .build();
 
         log.info("Computed portfolio for user={}, positions={}, totalCost={}, totalValue={}, pnlAbs={}, pnlPct={}",
@@ -121,23 +135,31 @@ public class PortfolioServiceImpl implements PortfolioService {
         return view;
     }
 
-    private static BigDecimal defaultZero(BigDecimal v) {
-        return v == null ? BigDecimal.ZERO : v;
-    }
-
-    private static BigDecimal money(BigDecimal v) {
-        return defaultZero(v).setScale(2, RoundingMode.HALF_UP);
-    }
-
-    private static BigDecimal scalePct(BigDecimal v) {
-        return defaultZero(v).setScale(2, RoundingMode.HALF_UP);
-    }
-
-    private static BigDecimal percent(BigDecimal numerator, BigDecimal denominator) {
-        if (denominator == null || denominator.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ZERO;
+    /**
+     * Fetch prices for all held symbols, either in one batch round trip (cache hits cost none)
+     * or as concurrent per-symbol requests bounded by the valuation deadline.
+     */
+    private PriceFetchResult loadPrices(List<PortfolioPosition> positions) {
+        List<String> symbols = positions.stream()
+                .map(PortfolioPosition::getSymbol)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (symbols.isEmpty()) {
+            return PriceFetchResult.of(Map.of());
+        }
+        Duration staleness = pricingProperties.getCache().getViewStaleness();
+        try {
+            if (pricingProperties.getValuation().getMode() == PricingProperties.Valuation.Mode.PARALLEL) {
+                return parallelPriceFetcher.fetch(symbols, staleness);
+            }
+            return PriceFetchResult.of(pricingClient.getPrices(symbols, staleness));
+        } catch (FeignException ex) {
+            log.warn("Failed to get current prices for symbols={} from pricing service: status={}, msg={}",
+                    symbols, ex.status(), ex.getMessage());
+        } catch (Exception e) {
+            log.warn("Unexpected error fetching prices for symbols={}: {}", symbols, e.getMessage());
         }
-        return numerator.multiply(BigDecimal.valueOf(100))
-                .divide(denominator, 6, RoundingMode.HALF_UP);
+        return PriceFetchResult.of(Map.of());
     }
 }
@@ -7,6 +7,7 @@ import com.phitrading.exchange.domain.repository.OrderRepository;
 import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
 import com.phitrading.exchange.domain.repository.UserAccountRepository;
 import com.phitrading.exchange.domain.service.ProfileService;
+import com.phitrading.exchange.integration.PricingProperties;
 import com.phitrading.exchange.integration.PricingServiceClient;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
 import com.phitrading.exchange.web.dto.UpdateProfileRequest;
@@ -22,7 +23,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -35,15 +38,18 @@ public class ProfileServiceImpl implements ProfileService {
     private final OrderRepository orderRepository;
     private final PortfolioPositionRepository portfolioPositionRepository;
     private final PricingServiceClient pricingServiceClient;
+    private final PricingProperties pricingProperties;
 
     public ProfileServiceImpl(UserAccountRepository userAccountRepository,
                               OrderRepository orderRepository,
                               PortfolioPositionRepository portfolioPositionRepository,
-                              PricingServiceClient pricingServiceClient) {
+                              PricingServiceClient pricingServiceClient,
+                              PricingProperties pricingProperties) {
         this.userAccountRepository = userAccountRepository;
         this.orderRepository = orderRepository;
         this.portfolioPositionRepository = portfolioPositionRepository;
         this.pricingServiceClient = pricingServiceClient;
+        this.pricingProperties = pricingProperties;
     }
 
     @Override
@@ -59,8 +65,9 @@ public class ProfileServiceImpl implements ProfileService {
 
         // Market value of portfolio using current prices from pricing service
         List<PortfolioPosition> positions = portfolioPositionRepository.findAllByUser_Username(username);
+        Map<String, BigDecimal> prices = getCurrentPricesSafe(positions);
         BigDecimal portfolioMarketValue = positions.stream()
-                .map(p -> multiply(safePrice(getCurrentPriceSafe(p.getSymbol())), BigDecimal.valueOf(p.getQuantity())))
+                .map(p -> multiply(safePrice(prices.get(p.getSymbol())), BigDecimal.valueOf(p.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add)
                 .setScale(2, RoundingMode.HALF_UP);
 
@@ -117,13 +124,27 @@ public class ProfileServiceImpl implements ProfileService {
                 .collect(Collectors.toList());
     }
 
-    private BigDecimal getCurrentPriceSafe(String symbol) {
+    private Map<String, BigDecimal> getCurrentPricesSafe(List<PortfolioPosition> positions) {
+        List<String> symbols = positions.stream()
+                .map(PortfolioPosition::getSymbol)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (symbols.isEmpty()) {
+            return Map.of();
+        }
         try {
-            InstrumentPriceDto priceDto = pricingServiceClient.getCurrentPrice(symbol);
-            return priceDto != null && priceDto.getLastPrice() != null ? priceDto.getLastPrice() : BigDecimal.ZERO;
+            Map<String, InstrumentPriceDto> found = pricingServiceClient.getPrices(symbols, pricingProperties.getCache().getViewStaleness());
+            Map<String, BigDecimal> prices = new HashMap<>();
+            found.forEach((symbol, dto) -> {
+                if (dto != null && dto.getLastPrice() != null) {
+                    prices.put(symbol, dto.getLastPrice());
+                }
+            });
+            return prices;
         } catch (Exception ex) {
-            log.warn("Failed to fetch price for symbol {}: {}", symbol, ex.getMessage());
-            return BigDecimal.ZERO;
+            log.warn("Failed to fetch prices for symbols {}: {}", symbols, ex.getMessage());
+            return Map.of();
         }
     }
 
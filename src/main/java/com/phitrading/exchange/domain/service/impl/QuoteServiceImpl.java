@@ -0,0 +1,168 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.quote.Quote;
+import com.phitrading.exchange.domain.quote.QuoteSigner;
+import com.phitrading.exchange.domain.quote.QuoteStore;
+import com.phitrading.exchange.domain.service.QuoteService;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.QuoteExecutionResult;
+import com.phitrading.exchange.web.dto.QuoteView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Request-for-quote: a quote fixes the current price for a few seconds, and executing it trades at that price
+ * without asking the pricing service again.
+ * <p>
+ * Quotes are kept in memory on the node that issued them and signed with a per-node key (unless one is
+ * configured), so a quote can only be executed where it was issued. Each quote executes at most once: it is taken
+ * out of the store before the trade runs and put back only if the trade is rejected.
+ */
+@Service
+public class QuoteServiceImpl implements QuoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteServiceImpl.class);
+
+    private final PricingServiceClient pricingServiceClient;
+    private final TradeService tradeService;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Duration ttl;
+    private final QuoteStore store;
+    private final QuoteSigner signer;
+
+    @Autowired
+    public QuoteServiceImpl(PricingServiceClient pricingServiceClient,
+                            TradeService tradeService,
+                            TradingProperties tradingProperties,
+                            MeterRegistry meterRegistry) {
+        this(pricingServiceClient, tradeService, tradingProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    QuoteServiceImpl(PricingServiceClient pricingServiceClient,
+                     TradeService tradeService,
+                     TradingProperties tradingProperties,
+                     MeterRegistry meterRegistry,
+                     Clock clock) {
+        TradingProperties.Quotes quotes = tradingProperties.getQuotes();
+        if (quotes.getTtl() == null || quotes.getTtl().isNegative() || quotes.getTtl().isZero()) {
+            throw new IllegalArgumentException("trading.quotes.ttl must be positive");
+        }
+        this.pricingServiceClient = pricingServiceClient;
+        this.tradeService = tradeService;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.ttl = quotes.getTtl();
+        this.store = new QuoteStore(quotes.getMaxOutstanding(), clock);
+        this.signer = new QuoteSigner(signingKey(quotes.getSigningKey()));
+        Gauge.builder("trading.quotes.outstanding", store, QuoteStore::size)
+                .description("Issued quotes that have not been executed or expired yet")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public QuoteView requestQuote(String username, String symbol, Order.OrderSide side) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("Username must not be null or blank when requesting a quote.");
+        }
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol must not be null or blank when requesting a quote.");
+        }
+        if (side == null) {
+            throw new IllegalArgumentException("Order side is required");
+        }
+        String normalized = Symbols.normalize(symbol);
+        InstrumentPriceDto current = pricingServiceClient.getCurrentPrice(normalized);
+        // A firm price must not be a last known value served while the pricing service is down
+        if (current == null || current.getLastPrice() == null || current.isStale()) {
+            meterRegistry.counter("trading.quotes", "event", "unavailable").increment();
+            throw new PricingUnavailableException("No current price for " + normalized + ", please try again shortly");
+        }
+        Money price = Money.of(current.getLastPrice());
+        if (price.signum() <= 0) {
+            throw new PricingUnavailableException("No current price for " + normalized + ", please try again shortly");
+        }
+        String id = UUID.randomUUID().toString();
+        Instant expiresAt = clock.instant().plus(ttl);
+        Quote quote = new Quote(id, username, normalized, side, price, expiresAt,
+                signer.sign(id, username, normalized, side, price, expiresAt));
+        store.put(quote);
+        meterRegistry.counter("trading.quotes", "event", "issued").increment();
+        log.info("Issued {} quote {}: user={}, symbol={}, price={}, expiresAt={}", side, id, username, normalized, price, expiresAt);
+        return QuoteView.builder()
+                .quoteId(id)
+                .symbol(normalized)
+                .side(side.name())
+                .price(price.toBigDecimal())
+                .expiresAt(expiresAt)
+                .signature(quote.signature())
+                .build();
+    }
+
+    @Override
+    public QuoteExecutionResult executeQuote(String username, String quoteId, String signature, long quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Quote quote = quoteId != null ? store.get(quoteId) : null;
+        // Someone else's quote looks the same as an unknown one, and a bad signature does not use the quote up
+        if (quote == null || !quote.username().equals(username)) {
+            meterRegistry.counter("trading.quotes", "event", "expired").increment();
+            throw new IllegalArgumentException("Quote not found or expired: " + quoteId);
+        }
+        if (!signer.verify(quote, signature)) {
+            meterRegistry.counter("trading.quotes", "event", "invalid").increment();
+            throw new IllegalArgumentException("Quote signature does not match");
+        }
+        if (!store.take(quote)) {
+            meterRegistry.counter("trading.quotes", "event", "expired").increment();
+            throw new IllegalArgumentException("Quote not found or expired: " + quoteId);
+        }
+        BigDecimal price = quote.price().toBigDecimal();
+        try {
+            tradeService.executeAtPrice(username, quote.symbol(), quote.side(), quantity, price);
+        } catch (RuntimeException e) {
+            store.restore(quote);
+            meterRegistry.counter("trading.quotes", "event", "rejected").increment();
+            throw e;
+        }
+        meterRegistry.counter("trading.quotes", "event", "executed").increment();
+        log.info("Executed {} quote {}: user={}, symbol={}, qty={}, price={}", quote.side(), quoteId, username,
+                quote.symbol(), quantity, price);
+        return QuoteExecutionResult.builder()
+                .quoteId(quoteId)
+                .symbol(quote.symbol())
+                .side(quote.side().name())
+                .quantity(quantity)
+                .price(price)
+                .build();
+    }
+
+    private static byte[] signingKey(String configured) {
+        if (configured != null && !configured.isBlank()) {
+            return configured.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+}
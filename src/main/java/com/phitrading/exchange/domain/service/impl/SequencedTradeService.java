@@ -0,0 +1,154 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.latency.TradeLatency;
+import com.phitrading.exchange.domain.latency.TradeStage;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.sequencer.AccountSequencer;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.BasketOrderRequest;
+import com.phitrading.exchange.web.dto.BasketOrderResult;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Routes trades through the {@link AccountSequencer}, so everything that changes an account's cash and
+ * positions runs on that account's writer thread, one command at a time, inside the writer's batch
+ * transaction. The actual settlement stays in {@link TradeServiceImpl}.
+ * <p>
+ * Prices are looked up on the caller's thread before the command is queued and travel with it, so the writer
+ * only does database work: a slow pricing call holds up its own caller, not every account on the partition,
+ * and a batch that is rolled back and replayed executes at the same prices.
+ * <p>
+ * Market and quoted trades are timed here, from before pricing to the sequencer handing back the result, so the
+ * {@link TradeLatency} stages include the price lookup and the time spent queued, and a trade is recorded once
+ * with its final outcome even when its batch is replayed.
+ */
+@Primary
+@Service
+public class SequencedTradeService implements TradeService {
+
+    private final TradeService delegate;
+    private final AccountSequencer sequencer;
+    private final OrderRepository orderRepository;
+    private final TradeLatency tradeLatency;
+
+    public SequencedTradeService(@Qualifier("tradeServiceImpl") TradeService delegate,
+                                 AccountSequencer sequencer,
+                                 OrderRepository orderRepository,
+                                 TradeLatency tradeLatency) {
+        this.delegate = delegate;
+        this.sequencer = sequencer;
+        this.orderRepository = orderRepository;
+        this.tradeLatency = tradeLatency;
+    }
+
+    @Override
+    public List<InstrumentPriceDto> listInstruments() {
+        return delegate.listInstruments();
+    }
+
+    @Override
+    public BigDecimal marketPrice(String symbol) {
+        return delegate.marketPrice(symbol);
+    }
+
+    @Override
+    public void buy(String username, String symbol, long quantity) {
+        TradeLatency.Sample timing = tradeLatency.start(Order.OrderSide.BUY);
+        trade(username, "buy", symbol, Order.OrderSide.BUY, quantity, () -> marketPrice(symbol, timing), timing);
+    }
+
+    @Override
+    public void sell(String username, String symbol, long quantity) {
+        TradeLatency.Sample timing = tradeLatency.start(Order.OrderSide.SELL);
+        trade(username, "sell", symbol, Order.OrderSide.SELL, quantity, () -> marketPrice(symbol, timing), timing);
+    }
+
+    @Override
+    public void executeAtPrice(String username, String symbol, Order.OrderSide side, long quantity, BigDecimal price) {
+        trade(username, "quoted", symbol, side, quantity, () -> price, tradeLatency.start(side));
+    }
+
+    @Override
+    public void executeAtPrice(String username, String symbol, Order.OrderSide side, long quantity, BigDecimal price,
+                               TradeLatency.Sample timing) {
+        sequencer.execute(username, "quoted", () -> {
+            delegate.executeAtPrice(username, symbol, side, quantity, price, timing);
+            return null;
+        });
+    }
+
+    private BigDecimal marketPrice(String symbol, TradeLatency.Sample timing) {
+        BigDecimal price = delegate.marketPrice(symbol);
+        timing.lap(TradeStage.PRICE);
+        return price;
+    }
+
+    /**
+     * Price the trade, run it on the account's writer and record its outcome once the sequencer hands it back.
+     */
+    private void trade(String username, String operation, String symbol, Order.OrderSide side, long quantity,
+                       Supplier<BigDecimal> pricing, TradeLatency.Sample timing) {
+        // Whether the last attempt on the writer ran to its end, so a failure afterwards was its commit
+        AtomicBoolean ran = new AtomicBoolean();
+        try {
+            BigDecimal price = pricing.get();
+            sequencer.execute(username, operation, () -> {
+                ran.set(false);
+                timing.lap(TradeStage.QUEUE);
+                delegate.executeAtPrice(username, symbol, side, quantity, price, timing);
+                ran.set(true);
+                return null;
+            });
+            timing.committed();
+        } catch (RuntimeException e) {
+            if (ran.get()) {
+                timing.rolledBack();
+            } else {
+                timing.failed(e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public BasketOrderResult executeBasket(String username, BasketOrderRequest request) {
+        return executeBasket(username, request, delegate.basketPrices(request));
+    }
+
+    @Override
+    public Map<String, InstrumentPriceDto> basketPrices(BasketOrderRequest request) {
+        return delegate.basketPrices(request);
+    }
+
+    @Override
+    public BasketOrderResult executeBasket(String username, BasketOrderRequest request,
+                                           Map<String, InstrumentPriceDto> prices) {
+        return sequencer.execute(username, "basket", () -> delegate.executeBasket(username, request, prices));
+    }
+
+    @Override
+    public boolean fillLimitOrder(UUID orderId, BigDecimal price) {
+        // Fills are keyed by order, so look up whose account they settle against
+        return orderRepository.findUsernameById(orderId)
+                .map(username -> sequencer.execute(username, "fill", () -> delegate.fillLimitOrder(orderId, price)))
+                .orElse(false);
+    }
+
+    @Override
+    public boolean executeMarketOrder(UUID orderId, BigDecimal price) {
+        return orderRepository.findUsernameById(orderId)
+                .map(username -> sequencer.execute(username, "market", () -> delegate.executeMarketOrder(orderId, price)))
+                .orElse(false);
+    }
+}
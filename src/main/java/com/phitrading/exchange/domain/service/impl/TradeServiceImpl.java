@@ -1,25 +1,49 @@
 package com.phitrading.exchange.domain.service.impl;
 
+import com.phitrading.exchange.common.Money;
 import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.common.exception.RiskLimitExceededException;
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.domain.account.AccountDirectory;
 import com.phitrading.exchange.domain.entity.Order;
 import com.phitrading.exchange.domain.entity.PortfolioPosition;
 import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.latency.TradeLatency;
+import com.phitrading.exchange.domain.latency.TradeStage;
+import com.phitrading.exchange.domain.outbox.OrderOutbox;
+import com.phitrading.exchange.domain.outbox.PositionChange;
+import com.phitrading.exchange.domain.repository.AccountRef;
 import com.phitrading.exchange.domain.repository.OrderRepository;
 import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.PositionHolding;
 import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.domain.risk.PreTradeRiskEngine;
+import com.phitrading.exchange.domain.valuation.PortfolioValuation;
 import com.phitrading.exchange.domain.service.TradeService;
 import com.phitrading.exchange.integration.PricingServiceClient;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.BasketOrderRequest;
+import com.phitrading.exchange.web.dto.BasketOrderResult;
 import feign.FeignException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public class TradeServiceImpl implements TradeService {
@@ -30,15 +54,35 @@ public class TradeServiceImpl implements TradeService {
     private final UserAccountRepository userAccountRepository;
     private final PortfolioPositionRepository portfolioPositionRepository;
     private final OrderRepository orderRepository;
+    private final OrderOutbox orderOutbox;
+    private final PreTradeRiskEngine riskEngine;
+    private final TradeLatency tradeLatency;
+    private final AccountDirectory accountDirectory;
+    private final PortfolioValuation portfolioValuation;
+
+    // Used to persist new orders and positions directly: their ids are assigned up front, so save() would
+    // merge them (select first)
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public TradeServiceImpl(PricingServiceClient pricingServiceClient,
                             UserAccountRepository userAccountRepository,
                             PortfolioPositionRepository portfolioPositionRepository,
-                            OrderRepository orderRepository) {
+                            OrderRepository orderRepository,
+                            OrderOutbox orderOutbox,
+                            PreTradeRiskEngine riskEngine,
+                            TradeLatency tradeLatency,
+                            AccountDirectory accountDirectory,
+                            PortfolioValuation portfolioValuation) {
         this.pricingServiceClient = pricingServiceClient;
         this.userAccountRepository = userAccountRepository;
         this.portfolioPositionRepository = portfolioPositionRepository;
         this.orderRepository = orderRepository;
+        this.orderOutbox = orderOutbox;
+        this.riskEngine = riskEngine;
+        this.tradeLatency = tradeLatency;
+        this.accountDirectory = accountDirectory;
+        this.portfolioValuation = portfolioValuation;
     }
 
     @Override
@@ -47,88 +91,118 @@ public class TradeServiceImpl implements TradeService {
         return pricingServiceClient.getAllInstruments();
     }
 
+    @Override
+    public BigDecimal marketPrice(String symbol) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol must not be null or blank.");
+        }
+        return currentPrice(Symbols.normalize(symbol), TradeLatency.UNTIMED);
+    }
+
     @Override
     @Transactional
     public void buy(String username, String symbol, long quantity) {
+        timed(Order.OrderSide.BUY, timing -> buy(username, symbol, quantity, null, timing));
+    }
+
+    @Override
+    @Transactional
+    public void sell(String username, String symbol, long quantity) {
+        timed(Order.OrderSide.SELL, timing -> sell(username, symbol, quantity, null, timing));
+    }
+
+    @Override
+    @Transactional
+    public void executeAtPrice(String username, String symbol, Order.OrderSide side, long quantity, BigDecimal price) {
+        timed(side, timing -> executeAtPrice(username, symbol, side, quantity, price, timing));
+    }
+
+    // Rejections are thrown before anything is written, so they leave a sequencer batch usable
+    @Override
+    @Transactional(noRollbackFor = {IllegalArgumentException.class, InsufficientFundsException.class})
+    public void executeAtPrice(String username, String symbol, Order.OrderSide side, long quantity, BigDecimal price,
+                               TradeLatency.Sample timing) {
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("Quoted price must be positive");
+        }
+        if (side == Order.OrderSide.BUY) {
+            buy(username, symbol, quantity, price, timing);
+        } else {
+            sell(username, symbol, quantity, price, timing);
+        }
+    }
+
+    /** Run a trade on a sample of its own, recorded once the trade's transaction completes. */
+    private void timed(Order.OrderSide side, Consumer<TradeLatency.Sample> trade) {
+        TradeLatency.Sample timing = tradeLatency.start(side);
+        try {
+            trade.accept(timing);
+            timing.executed();
+        } catch (RuntimeException e) {
+            timing.failed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * @param quotedPrice price to execute at, or null to execute at the current price
+     */
+    private void buy(String username, String symbol, long quantity, BigDecimal quotedPrice,
+                      TradeLatency.Sample timing) {
         if (username == null || username.isBlank()) {
             throw new IllegalArgumentException("Username must not be null or blank when buying.");
         }
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol must not be null or blank when buying.");
+        }
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
+        // Stored upper-case, like basket orders, so one symbol is never held under two spellings
+        symbol = Symbols.normalize(symbol);
         try {
-            log.info("Starting BUY operation: user={}, symbol={}, qty={}", username, symbol, quantity);
-            InstrumentPriceDto priceDto = pricingServiceClient.getCurrentPrice(symbol);
-            BigDecimal price = priceDto.getLastPrice();
-            if (price == null) {
-                throw new IllegalArgumentException("No price available for symbol: " + symbol);
-            }
+            log.info("Starting BUY operation: user={}, symbol={}, qty={}, quotedPrice={}", username, symbol, quantity, quotedPrice);
+            BigDecimal price = quotedPrice != null ? quotedPrice : currentPrice(symbol, timing);
 
-            UserAccount user = userAccountRepository.findByUsername(username)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+            AccountRef account = accountDirectory.resolve(username);
+            timing.lap(TradeStage.LOAD_USER);
+            riskEngine.check(username, account.role(), symbol, Order.OrderSide.BUY, quantity, Money.of(price));
+            timing.lap(TradeStage.RISK);
 
-            BigDecimal qty = BigDecimal.valueOf(quantity);
-            BigDecimal cost = price.multiply(qty).setScale(4, RoundingMode.HALF_UP);
-
-            if (user.getCashBalance() == null) {
-                user.setCashBalance(BigDecimal.ZERO);
-            }
-            if (user.getCashBalance().compareTo(cost) < 0) {
-                log.error("Insufficient funds for user={}, balance={}, cost={}", username, user.getCashBalance(), cost);
-                throw new InsufficientFundsException("Insufficient funds. Required: " + cost + ", Available: " + user.getCashBalance());
-            }
+            PositionChange change = applyBuy(account.id(), username, symbol, quantity, price, timing);
 
             // Create executed order
             Order order = new Order();
-            order.setUser(user);
+            order.setUser(entityManager.getReference(UserAccount.class, account.id()));
             order.setSymbol(symbol);
             order.setQuantity(quantity);
             order.setSide(Order.OrderSide.BUY);
             order.setStatus(Order.OrderStatus.EXECUTED);
             order.setExecutionPrice(price);
             order.setExecutedAt(LocalDateTime.now());
+            entityManager.persist(order);
+            timing.lap(TradeStage.SAVE_ORDER);
+            orderOutbox.orderExecuted(order, username, change);
+            timing.lap(TradeStage.OUTBOX);
+            riskEngine.onExecuted(order.getId(), username, symbol, Order.OrderSide.BUY, quantity, Money.of(price));
+            portfolioValuation.positionChanged(username, symbol);
+            timing.lap(TradeStage.POST_TRADE);
 
-            // Deduct cash
-            user.setCashBalance(user.getCashBalance().subtract(cost));
-            user.setUpdatedAt(LocalDateTime.now());
-            userAccountRepository.save(user);
-
-            // Update portfolio position
-            PortfolioPosition position = portfolioPositionRepository.findByUserAndSymbol(user, symbol)
-                    .orElseGet(() -> {
-                        PortfolioPosition p = new PortfolioPosition();
-                        p.setUser(user);
-                        p.setSymbol(symbol);
-                        p.setQuantity(0);
-                        p.setAveragePrice(BigDecimal.ZERO);
-                        return p;
-                    });
-
-            long oldQty = position.getQuantity();
-            BigDecimal oldAvg = position.getAveragePrice() == null ? BigDecimal.ZERO : position.getAveragePrice();
-
-            long newQty = oldQty + quantity;
-            BigDecimal totalCost = oldAvg.multiply(BigDecimal.valueOf(oldQty)).add(price.multiply(qty));
-            BigDecimal newAvg = totalCost.divide(BigDecimal.valueOf(newQty), 4, RoundingMode.HALF_UP);
-
-            position.setQuantity(newQty);
-            position.setAveragePrice(newAvg);
-            position.setUpdatedAt(LocalDateTime.now());
-            portfolioPositionRepository.save(position);
-
-            orderRepository.save(order);
-
-            log.info("Executed BUY order: user={}, symbol={}, qty={}, price={}, newQty={}, newAvg={}",
-                    username, symbol, quantity, price, newQty, newAvg);
+            log.info("Executed BUY order: user={}, symbol={}, qty={}, price={}", username, symbol, quantity, price);
         } catch (FeignException e) {
             log.error("Pricing service error while buying symbol={}: status={}, body={}", symbol, e.status(), e.contentUTF8());
             throw e;
+        } catch (PricingUnavailableException e) {
+            log.warn("Rejected BUY for user={}, symbol={}: {}", username, symbol, e.getMessage());
+            throw e;
         }
     }
 
-    @Override
-    @Transactional
-    public void sell(String username, String symbol, long quantity) {
+    /**
+     * @param quotedPrice price to execute at, or null to execute at the current price
+     */
+    private void sell(String username, String symbol, long quantity, BigDecimal quotedPrice,
+                      TradeLatency.Sample timing) {
         if (username == null || username.isBlank()) {
             throw new IllegalArgumentException("Username must not be null or blank when selling.");
         }
@@ -138,38 +212,23 @@ public class TradeServiceImpl implements TradeService {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
+        symbol = Symbols.normalize(symbol);
 
         try {
-            log.info("Starting SELL operation: user={}, symbol={}, qty={}", username, symbol, quantity);
+            log.info("Starting SELL operation: user={}, symbol={}, qty={}, quotedPrice={}", username, symbol, quantity, quotedPrice);
+            BigDecimal price = quotedPrice != null ? quotedPrice : currentPrice(symbol, timing);
 
-            // Load current price
-            InstrumentPriceDto priceDto = pricingServiceClient.getCurrentPrice(symbol);
-            BigDecimal price = priceDto.getLastPrice();
-            if (price == null) {
-                throw new IllegalArgumentException("No price available for symbol: " + symbol);
-            }
-
-            // Load user and position
-            UserAccount user = userAccountRepository.findByUsername(username)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
-
-            PortfolioPosition position = portfolioPositionRepository.findByUserAndSymbol(user, symbol)
-                    .orElseThrow(() -> new IllegalArgumentException("Position not found for symbol: " + symbol));
-
-            long available = position.getQuantity();
-            if (available < quantity) {
-                throw new IllegalArgumentException("Insufficient quantity. Available: " + available + ", Requested: " + quantity);
-            }
+            AccountRef account = accountDirectory.resolve(username);
+            timing.lap(TradeStage.LOAD_USER);
+            riskEngine.check(username, account.role(), symbol, Order.OrderSide.SELL, quantity, Money.of(price));
+            timing.lap(TradeStage.RISK);
 
-            BigDecimal qty = BigDecimal.valueOf(quantity);
-            BigDecimal avg = position.getAveragePrice() == null ? BigDecimal.ZERO : position.getAveragePrice();
-            BigDecimal proceeds = price.multiply(qty).setScale(4, RoundingMode.HALF_UP);
-            BigDecimal costBasis = avg.multiply(qty).setScale(4, RoundingMode.HALF_UP);
-            BigDecimal realizedPnl = proceeds.subtract(costBasis).setScale(4, RoundingMode.HALF_UP);
+            PositionChange change = applySell(account.id(), symbol, quantity, price, timing);
+            BigDecimal realizedPnl = realizedPnl(quantity, price, change);
 
             // Create executed SELL order
             Order order = new Order();
-            order.setUser(user);
+            order.setUser(entityManager.getReference(UserAccount.class, account.id()));
             order.setSymbol(symbol);
             order.setQuantity(quantity);
             order.setSide(Order.OrderSide.SELL);
@@ -177,32 +236,392 @@ public class TradeServiceImpl implements TradeService {
             order.setExecutionPrice(price);
             order.setExecutedAt(LocalDateTime.now());
             order.setRealizedPnl(realizedPnl);
+            entityManager.persist(order);
+            timing.lap(TradeStage.SAVE_ORDER);
+            orderOutbox.orderExecuted(order, username, change);
+            timing.lap(TradeStage.OUTBOX);
+            riskEngine.onExecuted(order.getId(), username, symbol, Order.OrderSide.SELL, quantity, Money.of(price));
+            portfolioValuation.positionChanged(username, symbol);
+            timing.lap(TradeStage.POST_TRADE);
+
+            log.info("Executed SELL order: user={}, symbol={}, qty={}, price={}, realizedPnl={}",
+                    username, symbol, quantity, price, realizedPnl);
+        } catch (FeignException e) {
+            log.error("Pricing service error while selling symbol={}: status={}, body={}", symbol, e.status(), e.contentUTF8());
+            throw e;
+        } catch (PricingUnavailableException e) {
+            log.warn("Rejected SELL for user={}, symbol={}: {}", username, symbol, e.getMessage());
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional(noRollbackFor = {IllegalArgumentException.class, InsufficientFundsException.class})
+    public boolean fillLimitOrder(UUID orderId, BigDecimal price) {
+        Order pending = orderRepository.findById(orderId).orElse(null);
+        if (pending == null || pending.getStatus() != Order.OrderStatus.PENDING) {
+            log.info("Limit order {} is no longer pending; skipping fill", orderId);
+            return false;
+        }
+        // Checked again at the fill price: the day's turnover and positions may have moved since it was placed
+        UserAccount owner = pending.getUser();
+        riskEngine.check(owner.getUsername(), owner.getRole(), pending.getSymbol(), pending.getSide(),
+                pending.getQuantity(), Money.of(price));
+        Order order = settlePending(orderId, price);
+        if (order == null) {
+            log.info("Limit order {} is no longer pending; skipping fill", orderId);
+            return false;
+        }
+        log.info("Filled LIMIT {} order {}: user={}, symbol={}, qty={}, limit={}, price={}", order.getSide(), orderId,
+                order.getUser().getUsername(), order.getSymbol(), order.getQuantity(), order.getLimitPrice(), price);
+        return true;
+    }
+
+    @Override
+    @Transactional(noRollbackFor = {IllegalArgumentException.class, InsufficientFundsException.class})
+    public boolean executeMarketOrder(UUID orderId, BigDecimal price) {
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("Execution price must be positive");
+        }
+        Order pending = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        if (pending.getStatus() != Order.OrderStatus.PENDING || pending.getLimitPrice() != null) {
+            log.info("Order {} is not a pending market order; skipping", orderId);
+            return false;
+        }
+        UserAccount owner = pending.getUser();
+        riskEngine.check(owner.getUsername(), owner.getRole(), pending.getSymbol(), pending.getSide(),
+                pending.getQuantity(), Money.of(price));
+        Order order = settlePending(orderId, price);
+        if (order == null) {
+            return false;
+        }
+        log.info("Executed accepted {} order {}: user={}, symbol={}, qty={}, price={}", order.getSide(), orderId,
+                order.getUser().getUsername(), order.getSymbol(), order.getQuantity(), price);
+        return true;
+    }
+
+    private BigDecimal currentPrice(String symbol, TradeLatency.Sample timing) {
+        BigDecimal price = pricingServiceClient.getCurrentPrice(symbol).getLastPrice();
+        timing.lap(TradeStage.PRICE);
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("No price available for symbol: " + symbol);
+        }
+        return price;
+    }
+
+    /**
+     * Move a PENDING order to EXECUTED at the given price and settle cash and position.
+     * @return the executed order, or null if it was no longer pending
+     */
+    private Order settlePending(UUID orderId, BigDecimal price) {
+        // Claim the order first: a concurrent cancel (or a second fill) then finds nothing to change
+        if (orderRepository.transition(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.EXECUTED) == 0) {
+            return null;
+        }
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        UserAccount user = order.getUser();
+        PositionChange change;
+        try {
+            if (order.getSide() == Order.OrderSide.BUY) {
+                change = applyBuy(user.getId(), user.getUsername(), order.getSymbol(), order.getQuantity(), price, TradeLatency.UNTIMED);
+            } else {
+                change = applySell(user.getId(), order.getSymbol(), order.getQuantity(), price, TradeLatency.UNTIMED);
+            }
+        } catch (IllegalArgumentException | InsufficientFundsException e) {
+            // Rejected after the claim: hand the order back, so the rejection leaves nothing written
+            orderRepository.transition(orderId, Order.OrderStatus.EXECUTED, Order.OrderStatus.PENDING);
+            throw e;
+        }
+        if (order.getSide() == Order.OrderSide.SELL) {
+            order.setRealizedPnl(realizedPnl(order.getQuantity(), price, change));
+        }
+        order.setExecutionPrice(price);
+        order.setExecutedAt(LocalDateTime.now());
+        orderRepository.save(order);
+        orderOutbox.orderExecuted(order, user.getUsername(), change);
+        riskEngine.onExecuted(order.getId(), user.getUsername(), order.getSymbol(), order.getSide(), order.getQuantity(), Money.of(price));
+        portfolioValuation.positionChanged(user.getUsername(), order.getSymbol());
+        return order;
+    }
+
+    @Override
+    @Transactional
+    public BasketOrderResult executeBasket(String username, BasketOrderRequest request) {
+        return executeBasket(username, request, basketPrices(request));
+    }
+
+    @Override
+    public Map<String, InstrumentPriceDto> basketPrices(BasketOrderRequest request) {
+        // One pass for prices: anything older than "now" is refetched in a single batch call
+        return pricingServiceClient.getPrices(basketSymbols(request), Duration.ZERO);
+    }
+
+    @Override
+    @Transactional
+    public BasketOrderResult executeBasket(String username, BasketOrderRequest request,
+                                           Map<String, InstrumentPriceDto> prices) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("Username must not be null or blank for a basket order.");
+        }
+        Set<String> symbols = basketSymbols(request);
+        boolean allOrNothing = request.getMode() != BasketOrderRequest.Mode.BEST_EFFORT;
+        log.info("Starting BASKET: user={}, orders={}, symbols={}, mode={}", username, request.getOrders().size(),
+                symbols.size(), request.getMode());
+
+        UserAccount user = userAccountRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+        Map<String, PortfolioPosition> positions = new HashMap<>();
+        for (PortfolioPosition position : portfolioPositionRepository.findAllByUserAndSymbolIn(user, symbols)) {
+            positions.put(position.getSymbol(), position);
+        }
+        Money cash = Money.ofNullable(user.getCashBalance());
+        if (allOrNothing) {
+            checkBasketFunds(request.getOrders(), prices, cash);
+        }
 
-            // Increase user cash balance
-            if (user.getCashBalance() == null) {
-                user.setCashBalance(BigDecimal.ZERO);
+        List<BasketOrderResult.Line> results = new ArrayList<>(request.getOrders().size());
+        List<Order> orders = new ArrayList<>();
+        List<PositionChange> changes = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (BasketOrderRequest.Line line : request.getOrders()) {
+            String symbol = Symbols.normalize(line.getSymbol());
+            long quantity = line.getQuantity();
+            Money price = usablePrice(prices.get(symbol));
+            PortfolioPosition position = positions.get(symbol);
+            String rejection = null;
+            if (price == null) {
+                rejection = "No current price available for symbol: " + symbol;
+            } else if (line.getSide() == Order.OrderSide.BUY && cash.compareTo(price.times(quantity)) < 0) {
+                rejection = "Insufficient funds. Required: " + price.times(quantity) + ", Available: " + cash;
+            } else if (line.getSide() == Order.OrderSide.SELL && (position == null || position.getQuantity() < quantity)) {
+                rejection = "Insufficient quantity. Available: " + (position == null ? 0 : position.getQuantity())
+                        + ", Requested: " + quantity;
+            } else {
+                try {
+                    riskEngine.check(username, user.getRole(), symbol, line.getSide(), quantity, price);
+                } catch (RiskLimitExceededException ex) {
+                    rejection = ex.getMessage();
+                }
             }
-            user.setCashBalance(user.getCashBalance().add(proceeds));
-            user.setUpdatedAt(LocalDateTime.now());
-            userAccountRepository.save(user);
-
-            // Update or delete position
-            long newQty = available - quantity;
-            if (newQty == 0) {
-                portfolioPositionRepository.delete(position);
+            if (rejection != null) {
+                if (allOrNothing) {
+                    // Nothing has been written yet; the exception rolls back the (still clean) transaction
+                    log.warn("Rejected BASKET for user={}: {} {} {}: {}", username, line.getSide(), quantity, symbol, rejection);
+                    if (rejection.startsWith("Insufficient funds")) {
+                        throw new InsufficientFundsException(rejection);
+                    }
+                    throw new IllegalArgumentException(symbol + ": " + rejection);
+                }
+                results.add(BasketOrderResult.Line.builder()
+                        .symbol(symbol).side(line.getSide().name()).quantity(quantity)
+                        .status("REJECTED").message(rejection)
+                        .build());
+                continue;
+            }
+
+            Order order = new Order();
+            order.setUser(user);
+            order.setSymbol(symbol);
+            order.setQuantity(quantity);
+            order.setSide(line.getSide());
+            order.setStatus(Order.OrderStatus.EXECUTED);
+            order.setExecutionPrice(price.toBigDecimal());
+            order.setExecutedAt(now);
+            if (line.getSide() == Order.OrderSide.BUY) {
+                cash = cash.minus(price.times(quantity));
+                if (position == null) {
+                    position = newPosition(user, symbol);
+                    positions.put(symbol, position);
+                }
+                changes.add(PositionChange.bought(position.getQuantity() == 0, price.times(quantity).toBigDecimal()));
+                addToPosition(position, quantity, price);
             } else {
-                position.setQuantity(newQty);
-                position.setUpdatedAt(LocalDateTime.now());
-                portfolioPositionRepository.save(position);
+                order.setRealizedPnl(realizedPnl(position, quantity, price).toBigDecimal());
+                cash = cash.plus(price.times(quantity));
+                changes.add(PositionChange.sold(position.getQuantity() == quantity,
+                        Money.ofNullable(position.getAveragePrice()).times(quantity).toBigDecimal()));
+                position.setQuantity(position.getQuantity() - quantity);
+                position.setUpdatedAt(now);
             }
+            orders.add(order);
+            riskEngine.onExecuted(order.getId(), username, symbol, line.getSide(), quantity, price);
+            portfolioValuation.positionChanged(username, symbol);
+            results.add(BasketOrderResult.Line.builder()
+                    .symbol(symbol).side(line.getSide().name()).quantity(quantity)
+                    .status("EXECUTED").orderId(order.getId())
+                    .executionPrice(order.getExecutionPrice()).realizedPnl(order.getRealizedPnl())
+                    .build());
+        }
 
-            orderRepository.save(order);
+        if (!orders.isEmpty()) {
+            user.setCashBalance(cash.toBigDecimal());
+            user.setUpdatedAt(now);
+            for (PortfolioPosition position : positions.values()) {
+                boolean stored = position.getVersion() != null;
+                if (position.getQuantity() == 0) {
+                    if (stored) {
+                        portfolioPositionRepository.delete(position);
+                    }
+                } else if (!stored) {
+                    entityManager.persist(position);
+                }
+            }
+            // Loaded positions and the account are managed, so dirty checking writes them; with
+            // hibernate.jdbc.batch_size the inserts below go out as JDBC batches at flush time
+            for (int i = 0; i < orders.size(); i++) {
+                entityManager.persist(orders.get(i));
+                orderOutbox.orderExecuted(orders.get(i), username, changes.get(i));
+            }
+        }
+        int executed = orders.size();
+        log.info("Executed BASKET: user={}, executed={}, rejected={}, cash={}", username, executed,
+                results.size() - executed, cash);
+        return BasketOrderResult.builder()
+                .mode(request.getMode())
+                .executed(executed)
+                .rejected(results.size() - executed)
+                .cashBalance(cash.toBigDecimal())
+                .lines(results)
+                .build();
+    }
 
-            log.info("Executed SELL order: user={}, symbol={}, qty={}, price={}, realizedPnl={}, remainingQty={}",
-                    username, symbol, quantity, price, realizedPnl, newQty);
-        } catch (FeignException e) {
-            log.error("Pricing service error while selling symbol={}: status={}, body={}", symbol, e.status(), e.contentUTF8());
-            throw e;
+    private static Set<String> basketSymbols(BasketOrderRequest request) {
+        if (request == null || request.getOrders() == null || request.getOrders().isEmpty()) {
+            throw new IllegalArgumentException("Basket must contain at least one order");
         }
+        if (request.getOrders().size() > BasketOrderRequest.MAX_ORDERS) {
+            throw new IllegalArgumentException("Basket may contain at most " + BasketOrderRequest.MAX_ORDERS + " orders");
+        }
+        Set<String> symbols = new LinkedHashSet<>();
+        for (BasketOrderRequest.Line line : request.getOrders()) {
+            if (line.getSymbol() == null || line.getSymbol().isBlank() || line.getSide() == null || line.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Every basket order needs a symbol, a side and a positive quantity");
+            }
+            symbols.add(Symbols.normalize(line.getSymbol()));
+        }
+        return symbols;
+    }
+
+    /**
+     * All-or-nothing baskets are checked once up front: every symbol must have a price and the buys must be
+     * covered by the cash plus the proceeds of the basket's sells.
+     */
+    private static void checkBasketFunds(List<BasketOrderRequest.Line> lines, Map<String, InstrumentPriceDto> prices,
+                                         Money cash) {
+        Money buys = Money.ZERO;
+        Money sells = Money.ZERO;
+        for (BasketOrderRequest.Line line : lines) {
+            String symbol = Symbols.normalize(line.getSymbol());
+            Money price = usablePrice(prices.get(symbol));
+            if (price == null) {
+                throw new IllegalArgumentException("No current price available for symbol: " + symbol);
+            }
+            if (line.getSide() == Order.OrderSide.BUY) {
+                buys = buys.plus(price.times(line.getQuantity()));
+            } else {
+                sells = sells.plus(price.times(line.getQuantity()));
+            }
+        }
+        if (cash.plus(sells).compareTo(buys) < 0) {
+            throw new InsufficientFundsException("Insufficient funds. Required: " + buys.minus(sells) + ", Available: " + cash);
+        }
+    }
+
+    // Trades never execute on a last-known price served while pricing is down
+    private static Money usablePrice(InstrumentPriceDto dto) {
+        return dto == null || dto.isStale() || dto.getLastPrice() == null ? null : Money.of(dto.getLastPrice());
+    }
+
+    private static PortfolioPosition newPosition(UserAccount user, String symbol) {
+        PortfolioPosition p = new PortfolioPosition();
+        p.setUser(user);
+        p.setSymbol(symbol);
+        p.setQuantity(0);
+        p.setAveragePrice(BigDecimal.ZERO);
+        return p;
+    }
+
+    /** Add bought shares to the position and move its average price. */
+    private static void addToPosition(PortfolioPosition position, long quantity, Money price) {
+        long oldQty = position.getQuantity();
+        Money oldAvg = Money.ofNullable(position.getAveragePrice());
+
+        long newQty = Math.addExact(oldQty, quantity);
+        Money totalCost = oldAvg.times(oldQty).plus(price.times(quantity));
+
+        position.setQuantity(newQty);
+        position.setAveragePrice(totalCost.dividedBy(newQty).toBigDecimal());
+        position.setUpdatedAt(LocalDateTime.now());
+    }
+
+    /** Realized profit/loss of selling shares out of the position at the given price. */
+    private static Money realizedPnl(PortfolioPosition position, long quantity, Money price) {
+        return price.times(quantity).minus(Money.ofNullable(position.getAveragePrice()).times(quantity));
+    }
+
+    /** Realized profit/loss of a sell: its proceeds less the cost of the shares it removed. */
+    private static BigDecimal realizedPnl(long quantity, BigDecimal executionPrice, PositionChange change) {
+        return Money.of(executionPrice).times(quantity).minus(Money.of(change.costBasis())).toBigDecimal();
+    }
+
+    /**
+     * Deduct the cost of a buy from the user's cash and add the shares to the position, each in one conditional
+     * statement, so concurrent trades on the account can neither overdraw it nor lose an update.
+     */
+    private PositionChange applyBuy(Long userId, String username, String symbol, long quantity, BigDecimal executionPrice,
+                          TradeLatency.Sample timing) {
+        Money price = Money.of(executionPrice);
+        Money cost = price.times(quantity);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (userAccountRepository.debitCash(userId, cost.toBigDecimal(), now) == 0) {
+            Money cash = Money.ofNullable(userAccountRepository.findCashBalanceById(userId).orElse(null));
+            log.error("Insufficient funds for user={}, balance={}, cost={}", username, cash, cost);
+            throw new InsufficientFundsException("Insufficient funds. Required: " + cost + ", Available: " + cash);
+        }
+        timing.lap(TradeStage.SAVE_ACCOUNT);
+
+        boolean opened = false;
+        if (portfolioPositionRepository.addToPosition(userId, symbol, quantity, cost.toBigDecimal(), now) == 0) {
+            PortfolioPosition position = newPosition(entityManager.getReference(UserAccount.class, userId), symbol);
+            addToPosition(position, quantity, price);
+            entityManager.persist(position);
+            opened = true;
+        }
+        timing.lap(TradeStage.SAVE_POSITION);
+        return PositionChange.bought(opened, cost.toBigDecimal());
+    }
+
+    /**
+     * Remove sold shares from the position and credit the proceeds.
+     * @return the change, with the cost of the sold shares at the position's average price
+     */
+    private PositionChange applySell(Long userId, String symbol, long quantity, BigDecimal executionPrice,
+                                 TradeLatency.Sample timing) {
+        PositionHolding holding = portfolioPositionRepository.findHolding(userId, symbol)
+                .orElseThrow(() -> new IllegalArgumentException("Position not found for symbol: " + symbol));
+        timing.lap(TradeStage.LOAD_POSITION);
+        if (holding.quantity() < quantity) {
+            throw new IllegalArgumentException("Insufficient quantity. Available: " + holding.quantity() + ", Requested: " + quantity);
+        }
+
+        Money price = Money.of(executionPrice);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Selling everything deletes the position. Both statements re-check the quantity, in case it changed
+        // since it was read; a position that grew in the meantime is reduced instead
+        boolean closed = holding.quantity() == quantity && portfolioPositionRepository.deleteHolding(userId, symbol, quantity) > 0;
+        boolean removed = closed || portfolioPositionRepository.removeFromPosition(userId, symbol, quantity, now) > 0;
+        if (!removed) {
+            long available = portfolioPositionRepository.findHolding(userId, symbol).map(PositionHolding::quantity).orElse(0L);
+            throw new IllegalArgumentException("Insufficient quantity. Available: " + available + ", Requested: " + quantity);
+        }
+        timing.lap(TradeStage.SAVE_POSITION);
+
+        userAccountRepository.creditCash(userId, price.times(quantity).toBigDecimal(), now);
+        timing.lap(TradeStage.SAVE_ACCOUNT);
+        return PositionChange.sold(closed, Money.ofNullable(holding.averagePrice()).times(quantity).toBigDecimal());
     }
 }
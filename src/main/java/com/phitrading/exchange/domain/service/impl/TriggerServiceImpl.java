@@ -0,0 +1,297 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.PositionTriggerRepository;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.domain.service.TriggerService;
+import com.phitrading.exchange.domain.trigger.ArmedTrigger;
+import com.phitrading.exchange.domain.trigger.TriggerBook;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.TriggerRowView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stop-loss and take-profit triggers on top of {@link TriggerBook}s, one per symbol. The database is the record
+ * of truth (ACTIVE until fired or canceled); the books decide which triggers a price crosses without looking at
+ * the others.
+ * <p>
+ * A crossed trigger is first claimed in the database (ACTIVE to TRIGGERED) and only then sold through
+ * {@link TradeService#sell}, so it sells at most once even if it is also being canceled; a sale that fails for a
+ * transient reason (e.g. pricing down) re-arms it for the next price.
+ */
+@Service
+public class TriggerServiceImpl implements TriggerService {
+
+    private static final Logger log = LoggerFactory.getLogger(TriggerServiceImpl.class);
+    private static final int MAX_MESSAGE_LENGTH = 255;
+
+    private final PositionTriggerRepository triggerRepository;
+    private final PortfolioPositionRepository portfolioPositionRepository;
+    private final TradeService tradeService;
+    private final PricingServiceClient pricingServiceClient;
+    private final TradingProperties.Triggers config;
+    private final MeterRegistry meterRegistry;
+
+    // Keyed by upper-case symbol; each book is guarded by its own monitor
+    private final ConcurrentMap<String, TriggerBook> books = new ConcurrentHashMap<>();
+
+    public TriggerServiceImpl(PositionTriggerRepository triggerRepository,
+                              PortfolioPositionRepository portfolioPositionRepository,
+                              TradeService tradeService,
+                              PricingServiceClient pricingServiceClient,
+                              TradingProperties tradingProperties,
+                              MeterRegistry meterRegistry) {
+        this.triggerRepository = triggerRepository;
+        this.portfolioPositionRepository = portfolioPositionRepository;
+        this.tradeService = tradeService;
+        this.pricingServiceClient = pricingServiceClient;
+        this.config = tradingProperties.getTriggers();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("orders.triggers.armed", books, b -> b.values().stream().mapToInt(TriggerBook::size).sum())
+                .description("Stop-loss and take-profit triggers waiting for their price")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public PositionTrigger place(String username, String symbol, PositionTrigger.TriggerType type, long quantity,
+                                 BigDecimal triggerPrice) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("Username must not be null or blank when placing a trigger.");
+        }
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol must not be null or blank when placing a trigger.");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Trigger type is required");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        if (triggerPrice == null || triggerPrice.signum() <= 0) {
+            throw new IllegalArgumentException("Trigger price must be positive");
+        }
+        Money threshold = Money.of(triggerPrice);
+
+        PortfolioPosition position = portfolioPositionRepository.findByUser_UsernameAndSymbol(username, symbol)
+                .orElseThrow(() -> new IllegalArgumentException("Position not found for symbol: " + symbol));
+        if (position.getQuantity() < quantity) {
+            throw new IllegalArgumentException("Insufficient quantity. Available: " + position.getQuantity()
+                    + ", Requested: " + quantity);
+        }
+
+        PositionTrigger trigger = new PositionTrigger();
+        trigger.setUser(position.getUser());
+        trigger.setSymbol(position.getSymbol());
+        trigger.setType(type);
+        trigger.setQuantity(quantity);
+        trigger.setTriggerPrice(threshold);
+        // Committed before it is armed, so a firing always finds it
+        triggerRepository.save(trigger);
+
+        TriggerBook book = bookFor(trigger.getSymbol());
+        synchronized (book) {
+            book.add(trigger.getId(), type, threshold.units(), quantity, username);
+        }
+        meterRegistry.counter("orders.triggers", "event", "placed").increment();
+        log.info("Placed {} trigger {}: user={}, symbol={}, qty={}, price={}",
+                type, trigger.getId(), username, trigger.getSymbol(), quantity, threshold);
+
+        // A trigger the market has already crossed fires right away
+        try {
+            InstrumentPriceDto current = pricingServiceClient.getCurrentPrice(trigger.getSymbol());
+            if (current != null && current.getLastPrice() != null && onPrice(trigger.getSymbol(), current.getLastPrice()) > 0) {
+                return triggerRepository.findById(trigger.getId()).orElse(trigger);
+            }
+        } catch (RuntimeException ex) {
+            log.info("No current price for {} ({}); trigger {} waits for the next price check",
+                    trigger.getSymbol(), ex.getMessage(), trigger.getId());
+        }
+        return trigger;
+    }
+
+    @Override
+    public void cancel(String username, UUID triggerId) {
+        PositionTrigger trigger = triggerRepository.findByIdAndUser_Username(triggerId, username)
+                .orElseThrow(() -> new IllegalArgumentException("Trigger not found: " + triggerId));
+        if (trigger.getStatus() != PositionTrigger.TriggerStatus.ACTIVE) {
+            throw new IllegalArgumentException("Only active triggers can be canceled");
+        }
+        TriggerBook book = books.get(Symbols.normalize(trigger.getSymbol()));
+        if (book != null) {
+            synchronized (book) {
+                book.remove(triggerId);
+            }
+        }
+        if (triggerRepository.transition(triggerId, PositionTrigger.TriggerStatus.ACTIVE,
+                PositionTrigger.TriggerStatus.CANCELED, null, null) == 0) {
+            throw new IllegalArgumentException("Trigger " + triggerId + " fired before it could be canceled");
+        }
+        meterRegistry.counter("orders.triggers", "event", "canceled").increment();
+        log.info("Canceled trigger {} for user={}", triggerId, username);
+    }
+
+    @Override
+    public List<TriggerRowView> getActiveTriggers(String username) {
+        return triggerRepository.findAllByUser_UsernameAndStatusOrderByCreatedAtAsc(username, PositionTrigger.TriggerStatus.ACTIVE)
+                .stream()
+                .map(t -> TriggerRowView.builder()
+                        .id(t.getId())
+                        .symbol(t.getSymbol())
+                        .type(t.getType().name())
+                        .quantity(t.getQuantity())
+                        .triggerPrice(t.getTriggerPrice().toBigDecimal())
+                        .createdAt(t.getCreatedAt())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public int onPrice(String symbol, BigDecimal price) {
+        TriggerBook book = symbol != null ? books.get(Symbols.normalize(symbol)) : null;
+        if (book == null || price == null || price.signum() <= 0) {
+            return 0;
+        }
+        List<ArmedTrigger> crossed = new ArrayList<>();
+        synchronized (book) {
+            book.fire(Money.of(price).units(), crossed::add);
+        }
+        int sold = 0;
+        for (ArmedTrigger trigger : crossed) {
+            if (fire(book, trigger, price)) {
+                sold++;
+            }
+        }
+        return sold;
+    }
+
+    @Override
+    public int evaluateAll() {
+        List<String> symbols = new ArrayList<>();
+        books.forEach((symbol, book) -> {
+            synchronized (book) {
+                if (!book.isEmpty()) {
+                    symbols.add(symbol);
+                }
+            }
+        });
+        if (symbols.isEmpty()) {
+            return 0;
+        }
+        Map<String, InstrumentPriceDto> prices;
+        try {
+            prices = pricingServiceClient.getPrices(symbols, config.getPriceStaleness());
+        } catch (RuntimeException ex) {
+            log.warn("Trigger evaluation skipped; prices unavailable: {}", ex.getMessage());
+            return 0;
+        }
+        int sold = 0;
+        for (Map.Entry<String, InstrumentPriceDto> entry : prices.entrySet()) {
+            InstrumentPriceDto dto = entry.getValue();
+            // A last-known price served while pricing is down must not fire triggers
+            if (dto != null && !dto.isStale() && dto.getLastPrice() != null) {
+                sold += onPrice(entry.getKey(), dto.getLastPrice());
+            }
+        }
+        return sold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        recover();
+    }
+
+    @Override
+    public int recover() {
+        List<PositionTrigger> active = triggerRepository.findAllWithUserByStatus(PositionTrigger.TriggerStatus.ACTIVE);
+        int armed = 0;
+        for (PositionTrigger trigger : active) {
+            TriggerBook book = bookFor(trigger.getSymbol());
+            synchronized (book) {
+                if (book.get(trigger.getId()) == null) {
+                    book.add(trigger.getId(), trigger.getType(), trigger.getTriggerPrice().units(),
+                            trigger.getQuantity(), trigger.getUser().getUsername());
+                    armed++;
+                }
+            }
+        }
+        log.info("Recovered {} armed triggers across {} symbols", armed, books.size());
+        return armed;
+    }
+
+    TriggerBook book(String symbol) {
+        return books.get(Symbols.normalize(symbol));
+    }
+
+    private boolean fire(TriggerBook book, ArmedTrigger trigger, BigDecimal price) {
+        UUID id = trigger.getId();
+        if (triggerRepository.transition(id, PositionTrigger.TriggerStatus.ACTIVE,
+                PositionTrigger.TriggerStatus.TRIGGERED, LocalDateTime.now(), null) == 0) {
+            // Canceled meanwhile
+            return false;
+        }
+        String symbol = book.getSymbol();
+        try {
+            long held = portfolioPositionRepository.findByUser_UsernameAndSymbol(trigger.getUsername(), symbol)
+                    .map(PortfolioPosition::getQuantity)
+                    .orElse(0L);
+            if (held <= 0) {
+                throw new IllegalArgumentException("Position already closed");
+            }
+            long quantity = Math.min(trigger.getQuantity(), held);
+            tradeService.sell(trigger.getUsername(), symbol, quantity);
+            meterRegistry.counter("orders.triggers", "event", "fired").increment();
+            log.info("{} trigger {} fired at {}: sold {} {} for user={}", trigger.getType(), id, price, quantity,
+                    symbol, trigger.getUsername());
+            return true;
+        } catch (IllegalArgumentException ex) {
+            triggerRepository.transition(id, PositionTrigger.TriggerStatus.TRIGGERED, PositionTrigger.TriggerStatus.FAILED,
+                    LocalDateTime.now(), truncate(ex.getMessage()));
+            meterRegistry.counter("orders.triggers", "event", "failed").increment();
+            log.warn("{} trigger {} fired at {} but could not sell: {}", trigger.getType(), id, price, ex.getMessage());
+            return false;
+        } catch (RuntimeException ex) {
+            // Nothing was sold; arm it again (behind its level) and retry on the next price
+            triggerRepository.transition(id, PositionTrigger.TriggerStatus.TRIGGERED, PositionTrigger.TriggerStatus.ACTIVE,
+                    null, null);
+            synchronized (book) {
+                if (book.get(id) == null) {
+                    book.add(id, trigger.getType(), trigger.getThresholdTicks(), trigger.getQuantity(), trigger.getUsername());
+                }
+            }
+            log.error("Failed to sell for trigger {} at price {}; will retry", id, price, ex);
+            return false;
+        }
+    }
+
+    private TriggerBook bookFor(String symbol) {
+        return books.computeIfAbsent(Symbols.normalize(symbol), TriggerBook::new);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_MESSAGE_LENGTH ? message : message.substring(0, MAX_MESSAGE_LENGTH);
+    }
+}
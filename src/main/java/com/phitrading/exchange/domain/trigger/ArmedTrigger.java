@@ -0,0 +1,57 @@
+package com.phitrading.exchange.domain.trigger;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+
+import java.util.UUID;
+
+/**
+ * A trigger armed in a {@link TriggerBook}. Triggers at the same threshold form an intrusive doubly linked
+ * FIFO list, so removals unlink in constant time without searching the level.
+ */
+public final class ArmedTrigger {
+
+    private final UUID id;
+    private final PositionTrigger.TriggerType type;
+    private final long thresholdTicks;
+    private final long quantity;
+    private final String username;
+
+    // Owned by the book
+    ThresholdLevel level;
+    ArmedTrigger prev;
+    ArmedTrigger next;
+
+    ArmedTrigger(UUID id, PositionTrigger.TriggerType type, long thresholdTicks, long quantity, String username) {
+        this.id = id;
+        this.type = type;
+        this.thresholdTicks = thresholdTicks;
+        this.quantity = quantity;
+        this.username = username;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public PositionTrigger.TriggerType getType() {
+        return type;
+    }
+
+    public long getThresholdTicks() {
+        return thresholdTicks;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + quantity + " @ " + Money.ofUnits(thresholdTicks) + " (" + id + ")";
+    }
+}
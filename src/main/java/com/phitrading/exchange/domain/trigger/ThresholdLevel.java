@@ -0,0 +1,50 @@
+package com.phitrading.exchange.domain.trigger;
+
+/**
+ * All armed triggers of one kind at one threshold, oldest first.
+ */
+final class ThresholdLevel {
+
+    final long ticks;
+    ArmedTrigger head;
+    ArmedTrigger tail;
+    int triggers;
+
+    ThresholdLevel(long ticks) {
+        this.ticks = ticks;
+    }
+
+    void append(ArmedTrigger trigger) {
+        trigger.level = this;
+        trigger.prev = tail;
+        trigger.next = null;
+        if (tail == null) {
+            head = trigger;
+        } else {
+            tail.next = trigger;
+        }
+        tail = trigger;
+        triggers++;
+    }
+
+    void unlink(ArmedTrigger trigger) {
+        if (trigger.prev == null) {
+            head = trigger.next;
+        } else {
+            trigger.prev.next = trigger.next;
+        }
+        if (trigger.next == null) {
+            tail = trigger.prev;
+        } else {
+            trigger.next.prev = trigger.prev;
+        }
+        trigger.prev = null;
+        trigger.next = null;
+        trigger.level = null;
+        triggers--;
+    }
+
+    boolean isEmpty() {
+        return head == null;
+    }
+}
@@ -0,0 +1,192 @@
+package com.phitrading.exchange.domain.trigger;
+
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Armed stop-loss and take-profit triggers of one symbol, indexed by threshold.
+ * <p>
+ * Each kind keeps its distinct thresholds in a sorted {@code long[]} of ticks with a parallel array of levels,
+ * ordered so the threshold the price reaches first is last: stops ascending (the highest stop is hit first
+ * on the way down) and take-profits descending. A price update therefore only looks at the levels it crosses
+ * and stops at the first one it does not, however many triggers are armed. Triggers within a level fire in
+ * the order they were armed; removals go through an id index and unlink in O(1).
+ * <p>
+ * Same layout as {@link com.phitrading.exchange.domain.orderbook.LimitOrderBook}. Not thread-safe; callers
+ * serialize access.
+ */
+public final class TriggerBook {
+
+    private final String symbol;
+    private final ThresholdSide stops = new ThresholdSide(true);
+    private final ThresholdSide targets = new ThresholdSide(false);
+    private final Map<UUID, ArmedTrigger> index = new HashMap<>();
+
+    public TriggerBook(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Arm a trigger behind the others at its threshold.
+     * @throws IllegalArgumentException if the id is already armed or quantity/threshold are not positive
+     */
+    public ArmedTrigger add(UUID id, PositionTrigger.TriggerType type, long thresholdTicks, long quantity, String username) {
+        if (quantity <= 0 || thresholdTicks <= 0) {
+            throw new IllegalArgumentException("Quantity and trigger price must be positive");
+        }
+        if (index.containsKey(id)) {
+            throw new IllegalArgumentException("Trigger already armed: " + id);
+        }
+        ArmedTrigger trigger = new ArmedTrigger(id, type, thresholdTicks, quantity, username);
+        sideOf(type).levelFor(thresholdTicks).append(trigger);
+        index.put(id, trigger);
+        return trigger;
+    }
+
+    /**
+     * Disarm a trigger.
+     * @return the removed trigger, or null if it was not armed here
+     */
+    public ArmedTrigger remove(UUID id) {
+        ArmedTrigger trigger = index.remove(id);
+        if (trigger == null) {
+            return null;
+        }
+        ThresholdLevel level = trigger.level;
+        level.unlink(trigger);
+        if (level.isEmpty()) {
+            sideOf(trigger.getType()).removeLevel(level.ticks);
+        }
+        return trigger;
+    }
+
+    /**
+     * Take every trigger the given price crosses out of the book: stops at or above the price and take-profits
+     * at or below it, nearest threshold first.
+     * @return number of triggers passed to {@code onFire}
+     */
+    public int fire(long priceTicks, Consumer<ArmedTrigger> onFire) {
+        return stops.drainCrossed(priceTicks, onFire) + targets.drainCrossed(priceTicks, onFire);
+    }
+
+    public ArmedTrigger get(UUID id) {
+        return index.get(id);
+    }
+
+    /** Highest stop in ticks, or 0 if there are none: the price at which the next stop fires. */
+    public long nextStop() {
+        return stops.nearestTicks();
+    }
+
+    /** Lowest take-profit in ticks, or 0 if there are none. */
+    public long nextTarget() {
+        return targets.nearestTicks();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /** Number of distinct thresholds of one kind. */
+    public int levels(PositionTrigger.TriggerType type) {
+        return sideOf(type).count;
+    }
+
+    private ThresholdSide sideOf(PositionTrigger.TriggerType type) {
+        return type == PositionTrigger.TriggerType.STOP_LOSS ? stops : targets;
+    }
+
+    /**
+     * Thresholds of one kind. Stops are stored ascending and take-profits descending, so the nearest threshold is
+     * always at {@code count - 1}; a search key is negated for take-profits to keep a single ascending search.
+     */
+    private final class ThresholdSide {
+        private final boolean stop;
+        private long[] keys = new long[16];
+        private ThresholdLevel[] levels = new ThresholdLevel[16];
+        private int count;
+
+        private ThresholdSide(boolean stop) {
+            this.stop = stop;
+        }
+
+        private long key(long ticks) {
+            return stop ? ticks : -ticks;
+        }
+
+        private int find(long ticks) {
+            return Arrays.binarySearch(keys, 0, count, key(ticks));
+        }
+
+        private ThresholdLevel levelFor(long ticks) {
+            int i = find(ticks);
+            if (i >= 0) {
+                return levels[i];
+            }
+            int insertAt = -i - 1;
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                levels = Arrays.copyOf(levels, count * 2);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, count - insertAt);
+            System.arraycopy(levels, insertAt, levels, insertAt + 1, count - insertAt);
+            ThresholdLevel level = new ThresholdLevel(ticks);
+            keys[insertAt] = key(ticks);
+            levels[insertAt] = level;
+            count++;
+            return level;
+        }
+
+        private void removeLevel(long ticks) {
+            int i = find(ticks);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+            System.arraycopy(levels, i + 1, levels, i, count - i - 1);
+            count--;
+            levels[count] = null;
+        }
+
+        private long nearestTicks() {
+            return count == 0 ? 0 : levels[count - 1].ticks;
+        }
+
+        private boolean isCrossed(long levelTicks, long priceTicks) {
+            return stop ? priceTicks <= levelTicks : priceTicks >= levelTicks;
+        }
+
+        private int drainCrossed(long priceTicks, Consumer<ArmedTrigger> onFire) {
+            int fired = 0;
+            while (count > 0 && isCrossed(levels[count - 1].ticks, priceTicks)) {
+                ThresholdLevel level = levels[--count];
+                levels[count] = null;
+                ArmedTrigger trigger = level.head;
+                while (trigger != null) {
+                    ArmedTrigger next = trigger.next;
+                    index.remove(trigger.getId());
+                    trigger.level = null;
+                    trigger.prev = null;
+                    trigger.next = null;
+                    onFire.accept(trigger);
+                    fired++;
+                    trigger = next;
+                }
+            }
+            return fired;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.phitrading.exchange.domain.valuation;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.account.AccountDirectory;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.outbox.OrderExecutedNotice;
+import com.phitrading.exchange.domain.outbox.OutboxFollower;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.PositionHolding;
+import com.phitrading.exchange.integration.ParallelPriceFetcher;
+import com.phitrading.exchange.integration.PriceFetchResult;
+import com.phitrading.exchange.integration.PricingProperties;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.PortfolioRowView;
+import com.phitrading.exchange.web.dto.PortfolioView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Portfolio valuation of recently active accounts, kept current in memory instead of recomputed per request.
+ * <p>
+ * Each account's holdings live in a {@link PositionBook}. Prices are shared per symbol, and a symbol to holders
+ * index lets {@link #refreshPrices} revalue only the accounts holding a symbol whose price changed, by the
+ * difference. Fills on this node mark the symbol of the account as changed once their transaction commits; fills
+ * on every node, this one included, do so again when the {@link OutboxFollower} picks up their order event, which
+ * is how trades executed on other nodes arrive. The next read reloads just that holding. A read of an unchanged
+ * account returns the view built last time.
+ * <p>
+ * An account is loaded from the database the first time its portfolio is read, reloaded every
+ * {@code trading.portfolio.resync-interval}, and dropped after {@code idle-timeout} without reads.
+ */
+@Component
+public class PortfolioValuation {
+
+    private static final Logger log = LoggerFactory.getLogger(PortfolioValuation.class);
+
+    private final PortfolioPositionRepository portfolioRepo;
+    private final AccountDirectory accountDirectory;
+    private final PricingServiceClient pricingClient;
+    private final PricingProperties pricingProperties;
+    private final ParallelPriceFetcher parallelPriceFetcher;
+    private final TradingProperties.Portfolio config;
+    private final Clock clock;
+
+    private final ConcurrentMap<String, Account> accounts = new ConcurrentHashMap<>();
+    // Accounts holding each symbol
+    private final ConcurrentMap<String, Set<Account>> holders = new ConcurrentHashMap<>();
+    // Latest price of each held symbol
+    private final ConcurrentMap<String, SymbolPrice> prices = new ConcurrentHashMap<>();
+
+    private record SymbolPrice(Money price, PositionBook.PriceStatus status, String name) {
+    }
+
+    private static final class Account {
+        final String username;
+        final Long userId;
+        final PositionBook book = new PositionBook();
+        // Symbols with fills not yet applied; added without holding the account's lock
+        final Set<String> changed = ConcurrentHashMap.newKeySet();
+        volatile Instant lastRead;
+        Instant loadedAt;
+        PortfolioView view;
+        boolean evicted;
+
+        Account(String username, Long userId, Instant now) {
+            this.username = username;
+            this.userId = userId;
+            this.lastRead = now;
+        }
+    }
+
+    @Autowired
+    public PortfolioValuation(PortfolioPositionRepository portfolioRepo,
+                              AccountDirectory accountDirectory,
+                              PricingServiceClient pricingClient,
+                              PricingProperties pricingProperties,
+                              ParallelPriceFetcher parallelPriceFetcher,
+                              TradingProperties tradingProperties,
+                              MeterRegistry meterRegistry) {
+        this(portfolioRepo, accountDirectory, pricingClient, pricingProperties, parallelPriceFetcher, tradingProperties,
+                meterRegistry, Clock.systemUTC());
+    }
+
+    PortfolioValuation(PortfolioPositionRepository portfolioRepo,
+                       AccountDirectory accountDirectory,
+                       PricingServiceClient pricingClient,
+                       PricingProperties pricingProperties,
+                       ParallelPriceFetcher parallelPriceFetcher,
+                       TradingProperties tradingProperties,
+                       MeterRegistry meterRegistry,
+                       Clock clock) {
+        this.portfolioRepo = portfolioRepo;
+        this.accountDirectory = accountDirectory;
+        this.pricingClient = pricingClient;
+        this.pricingProperties = pricingProperties;
+        this.parallelPriceFetcher = parallelPriceFetcher;
+        this.config = tradingProperties.getPortfolio();
+        this.clock = clock;
+        Gauge.builder("trading.portfolio.valued.accounts", accounts, Map::size)
+                .description("Accounts whose portfolio is kept valued in memory")
+                .register(meterRegistry);
+        Gauge.builder("trading.portfolio.valued.symbols", holders, Map::size)
+                .description("Symbols held by those accounts and repriced as they change")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current valuation of the user's portfolio. Loads the account on first use; afterwards only fills since
+     * the last read cost a query.
+     * @throws IllegalArgumentException if there is no such user
+     */
+    public PortfolioView view(String username) {
+        if (username == null || username.isBlank()) {
+            throw new IllegalArgumentException("Username must not be null or blank when loading portfolio.");
+        }
+        Long userId = accountDirectory.resolve(username).id();
+        Instant now = clock.instant();
+        while (true) {
+            Account account = accounts.get(username);
+            if (account == null) {
+                account = accounts.computeIfAbsent(username, u -> new Account(u, userId, now));
+                evictOverflow();
+            }
+            synchronized (account) {
+                // Evicted meanwhile: start over with a fresh account rather than re-register this one as holder
+                if (!account.evicted) {
+                    return currentView(account, now);
+                }
+            }
+        }
+    }
+
+    // Caller holds the account's lock
+    private PortfolioView currentView(Account account, Instant now) {
+        account.lastRead = now;
+        if (account.loadedAt == null || !now.isBefore(account.loadedAt.plus(config.getResyncInterval()))) {
+            load(account, now);
+        } else if (!account.changed.isEmpty()) {
+            applyFills(account);
+        }
+        if (account.view == null) {
+            account.view = toView(account);
+        }
+        return account.view;
+    }
+
+    /**
+     * Note that the user's holding in {@code symbol} changed. Inside a transaction this takes effect when it
+     * commits, so a read never reloads the holding before the change is visible.
+     */
+    public void positionChanged(String username, String symbol) {
+        // Registered even if the account is not loaded yet: a load running now may read the state before the commit
+        if (username == null || symbol == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markChanged(username, symbol);
+                }
+            });
+        } else {
+            markChanged(username, symbol);
+        }
+    }
+
+    /** Fills followed from the outbox, including trades executed on other nodes. Repeats are harmless. */
+    @EventListener
+    public void onOrderExecuted(OrderExecutedNotice notice) {
+        markChanged(notice.event().username(), notice.event().symbol());
+    }
+
+    /**
+     * Reprice every held symbol in one batch and revalue the holders of those whose price changed. Also drops
+     * accounts that have not been read for the idle timeout.
+     * @return number of symbols whose price changed
+     */
+    public int refreshPrices() {
+        evictIdle();
+        Set<String> symbols = new HashSet<>(holders.keySet());
+        prices.keySet().retainAll(symbols);
+        if (symbols.isEmpty()) {
+            return 0;
+        }
+        PriceFetchResult fetched = fetchPrices(symbols);
+        if (fetched == null) {
+            return 0;
+        }
+        int changed = 0;
+        for (String symbol : symbols) {
+            SymbolPrice next = toPrice(fetched, symbol);
+            if (next.equals(prices.put(symbol, next))) {
+                continue;
+            }
+            changed++;
+            for (Account account : holders.getOrDefault(symbol, Set.of())) {
+                synchronized (account) {
+                    if (account.book.price(symbol, next.price(), next.status(), next.name())) {
+                        account.view = null;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void markChanged(String username, String symbol) {
+        Account account = username != null ? accounts.get(username) : null;
+        if (account != null && symbol != null) {
+            account.changed.add(symbol);
+        }
+    }
+
+    // Caller holds the account's lock
+    private void load(Account account, Instant now) {
+        // Cleared before reading, so fills committed while the query runs are applied on the next read
+        account.changed.clear();
+        List<PortfolioPosition> positions = portfolioRepo.findAllByUser_Username(account.username);
+        Set<String> held = new HashSet<>();
+        List<String> added = new ArrayList<>();
+        for (PortfolioPosition p : positions) {
+            if (p.getSymbol() == null || p.getQuantity() <= 0) {
+                continue;
+            }
+            held.add(p.getSymbol());
+            if (account.book.put(p.getSymbol(), p.getQuantity(), Money.ofNullable(p.getAveragePrice()))) {
+                added.add(p.getSymbol());
+            }
+        }
+        for (int i = account.book.size() - 1; i >= 0; i--) {
+            String symbol = account.book.symbol(i);
+            if (!held.contains(symbol)) {
+                account.book.remove(symbol);
+                unhold(symbol, account);
+            }
+        }
+        priceAdded(account, added);
+        account.loadedAt = now;
+        account.view = null;
+    }
+
+    // Caller holds the account's lock
+    private void applyFills(Account account) {
+        List<String> added = new ArrayList<>();
+        for (String symbol : List.copyOf(account.changed)) {
+            account.changed.remove(symbol);
+            PositionHolding holding = portfolioRepo.findHolding(account.userId, symbol).orElse(null);
+            if (holding == null || holding.quantity() <= 0) {
+                if (account.book.remove(symbol)) {
+                    unhold(symbol, account);
+                }
+            } else if (account.book.put(symbol, holding.quantity(), Money.ofNullable(holding.averagePrice()))) {
+                added.add(symbol);
+            }
+        }
+        priceAdded(account, added);
+        account.view = null;
+    }
+
+    /**
+     * Register the account as holder of newly held symbols and price them. Registered before the price is read,
+     * so a concurrent refresh either finds the account or has already published the price read here.
+     */
+    private void priceAdded(Account account, List<String> symbols) {
+        if (symbols.isEmpty()) {
+            return;
+        }
+        List<String> unpriced = new ArrayList<>();
+        for (String symbol : symbols) {
+            holders.compute(symbol, (s, set) -> {
+                Set<Account> accountsHolding = set != null ? set : ConcurrentHashMap.newKeySet();
+                accountsHolding.add(account);
+                return accountsHolding;
+            });
+            if (!prices.containsKey(symbol)) {
+                unpriced.add(symbol);
+            }
+        }
+        if (!unpriced.isEmpty()) {
+            PriceFetchResult fetched = fetchPrices(unpriced);
+            for (String symbol : unpriced) {
+                SymbolPrice price = fetched != null ? toPrice(fetched, symbol)
+                        : new SymbolPrice(Money.ZERO, PositionBook.PriceStatus.UNAVAILABLE, null);
+                prices.putIfAbsent(symbol, price);
+            }
+        }
+        for (String symbol : symbols) {
+            SymbolPrice price = prices.get(symbol);
+            if (price != null) {
+                account.book.price(symbol, price.price(), price.status(), price.name());
+            }
+        }
+    }
+
+    private void unhold(String symbol, Account account) {
+        holders.computeIfPresent(symbol, (s, set) -> {
+            set.remove(account);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void evictIdle() {
+        Instant cutoff = clock.instant().minus(config.getIdleTimeout());
+        for (Account account : accounts.values()) {
+            if (account.lastRead.isBefore(cutoff)) {
+                evict(account);
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        int excess = accounts.size() - Math.max(1, config.getMaxAccounts());
+        if (excess <= 0) {
+            return;
+        }
+        accounts.values().stream()
+                .sorted((a, b) -> a.lastRead.compareTo(b.lastRead))
+                .limit(excess)
+                .forEach(this::evict);
+    }
+
+    private void evict(Account account) {
+        if (!accounts.remove(account.username, account)) {
+            return;
+        }
+        synchronized (account) {
+            account.evicted = true;
+            for (int i = 0; i < account.book.size(); i++) {
+                unhold(account.book.symbol(i), account);
+            }
+        }
+    }
+
+    /** Same price source as a from-scratch valuation: one batch request, or per-symbol requests in parallel. */
+    private PriceFetchResult fetchPrices(Collection<String> symbols) {
+        Duration staleness = pricingProperties.getCache().getViewStaleness();
+        try {
+            if (pricingProperties.getValuation().getMode() == PricingProperties.Valuation.Mode.PARALLEL) {
+                return parallelPriceFetcher.fetch(List.copyOf(symbols), staleness);
+            }
+            return PriceFetchResult.of(pricingClient.getPrices(symbols, staleness));
+        } catch (Exception e) {
+            log.warn("Failed to reprice held symbols={}: {}", symbols, e.getMessage());
+            return null;
+        }
+    }
+
+    private static SymbolPrice toPrice(PriceFetchResult fetched, String symbol) {
+        InstrumentPriceDto dto = fetched.prices().get(symbol);
+        if (dto == null || dto.getLastPrice() == null) {
+            return new SymbolPrice(Money.ZERO, PositionBook.PriceStatus.UNAVAILABLE, dto != null ? dto.getName() : null);
+        }
+        PositionBook.PriceStatus status = dto.isStale() || fetched.stale().contains(symbol)
+                ? PositionBook.PriceStatus.STALE : PositionBook.PriceStatus.LIVE;
+        return new SymbolPrice(Money.of(dto.getLastPrice()), status, dto.getName());
+    }
+
+    // Caller holds the account's lock
+    private static PortfolioView toView(Account account) {
+        PositionBook book = account.book;
+        List<PortfolioRowView> rows = new ArrayList<>(book.size());
+        for (int i = 0; i < book.size(); i++) {
+            long qty = book.quantity(i);
+            Money costBasis = book.averagePrice(i).times(qty);
+            Money pnlAbs = book.price(i).times(qty).minus(costBasis);
+            rows.add(PortfolioRowView.builder()
+                    .symbol(book.symbol(i))
+                    .name(book.name(i))
+                    .quantity(BigDecimal.valueOf(qty))
+                    .averagePrice(book.averagePrice(i).toBigDecimal(2))
+                    .currentPrice(book.price(i).toBigDecimal(2))
+                    .pnlAbs(pnlAbs.toBigDecimal(2))
+                    .pnlPct(pnlAbs.percentOf(costBasis).toBigDecimal(2))
+                    .priceStatus(book.status(i).name())
+                    .build());
+        }
+        Money totalPnlAbs = book.totalValue().minus(book.totalCost());
+        PortfolioView view = PortfolioView.builder()
+                .rows(List.copyOf(rows))
+                .totalCost(book.totalCost().toBigDecimal(2))
+                .totalCurrentValue(book.totalValue().toBigDecimal(2))
+                .totalPnlAbs(totalPnlAbs.toBigDecimal(2))
+                .totalPnlPct(totalPnlAbs.percentOf(book.totalCost()).toBigDecimal(2))
+                .build();
+        log.debug("Valued portfolio for user={}, positions={}, totalCost={}, totalValue={}",
+                account.username, rows.size(), view.getTotalCost(), view.getTotalCurrentValue());
+        return view;
+    }
+}
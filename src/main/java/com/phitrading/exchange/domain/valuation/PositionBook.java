@@ -0,0 +1,172 @@
+package com.phitrading.exchange.domain.valuation;
+
+import com.phitrading.exchange.common.Money;
+
+import java.util.Arrays;
+
+/**
+ * One account's holdings with their current valuation, kept in parallel arrays (symbol, quantity, average price,
+ * current price) plus running totals of cost and current value, all in {@link Money} units.
+ * <p>
+ * A fill replaces one row and a price change revalues one row; either adjusts the totals by the difference instead
+ * of summing all rows again. Rows stay in the order their symbols were first added; a removed row is filled by
+ * moving the rows after it up. Lookups are linear scans, cheaper than hashing for the few dozen rows an account
+ * holds.
+ * <p>
+ * Not thread-safe; callers serialize access.
+ */
+public final class PositionBook {
+
+    public enum PriceStatus { LIVE, STALE, UNAVAILABLE }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] symbols = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] quantities = new long[INITIAL_CAPACITY];
+    private long[] averagePrices = new long[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private PriceStatus[] statuses = new PriceStatus[INITIAL_CAPACITY];
+    private int size;
+
+    private long totalCost;
+    private long totalValue;
+
+    /**
+     * Set a holding's quantity and average price, keeping its current price. A new symbol starts unpriced.
+     * @return true if the symbol was not held before
+     * @throws IllegalArgumentException if the quantity is not positive
+     */
+    public boolean put(String symbol, long quantity, Money averagePrice) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        int i = indexOf(symbol);
+        boolean added = i < 0;
+        if (added) {
+            i = append(symbol);
+        } else {
+            totalCost = Math.subtractExact(totalCost, Math.multiplyExact(averagePrices[i], quantities[i]));
+            totalValue = Math.subtractExact(totalValue, Math.multiplyExact(prices[i], quantities[i]));
+        }
+        quantities[i] = quantity;
+        averagePrices[i] = averagePrice.units();
+        totalCost = Math.addExact(totalCost, Math.multiplyExact(averagePrices[i], quantity));
+        totalValue = Math.addExact(totalValue, Math.multiplyExact(prices[i], quantity));
+        return added;
+    }
+
+    /**
+     * Drop a holding that was closed.
+     * @return false if the symbol was not held
+     */
+    public boolean remove(String symbol) {
+        int i = indexOf(symbol);
+        if (i < 0) {
+            return false;
+        }
+        totalCost = Math.subtractExact(totalCost, Math.multiplyExact(averagePrices[i], quantities[i]));
+        totalValue = Math.subtractExact(totalValue, Math.multiplyExact(prices[i], quantities[i]));
+        int tail = size - i - 1;
+        System.arraycopy(symbols, i + 1, symbols, i, tail);
+        System.arraycopy(names, i + 1, names, i, tail);
+        System.arraycopy(quantities, i + 1, quantities, i, tail);
+        System.arraycopy(averagePrices, i + 1, averagePrices, i, tail);
+        System.arraycopy(prices, i + 1, prices, i, tail);
+        System.arraycopy(statuses, i + 1, statuses, i, tail);
+        size--;
+        symbols[size] = null;
+        names[size] = null;
+        statuses[size] = null;
+        return true;
+    }
+
+    /**
+     * Revalue a holding at a new price; an unavailable price values it at zero.
+     * @return true if anything about the row changed
+     */
+    public boolean price(String symbol, Money price, PriceStatus status, String name) {
+        int i = indexOf(symbol);
+        if (i < 0) {
+            return false;
+        }
+        long units = status == PriceStatus.UNAVAILABLE ? 0 : price.units();
+        boolean changed = prices[i] != units || statuses[i] != status || (name != null && !name.equals(names[i]));
+        totalValue = Math.addExact(totalValue, Math.multiplyExact(units - prices[i], quantities[i]));
+        prices[i] = units;
+        statuses[i] = status;
+        if (name != null) {
+            names[i] = name;
+        }
+        return changed;
+    }
+
+    public boolean contains(String symbol) {
+        return indexOf(symbol) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String symbol(int i) {
+        return symbols[i];
+    }
+
+    public String name(int i) {
+        return names[i];
+    }
+
+    public long quantity(int i) {
+        return quantities[i];
+    }
+
+    public Money averagePrice(int i) {
+        return Money.ofUnits(averagePrices[i]);
+    }
+
+    public Money price(int i) {
+        return Money.ofUnits(prices[i]);
+    }
+
+    public PriceStatus status(int i) {
+        return statuses[i];
+    }
+
+    public Money totalCost() {
+        return Money.ofUnits(totalCost);
+    }
+
+    public Money totalValue() {
+        return Money.ofUnits(totalValue);
+    }
+
+    private int indexOf(String symbol) {
+        for (int i = 0; i < size; i++) {
+            if (symbols[i].equals(symbol)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int append(String symbol) {
+        if (size == symbols.length) {
+            int capacity = size * 2;
+            symbols = Arrays.copyOf(symbols, capacity);
+            names = Arrays.copyOf(names, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            averagePrices = Arrays.copyOf(averagePrices, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+        int i = size++;
+        symbols[i] = symbol;
+        names[i] = null;
+        quantities[i] = 0;
+        averagePrices[i] = 0;
+        prices[i] = 0;
+        statuses[i] = PriceStatus.UNAVAILABLE;
+        return i;
+    }
+}
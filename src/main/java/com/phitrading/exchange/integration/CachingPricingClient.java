@@ -0,0 +1,331 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.integration.dto.CreateInstrumentRequest;
+import com.phitrading.exchange.integration.dto.InstrumentChangesDto;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.integration.dto.UpdatePriceRequest;
+import com.phitrading.exchange.common.util.SingleFlight;
+import com.phitrading.exchange.common.util.Symbols;
+import feign.FeignException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caching decorator around the Feign {@link PricingServiceClient}.
+ * While the tick stream is live, reads are answered from the {@link PriceBook} without any network call.
+ * The instrument list is served from the {@link InstrumentCatalog} snapshot, which revalidates with ETags
+ * and change feeds instead of transferring the full catalog on every read. When the pricing service has no batch
+ * price endpoint, batch reads slice that snapshot, revalidated first if it is older than the caller's staleness.
+ * Otherwise:
+ * <ul>
+ *     <li>{@link #getCurrentPrice(String)} always goes to the pricing service (freshest price, used by trades)
+ *     and refreshes the cache.</li>
+ *     <li>{@link #getCurrentPrice(String, Duration)} serves a cached price within the staleness window.</li>
+ *     <li>{@link #getPrices(Collection, Duration)} serves cache hits and fetches all misses in one call.</li>
+ *     <li>Writes pass through and update or invalidate the cached symbol.</li>
+ * </ul>
+ * Concurrent upstream reads for the same symbol (and for the full instrument list) are coalesced into a
+ * single request; see the {@code pricing.client.calls} / {@code pricing.client.coalesced} meters.
+ * <p>
+ * Every upstream call goes through the {@link PricingCircuitBreaker}. When the pricing service is failing,
+ * the read-only variants (staleness window, instrument list) fall back to the last known cached prices,
+ * flagged {@link InstrumentPriceDto#isStale() stale}; the freshest-price variants used by trades do not,
+ * so trades are rejected with a clear error instead.
+ * <p>
+ * Slow reads may be hedged (see {@link HedgedRequests}); writes are always sent exactly once.
+ */
+@Primary
+@Component
+public class CachingPricingClient implements PricingServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingPricingClient.class);
+
+    private final PricingServiceClient delegate;
+    private final PriceCache cache;
+    private final PriceBook priceBook;
+    private final PricingCircuitBreaker breaker;
+    private final InstrumentCatalog catalog;
+    private final HedgedRequests hedging;
+    private final Duration batchRetryAfter;
+    private final Clock clock;
+    // Epoch millis until which batch reads skip the batch endpoint, set when an instance answers 404/405 for it
+    private final AtomicLong batchRetryAt = new AtomicLong();
+    private final SingleFlight<String, InstrumentPriceDto> priceFlights = new SingleFlight<>();
+    private final SingleFlight<String, List<InstrumentPriceDto>> catalogFlights = new SingleFlight<>();
+
+    @Autowired
+    public CachingPricingClient(@Qualifier(PricingServiceClient.FEIGN_QUALIFIER) PricingServiceClient delegate,
+                                PriceCache cache,
+                                PriceBook priceBook,
+                                PricingCircuitBreaker breaker,
+                                InstrumentCatalog catalog,
+                                HedgedRequests hedging,
+                                PricingProperties properties,
+                                MeterRegistry meterRegistry) {
+        this(delegate, cache, priceBook, breaker, catalog, hedging, properties.getService().getBatchRetryAfter(),
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    CachingPricingClient(PricingServiceClient delegate,
+                         PriceCache cache,
+                         PriceBook priceBook,
+                         PricingCircuitBreaker breaker,
+                         InstrumentCatalog catalog,
+                         HedgedRequests hedging,
+                         Duration batchRetryAfter,
+                         Clock clock,
+                         MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.priceBook = priceBook;
+        this.breaker = breaker;
+        this.catalog = catalog;
+        this.hedging = hedging;
+        this.batchRetryAfter = batchRetryAfter;
+        this.clock = clock;
+        registerMeters(meterRegistry, "getCurrentPrice", priceFlights);
+        registerMeters(meterRegistry, "getAllInstruments", catalogFlights);
+    }
+
+    @Override
+    public InstrumentPriceDto createOrUpdateInstrument(CreateInstrumentRequest request) {
+        InstrumentPriceDto created = breaker.execute(() -> delegate.createOrUpdateInstrument(request));
+        catalog.invalidate();
+        cache.put(stamp(created));
+        return created;
+    }
+
+    @Override
+    public InstrumentPriceDto updatePrice(String symbol, UpdatePriceRequest request) {
+        InstrumentPriceDto updated = breaker.execute(() -> delegate.updatePrice(symbol, request));
+        catalog.invalidate();
+        if (updated != null) {
+            cache.put(stamp(updated));
+        } else {
+            cache.invalidate(symbol);
+        }
+        return updated;
+    }
+
+    @Override
+    public InstrumentPriceDto getCurrentPrice(String symbol) {
+        InstrumentPriceDto streamed = priceBook.get(symbol);
+        if (streamed != null) {
+            return streamed;
+        }
+        return fetchCurrentPrice(symbol);
+    }
+
+    private InstrumentPriceDto fetchCurrentPrice(String symbol) {
+        String key = Objects.requireNonNullElse(Symbols.normalize(symbol), "");
+        return priceFlights.execute(key, () -> {
+            InstrumentPriceDto price = stamp(breaker.execute(() -> hedging.execute("getCurrentPrice", () -> delegate.getCurrentPrice(symbol))));
+            cache.put(price);
+            return price;
+        });
+    }
+
+    @Override
+    public InstrumentPriceDto getCurrentPrice(String symbol, Duration maxStaleness) {
+        InstrumentPriceDto streamed = priceBook.get(symbol);
+        if (streamed != null) {
+            return streamed;
+        }
+        InstrumentPriceDto cached = cache.getIfFresh(symbol, maxStaleness);
+        if (cached != null) {
+            log.debug("Serving cached price for symbol={}, age={}", symbol, cached.getPriceAge());
+            return cached;
+        }
+        try {
+            return fetchCurrentPrice(symbol);
+        } catch (RuntimeException ex) {
+            InstrumentPriceDto lastKnown = PricingCircuitBreaker.isServiceFailure(ex) ? cache.getLastKnown(symbol) : null;
+            if (lastKnown == null) {
+                throw ex;
+            }
+            log.warn("Pricing service unavailable ({}); serving last known price for symbol={}, age={}",
+                    ex.getMessage(), symbol, lastKnown.getPriceAge());
+            return lastKnown.asStale();
+        }
+    }
+
+    @Override
+    public List<InstrumentPriceDto> getPricesBatch(Collection<String> symbols) {
+        List<InstrumentPriceDto> found = breaker.execute(() -> hedging.execute("getPricesBatch", () -> delegate.getPricesBatch(symbols)));
+        if (found != null) {
+            found.forEach(CachingPricingClient::stamp);
+            cache.putAll(found);
+        }
+        return found;
+    }
+
+    @Override
+    public Map<String, InstrumentPriceDto> getPrices(Collection<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, InstrumentPriceDto> result = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String symbol : symbols) {
+            InstrumentPriceDto streamed = priceBook.get(symbol);
+            if (streamed != null) {
+                result.put(symbol, streamed);
+            } else if (symbol != null) {
+                misses.add(symbol);
+            }
+        }
+        if (!misses.isEmpty()) {
+            result.putAll(fetchPrices(misses, Duration.ZERO));
+        }
+        return result;
+    }
+
+    /**
+     * @param maxStaleness how old a catalog snapshot may be if the prices have to come from it
+     */
+    private Map<String, InstrumentPriceDto> fetchPrices(Collection<String> symbols, Duration maxStaleness) {
+        List<InstrumentPriceDto> found = null;
+        if (clock.millis() >= batchRetryAt.get()) {
+            try {
+                found = getPricesBatch(symbols);
+            } catch (FeignException.NotFound | FeignException.MethodNotAllowed ex) {
+                batchRetryAt.set(clock.millis() + batchRetryAfter.toMillis());
+                log.warn("Pricing service has no batch price endpoint (status={}); slicing the instrument list for {}",
+                        ex.status(), batchRetryAfter);
+            }
+        }
+        if (found == null) {
+            found = catalog.isEnabled() ? catalog.get(maxStaleness).instruments() : fetchAllInstruments();
+        }
+        return PricingServiceClient.bySymbol(symbols, found);
+    }
+
+    private Map<String, InstrumentPriceDto> fetchPricesOrLastKnown(Collection<String> symbols, Duration maxStaleness) {
+        try {
+            return fetchPrices(symbols, maxStaleness);
+        } catch (RuntimeException ex) {
+            if (!PricingCircuitBreaker.isServiceFailure(ex)) {
+                throw ex;
+            }
+            Map<String, InstrumentPriceDto> lastKnown = new LinkedHashMap<>();
+            for (String symbol : symbols) {
+                InstrumentPriceDto price = cache.getLastKnown(symbol);
+                if (price != null) {
+                    lastKnown.put(symbol, price.asStale());
+                }
+            }
+            log.warn("Pricing service unavailable ({}); serving {} of {} prices from last known values",
+                    ex.getMessage(), lastKnown.size(), symbols.size());
+            return lastKnown;
+        }
+    }
+
+    @Override
+    public Map<String, InstrumentPriceDto> getPrices(Collection<String> symbols, Duration maxStaleness) {
+        if (symbols == null || symbols.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, InstrumentPriceDto> result = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String symbol : symbols) {
+            InstrumentPriceDto cached = priceBook.get(symbol);
+            if (cached == null) {
+                cached = cache.getIfFresh(symbol, maxStaleness);
+            }
+            if (cached != null) {
+                result.put(symbol, cached);
+            } else if (symbol != null) {
+                misses.add(symbol);
+            }
+        }
+        if (!misses.isEmpty()) {
+            log.debug("Batch price lookup: {} cached, {} fetched", result.size(), misses.size());
+            result.putAll(fetchPricesOrLastKnown(misses, maxStaleness));
+        }
+        return result;
+    }
+
+    @Override
+    public List<InstrumentPriceDto> getAllInstruments() {
+        List<InstrumentPriceDto> streamed = priceBook.all();
+        if (streamed != null) {
+            return streamed;
+        }
+        try {
+            return fetchAllInstruments();
+        } catch (RuntimeException ex) {
+            List<InstrumentPriceDto> lastKnown = PricingCircuitBreaker.isServiceFailure(ex) ? cache.getAllLastKnown() : List.of();
+            if (lastKnown.isEmpty()) {
+                throw ex;
+            }
+            log.warn("Pricing service unavailable ({}); serving {} last known instruments", ex.getMessage(), lastKnown.size());
+            return lastKnown.stream().map(InstrumentPriceDto::asStale).toList();
+        }
+    }
+
+    @Override
+    public feign.Response getInstrumentCatalog(String etag) {
+        return breaker.execute(() -> delegate.getInstrumentCatalog(etag));
+    }
+
+    @Override
+    public InstrumentChangesDto getInstrumentChanges(long sinceVersion) {
+        return breaker.execute(() -> hedging.execute("getInstrumentChanges", () -> delegate.getInstrumentChanges(sinceVersion)));
+    }
+
+    private List<InstrumentPriceDto> fetchAllInstruments() {
+        if (catalog.isEnabled()) {
+            return catalog.get().instruments();
+        }
+        return catalogFlights.execute("ALL", () -> {
+            List<InstrumentPriceDto> all = breaker.execute(() -> hedging.execute("getAllInstruments", delegate::getAllInstruments));
+            if (all != null) {
+                all.forEach(CachingPricingClient::stamp);
+                cache.putAll(all);
+            }
+            return all;
+        });
+    }
+
+    @Override
+    public void deleteInstrument(String symbol) {
+        breaker.run(() -> delegate.deleteInstrument(symbol));
+        catalog.invalidate();
+        cache.invalidate(symbol);
+    }
+
+    private static void registerMeters(MeterRegistry registry, String operation, SingleFlight<?, ?> flights) {
+        FunctionCounter.builder("pricing.client.calls", flights, SingleFlight::getCalls)
+                .description("Upstream pricing reads requested by the application")
+                .tag("operation", operation)
+                .register(registry);
+        FunctionCounter.builder("pricing.client.coalesced", flights, SingleFlight::getCoalesced)
+                .description("Pricing reads that joined an identical in-flight request")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static InstrumentPriceDto stamp(InstrumentPriceDto price) {
+        if (price != null) {
+            price.setRetrievedAt(Instant.now());
+        }
+        return price;
+    }
+}
@@ -0,0 +1,80 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Immutable view of the instrument catalog at one point in time, ordered by symbol.
+ * @param instruments instruments sorted by symbol
+ * @param bySymbol the same instruments keyed by upper-case symbol
+ * @param etag entity tag of the catalog, or null if the pricing service sent none
+ * @param version catalog version for change-feed requests, or null if not supported
+ * @param validatedAt when the pricing service last confirmed this content
+ */
+public record CatalogSnapshot(List<InstrumentPriceDto> instruments,
+                              Map<String, InstrumentPriceDto> bySymbol,
+                              String etag,
+                              Long version,
+                              Instant validatedAt) {
+
+    public static CatalogSnapshot of(Collection<InstrumentPriceDto> instruments, String etag, Long version, Instant validatedAt) {
+        Map<String, InstrumentPriceDto> index = new TreeMap<>();
+        for (InstrumentPriceDto dto : instruments) {
+            String key = dto != null ? Symbols.normalize(dto.getSymbol()) : null;
+            if (key != null) {
+                index.put(key, dto);
+            }
+        }
+        return new CatalogSnapshot(List.copyOf(index.values()), unmodifiable(index), etag, version, validatedAt);
+    }
+
+    /**
+     * Same content, confirmed unchanged at {@code now}.
+     */
+    public CatalogSnapshot revalidated(Instant now) {
+        return new CatalogSnapshot(instruments, bySymbol, etag, version, now);
+    }
+
+    /**
+     * New snapshot with the given instruments added or replaced and the given symbols removed.
+     */
+    public CatalogSnapshot withChanges(Collection<InstrumentPriceDto> upserted, Collection<String> removed,
+                                       Long newVersion, Instant now) {
+        Map<String, InstrumentPriceDto> index = new TreeMap<>(bySymbol);
+        if (removed != null) {
+            removed.stream().map(Symbols::normalize).filter(Objects::nonNull).forEach(index::remove);
+        }
+        if (upserted != null) {
+            for (InstrumentPriceDto dto : upserted) {
+                String key = dto != null ? Symbols.normalize(dto.getSymbol()) : null;
+                if (key != null) {
+                    index.put(key, dto);
+                }
+            }
+        }
+        // The entity tag no longer describes this content; the next conditional fetch starts over
+        return new CatalogSnapshot(List.copyOf(index.values()), unmodifiable(index), null, newVersion, now);
+    }
+
+    public InstrumentPriceDto get(String symbol) {
+        String key = Symbols.normalize(symbol);
+        return key == null ? null : bySymbol.get(key);
+    }
+
+    public int size() {
+        return instruments.size();
+    }
+
+    private static Map<String, InstrumentPriceDto> unmodifiable(Map<String, InstrumentPriceDto> sorted) {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(sorted));
+    }
+}
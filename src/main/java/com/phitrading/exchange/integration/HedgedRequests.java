@@ -0,0 +1,191 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.common.util.RetryBudget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Hedged execution of idempotent pricing reads. A read that has not answered within the configured
+ * percentile of its recent latencies is sent a second time, and whichever copy succeeds first wins.
+ * Hedges draw from a {@link RetryBudget}, so when the pricing service is slow across the board
+ * hedging stops instead of doubling the load.
+ * <p>
+ * Only reads may be passed here; writes such as {@code updatePrice} must never be hedged.
+ */
+@Component
+public class HedgedRequests {
+
+    private final PricingProperties.Hedging config;
+    private final RetryBudget budget;
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final MeterRegistry meterRegistry;
+    private final Counter budgetExhausted;
+
+    @Autowired
+    public HedgedRequests(PricingProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getHedging(), meterRegistry);
+    }
+
+    HedgedRequests(PricingProperties.Hedging config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.budget = new RetryBudget(config.getBudgetRatio(), config.getBudgetMinPerSecond());
+        this.meterRegistry = meterRegistry;
+        this.budgetExhausted = Counter.builder("pricing.hedging.budget.exhausted")
+                .description("Hedges not sent because the retry budget was exhausted")
+                .register(meterRegistry);
+        Gauge.builder("pricing.hedging.budget.balance", budget, RetryBudget::getBalance)
+                .description("Retry budget tokens currently available")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run an idempotent read, hedging it if it is slow and the budget allows.
+     * @param operation name of the read, used to keep latency statistics apart
+     */
+    public <T> T execute(String operation, Supplier<T> read) {
+        if (!config.isEnabled()) {
+            return read.get();
+        }
+        budget.deposit();
+        LatencyWindow window = latencies.computeIfAbsent(operation, k -> new LatencyWindow());
+        CompletableFuture<T> primary = submit(read, window);
+        Duration delay = window.hedgeDelay();
+        try {
+            return primary.get(delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException slow) {
+            if (!budget.tryWithdraw()) {
+                budgetExhausted.increment();
+                return join(primary);
+            }
+            return race(operation, primary, submit(read, null));
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        } catch (InterruptedException ex) {
+            primary.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + operation, ex);
+        }
+    }
+
+    public Duration currentDelay(String operation) {
+        LatencyWindow window = latencies.get(operation);
+        return window != null ? window.hedgeDelay() : config.getMaxDelay();
+    }
+
+    private <T> T race(String operation, CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicReference<String> winner = new AtomicReference<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((value, ex) -> settle(first, winner, failures, "primary", value, ex));
+        hedge.whenComplete((value, ex) -> settle(first, winner, failures, "hedge", value, ex));
+        try {
+            return join(first);
+        } finally {
+            meterRegistry.counter("pricing.hedging.requests", "operation", operation,
+                    "winner", winner.get() != null ? winner.get() : "none").increment();
+        }
+    }
+
+    private static <T> void settle(CompletableFuture<T> first, AtomicReference<String> winner, AtomicInteger failures,
+                                   String copy, T value, Throwable ex) {
+        if (ex == null) {
+            if (winner.compareAndSet(null, copy)) {
+                first.complete(value);
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(ex);
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> read, LatencyWindow window) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(read, executor);
+        if (window != null) {
+            future.whenComplete((value, ex) -> {
+                if (ex == null) {
+                    window.record(System.nanoTime() - start);
+                }
+            });
+        }
+        return future;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException re) {
+            return re;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Recent latencies of one operation; the hedge delay is recomputed every few samples.
+     */
+    private final class LatencyWindow {
+        private static final int SIZE = 256;
+        private static final int MIN_SAMPLES = 20;
+        private static final int RECOMPUTE_EVERY = 16;
+
+        private final long[] samples = new long[SIZE];
+        private int count;
+        private int next;
+        private volatile Duration delay = config.getMaxDelay();
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % SIZE;
+            count = Math.min(SIZE, count + 1);
+            if (count >= MIN_SAMPLES && next % RECOMPUTE_EVERY == 0) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(config.getPercentile() / 100.0 * count) - 1;
+                long percentile = sorted[Math.max(0, Math.min(count - 1, index))];
+                long min = config.getMinDelay().toNanos();
+                long max = config.getMaxDelay().toNanos();
+                delay = Duration.ofNanos(Math.max(min, Math.min(max, percentile)));
+            }
+        }
+
+        Duration hedgeDelay() {
+            return delay;
+        }
+    }
+}
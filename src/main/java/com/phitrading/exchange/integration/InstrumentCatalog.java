@@ -0,0 +1,296 @@
+package com.phitrading.exchange.integration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.integration.dto.InstrumentChangesDto;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import feign.FeignException;
+import feign.Response;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Locally held instrument catalog, published as an immutable {@link CatalogSnapshot} through an atomic reference
+ * so reads are a pointer dereference. The snapshot is revalidated against the pricing service:
+ * <ol>
+ *     <li>With a catalog version, only the changes since that version are requested and applied
+ *     (added, repriced and removed instruments).</li>
+ *     <li>Otherwise (or when the change feed is unsupported or the version expired) the catalog is fetched with
+ *     {@code If-None-Match}; {@code 304 Not Modified} just extends the snapshot's validity.</li>
+ * </ol>
+ * Revalidation happens in the background (see {@code CatalogRefreshScheduler}) and on read when the snapshot
+ * is older than {@code pricing.catalog.max-age}.
+ */
+@Component
+public class InstrumentCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentCatalog.class);
+    private static final TypeReference<List<InstrumentPriceDto>> INSTRUMENT_LIST = new TypeReference<>() {};
+    static final String VERSION_HEADER = "X-Catalog-Version";
+
+    private final PricingServiceClient client;
+    private final PricingCircuitBreaker breaker;
+    private final PriceCache priceCache;
+    private final ObjectMapper objectMapper;
+    private final PricingProperties.Catalog config;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    // Set by local writes so the next read revalidates instead of serving the snapshot
+    private final AtomicBoolean invalidated = new AtomicBoolean();
+    // Flipped once the pricing service answers 404/405 for the change feed
+    private final AtomicBoolean changesSupported = new AtomicBoolean(true);
+
+    @Autowired
+    public InstrumentCatalog(@Qualifier(PricingServiceClient.FEIGN_QUALIFIER) PricingServiceClient client,
+                             PricingCircuitBreaker breaker,
+                             PriceCache priceCache,
+                             ObjectMapper objectMapper,
+                             PricingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this(client, breaker, priceCache, objectMapper, properties.getCatalog(), Clock.systemUTC(), meterRegistry);
+    }
+
+    InstrumentCatalog(PricingServiceClient client,
+                      PricingCircuitBreaker breaker,
+                      PriceCache priceCache,
+                      ObjectMapper objectMapper,
+                      PricingProperties.Catalog config,
+                      Clock clock,
+                      MeterRegistry meterRegistry) {
+        this.client = client;
+        this.breaker = breaker;
+        this.priceCache = priceCache;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("pricing.catalog.size", snapshot, ref -> ref.get() == null ? 0 : ref.get().size())
+                .description("Instruments in the local catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * The current snapshot as is, without revalidation.
+     * @return current snapshot, or null before the first successful load
+     */
+    public CatalogSnapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * A snapshot validated no longer than {@code pricing.catalog.max-age} ago, revalidating first if needed.
+     */
+    public CatalogSnapshot get() {
+        return get(config.getMaxAge());
+    }
+
+    /**
+     * A snapshot validated no longer than {@code maxAge} ago, or {@code pricing.catalog.max-age} if that is
+     * shorter, revalidating first if needed. Callers that need fresh prices pass their own staleness here.
+     */
+    public CatalogSnapshot get(Duration maxAge) {
+        Duration limit = maxAge.compareTo(config.getMaxAge()) < 0 ? maxAge : config.getMaxAge();
+        CatalogSnapshot current = snapshot.get();
+        if (isUsable(current, limit)) {
+            return current;
+        }
+        return refresh(limit);
+    }
+
+    /**
+     * Revalidate the snapshot unless it was validated within {@code maxAge}.
+     * Refreshes are serialized so an older response can never replace a newer snapshot.
+     */
+    public synchronized CatalogSnapshot refresh(Duration maxAge) {
+        CatalogSnapshot current = snapshot.get();
+        if (isUsable(current, maxAge)) {
+            return current;
+        }
+        boolean wasInvalidated = invalidated.getAndSet(false);
+        try {
+            CatalogSnapshot next = null;
+            if (current != null && current.version() != null && changesSupported.get()) {
+                next = applyChanges(current);
+            }
+            if (next == null) {
+                next = fetchConditionally(current);
+            }
+            snapshot.set(next);
+            return next;
+        } catch (RuntimeException ex) {
+            if (wasInvalidated) {
+                invalidated.set(true);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Force the next read to revalidate, e.g. after this application changed the catalog.
+     */
+    public void invalidate() {
+        invalidated.set(true);
+    }
+
+    private boolean isUsable(CatalogSnapshot current, Duration maxAge) {
+        return current != null && !invalidated.get()
+                && Duration.between(current.validatedAt(), clock.instant()).compareTo(maxAge) <= 0;
+    }
+
+    private CatalogSnapshot applyChanges(CatalogSnapshot current) {
+        InstrumentChangesDto changes;
+        try {
+            changes = breaker.execute(() -> client.getInstrumentChanges(current.version()));
+        } catch (FeignException.NotFound | FeignException.MethodNotAllowed ex) {
+            changesSupported.set(false);
+            log.warn("Pricing service has no catalog change feed (status={}); using conditional fetches instead",
+                    ex.status());
+            return null;
+        } catch (FeignException.Gone ex) {
+            log.info("Catalog version {} expired on the pricing service; fetching the full catalog", current.version());
+            return null;
+        }
+        if (changes == null) {
+            return null;
+        }
+        Instant now = clock.instant();
+        List<InstrumentPriceDto> upserted = stampAll(changes.getUpserted(), now);
+        List<String> removed = changes.getRemoved() == null ? List.of() : changes.getRemoved();
+        int added = (int) upserted.stream().filter(dto -> current.get(dto.getSymbol()) == null).count();
+        count("diff", added, upserted.size() - added, removed.size());
+        removed.forEach(priceCache::invalidate);
+        priceCache.putAll(upserted);
+        return current.withChanges(upserted, removed, changes.getVersion(), now);
+    }
+
+    private CatalogSnapshot fetchConditionally(CatalogSnapshot current) {
+        String etag = current != null ? current.etag() : null;
+        Response response = breaker.execute(() -> {
+            Response r = client.getInstrumentCatalog(etag);
+            if (r.status() >= 400) {
+                throw FeignException.errorStatus("getInstrumentCatalog", r);
+            }
+            return r;
+        });
+        try (response) {
+            Instant now = clock.instant();
+            if (response.status() == 304 && current != null) {
+                count("not_modified", 0, 0, 0);
+                return current.revalidated(now);
+            }
+            List<InstrumentPriceDto> instruments = stampAll(read(response), now);
+            CatalogSnapshot next = CatalogSnapshot.of(instruments, header(response, "ETag"), version(response), now);
+            recordDiff(current, next);
+            priceCache.putAll(next.instruments());
+            return next;
+        }
+    }
+
+    private void recordDiff(CatalogSnapshot previous, CatalogSnapshot next) {
+        if (previous == null) {
+            count("full", next.size(), 0, 0);
+            return;
+        }
+        int added = 0;
+        int repriced = 0;
+        for (InstrumentPriceDto dto : next.instruments()) {
+            InstrumentPriceDto old = previous.get(dto.getSymbol());
+            if (old == null) {
+                added++;
+            } else if (!samePrice(old, dto)) {
+                repriced++;
+            }
+        }
+        int removed = (int) previous.instruments().stream().filter(dto -> next.get(dto.getSymbol()) == null).count();
+        count("full", added, repriced, removed);
+    }
+
+    private void count(String result, int added, int repriced, int removed) {
+        meterRegistry.counter("pricing.catalog.revalidations", "result", result).increment();
+        meterRegistry.counter("pricing.catalog.changes", "type", "added").increment(added);
+        meterRegistry.counter("pricing.catalog.changes", "type", "repriced").increment(repriced);
+        meterRegistry.counter("pricing.catalog.changes", "type", "removed").increment(removed);
+        if (added + repriced + removed > 0) {
+            log.debug("Catalog revalidated ({}): added={}, repriced={}, removed={}", result, added, repriced, removed);
+        }
+    }
+
+    private List<InstrumentPriceDto> read(Response response) {
+        if (response.body() == null) {
+            return List.of();
+        }
+        try (InputStream body = response.body().asInputStream()) {
+            List<InstrumentPriceDto> instruments = objectMapper.readValue(body, INSTRUMENT_LIST);
+            return instruments != null ? instruments : List.of();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read instrument catalog", ex);
+        }
+    }
+
+    private static List<InstrumentPriceDto> stampAll(Collection<InstrumentPriceDto> instruments, Instant now) {
+        List<InstrumentPriceDto> stamped = new ArrayList<>();
+        if (instruments != null) {
+            for (InstrumentPriceDto dto : instruments) {
+                if (dto != null && dto.getSymbol() != null) {
+                    dto.setRetrievedAt(now);
+                    stamped.add(dto);
+                }
+            }
+        }
+        return stamped;
+    }
+
+    private static boolean samePrice(InstrumentPriceDto a, InstrumentPriceDto b) {
+        return sameAmount(a.getLastPrice(), b.getLastPrice()) && sameAmount(a.getPreviousClose(), b.getPreviousClose())
+                && Objects.equals(a.getName(), b.getName());
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private static String header(Response response, String name) {
+        Map<String, Collection<String>> headers = response.headers();
+        Collection<String> values = headers != null ? headers.get(name) : null;
+        return values == null || values.isEmpty() ? null : values.iterator().next();
+    }
+
+    private static Long version(Response response) {
+        String value = header(response, VERSION_HEADER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            log.debug("Ignoring non-numeric {} header: {}", VERSION_HEADER, value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.phitrading.exchange.integration;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feign transport that sends each pricing request to an instance chosen by {@link PricingLoadBalancer}.
+ * Requests addressed to {@code pricing.service.url} are rewritten to the chosen instance; anything else
+ * passes through untouched.
+ * <p>
+ * Connection errors and 5xx responses count against the instance. Reads then fail over to another
+ * instance (up to {@code pricing.service.max-failovers}); writes fail over only when the connection was
+ * refused, since otherwise the first instance may already have applied them.
+ */
+public class LoadBalancingFeignClient implements Client {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadBalancingFeignClient.class);
+
+    private final Client delegate;
+    private final PricingLoadBalancer balancer;
+    private final String targetUrl;
+    private final int maxFailovers;
+    private final Counter failovers;
+
+    public LoadBalancingFeignClient(Client delegate, PricingLoadBalancer balancer,
+                                    PricingProperties.Service config, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.balancer = balancer;
+        this.targetUrl = config.getUrl() != null ? PricingProperties.Service.trimSlash(config.getUrl()) : null;
+        this.maxFailovers = Math.max(0, config.getMaxFailovers());
+        this.failovers = Counter.builder("pricing.lb.failovers")
+                .description("Pricing requests retried on another instance")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String url = request.url();
+        if (!addressesTarget(url)) {
+            return delegate.execute(request, options);
+        }
+        String path = url.substring(targetUrl.length());
+        boolean idempotent = request.httpMethod() == Request.HttpMethod.GET || request.httpMethod() == Request.HttpMethod.HEAD;
+        List<PricingLoadBalancer.Endpoint> tried = new ArrayList<>();
+        PricingLoadBalancer.Endpoint endpoint = balancer.choose(tried);
+        while (true) {
+            tried.add(endpoint);
+            Response response;
+            try {
+                response = send(endpoint, rewrite(request, endpoint.getBaseUrl() + path), options);
+            } catch (IOException ex) {
+                balancer.onFailure(endpoint);
+                boolean retryable = idempotent || ex instanceof ConnectException;
+                PricingLoadBalancer.Endpoint next = retryable ? nextEndpoint(tried) : null;
+                if (next == null) {
+                    throw ex;
+                }
+                log.debug("Pricing request {} {} failed on {} ({}); trying {}",
+                        request.httpMethod(), path, endpoint, ex.getMessage(), next);
+                endpoint = next;
+                continue;
+            }
+            if (response.status() < 500) {
+                balancer.onSuccess(endpoint);
+                return response;
+            }
+            balancer.onFailure(endpoint);
+            PricingLoadBalancer.Endpoint next = idempotent ? nextEndpoint(tried) : null;
+            if (next == null) {
+                return response;
+            }
+            log.debug("Pricing request {} {} got {} from {}; trying {}",
+                    request.httpMethod(), path, response.status(), endpoint, next);
+            response.close();
+            endpoint = next;
+        }
+    }
+
+    private Response send(PricingLoadBalancer.Endpoint endpoint, Request request, Request.Options options) throws IOException {
+        endpoint.acquire();
+        try {
+            return delegate.execute(request, options);
+        } finally {
+            endpoint.release();
+        }
+    }
+
+    private boolean addressesTarget(String url) {
+        if (targetUrl == null || !url.startsWith(targetUrl)) {
+            return false;
+        }
+        return url.length() == targetUrl.length() || url.charAt(targetUrl.length()) == '/'
+                || url.charAt(targetUrl.length()) == '?';
+    }
+
+    private PricingLoadBalancer.Endpoint nextEndpoint(List<PricingLoadBalancer.Endpoint> tried) {
+        if (tried.size() > maxFailovers) {
+            return null;
+        }
+        PricingLoadBalancer.Endpoint next = balancer.choose(tried);
+        if (next != null) {
+            failovers.increment();
+        }
+        return next;
+    }
+
+    private static Request rewrite(Request request, String url) {
+        return Request.create(request.httpMethod(), url, request.headers(), request.body(),
+                request.charset(), request.requestTemplate());
+    }
+}
@@ -0,0 +1,126 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fetches prices for many symbols concurrently, one pricing request per symbol, on virtual threads.
+ * A semaphore bounds the number of requests in flight across all callers so a large portfolio
+ * cannot flood the pricing service. Each call has a deadline: symbols not priced in time fall back
+ * to their last known cached price (reported as stale) or are left out (unavailable).
+ */
+@Component
+public class ParallelPriceFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelPriceFetcher.class);
+
+    private final PricingServiceClient pricingClient;
+    private final PriceCache priceCache;
+    private final PricingProperties.Valuation config;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter timeouts;
+
+    @Autowired
+    public ParallelPriceFetcher(PricingServiceClient pricingClient,
+                                PriceCache priceCache,
+                                PricingProperties properties,
+                                MeterRegistry meterRegistry) {
+        this(pricingClient, priceCache, properties.getValuation(), meterRegistry);
+    }
+
+    ParallelPriceFetcher(PricingServiceClient pricingClient,
+                         PriceCache priceCache,
+                         PricingProperties.Valuation config,
+                         MeterRegistry meterRegistry) {
+        this.pricingClient = pricingClient;
+        this.priceCache = priceCache;
+        this.config = config;
+        this.permits = new Semaphore(Math.max(1, config.getMaxConcurrency()));
+        this.timeouts = Counter.builder("pricing.valuation.deadline.missed")
+                .description("Symbols not priced within the valuation deadline")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Price the given symbols concurrently within the configured deadline.
+     * @param symbols symbols to price
+     * @param maxStaleness staleness accepted from the price cache
+     * @return prices keyed by requested symbol, plus the symbols served from a stale last known price
+     */
+    public PriceFetchResult fetch(Collection<String> symbols, Duration maxStaleness) {
+        long deadline = System.nanoTime() + config.getDeadline().toNanos();
+
+        Map<String, Future<InstrumentPriceDto>> futures = new LinkedHashMap<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            futures.put(symbol, executor.submit(() -> fetchOne(symbol, maxStaleness)));
+        }
+
+        Map<String, InstrumentPriceDto> prices = new LinkedHashMap<>();
+        Set<String> stale = new LinkedHashSet<>();
+        for (Map.Entry<String, Future<InstrumentPriceDto>> e : futures.entrySet()) {
+            String symbol = e.getKey();
+            InstrumentPriceDto price = await(symbol, e.getValue(), deadline);
+            if (price == null) {
+                price = priceCache.getLastKnown(symbol);
+                if (price != null) {
+                    stale.add(symbol);
+                }
+            }
+            if (price != null) {
+                prices.put(symbol, price);
+            }
+        }
+        return new PriceFetchResult(prices, stale);
+    }
+
+    private InstrumentPriceDto fetchOne(String symbol, Duration maxStaleness) throws InterruptedException {
+        permits.acquire();
+        try {
+            return pricingClient.getCurrentPrice(symbol, maxStaleness);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private InstrumentPriceDto await(String symbol, Future<InstrumentPriceDto> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            timeouts.increment();
+            log.warn("Price for symbol={} not received within {}", symbol, config.getDeadline());
+        } catch (ExecutionException ex) {
+            log.warn("Failed to get current price for symbol={}: {}", symbol, ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
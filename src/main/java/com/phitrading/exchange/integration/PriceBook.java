@@ -0,0 +1,168 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory book of the latest price per symbol, fed by {@link PriceStreamSubscriber}.
+ * Each symbol has its own slot that is replaced with compare-and-set, so reads never block and a
+ * tick only overwrites the slot when its sequence number is newer than what the slot holds.
+ * The book only answers while the stream is live; callers fall back to REST otherwise.
+ */
+@Component
+public class PriceBook {
+
+    private final ConcurrentMap<String, AtomicReference<Quote>> slots = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    private volatile boolean connected;
+    private volatile long lastEventMillis;
+    private final Duration staleAfter;
+
+    @Autowired
+    public PriceBook(PricingProperties properties) {
+        this(properties.getStream().getStaleAfter(), Clock.systemUTC());
+    }
+
+    PriceBook(Duration staleAfter, Clock clock) {
+        this.staleAfter = staleAfter;
+        this.clock = clock;
+    }
+
+    /**
+     * Apply a streamed tick. Out-of-order ticks (lower sequence than the current quote) are ignored.
+     * @return true if the book changed
+     */
+    public boolean apply(InstrumentPriceDto tick, long sequence) {
+        String key = Symbols.normalize(tick != null ? tick.getSymbol() : null);
+        if (key == null || tick.getLastPrice() == null) {
+            return false;
+        }
+        Quote next = Quote.of(tick, sequence, clock.instant());
+        AtomicReference<Quote> slot = slots.computeIfAbsent(key, k -> new AtomicReference<>());
+        while (true) {
+            Quote current = slot.get();
+            if (current != null && current.sequence() > sequence) {
+                return false;
+            }
+            if (slot.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Load a REST snapshot after (re)subscribing. Snapshot prices never replace a quote that arrived on
+     * the stream with a sequence above {@code watermark}; symbols missing from the snapshot are dropped.
+     */
+    public void applySnapshot(List<InstrumentPriceDto> snapshot, long watermark) {
+        if (snapshot == null) {
+            return;
+        }
+        Set<String> present = new HashSet<>();
+        for (InstrumentPriceDto dto : snapshot) {
+            if (dto != null && dto.getSymbol() != null) {
+                apply(dto, watermark);
+                present.add(Symbols.normalize(dto.getSymbol()));
+            }
+        }
+        slots.entrySet().removeIf(e -> {
+            Quote q = e.getValue().get();
+            return !present.contains(e.getKey()) && (q == null || q.sequence() <= watermark);
+        });
+    }
+
+    public void remove(String symbol) {
+        String key = Symbols.normalize(symbol);
+        if (key != null) {
+            slots.remove(key);
+        }
+    }
+
+    /**
+     * @return the latest streamed price for the symbol, or null when the stream is not live or the symbol is unknown
+     */
+    public InstrumentPriceDto get(String symbol) {
+        if (!isLive()) {
+            return null;
+        }
+        String key = Symbols.normalize(symbol);
+        AtomicReference<Quote> slot = key != null ? slots.get(key) : null;
+        Quote quote = slot != null ? slot.get() : null;
+        return quote != null ? quote.toDto() : null;
+    }
+
+    /**
+     * @return all instruments in the book sorted by symbol, or null when the stream is not live
+     */
+    public List<InstrumentPriceDto> all() {
+        if (!isLive() || slots.isEmpty()) {
+            return null;
+        }
+        return slots.values().stream()
+                .map(AtomicReference::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(Quote::symbol))
+                .map(Quote::toDto)
+                .toList();
+    }
+
+    /** True while subscribed and a tick or heartbeat arrived within the staleness window. */
+    public boolean isLive() {
+        return connected && clock.millis() - lastEventMillis <= staleAfter.toMillis();
+    }
+
+    public void markConnected(boolean connected) {
+        this.connected = connected;
+        if (connected) {
+            markEvent();
+        }
+    }
+
+    /** Record stream activity (tick or heartbeat). */
+    public void markEvent() {
+        lastEventMillis = clock.millis();
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private record Quote(UUID id, String symbol, String name, BigDecimal lastPrice, BigDecimal previousClose,
+                         LocalDateTime updatedAt, long sequence, Instant receivedAt) {
+
+        static Quote of(InstrumentPriceDto dto, long sequence, Instant receivedAt) {
+            return new Quote(dto.getId(), Symbols.normalize(dto.getSymbol()), dto.getName(), dto.getLastPrice(),
+                    dto.getPreviousClose(), dto.getUpdatedAt(), sequence, receivedAt);
+        }
+
+        InstrumentPriceDto toDto() {
+            InstrumentPriceDto dto = new InstrumentPriceDto();
+            dto.setId(id);
+            dto.setSymbol(symbol);
+            dto.setName(name);
+            dto.setLastPrice(lastPrice);
+            dto.setPreviousClose(previousClose);
+            dto.setUpdatedAt(updatedAt);
+            dto.setRetrievedAt(receivedAt);
+            return dto;
+        }
+    }
+}
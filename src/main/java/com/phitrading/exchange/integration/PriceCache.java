@@ -0,0 +1,189 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.common.util.Symbols;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of instrument prices keyed by (upper-case) symbol.
+ * A cached price is served only while it is younger than both the caller's staleness window
+ * and the symbol's TTL. Expired entries are kept until capacity is needed, then evicted first;
+ * after that the least recently used entries go.
+ */
+@Component
+public class PriceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceCache.class);
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final PricingProperties.Cache config;
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public PriceCache(PricingProperties properties) {
+        this(properties.getCache(), Clock.systemUTC());
+    }
+
+    PriceCache(PricingProperties.Cache config, Clock clock) {
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * Return the cached price for a symbol if it is no older than {@code maxStaleness} and its TTL.
+     * @param symbol instrument symbol
+     * @param maxStaleness oldest price age the caller accepts
+     * @return cached price, or null on a miss
+     */
+    public InstrumentPriceDto getIfFresh(String symbol, Duration maxStaleness) {
+        String key = Symbols.normalize(symbol);
+        Entry entry = key != null ? entries.get(key) : null;
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        Duration maxAge = min(maxStaleness, config.ttlFor(key));
+        if (age(entry).compareTo(maxAge) > 0) {
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.touch(clock.millis());
+        hits.incrementAndGet();
+        return entry.price;
+    }
+
+    /**
+     * Return the last price retrieved for a symbol regardless of its age, for callers that prefer
+     * a stale price over none. Does not count as a hit or refresh the entry's recency.
+     * @return last known price, or null if the symbol was never cached or has been evicted
+     */
+    public InstrumentPriceDto getLastKnown(String symbol) {
+        String key = Symbols.normalize(symbol);
+        Entry entry = key != null ? entries.get(key) : null;
+        return entry != null ? entry.price : null;
+    }
+
+    /**
+     * All last known prices regardless of age, ordered by symbol.
+     */
+    public List<InstrumentPriceDto> getAllLastKnown() {
+        return entries.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> e.getValue().price)
+                .toList();
+    }
+
+    /**
+     * Store a price retrieved from the pricing service. The retrieval time is stamped if missing.
+     */
+    public void put(InstrumentPriceDto price) {
+        String key = price != null ? Symbols.normalize(price.getSymbol()) : null;
+        if (key == null) {
+            return;
+        }
+        if (price.getRetrievedAt() == null) {
+            price.setRetrievedAt(clock.instant());
+        }
+        entries.put(key, new Entry(price, clock.millis()));
+        if (entries.size() > config.getMaxSize()) {
+            evict();
+        }
+    }
+
+    public void putAll(List<InstrumentPriceDto> prices) {
+        if (prices != null) {
+            prices.forEach(this::put);
+        }
+    }
+
+    public void invalidate(String symbol) {
+        String key = Symbols.normalize(symbol);
+        if (key != null) {
+            entries.remove(key);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+
+    private synchronized void evict() {
+        int maxSize = config.getMaxSize();
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        // Expired entries go first
+        entries.entrySet().removeIf(e -> {
+            boolean expired = age(e.getValue()).compareTo(config.ttlFor(e.getKey())) > 0;
+            if (expired) {
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+        // Then least recently used, leaving 10% headroom so we do not evict on every put
+        int target = Math.max(0, maxSize - Math.max(1, maxSize / 10));
+        int excess = entries.size() - target;
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(k -> {
+                        if (entries.remove(k) != null) {
+                            evictions.incrementAndGet();
+                        }
+                    });
+        }
+        log.debug("Price cache eviction finished: size={}, totalEvictions={}", entries.size(), evictions.get());
+    }
+
+    private Duration age(Entry entry) {
+        Instant retrievedAt = entry.price.getRetrievedAt();
+        return retrievedAt == null ? Duration.ZERO : Duration.between(retrievedAt, clock.instant());
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        if (a == null) return b;
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static final class Entry {
+        private final InstrumentPriceDto price;
+        private volatile long lastAccess;
+
+        private Entry(InstrumentPriceDto price, long now) {
+            this.price = price;
+            this.lastAccess = now;
+        }
+
+        private void touch(long now) {
+            lastAccess = now;
+        }
+    }
+}
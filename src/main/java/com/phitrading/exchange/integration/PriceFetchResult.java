@@ -0,0 +1,17 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prices for a set of symbols. Symbols in {@code stale} carry their last known price because a fresh
+ * one could not be obtained in time; requested symbols missing from {@code prices} are unavailable.
+ */
+public record PriceFetchResult(Map<String, InstrumentPriceDto> prices, Set<String> stale) {
+
+    public static PriceFetchResult of(Map<String, InstrumentPriceDto> prices) {
+        return new PriceFetchResult(prices, Set.of());
+    }
+}
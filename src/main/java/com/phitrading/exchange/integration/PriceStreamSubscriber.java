@@ -0,0 +1,277 @@
+package com.phitrading.exchange.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Subscribes to the pricing service tick stream (server-sent events) and keeps {@link PriceBook} current.
+ * <p>
+ * Events: {@code tick} (or unnamed) carries an instrument JSON, {@code removed} carries {@code {"symbol": ...}},
+ * {@code heartbeat} and comment lines only signal liveness. Event ids are a gap-free sequence; a jump in the
+ * sequence, a read timeout ({@code pricing.stream.stale-after}) or a dropped connection triggers a resubscribe
+ * with {@code Last-Event-ID} and a REST snapshot to repair the book. While disconnected the book reports not
+ * live and readers use REST.
+ */
+@Component
+public class PriceStreamSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStreamSubscriber.class);
+
+    private final PricingProperties properties;
+    private final PricingLoadBalancer loadBalancer;
+    private final PriceBook priceBook;
+    private final PricingServiceClient restClient;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong gaps = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private volatile HttpURLConnection connection;
+    // Last sequence applied in the current session and the instance it came from; only touched by the worker thread
+    private long lastSequence = -1;
+    private String lastEndpoint;
+
+    public PriceStreamSubscriber(PricingProperties properties,
+                                 PricingLoadBalancer loadBalancer,
+                                 PriceBook priceBook,
+                                 @Qualifier(PricingServiceClient.FEIGN_QUALIFIER) PricingServiceClient restClient,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.loadBalancer = loadBalancer;
+        this.priceBook = priceBook;
+        this.restClient = restClient;
+        this.objectMapper = objectMapper;
+        Gauge.builder("pricing.stream.live", priceBook, b -> b.isLive() ? 1 : 0)
+                .description("1 while the tick stream is connected and not stale")
+                .register(meterRegistry);
+        Gauge.builder("pricing.stream.book.size", priceBook, PriceBook::size).register(meterRegistry);
+        FunctionCounter.builder("pricing.stream.ticks", ticks, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pricing.stream.gaps", gaps, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("pricing.stream.reconnects", reconnects, AtomicLong::get).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.getStream().isEnabled()) {
+            start();
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread t = new Thread(this::run, "pricing-stream");
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+        log.info("Price stream subscriber started: endpoints={}, path={}", properties.getService().endpoints(), properties.getStream().getPath());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        HttpURLConnection conn = connection;
+        if (conn != null) {
+            conn.disconnect();
+        }
+        Thread t = worker;
+        if (t != null) {
+            t.interrupt();
+        }
+        priceBook.markConnected(false);
+    }
+
+    public long getTicks() { return ticks.get(); }
+    public long getGaps() { return gaps.get(); }
+    public long getReconnects() { return reconnects.get(); }
+
+    private void run() {
+        PricingProperties.Stream config = properties.getStream();
+        long delay = config.getReconnectInitialDelay().toMillis();
+        while (running) {
+            long ticksBefore = ticks.get();
+            try {
+                subscribe(config);
+                log.warn("Price stream closed by server; resubscribing");
+            } catch (StreamGapException e) {
+                gaps.incrementAndGet();
+                log.warn("Price stream gap detected: expected sequence {}, got {}; resubscribing", e.expected, e.actual);
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("Price stream interrupted: {}", e.getMessage());
+                }
+            } finally {
+                priceBook.markConnected(false);
+                connection = null;
+            }
+            if (!running) {
+                break;
+            }
+            if (ticks.get() > ticksBefore) {
+                delay = config.getReconnectInitialDelay().toMillis();
+            }
+            reconnects.incrementAndGet();
+            sleep(delay);
+            delay = Math.min(delay * 2, config.getReconnectMaxDelay().toMillis());
+        }
+        log.info("Price stream subscriber stopped");
+    }
+
+    private void subscribe(PricingProperties.Stream config) throws IOException {
+        // Each (re)subscribe goes to an instance currently in rotation; sequences are per instance
+        String endpoint = loadBalancer.choose(List.of()).getBaseUrl();
+        if (!endpoint.equals(lastEndpoint)) {
+            lastSequence = -1;
+            lastEndpoint = endpoint;
+        }
+        HttpURLConnection conn = (HttpURLConnection) URI.create(endpoint + config.getPath())
+                .toURL().openConnection();
+        conn.setConnectTimeout(toMillis(config.getConnectTimeout()));
+        conn.setReadTimeout(toMillis(config.getStaleAfter()));
+        conn.setRequestProperty("Accept", "text/event-stream");
+        if (lastSequence >= 0) {
+            conn.setRequestProperty("Last-Event-ID", Long.toString(lastSequence));
+        }
+        connection = conn;
+        int status = conn.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Unexpected status " + status + " from price stream");
+        }
+
+        // Repair whatever was missed while disconnected, then start a fresh sequence baseline
+        List<InstrumentPriceDto> snapshot = restClient.getAllInstruments();
+        priceBook.applySnapshot(snapshot, lastSequence);
+        lastSequence = -1;
+        priceBook.markConnected(true);
+        log.info("Subscribed to price stream; snapshot of {} instruments loaded", snapshot != null ? snapshot.size() : 0);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
+            String id = null;
+            String event = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while (running && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (data.length() > 0 || event != null) {
+                        dispatch(event, id, data.toString());
+                    }
+                    id = null;
+                    event = null;
+                    data.setLength(0);
+                    continue;
+                }
+                if (line.startsWith(":")) {
+                    priceBook.markEvent();
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                String field = colon < 0 ? line : line.substring(0, colon);
+                String value = colon < 0 ? "" : line.substring(colon + 1);
+                if (value.startsWith(" ")) {
+                    value = value.substring(1);
+                }
+                switch (field) {
+                    case "id" -> id = value;
+                    case "event" -> event = value;
+                    case "data" -> {
+                        if (data.length() > 0) {
+                            data.append('\n');
+                        }
+                        data.append(value);
+                    }
+                    default -> { }
+                }
+            }
+        }
+    }
+
+    private void dispatch(String event, String id, String data) throws IOException {
+        priceBook.markEvent();
+        String type = event == null || event.isBlank() ? "tick" : event;
+        if ("heartbeat".equals(type)) {
+            return;
+        }
+
+        long sequence = parseSequence(id);
+        if (sequence >= 0) {
+            if (lastSequence >= 0 && sequence > lastSequence + 1) {
+                throw new StreamGapException(lastSequence + 1, sequence);
+            }
+            if (sequence <= lastSequence) {
+                log.debug("Ignoring replayed price event id={}", sequence);
+                return;
+            }
+            lastSequence = sequence;
+        }
+
+        if ("removed".equals(type)) {
+            JsonNode node = objectMapper.readTree(data);
+            priceBook.remove(node.path("symbol").asText(null));
+            return;
+        }
+        InstrumentPriceDto tick = objectMapper.readValue(data, InstrumentPriceDto.class);
+        priceBook.apply(tick, Math.max(sequence, lastSequence));
+        ticks.incrementAndGet();
+    }
+
+    private static long parseSequence(String id) {
+        if (id == null || id.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int toMillis(Duration d) {
+        return (int) Math.min(Integer.MAX_VALUE, d.toMillis());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class StreamGapException extends IOException {
+        private final long expected;
+        private final long actual;
+
+        private StreamGapException(long expected, long actual) {
+            super("Sequence gap: expected " + expected + ", got " + actual);
+            this.expected = expected;
+            this.actual = actual;
+        }
+    }
+}
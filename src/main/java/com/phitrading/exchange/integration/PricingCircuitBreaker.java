@@ -0,0 +1,208 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import feign.FeignException;
+import feign.RetryableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for calls to the pricing service.
+ * <ul>
+ *     <li>CLOSED: calls pass; outcomes are recorded in a sliding window of the last N calls. Once the window
+ *     holds enough calls and the failure rate (errors, timeouts and slow calls) reaches the threshold, it opens.</li>
+ *     <li>OPEN: calls are rejected immediately with {@link PricingUnavailableException} instead of waiting
+ *     for the read timeout. After the open duration it turns half-open.</li>
+ *     <li>HALF_OPEN: a few probe calls pass; if all succeed it closes, any failure opens it again.</li>
+ * </ul>
+ * Client errors (4xx other than 429) mean the service is answering, so they do not count as failures.
+ * State changes are published as {@code pricing.breaker.transitions{from,to}} and {@code pricing.breaker.state}.
+ */
+@Component
+public class PricingCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(PricingCircuitBreaker.class);
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final PricingProperties.Breaker config;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private final boolean[] outcomes;
+    private int outcomeCount;
+    private int nextOutcome;
+    private int failuresInWindow;
+    private long openedAtMillis;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    @Autowired
+    public PricingCircuitBreaker(PricingProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getBreaker(), Clock.systemUTC(), meterRegistry);
+    }
+
+    PricingCircuitBreaker(PricingProperties.Breaker config, Clock clock, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.outcomes = new boolean[Math.max(1, config.getSlidingWindowSize())];
+        Gauge.builder("pricing.breaker.state", this, b -> b.getState().ordinal())
+                .description("Pricing circuit breaker state: 0=closed, 1=half-open, 2=open")
+                .register(meterRegistry);
+        FunctionCounter.builder("pricing.breaker.rejected", rejected, AtomicLong::get)
+                .description("Pricing calls rejected without a network call because the breaker was open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a pricing call through the breaker.
+     * @throws PricingUnavailableException when the breaker is open; failures of the call itself are rethrown as is
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!config.isEnabled()) {
+            return call.get();
+        }
+        acquirePermission();
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            record(!isSlow(start));
+            return result;
+        } catch (Throwable ex) {
+            // Errors too: a half-open probe that records nothing would hold its permit forever
+            record(!isServiceFailure(ex) && !isSlow(start));
+            throw ex;
+        }
+    }
+
+    public void run(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && openElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Whether an exception means the pricing service is unhealthy or unreachable,
+     * as opposed to a well-formed answer such as 404 for an unknown symbol.
+     */
+    public static boolean isServiceFailure(Throwable ex) {
+        if (ex instanceof PricingUnavailableException || ex instanceof RetryableException) {
+            return true;
+        }
+        if (ex instanceof FeignException fe) {
+            int status = fe.status();
+            return status < 400 || status >= 500 || status == 429;
+        }
+        return true;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            if (!openElapsed()) {
+                reject();
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits <= 0) {
+                reject();
+            }
+            halfOpenPermits--;
+        }
+    }
+
+    private void reject() {
+        rejected.incrementAndGet();
+        throw new PricingUnavailableException("Pricing service is temporarily unavailable. Please try again shortly.");
+    }
+
+    private synchronized void record(boolean success) {
+        switch (state) {
+            case HALF_OPEN -> {
+                if (!success) {
+                    transitionTo(State.OPEN);
+                } else if (++halfOpenSuccesses >= config.getHalfOpenCalls()) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case CLOSED -> {
+                if (outcomeCount == outcomes.length) {
+                    if (!outcomes[nextOutcome]) {
+                        failuresInWindow--;
+                    }
+                } else {
+                    outcomeCount++;
+                }
+                outcomes[nextOutcome] = success;
+                nextOutcome = (nextOutcome + 1) % outcomes.length;
+                if (!success) {
+                    failuresInWindow++;
+                }
+                if (outcomeCount >= config.getMinimumCalls()
+                        && failuresInWindow * 100 >= config.getFailureRateThreshold() * outcomeCount) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case OPEN -> {
+                // Late result of a call admitted before the breaker opened
+            }
+        }
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        switch (next) {
+            case OPEN -> {
+                openedAtMillis = clock.millis();
+                log.warn("Pricing circuit breaker OPEN (was {}): failing fast for {}", previous, config.getOpenDuration());
+            }
+            case HALF_OPEN -> {
+                halfOpenPermits = Math.max(1, config.getHalfOpenCalls());
+                halfOpenSuccesses = 0;
+                log.info("Pricing circuit breaker HALF_OPEN: probing the pricing service");
+            }
+            case CLOSED -> {
+                outcomeCount = 0;
+                nextOutcome = 0;
+                failuresInWindow = 0;
+                log.info("Pricing circuit breaker CLOSED: pricing service recovered");
+            }
+        }
+        meterRegistry.counter("pricing.breaker.transitions", "from", previous.name(), "to", next.name()).increment();
+    }
+
+    private boolean openElapsed() {
+        return clock.millis() - openedAtMillis >= config.getOpenDuration().toMillis();
+    }
+
+    private boolean isSlow(long startNanos) {
+        return System.nanoTime() - startNanos > config.getSlowCallThreshold().toNanos();
+    }
+}
@@ -0,0 +1,183 @@
+package com.phitrading.exchange.integration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client-side balancing over the configured pricing service instances ({@code pricing.service.urls}).
+ * <p>
+ * Each request goes to the available instance with the fewest requests in flight, ties broken at random,
+ * so a slow instance naturally receives less traffic. Health is tracked passively from real traffic:
+ * after {@code eject-after-failures} consecutive failures an instance is ejected for {@code eject-duration},
+ * doubled for every repeated ejection. When the period ends the instance is reinstated on probation;
+ * a single failure ejects it again, a success restores it fully. If every instance is ejected, the one
+ * due back first is used rather than failing outright.
+ */
+@Component
+public class PricingLoadBalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(PricingLoadBalancer.class);
+
+    private final PricingProperties.Service config;
+    private final Clock clock;
+    private final List<Endpoint> endpoints;
+
+    @Autowired
+    public PricingLoadBalancer(PricingProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getService(), Clock.systemUTC(), meterRegistry);
+    }
+
+    PricingLoadBalancer(PricingProperties.Service config, Clock clock, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.clock = clock;
+        this.endpoints = config.endpoints().stream().map(url -> new Endpoint(url, meterRegistry)).toList();
+        if (endpoints.isEmpty()) {
+            throw new IllegalStateException("No pricing service endpoint configured (pricing.service.url or pricing.service.urls)");
+        }
+        for (Endpoint endpoint : endpoints) {
+            Gauge.builder("pricing.lb.outstanding", endpoint, Endpoint::getOutstanding)
+                    .description("Requests in flight to a pricing service instance")
+                    .tag("endpoint", endpoint.baseUrl)
+                    .register(meterRegistry);
+            Gauge.builder("pricing.lb.available", endpoint, e -> e.isAvailable(clock.instant()) ? 1 : 0)
+                    .description("1 while a pricing service instance is in rotation")
+                    .tag("endpoint", endpoint.baseUrl)
+                    .register(meterRegistry);
+        }
+        log.info("Pricing service endpoints: {}", config.endpoints());
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Pick the instance for the next request.
+     * @param excluded instances already tried for this request
+     * @return the chosen instance, or null if every instance is excluded
+     */
+    public Endpoint choose(Collection<Endpoint> excluded) {
+        Instant now = clock.instant();
+        int size = endpoints.size();
+        int start = size == 1 ? 0 : ThreadLocalRandom.current().nextInt(size);
+        Endpoint best = null;
+        Endpoint dueFirst = null;
+        for (int i = 0; i < size; i++) {
+            Endpoint candidate = endpoints.get((start + i) % size);
+            if (excluded.contains(candidate)) {
+                continue;
+            }
+            if (candidate.isAvailable(now)) {
+                if (best == null || candidate.getOutstanding() < best.getOutstanding()) {
+                    best = candidate;
+                }
+            } else if (dueFirst == null || candidate.ejectedUntil().isBefore(dueFirst.ejectedUntil())) {
+                dueFirst = candidate;
+            }
+        }
+        return best != null ? best : dueFirst;
+    }
+
+    public void onSuccess(Endpoint endpoint) {
+        synchronized (endpoint) {
+            endpoint.consecutiveFailures = 0;
+            if (endpoint.probation) {
+                endpoint.probation = false;
+                endpoint.ejections = 0;
+                log.info("Pricing endpoint {} reinstated", endpoint.baseUrl);
+            }
+        }
+    }
+
+    public void onFailure(Endpoint endpoint) {
+        Instant now = clock.instant();
+        synchronized (endpoint) {
+            if (!endpoint.isAvailable(now)) {
+                return;
+            }
+            endpoint.consecutiveFailures++;
+            if (endpoint.probation || endpoint.consecutiveFailures >= config.getEjectAfterFailures()) {
+                eject(endpoint, now);
+            }
+        }
+    }
+
+    private void eject(Endpoint endpoint, Instant now) {
+        Duration period = config.getEjectDuration().multipliedBy(1L << Math.min(endpoint.ejections, 16));
+        if (period.compareTo(config.getMaxEjectDuration()) > 0) {
+            period = config.getMaxEjectDuration();
+        }
+        endpoint.ejections++;
+        endpoint.consecutiveFailures = 0;
+        endpoint.probation = true;
+        endpoint.ejectedUntil = now.plus(period);
+        endpoint.ejectionCounter.increment();
+        log.warn("Pricing endpoint {} ejected for {} (ejection #{})", endpoint.baseUrl, period, endpoint.ejections);
+    }
+
+    /**
+     * One pricing service instance and its passive health state.
+     */
+    public static final class Endpoint {
+
+        private final String baseUrl;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final Counter ejectionCounter;
+
+        // Guarded by this
+        private int consecutiveFailures;
+        private int ejections;
+        private boolean probation;
+        private volatile Instant ejectedUntil = Instant.MIN;
+
+        private Endpoint(String baseUrl, MeterRegistry meterRegistry) {
+            this.baseUrl = baseUrl;
+            this.ejectionCounter = Counter.builder("pricing.lb.ejections")
+                    .description("Times a pricing service instance was taken out of rotation")
+                    .tag("endpoint", baseUrl)
+                    .register(meterRegistry);
+        }
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        void acquire() {
+            outstanding.incrementAndGet();
+        }
+
+        void release() {
+            outstanding.decrementAndGet();
+        }
+
+        boolean isAvailable(Instant now) {
+            return !now.isBefore(ejectedUntil);
+        }
+
+        Instant ejectedUntil() {
+            return ejectedUntil;
+        }
+
+        @Override
+        public String toString() {
+            return baseUrl;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.phitrading.exchange.integration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings for the integration with the market-pricing-service (prefix {@code pricing}).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "pricing")
+public class PricingProperties {
+
+    private Service service = new Service();
+    private Cache cache = new Cache();
+    private Stream stream = new Stream();
+    private Valuation valuation = new Valuation();
+    private Breaker breaker = new Breaker();
+    private Catalog catalog = new Catalog();
+    private Http http = new Http();
+    private Hedging hedging = new Hedging();
+
+    @Data
+    public static class Service {
+        // Base URL of the market-pricing-service; with urls set, requests addressed to it are spread over those
+        private String url;
+        // Pricing service instances to balance across (least outstanding requests); defaults to url alone
+        private List<String> urls = new ArrayList<>();
+        // Consecutive failures (connection errors or 5xx) after which an instance is ejected
+        private int ejectAfterFailures = 3;
+        // First ejection period; doubled for every repeated ejection, up to max-eject-duration
+        private Duration ejectDuration = Duration.ofSeconds(10);
+        private Duration maxEjectDuration = Duration.ofMinutes(2);
+        // Other instances a failed read is retried on; writes only fail over when the connection was refused
+        private int maxFailovers = 2;
+        // After an instance answers 404/405 for the batch price endpoint, batch reads slice the catalog for this long
+        // before trying the endpoint again (a rolling deploy may briefly route to an instance without it)
+        private Duration batchRetryAfter = Duration.ofMinutes(1);
+
+        public List<String> endpoints() {
+            List<String> configured = urls.isEmpty() && url != null ? List.of(url) : urls;
+            return configured.stream().map(Service::trimSlash).distinct().toList();
+        }
+
+        static String trimSlash(String baseUrl) {
+            String trimmed = baseUrl.trim();
+            return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+        }
+    }
+
+    @Data
+    public static class Cache {
+        // Default time a cached price may be served for
+        private Duration ttl = Duration.ofSeconds(5);
+        // Per-symbol TTL overrides, e.g. pricing.cache.symbol-ttl.AAPL=1s
+        private Map<String, Duration> symbolTtl = new HashMap<>();
+        // Upper bound on cached symbols; least recently used entries are evicted beyond it
+        private int maxSize = 5000;
+        // Staleness accepted by read-only views (portfolio, profile, charts)
+        private Duration viewStaleness = Duration.ofSeconds(2);
+
+        public Duration ttlFor(String symbol) {
+            if (symbol == null || symbolTtl.isEmpty()) {
+                return ttl;
+            }
+            Duration override = symbolTtl.get(symbol);
+            if (override == null) {
+                override = symbolTtl.entrySet().stream()
+                        .filter(e -> e.getKey().equalsIgnoreCase(symbol))
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElse(null);
+            }
+            return override != null ? override : ttl;
+        }
+    }
+
+    @Data
+    public static class Stream {
+        // Subscribe to the pricing service tick stream and serve prices from the in-memory price book
+        private boolean enabled = false;
+        // Server-sent events endpoint, relative to the service URL
+        private String path = "/api/instruments/stream";
+        // No tick or heartbeat for this long marks the stream stale (REST is used meanwhile) and reconnects
+        private Duration staleAfter = Duration.ofSeconds(10);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration reconnectInitialDelay = Duration.ofSeconds(1);
+        private Duration reconnectMaxDelay = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Valuation {
+        // BATCH: one batch request per portfolio; PARALLEL: one request per symbol, fanned out concurrently
+        private Mode mode = Mode.BATCH;
+        // Upper bound on concurrent per-symbol requests across all valuations
+        private int maxConcurrency = 16;
+        // Symbols not priced within this deadline are shown with their last known price (or as unavailable)
+        private Duration deadline = Duration.ofMillis(1500);
+
+        public enum Mode { BATCH, PARALLEL }
+    }
+
+    @Data
+    public static class Breaker {
+        private boolean enabled = true;
+        // Number of most recent calls the failure rate is computed over
+        private int slidingWindowSize = 20;
+        // Calls needed in the window before the breaker may open
+        private int minimumCalls = 5;
+        // Failure rate (percent) at which the breaker opens; slow calls count as failures
+        private int failureRateThreshold = 50;
+        // Calls taking longer than this count as failures even when they succeed
+        private Duration slowCallThreshold = Duration.ofSeconds(2);
+        // How long the breaker stays open before letting probe calls through
+        private Duration openDuration = Duration.ofSeconds(10);
+        // Probe calls allowed while half-open; all must succeed to close the breaker
+        private int halfOpenCalls = 3;
+    }
+
+    @Data
+    public static class Catalog {
+        // Serve the instrument list from a locally held snapshot, revalidated with ETags / change feeds
+        private boolean enabled = true;
+        // How often the snapshot is revalidated in the background
+        private Duration refreshInterval = Duration.ofSeconds(2);
+        // A snapshot not revalidated for this long is refreshed on read before being served
+        private Duration maxAge = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Http {
+        // Per-route pool limits overriding spring.cloud.openfeign.httpclient.max-connections-per-route,
+        // keyed by base URL, e.g. pricing.http.route-max-connections.[http://localhost:8081]=20
+        private Map<String, Integer> routeMaxConnections = new HashMap<>();
+    }
+
+    @Data
+    public static class Hedging {
+        // Send a second copy of slow pricing reads (never writes) and use whichever answers first
+        private boolean enabled = false;
+        // The hedge is sent once a read has taken longer than this percentile of recent read latencies
+        private double percentile = 95;
+        // Bounds for the hedge delay; max-delay is also used until enough latencies have been observed
+        private Duration minDelay = Duration.ofMillis(20);
+        private Duration maxDelay = Duration.ofMillis(500);
+        // Hedges allowed per original request, plus a per-second allowance for low traffic
+        private double budgetRatio = 0.1;
+        private int budgetMinPerSecond = 5;
+    }
+}
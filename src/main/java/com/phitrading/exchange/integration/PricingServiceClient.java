@@ -1,18 +1,34 @@
 package com.phitrading.exchange.integration;
 
+import com.phitrading.exchange.common.util.Symbols;
 import com.phitrading.exchange.integration.dto.CreateInstrumentRequest;
+import com.phitrading.exchange.integration.dto.InstrumentChangesDto;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
 import com.phitrading.exchange.integration.dto.UpdatePriceRequest;
+import feign.FeignException;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * Feign client for communicating with the market-pricing-service
+ * Feign client for communicating with the market-pricing-service.
+ * The Feign proxy itself is not primary: application code receives {@link CachingPricingClient},
+ * which decorates the raw client registered under {@link #FEIGN_QUALIFIER}.
  */
-@FeignClient(name = "marketPricingService", url = "${pricing.service.url}")
+@FeignClient(name = "marketPricingService", url = "${pricing.service.url}",
+        primary = false, qualifiers = PricingServiceClient.FEIGN_QUALIFIER)
 public interface PricingServiceClient {
 
+    String FEIGN_QUALIFIER = "pricingServiceFeignClient";
+
     /**
      * Create or update an instrument in the pricing service
      * @param request the instrument details
@@ -39,6 +55,73 @@ public interface PricingServiceClient {
     @GetMapping("/api/instruments/{symbol}/price")
     InstrumentPriceDto getCurrentPrice(@PathVariable("symbol") String symbol);
 
+    /**
+     * Get the price for an instrument, accepting a previously fetched price that is not older
+     * than the given staleness window. The plain Feign client has no cache and always fetches.
+     * @param symbol the instrument symbol
+     * @param maxStaleness oldest price age the caller accepts
+     * @return the price information
+     */
+    default InstrumentPriceDto getCurrentPrice(String symbol, Duration maxStaleness) {
+        return getCurrentPrice(symbol);
+    }
+
+    /**
+     * Get current prices for several instruments in one round trip.
+     * Not every pricing-service version exposes this endpoint; prefer {@link #getPrices(Collection)}.
+     * @param symbols the instrument symbols
+     * @return price information for the symbols known to the pricing service
+     */
+    @GetMapping("/api/instruments/prices")
+    List<InstrumentPriceDto> getPricesBatch(@RequestParam("symbols") Collection<String> symbols);
+
+    /**
+     * Get current prices for several instruments with a single call. Uses the batch endpoint and
+     * falls back to slicing {@link #getAllInstruments()} when the pricing service lacks it.
+     * @param symbols the instrument symbols
+     * @return prices keyed by the requested symbol; unknown symbols are absent
+     */
+    default Map<String, InstrumentPriceDto> getPrices(Collection<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) {
+            return Map.of();
+        }
+        List<InstrumentPriceDto> found;
+        try {
+            found = getPricesBatch(symbols);
+        } catch (FeignException.NotFound | FeignException.MethodNotAllowed ex) {
+            found = getAllInstruments();
+        }
+        return bySymbol(symbols, found);
+    }
+
+    /**
+     * Batch variant of {@link #getCurrentPrice(String, Duration)}. The plain Feign client always fetches.
+     * @param symbols the instrument symbols
+     * @param maxStaleness oldest price age the caller accepts
+     * @return prices keyed by the requested symbol; unknown symbols are absent
+     */
+    default Map<String, InstrumentPriceDto> getPrices(Collection<String> symbols, Duration maxStaleness) {
+        return getPrices(symbols);
+    }
+
+    /**
+     * Match pricing-service results to the requested symbols (case-insensitive), keeping request order.
+     */
+    static Map<String, InstrumentPriceDto> bySymbol(Collection<String> requested, Collection<InstrumentPriceDto> found) {
+        Map<String, InstrumentPriceDto> index = found == null ? Map.of() : found.stream()
+                .filter(Objects::nonNull)
+                .filter(dto -> Symbols.normalize(dto.getSymbol()) != null)
+                .collect(Collectors.toMap(dto -> Symbols.normalize(dto.getSymbol()), Function.identity(), (a, b) -> b));
+        Map<String, InstrumentPriceDto> result = new LinkedHashMap<>();
+        for (String symbol : requested) {
+            InstrumentPriceDto dto = symbol != null ? index.get(Symbols.normalize(symbol)) : null;
+            if (dto != null) {
+                result.put(symbol, dto);
+            }
+        }
+        return result;
+    }
+
     /**
      * Get all instruments with their current pricing information
      * @return list of instruments
@@ -46,6 +129,25 @@ public interface PricingServiceClient {
     @GetMapping("/api/instruments")
     List<InstrumentPriceDto> getAllInstruments();
 
+    /**
+     * Conditionally fetch the instrument catalog. The raw response is returned for every status so the caller
+     * can handle {@code 304 Not Modified}; a {@code 200} carries the catalog with {@code ETag} and, when the
+     * pricing service supports change feeds, {@code X-Catalog-Version} headers.
+     * @param etag entity tag of the catalog the caller holds, or null for an unconditional fetch
+     * @return raw response; the caller must close it
+     */
+    @GetMapping("/api/instruments")
+    feign.Response getInstrumentCatalog(@RequestHeader(value = "If-None-Match", required = false) String etag);
+
+    /**
+     * Get the instruments added, repriced and removed since a catalog version.
+     * Not every pricing-service version exposes this endpoint; 410 Gone means the version is too old.
+     * @param sinceVersion catalog version the caller holds
+     * @return changes and the resulting catalog version
+     */
+    @GetMapping("/api/instruments/changes")
+    InstrumentChangesDto getInstrumentChanges(@RequestParam("since") long sinceVersion);
+
     /**
      * Delete an instrument from the pricing service
      * @param symbol the instrument symbol
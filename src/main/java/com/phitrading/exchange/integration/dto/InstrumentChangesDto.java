@@ -0,0 +1,23 @@
+package com.phitrading.exchange.integration.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalog changes since a given catalog version, as returned by the pricing service
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstrumentChangesDto {
+    // Catalog version after applying these changes
+    private long version;
+    // Instruments added or repriced since the requested version
+    private List<InstrumentPriceDto> upserted = new ArrayList<>();
+    // Symbols removed since the requested version
+    private List<String> removed = new ArrayList<>();
+}
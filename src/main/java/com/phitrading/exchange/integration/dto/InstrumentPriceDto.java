@@ -5,8 +5,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -25,5 +28,29 @@ public class InstrumentPriceDto {
     // Map JSON property "updatedAt" from the pricing service
     @JsonProperty("updatedAt")
     private LocalDateTime updatedAt;
-}
+    // When this app received the price from the pricing service (set locally, not sent upstream)
+    private Instant retrievedAt;
+    // True when this is a last known price served because the pricing service is unavailable
+    @JsonIgnore
+    private boolean stale;
+
+    /**
+     * How long ago this price was retrieved from the pricing service.
+     * @return age of the price, or {@link Duration#ZERO} when the retrieval time is unknown
+     */
+    @JsonIgnore
+    public Duration getPriceAge() {
+        if (retrievedAt == null) {
+            return Duration.ZERO;
+        }
+        Duration age = Duration.between(retrievedAt, Instant.now());
+        return age.isNegative() ? Duration.ZERO : age;
+    }
 
+    /**
+     * Copy of this price flagged as a stale last known value. The original (e.g. a cached instance) is not modified.
+     */
+    public InstrumentPriceDto asStale() {
+        return new InstrumentPriceDto(id, symbol, name, lastPrice, previousClose, updatedAt, retrievedAt, true);
+    }
+}
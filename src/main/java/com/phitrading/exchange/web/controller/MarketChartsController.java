@@ -1,5 +1,6 @@
 package com.phitrading.exchange.web.controller;
 
+import com.phitrading.exchange.integration.PricingProperties;
 import com.phitrading.exchange.integration.PricingServiceClient;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
 import org.slf4j.Logger;
@@ -25,9 +26,11 @@ public class MarketChartsController {
     private static final Logger log = LoggerFactory.getLogger(MarketChartsController.class);
 
     private final PricingServiceClient pricingClient;
+    private final PricingProperties pricingProperties;
 
-    public MarketChartsController(PricingServiceClient pricingClient) {
+    public MarketChartsController(PricingServiceClient pricingClient, PricingProperties pricingProperties) {
         this.pricingClient = pricingClient;
+        this.pricingProperties = pricingProperties;
     }
 
     @GetMapping("/charts")
@@ -62,7 +65,7 @@ public class MarketChartsController {
         BigDecimal currentPrice = null;
         if (defaultSymbol != null) {
             try {
-                InstrumentPriceDto priceDto = pricingClient.getCurrentPrice(defaultSymbol);
+                InstrumentPriceDto priceDto = pricingClient.getCurrentPrice(defaultSymbol, pricingProperties.getCache().getViewStaleness());
                 currentPrice = priceDto != null ? priceDto.getLastPrice() : null;
             } catch (Exception ex) {
                 log.warn("Failed to fetch current price for default symbol {}", defaultSymbol, ex);
@@ -106,7 +109,7 @@ public class MarketChartsController {
         }
 
         try {
-            InstrumentPriceDto priceDto = pricingClient.getCurrentPrice(normalized);
+            InstrumentPriceDto priceDto = pricingClient.getCurrentPrice(normalized, pricingProperties.getCache().getViewStaleness());
             BigDecimal startPrice = priceDto != null && priceDto.getLastPrice() != null
                     ? priceDto.getLastPrice()
                     : BigDecimal.valueOf(100);
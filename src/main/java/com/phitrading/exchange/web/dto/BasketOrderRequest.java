@@ -0,0 +1,49 @@
+package com.phitrading.exchange.web.dto;
+
+import com.phitrading.exchange.domain.entity.Order;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several market orders submitted together, e.g. to rebalance a portfolio.
+ */
+@Data
+public class BasketOrderRequest {
+
+    public static final int MAX_ORDERS = 100;
+
+    public enum Mode {
+        // Every order executes or none does
+        ALL_OR_NOTHING,
+        // Orders that cannot execute are rejected individually; the rest go through
+        BEST_EFFORT
+    }
+
+    @NotNull
+    private Mode mode = Mode.ALL_OR_NOTHING;
+
+    @Valid
+    @NotEmpty
+    @Size(max = MAX_ORDERS)
+    private List<Line> orders = new ArrayList<>();
+
+    @Data
+    public static class Line {
+        @NotBlank
+        private String symbol;
+
+        @NotNull
+        private Order.OrderSide side;
+
+        @Min(1)
+        private long quantity;
+    }
+}
@@ -0,0 +1,34 @@
+package com.phitrading.exchange.web.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+@Builder
+@Jacksonized
+public class BasketOrderResult {
+    BasketOrderRequest.Mode mode;
+    int executed;
+    int rejected;
+    BigDecimal cashBalance; // after the basket
+    List<Line> lines; // in request order
+
+    @Value
+    @Builder
+    @Jacksonized
+    public static class Line {
+        String symbol;
+        String side; // BUY or SELL
+        long quantity;
+        String status; // EXECUTED or REJECTED
+        UUID orderId; // null when rejected
+        BigDecimal executionPrice;
+        BigDecimal realizedPnl; // SELL only
+        String message; // rejection reason
+    }
+}
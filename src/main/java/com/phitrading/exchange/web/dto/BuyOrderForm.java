@@ -2,8 +2,12 @@ package com.phitrading.exchange.web.dto;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 public class BuyOrderForm {
     @NotBlank
@@ -11,4 +15,12 @@ public class BuyOrderForm {
 
     @Min(1)
     private long quantity;
+
+    // Optional: when set, a limit order is placed instead of executing at the market price
+    @Positive
+    private BigDecimal limitPrice;
+
+    // Generated per rendered form; a resubmission with the same key replays the first result
+    @Size(max = 64)
+    private String idempotencyKey;
 }
@@ -0,0 +1,21 @@
+package com.phitrading.exchange.web.dto;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Value
+@Builder
+public class ExposureView {
+    @Singular
+    List<SymbolExposureView> symbols;  // largest notional first
+
+    BigDecimal totalCostBasis;
+    BigDecimal totalNotional;
+    BigDecimal totalUnrealizedPnl;
+    Instant rebuiltAt;                 // last full recomputation from the positions table; null before the first
+}
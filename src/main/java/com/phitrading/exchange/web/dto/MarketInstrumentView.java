@@ -15,6 +15,7 @@ public class MarketInstrumentView {
     private BigDecimal changePct;
     private boolean positive;
     private boolean negative;
+    private boolean stale;
 
     public MarketInstrumentView() {
     }
@@ -64,4 +65,6 @@ public class MarketInstrumentView {
     public BigDecimal getChangePct() { return changePct; }
     public boolean isPositive() { return positive; }
     public boolean isNegative() { return negative; }
+    public boolean isStale() { return stale; }
+    public void setStale(boolean stale) { this.stale = stale; }
 }
@@ -0,0 +1,23 @@
+package com.phitrading.exchange.web.dto;
+
+import com.phitrading.exchange.domain.entity.Order;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * A market order submitted through the JSON API; it is accepted right away and executed in the background.
+ */
+@Data
+public class MarketOrderRequest {
+
+    @NotBlank
+    private String symbol;
+
+    @NotNull
+    private Order.OrderSide side;
+
+    @Min(1)
+    private long quantity;
+}
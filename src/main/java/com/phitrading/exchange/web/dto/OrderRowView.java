@@ -5,18 +5,22 @@ import lombok.Value;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Value
 @Builder
 public class OrderRowView {
+    UUID id;
     String symbol;
     String side;            // BUY or SELL
     String status;          // EXECUTED, PENDING, CANCELED
     BigDecimal quantity;    // display-friendly quantity
     BigDecimal executionPrice;
+    BigDecimal limitPrice;  // set for LIMIT orders
     LocalDateTime createdAt;
     LocalDateTime executedAt;
 
     BigDecimal realizedPnl;   // nullable; shown for SELL if available
     String realizedPnlSign;   // positive | negative | zero | none
+    String rejectReason;      // set when an accepted order was canceled instead of executed
 }
@@ -0,0 +1,31 @@
+package com.phitrading.exchange.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+@Builder
+@Jacksonized
+public class OrderStatusView {
+    UUID orderId;
+    String symbol;
+    String side;     // BUY or SELL
+    long quantity;
+    String status;   // PENDING, EXECUTED or CANCELED
+    BigDecimal executionPrice; // set once executed
+    BigDecimal realizedPnl;    // SELL orders only
+    String message;  // why the order was canceled, if it was
+    LocalDateTime createdAt;
+    LocalDateTime executedAt;
+
+    @JsonIgnore
+    public boolean isDone() {
+        return !"PENDING".equals(status);
+    }
+}
@@ -15,4 +15,5 @@ public class PortfolioRowView {
     BigDecimal currentPrice;
     BigDecimal pnlAbs;
     BigDecimal pnlPct;
+    String priceStatus;     // LIVE, STALE (last known price) or UNAVAILABLE
 }
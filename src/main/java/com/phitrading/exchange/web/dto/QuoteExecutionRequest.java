@@ -0,0 +1,18 @@
+package com.phitrading.exchange.web.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * Execution of a previously issued quote (JSON API).
+ */
+@Data
+public class QuoteExecutionRequest {
+
+    @NotBlank
+    private String signature;
+
+    @Min(1)
+    private long quantity;
+}
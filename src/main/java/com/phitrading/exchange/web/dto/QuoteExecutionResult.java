@@ -0,0 +1,18 @@
+package com.phitrading.exchange.web.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+
+@Value
+@Builder
+@Jacksonized
+public class QuoteExecutionResult {
+    String quoteId;
+    String symbol;
+    String side;       // BUY or SELL
+    long quantity;
+    BigDecimal price;  // the quoted price
+}
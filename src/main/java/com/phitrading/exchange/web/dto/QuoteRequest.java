@@ -0,0 +1,19 @@
+package com.phitrading.exchange.web.dto;
+
+import com.phitrading.exchange.domain.entity.Order;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Request for a firm price to buy or sell a symbol (JSON API).
+ */
+@Data
+public class QuoteRequest {
+
+    @NotBlank
+    private String symbol;
+
+    @NotNull
+    private Order.OrderSide side;
+}
@@ -0,0 +1,20 @@
+package com.phitrading.exchange.web.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Value
+@Builder
+@Jacksonized
+public class QuoteView {
+    String quoteId;
+    String symbol;
+    String side;       // BUY or SELL
+    BigDecimal price;  // guaranteed for executions until expiresAt
+    Instant expiresAt;
+    String signature;  // must be sent back to execute the quote
+}
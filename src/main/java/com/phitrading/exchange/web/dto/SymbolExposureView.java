@@ -0,0 +1,20 @@
+package com.phitrading.exchange.web.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+@Builder
+public class SymbolExposureView {
+    String symbol;
+    long holders;              // accounts holding the symbol
+    long quantity;             // shares held by all of them
+    BigDecimal price;
+    String priceStatus;        // LIVE, STALE or UNAVAILABLE
+    BigDecimal costBasis;
+    BigDecimal notional;       // quantity at the current price
+    BigDecimal unrealizedPnl;
+    BigDecimal unrealizedPnlPct;
+}
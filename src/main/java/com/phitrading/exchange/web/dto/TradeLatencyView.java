@@ -0,0 +1,18 @@
+package com.phitrading.exchange.web.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class TradeLatencyView {
+    String side;     // BUY or SELL
+    String outcome;  // executed, rejected, failed or rolled_back
+    String stage;    // price, load_user, ..., commit, total
+    long count;      // since startup
+    // Milliseconds over the last couple of minutes
+    double p50Ms;
+    double p99Ms;
+    double p999Ms;
+    double maxMs;
+}
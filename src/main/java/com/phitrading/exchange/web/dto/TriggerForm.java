@@ -0,0 +1,26 @@
+package com.phitrading.exchange.web.dto;
+
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class TriggerForm {
+    @NotBlank
+    private String symbol;
+
+    @NotNull
+    private PositionTrigger.TriggerType type;
+
+    @Min(1)
+    private long quantity;
+
+    @NotNull
+    @Positive
+    private BigDecimal triggerPrice;
+}
@@ -0,0 +1,19 @@
+package com.phitrading.exchange.web.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Value
+@Builder
+public class TriggerRowView {
+    UUID id;
+    String symbol;
+    String type;            // STOP_LOSS or TAKE_PROFIT
+    long quantity;
+    BigDecimal triggerPrice;
+    LocalDateTime createdAt;
+}
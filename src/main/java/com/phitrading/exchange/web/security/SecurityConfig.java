@@ -23,9 +23,10 @@ public class SecurityConfig {
                     "/auth/**",
                     "/css/**",
                     "/js/**",
-                    "/images/**"
+                    "/images/**",
+                    "/actuator/health"
                 ).permitAll()
-                .requestMatchers("/admin/**").hasRole("ADMIN")
+                .requestMatchers("/admin/**", "/actuator/**").hasRole("ADMIN")
                 .requestMatchers(
                     "/market",
                     "/api/market/overview",
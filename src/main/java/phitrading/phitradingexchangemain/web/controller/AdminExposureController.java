@@ -0,0 +1,71 @@
+package phitrading.phitradingexchangemain.web.controller;
+
+import com.phitrading.exchange.domain.service.ExposureService;
+import com.phitrading.exchange.web.dto.ExposureView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.util.Map;
+
+/**
+ * House-wide client exposure per symbol: an admin page, and the same figures as JSON for risk and ops tooling.
+ */
+@Controller
+@RequestMapping("/admin")
+public class AdminExposureController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdminExposureController.class);
+
+    private final ExposureService exposureService;
+
+    public AdminExposureController(ExposureService exposureService) {
+        this.exposureService = exposureService;
+    }
+
+    @GetMapping("/exposure")
+    public String exposure(Model model) {
+        model.addAttribute("pageTitle", "Admin – Exposure");
+        model.addAttribute("exposure", exposureService.getExposure());
+        return "admin-exposure";
+    }
+
+    /** Recompute the exposure from all positions, e.g. after positions were corrected by hand. */
+    @PostMapping("/exposure/rebuild")
+    public String rebuild(RedirectAttributes redirectAttributes) {
+        try {
+            int symbols = exposureService.rebuild();
+            redirectAttributes.addFlashAttribute("message", "Exposure rebuilt: " + symbols + " symbols held");
+        } catch (Exception e) {
+            log.error("Exposure rebuild failed", e);
+            redirectAttributes.addFlashAttribute("error", "Exposure rebuild failed: " + e.getMessage());
+        }
+        return "redirect:/admin/exposure";
+    }
+
+    @GetMapping(value = "/exposure/symbols", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ExposureView exposureJson() {
+        return exposureService.getExposure();
+    }
+
+    @GetMapping(value = "/exposure/symbols/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> symbolExposure(@PathVariable("symbol") String symbol) {
+        try {
+            return ResponseEntity.ok(exposureService.getExposure(symbol));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
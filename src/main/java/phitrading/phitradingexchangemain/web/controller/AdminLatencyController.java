@@ -0,0 +1,32 @@
+package phitrading.phitradingexchangemain.web.controller;
+
+import com.phitrading.exchange.domain.latency.TradeLatency;
+import com.phitrading.exchange.web.dto.TradeLatencyView;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+
+@Controller
+@RequestMapping("/admin")
+public class AdminLatencyController {
+
+    private final TradeLatency tradeLatency;
+
+    public AdminLatencyController(TradeLatency tradeLatency) {
+        this.tradeLatency = tradeLatency;
+    }
+
+    /**
+     * p50/p99/p999 per stage of market buys and sells, by side and outcome. The full histograms are on
+     * /actuator/metrics/trading.trade.latency.
+     */
+    @GetMapping(value = "/latency/trades", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<TradeLatencyView> tradeLatency() {
+        return tradeLatency.percentiles();
+    }
+}
@@ -94,6 +94,7 @@ public class DashboardController {
                         .currentPrice(currencyService.convert(r.getCurrentPrice(), from, target))
                         .pnlAbs(currencyService.convert(r.getPnlAbs(), from, target))
                         .pnlPct(r.getPnlPct())
+                        .priceStatus(r.getPriceStatus())
                         .build())
                 .collect(Collectors.toList());
 
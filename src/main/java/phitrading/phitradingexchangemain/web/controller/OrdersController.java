@@ -1,15 +1,32 @@
 package phitrading.phitradingexchangemain.web.controller;
 
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.service.AsyncOrderService;
+import com.phitrading.exchange.domain.service.LimitOrderService;
 import com.phitrading.exchange.domain.service.OrderViewService;
 import com.phitrading.exchange.web.dto.OrderRowView;
+import com.phitrading.exchange.web.dto.OrderStatusView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class OrdersController {
@@ -17,9 +34,18 @@ public class OrdersController {
     private static final Logger log = LoggerFactory.getLogger(OrdersController.class);
 
     private final OrderViewService orderViewService;
+    private final LimitOrderService limitOrderService;
+    private final AsyncOrderService asyncOrderService;
+    private final Duration eventTimeout;
 
-    public OrdersController(OrderViewService orderViewService) {
+    public OrdersController(OrderViewService orderViewService,
+                            LimitOrderService limitOrderService,
+                            AsyncOrderService asyncOrderService,
+                            TradingProperties tradingProperties) {
         this.orderViewService = orderViewService;
+        this.limitOrderService = limitOrderService;
+        this.asyncOrderService = asyncOrderService;
+        this.eventTimeout = tradingProperties.getAsyncOrders().getEventTimeout();
     }
 
     @GetMapping("/orders")
@@ -31,4 +57,71 @@ public class OrdersController {
         model.addAttribute("orders", orders);
         return "orders";
     }
+
+    @PostMapping("/orders/{id}/cancel")
+    public String cancel(@PathVariable("id") UUID id, Principal principal, RedirectAttributes redirectAttributes) {
+        String username = principal != null ? principal.getName() : null;
+        try {
+            limitOrderService.cancel(username, id);
+            redirectAttributes.addFlashAttribute("success", "Limit order canceled");
+        } catch (Exception ex) {
+            log.warn("Cancel of order {} failed for user={}: {}", id, username, ex.getMessage());
+            redirectAttributes.addFlashAttribute("error", ex.getMessage());
+        }
+        return "redirect:/orders";
+    }
+
+    /** Current status of one of the user's orders (JSON), for clients polling an accepted order. */
+    @GetMapping(value = "/orders/{id}/status", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> status(@PathVariable("id") UUID id, Principal principal) {
+        try {
+            return ResponseEntity.ok(asyncOrderService.getStatus(principal.getName(), id));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Server-sent events for one order: a {@code status} event with the current status right away and, if the
+     * order is still pending, another with the final status when it executes or is canceled. The stream then
+     * ends; it also ends after the configured event timeout.
+     */
+    @GetMapping(value = "/orders/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable("id") UUID id, Principal principal) {
+        String username = principal.getName();
+        OrderStatusView current;
+        try {
+            current = asyncOrderService.getStatus(username, id);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = new SseEmitter(eventTimeout.toMillis());
+        emitter.onTimeout(emitter::complete);
+        try {
+            emitter.send(SseEmitter.event().name("status").data(current, MediaType.APPLICATION_JSON));
+        } catch (IOException ex) {
+            emitter.completeWithError(ex);
+            return ResponseEntity.ok(emitter);
+        }
+        if (current.isDone()) {
+            emitter.complete();
+            return ResponseEntity.ok(emitter);
+        }
+        CompletableFuture<OrderStatusView> finalStatus = asyncOrderService.whenDone(username, id);
+        // Timed out or the client went away: stop waiting for the order
+        emitter.onCompletion(() -> finalStatus.cancel(false));
+        finalStatus.whenComplete((done, failure) -> {
+            try {
+                if (done != null) {
+                    emitter.send(SseEmitter.event().name("status").data(done, MediaType.APPLICATION_JSON));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException ex) {
+                // Client went away or the stream already timed out
+                log.debug("Order {} status stream closed: {}", id, ex.getMessage());
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
 }
@@ -1,14 +1,24 @@
 package phitrading.phitradingexchangemain.web.controller;
 
+import com.phitrading.exchange.domain.entity.PositionTrigger;
 import com.phitrading.exchange.domain.service.PortfolioService;
+import com.phitrading.exchange.domain.service.TriggerService;
 import com.phitrading.exchange.web.dto.PortfolioView;
+import com.phitrading.exchange.web.dto.TriggerForm;
+import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
+import java.util.UUID;
 
 @Controller
 public class PortfolioController {
@@ -16,9 +26,11 @@ public class PortfolioController {
     private static final Logger log = LoggerFactory.getLogger(PortfolioController.class);
 
     private final PortfolioService portfolioService;
+    private final TriggerService triggerService;
 
-    public PortfolioController(PortfolioService portfolioService) {
+    public PortfolioController(PortfolioService portfolioService, TriggerService triggerService) {
         this.portfolioService = portfolioService;
+        this.triggerService = triggerService;
     }
 
     @GetMapping("/portfolio")
@@ -27,7 +39,54 @@ public class PortfolioController {
         PortfolioView view = portfolioService.getUserPortfolioView(username);
         model.addAttribute("pageTitle", "Portfolio");
         model.addAttribute("portfolio", view);
+        model.addAttribute("triggers", triggerService.getActiveTriggers(username));
+        if (!model.containsAttribute("triggerForm")) {
+            model.addAttribute("triggerForm", new TriggerForm());
+        }
         log.info("Loading portfolio for user={}, positions={}", username, view.getRows().size());
         return "portfolio";
     }
+
+    @PostMapping("/portfolio/triggers")
+    public String placeTrigger(@Valid @ModelAttribute("triggerForm") TriggerForm form,
+                               BindingResult bindingResult,
+                               Principal principal,
+                               RedirectAttributes redirectAttributes) {
+        String username = principal != null ? principal.getName() : null;
+        if (bindingResult.hasErrors()) {
+            redirectAttributes.addFlashAttribute("error", "Choose a position, a quantity and a positive trigger price");
+            return "redirect:/portfolio";
+        }
+        try {
+            PositionTrigger trigger = triggerService.place(username, form.getSymbol(), form.getType(),
+                    form.getQuantity(), form.getTriggerPrice());
+            redirectAttributes.addFlashAttribute("success", triggerMessage(trigger));
+        } catch (Exception ex) {
+            log.warn("Placing trigger failed for user={}, symbol={}: {}", username, form.getSymbol(), ex.getMessage());
+            redirectAttributes.addFlashAttribute("error", ex.getMessage());
+        }
+        return "redirect:/portfolio";
+    }
+
+    @PostMapping("/portfolio/triggers/{id}/cancel")
+    public String cancelTrigger(@PathVariable("id") UUID id, Principal principal, RedirectAttributes redirectAttributes) {
+        String username = principal != null ? principal.getName() : null;
+        try {
+            triggerService.cancel(username, id);
+            redirectAttributes.addFlashAttribute("success", "Trigger canceled");
+        } catch (Exception ex) {
+            log.warn("Cancel of trigger {} failed for user={}: {}", id, username, ex.getMessage());
+            redirectAttributes.addFlashAttribute("error", ex.getMessage());
+        }
+        return "redirect:/portfolio";
+    }
+
+    private static String triggerMessage(PositionTrigger trigger) {
+        String kind = trigger.getType() == PositionTrigger.TriggerType.STOP_LOSS ? "Stop-loss" : "Take-profit";
+        if (trigger.getStatus() != PositionTrigger.TriggerStatus.ACTIVE) {
+            return kind + " for " + trigger.getSymbol() + " fired immediately at the current price";
+        }
+        return kind + " set for " + trigger.getQuantity() + " shares of " + trigger.getSymbol() + " at "
+                + trigger.getTriggerPrice();
+    }
 }
@@ -0,0 +1,91 @@
+package phitrading.phitradingexchangemain.web.controller;
+
+import com.phitrading.exchange.common.exception.DuplicateRequestException;
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.OrderQueueFullException;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.domain.service.IdempotencyService;
+import com.phitrading.exchange.domain.service.QuoteService;
+import com.phitrading.exchange.web.dto.QuoteExecutionRequest;
+import com.phitrading.exchange.web.dto.QuoteExecutionResult;
+import com.phitrading.exchange.web.dto.QuoteRequest;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Request-for-quote JSON API: {@code POST /trade/quotes} returns a firm price valid for a few seconds, and
+ * {@code POST /trade/quotes/{id}/execute} trades at that price. An {@code Idempotency-Key} header on the execution
+ * makes retries safe.
+ */
+@Controller
+@RequestMapping("/trade/quotes")
+public class QuoteController {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteController.class);
+
+    private final QuoteService quoteService;
+    private final IdempotencyService idempotencyService;
+
+    public QuoteController(QuoteService quoteService, IdempotencyService idempotencyService) {
+        this.quoteService = quoteService;
+        this.idempotencyService = idempotencyService;
+    }
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> requestQuote(@Valid @RequestBody QuoteRequest request,
+                                          BindingResult bindingResult,
+                                          Principal principal) {
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Symbol and side are required"));
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(quoteService.requestQuote(principal.getName(), request.getSymbol(), request.getSide()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (PricingUnavailableException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/{id}/execute", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> executeQuote(@PathVariable("id") String id,
+                                          @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                          @Valid @RequestBody QuoteExecutionRequest request,
+                                          BindingResult bindingResult,
+                                          Principal principal) {
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Signature and a positive quantity are required"));
+        }
+        String username = principal.getName();
+        try {
+            return ResponseEntity.ok(idempotencyService.execute(username, idempotencyKey,
+                    "QUOTE:" + id + ":" + request.getQuantity(), QuoteExecutionResult.class,
+                    () -> quoteService.executeQuote(username, id, request.getSignature(), request.getQuantity())));
+        } catch (IllegalArgumentException | InsufficientFundsException ex) {
+            log.info("Quote {} not executed for user={}: {}", id, username, ex.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (DuplicateRequestException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+        } catch (PricingUnavailableException | OrderQueueFullException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", ex.getMessage()));
+        }
+    }
+}
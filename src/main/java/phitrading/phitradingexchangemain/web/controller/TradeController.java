@@ -1,23 +1,45 @@
 package phitrading.phitradingexchangemain.web.controller;
 
+import com.phitrading.exchange.common.exception.DuplicateRequestException;
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.OrderQueueFullException;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.service.AsyncOrderService;
+import com.phitrading.exchange.domain.service.IdempotencyService;
+import com.phitrading.exchange.domain.service.LimitOrderService;
 import com.phitrading.exchange.domain.service.PortfolioService;
 import com.phitrading.exchange.domain.service.TradeService;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
 import com.phitrading.exchange.web.dto.PortfolioRowView;
+import com.phitrading.exchange.web.dto.BasketOrderRequest;
+import com.phitrading.exchange.web.dto.BasketOrderResult;
 import com.phitrading.exchange.web.dto.BuyOrderForm;
+import com.phitrading.exchange.web.dto.MarketOrderRequest;
+import com.phitrading.exchange.web.dto.OrderStatusView;
 import com.phitrading.exchange.web.dto.SellOrderForm;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/trade")
@@ -27,10 +49,23 @@ public class TradeController {
 
     private final TradeService tradeService;
     private final PortfolioService portfolioService;
+    private final LimitOrderService limitOrderService;
+    private final IdempotencyService idempotencyService;
+    private final AsyncOrderService asyncOrderService;
+    private final boolean asyncOrders;
 
-    public TradeController(TradeService tradeService, PortfolioService portfolioService) {
+    public TradeController(TradeService tradeService,
+                           PortfolioService portfolioService,
+                           LimitOrderService limitOrderService,
+                           IdempotencyService idempotencyService,
+                           AsyncOrderService asyncOrderService,
+                           TradingProperties tradingProperties) {
         this.tradeService = tradeService;
         this.portfolioService = portfolioService;
+        this.limitOrderService = limitOrderService;
+        this.idempotencyService = idempotencyService;
+        this.asyncOrderService = asyncOrderService;
+        this.asyncOrders = tradingProperties.getAsyncOrders().isEnabled();
     }
 
     @GetMapping("/buy")
@@ -52,6 +87,9 @@ public class TradeController {
         if (symbol != null && !symbol.isBlank()) {
             form.setSymbol(symbol);
         }
+        if (form.getIdempotencyKey() == null) {
+            form.setIdempotencyKey(UUID.randomUUID().toString());
+        }
         if (!model.containsAttribute("form")) {
             model.addAttribute("form", form);
         }
@@ -108,13 +146,27 @@ public class TradeController {
         }
         try {
             String username = principal != null ? principal.getName() : null;
-            log.info("Executing BUY for user={}, symbol={}, qty={}", username, form.getSymbol(), form.getQuantity());
-            tradeService.buy(username, form.getSymbol(), form.getQuantity());
-            redirectAttributes.addFlashAttribute("success", "Buy order executed successfully for " + form.getQuantity() + " shares of " + form.getSymbol());
-            return "redirect:/portfolio";
+            // A double click or browser retry carries the same key and gets the first submission's result
+            String message = idempotencyService.execute(username, form.getIdempotencyKey(),
+                    fingerprint(Order.OrderSide.BUY, form.getSymbol(), form.getQuantity(), form.getLimitPrice()), String.class, () -> {
+                if (form.getLimitPrice() != null) {
+                    return limitOrderMessage(limitOrderService.placeLimitOrder(username, form.getSymbol(), Order.OrderSide.BUY,
+                            form.getQuantity(), form.getLimitPrice()));
+                }
+                if (asyncOrders) {
+                    return acceptedMessage(asyncOrderService.submit(username, form.getSymbol(), Order.OrderSide.BUY, form.getQuantity()));
+                }
+                log.info("Executing BUY for user={}, symbol={}, qty={}", username, form.getSymbol(), form.getQuantity());
+                tradeService.buy(username, form.getSymbol(), form.getQuantity());
+                return "Buy order executed successfully for " + form.getQuantity() + " shares of " + form.getSymbol();
+            });
+            redirectAttributes.addFlashAttribute("success", message);
+            return form.getLimitPrice() != null || asyncOrders ? "redirect:/orders" : "redirect:/portfolio";
         } catch (Exception ex) {
             log.error("Error executing buy order", ex);
             model.addAttribute("error", ex.getMessage());
+            // A corrected resubmission is a new request
+            form.setIdempotencyKey(UUID.randomUUID().toString());
             // Reload instruments and return to page
             List<InstrumentPriceDto> instruments = Collections.emptyList();
             try {
@@ -146,6 +198,9 @@ public class TradeController {
         if (symbol != null && !symbol.isBlank()) {
             form.setSymbol(symbol);
         }
+        if (form.getIdempotencyKey() == null) {
+            form.setIdempotencyKey(UUID.randomUUID().toString());
+        }
         if (!model.containsAttribute("form")) {
             model.addAttribute("form", form);
         }
@@ -191,13 +246,25 @@ public class TradeController {
             return "trade-sell";
         }
         try {
-            log.info("Executing SELL for user={}, symbol={}, qty={}", username, form.getSymbol(), form.getQuantity());
-            tradeService.sell(username, form.getSymbol(), form.getQuantity());
-            redirectAttributes.addFlashAttribute("success", "Sell order executed successfully for " + form.getQuantity() + " shares of " + form.getSymbol());
-            return "redirect:/portfolio";
+            String message = idempotencyService.execute(username, form.getIdempotencyKey(),
+                    fingerprint(Order.OrderSide.SELL, form.getSymbol(), form.getQuantity(), form.getLimitPrice()), String.class, () -> {
+                if (form.getLimitPrice() != null) {
+                    return limitOrderMessage(limitOrderService.placeLimitOrder(username, form.getSymbol(), Order.OrderSide.SELL,
+                            form.getQuantity(), form.getLimitPrice()));
+                }
+                if (asyncOrders) {
+                    return acceptedMessage(asyncOrderService.submit(username, form.getSymbol(), Order.OrderSide.SELL, form.getQuantity()));
+                }
+                log.info("Executing SELL for user={}, symbol={}, qty={}", username, form.getSymbol(), form.getQuantity());
+                tradeService.sell(username, form.getSymbol(), form.getQuantity());
+                return "Sell order executed successfully for " + form.getQuantity() + " shares of " + form.getSymbol();
+            });
+            redirectAttributes.addFlashAttribute("success", message);
+            return form.getLimitPrice() != null || asyncOrders ? "redirect:/orders" : "redirect:/portfolio";
         } catch (Exception ex) {
             log.error("Error executing sell order", ex);
             model.addAttribute("error", ex.getMessage());
+            form.setIdempotencyKey(UUID.randomUUID().toString());
             List<PortfolioRowView> positions = Collections.emptyList();
             try { positions = portfolioService.getUserPortfolio(username); } catch (Exception ignored) {}
             model.addAttribute("positions", positions);
@@ -205,4 +272,107 @@ public class TradeController {
             return "trade-sell";
         }
     }
+
+    /**
+     * Execute several market orders at once (JSON). Returns the per-order outcome; an ALL_OR_NOTHING basket
+     * that cannot execute completely is answered with 400 and leaves the account untouched.
+     * A repeated {@code Idempotency-Key} header returns the first response instead of trading again.
+     */
+    @PostMapping(value = "/basket", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> basketSubmit(@Valid @RequestBody BasketOrderRequest request,
+                                          BindingResult bindingResult,
+                                          @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                          Principal principal) {
+        if (bindingResult.hasErrors()) {
+            String errors = bindingResult.getFieldErrors().stream()
+                    .map(e -> e.getField() + " " + e.getDefaultMessage())
+                    .collect(Collectors.joining("; "));
+            return ResponseEntity.badRequest().body(Map.of("error", errors));
+        }
+        try {
+            BasketOrderResult result = idempotencyService.execute(principal.getName(), idempotencyKey,
+                    basketFingerprint(request), BasketOrderResult.class,
+                    () -> tradeService.executeBasket(principal.getName(), request));
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | InsufficientFundsException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (DuplicateRequestException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+        } catch (PricingUnavailableException | OrderQueueFullException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("Basket order failed for user={}", principal.getName(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Basket order failed: " + ex.getMessage()));
+        }
+    }
+
+    /**
+     * Accept a market order (JSON) without waiting for it to execute. Answers 202 with the PENDING order and a
+     * {@code Location} to poll; {@code /orders/{id}/events} streams the final status instead.
+     * A repeated {@code Idempotency-Key} header returns the first response instead of submitting again.
+     */
+    @PostMapping(value = "/orders", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<?> orderSubmit(@Valid @RequestBody MarketOrderRequest request,
+                                         BindingResult bindingResult,
+                                         @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                         Principal principal) {
+        if (bindingResult.hasErrors()) {
+            String errors = bindingResult.getFieldErrors().stream()
+                    .map(e -> e.getField() + " " + e.getDefaultMessage())
+                    .collect(Collectors.joining("; "));
+            return ResponseEntity.badRequest().body(Map.of("error", errors));
+        }
+        String username = principal.getName();
+        try {
+            OrderStatusView accepted = idempotencyService.execute(username, idempotencyKey,
+                    fingerprint(request.getSide(), request.getSymbol(), request.getQuantity(), null), OrderStatusView.class, () -> {
+                Order order = asyncOrderService.submit(username, request.getSymbol(), request.getSide(), request.getQuantity());
+                return asyncOrderService.getStatus(username, order.getId());
+            });
+            return ResponseEntity.accepted()
+                    .location(URI.create("/orders/" + accepted.getOrderId() + "/status"))
+                    .body(accepted);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (DuplicateRequestException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+        } catch (OrderQueueFullException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("Order submission failed for user={}", username, ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Order submission failed: " + ex.getMessage()));
+        }
+    }
+
+    private static String fingerprint(Order.OrderSide side, String symbol, long quantity, BigDecimal limitPrice) {
+        return side + ":" + symbol + ":" + quantity + (limitPrice != null ? "@" + limitPrice.stripTrailingZeros().toPlainString() : "");
+    }
+
+    // Hashed: a basket of 100 orders is too long to store as is
+    private static String basketFingerprint(BasketOrderRequest request) {
+        String orders = request.getOrders().stream()
+                .map(line -> line.getSide() + ":" + line.getSymbol() + ":" + line.getQuantity())
+                .collect(Collectors.joining(","));
+        return "BASKET:" + request.getMode() + ":" + UUID.nameUUIDFromBytes(orders.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String acceptedMessage(Order order) {
+        String side = order.getSide() == Order.OrderSide.BUY ? "Buy" : "Sell";
+        return side + " order accepted for " + order.getQuantity() + " shares of " + order.getSymbol()
+                + " (order " + order.getId() + "); it will execute shortly";
+    }
+
+    private static String limitOrderMessage(Order order) {
+        String side = order.getSide() == Order.OrderSide.BUY ? "Buy" : "Sell";
+        if (order.getStatus() == Order.OrderStatus.EXECUTED) {
+            return side + " limit order executed immediately for " + order.getQuantity() + " shares of "
+                    + order.getSymbol() + " at " + order.getExecutionPrice();
+        }
+        return side + " limit order placed for " + order.getQuantity() + " shares of " + order.getSymbol()
+                + " at " + order.getLimitPrice() + "; it will execute when the market reaches that price";
+    }
 }
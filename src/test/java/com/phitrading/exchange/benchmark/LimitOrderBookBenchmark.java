@@ -0,0 +1,157 @@
+package com.phitrading.exchange.benchmark;
+
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.orderbook.LimitOrderBook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert, cancel and match throughput of {@link LimitOrderBook} on a book with {@value #DEPTH} resting orders
+ * spread over {@value #LEVELS} price levels per side.
+ * <p>
+ * Each measurement is a batch of {@value #BATCH} operations on a book rebuilt before every iteration, so inserts
+ * and cancels never run out of orders; {@link #main} prints the result as orders per second.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.phitrading.exchange.benchmark.LimitOrderBookBenchmark} or from the IDE.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = LimitOrderBookBenchmark.BATCH)
+@Measurement(iterations = 20, batchSize = LimitOrderBookBenchmark.BATCH)
+@Fork(1)
+public class LimitOrderBookBenchmark {
+
+    static final int BATCH = 100_000;
+    static final int DEPTH = 10_000;
+    static final int LEVELS = 200;
+    // Best bid 99.99 and best ask 100.01, one cent apart per level
+    static final long BID_TOP = 999_900;
+    static final long ASK_TOP = 1_000_100;
+    static final long TICK = 100;
+
+    @State(Scope.Thread)
+    public static class InsertState {
+        LimitOrderBook book;
+        UUID[] ids;
+        long[] prices;
+        Order.OrderSide[] sides;
+        int cursor;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            Random random = new Random(42);
+            book = restingBook(random);
+            ids = new UUID[BATCH];
+            prices = new long[BATCH];
+            sides = new Order.OrderSide[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                boolean bid = random.nextBoolean();
+                ids[i] = new UUID(1, i);
+                sides[i] = bid ? Order.OrderSide.BUY : Order.OrderSide.SELL;
+                prices[i] = bid ? BID_TOP - random.nextInt(LEVELS) * TICK : ASK_TOP + random.nextInt(LEVELS) * TICK;
+            }
+            cursor = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CancelState {
+        LimitOrderBook book;
+        UUID[] ids;
+        int cursor;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            Random random = new Random(42);
+            book = restingBook(random);
+            ids = new UUID[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                ids[i] = new UUID(1, i);
+                boolean bid = random.nextBoolean();
+                book.add(ids[i], bid ? Order.OrderSide.BUY : Order.OrderSide.SELL,
+                        bid ? BID_TOP - random.nextInt(LEVELS) * TICK : ASK_TOP + random.nextInt(LEVELS) * TICK, 10);
+            }
+            // Cancel in random order, not in the order the orders were added
+            for (int i = BATCH - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                UUID tmp = ids[i];
+                ids[i] = ids[j];
+                ids[j] = tmp;
+            }
+            cursor = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MatchState {
+        LimitOrderBook book;
+        int cursor;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            // One bid per price level, so every price step down fills exactly one order
+            book = new LimitOrderBook("BENCH");
+            // Added lowest first, so every new level goes to the end of the array
+            for (int i = BATCH - 1; i >= 0; i--) {
+                book.add(new UUID(2, i), Order.OrderSide.BUY, BID_TOP - i, 10);
+            }
+            cursor = 0;
+        }
+    }
+
+    @Benchmark
+    public Object insert(InsertState state) {
+        int i = state.cursor++;
+        return state.book.add(state.ids[i], state.sides[i], state.prices[i], 10);
+    }
+
+    @Benchmark
+    public Object cancel(CancelState state) {
+        return state.book.cancel(state.ids[state.cursor++]);
+    }
+
+    @Benchmark
+    public int match(MatchState state, Blackhole blackhole) {
+        return state.book.match(BID_TOP - state.cursor++, blackhole::consume);
+    }
+
+    private static LimitOrderBook restingBook(Random random) {
+        LimitOrderBook book = new LimitOrderBook("BENCH");
+        for (int i = 0; i < DEPTH; i++) {
+            boolean bid = i % 2 == 0;
+            long price = bid ? BID_TOP - random.nextInt(LEVELS) * TICK : ASK_TOP + random.nextInt(LEVELS) * TICK;
+            book.add(new UUID(0, i), bid ? Order.OrderSide.BUY : Order.OrderSide.SELL, price, 10);
+        }
+        return book;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(LimitOrderBookBenchmark.class.getSimpleName())
+                .build()).run();
+        for (RunResult result : results) {
+            double millisPerBatch = result.getPrimaryResult().getScore();
+            System.out.printf("%-10s %,15.0f orders/s%n", result.getParams().getBenchmark().replaceAll(".*\\.", ""),
+                    BATCH / millisPerBatch * 1000);
+        }
+    }
+}
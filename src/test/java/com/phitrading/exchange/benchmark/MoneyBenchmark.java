@@ -0,0 +1,122 @@
+package com.phitrading.exchange.benchmark;
+
+import com.phitrading.exchange.common.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The portfolio valuation loop and a currency conversion, written once with {@link BigDecimal} as the services
+ * did before and once with {@link Money}, over {@value #POSITIONS} positions.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.phitrading.exchange.benchmark.MoneyBenchmark} or from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    static final int POSITIONS = 100;
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal EUR = new BigDecimal("0.92");
+    private static final BigDecimal BGN = new BigDecimal("1.80");
+    private static final Money EUR_RATE = Money.of(EUR);
+    private static final Money BGN_RATE = Money.of(BGN);
+
+    BigDecimal[] averagePrices;
+    BigDecimal[] lastPrices;
+    Money[] averagePricesFixed;
+    Money[] lastPricesFixed;
+    long[] quantities;
+    BigDecimal amount;
+    Money amountFixed;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        averagePrices = new BigDecimal[POSITIONS];
+        lastPrices = new BigDecimal[POSITIONS];
+        averagePricesFixed = new Money[POSITIONS];
+        lastPricesFixed = new Money[POSITIONS];
+        quantities = new long[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            averagePrices[i] = BigDecimal.valueOf(random.nextLong(10_000, 5_000_000), 4);
+            lastPrices[i] = BigDecimal.valueOf(random.nextLong(10_000, 5_000_000), 4);
+            averagePricesFixed[i] = Money.of(averagePrices[i]);
+            lastPricesFixed[i] = Money.of(lastPrices[i]);
+            quantities[i] = random.nextInt(1, 1_000);
+        }
+        amount = new BigDecimal("12345.6789");
+        amountFixed = Money.of(amount);
+    }
+
+    @Benchmark
+    public BigDecimal valuationBigDecimal() {
+        BigDecimal totalCost = BigDecimal.ZERO;
+        BigDecimal totalValue = BigDecimal.ZERO;
+        BigDecimal pctSum = BigDecimal.ZERO;
+        for (int i = 0; i < POSITIONS; i++) {
+            BigDecimal qty = BigDecimal.valueOf(quantities[i]);
+            BigDecimal cost = averagePrices[i].multiply(qty);
+            BigDecimal value = lastPrices[i].multiply(qty);
+            BigDecimal pnl = value.subtract(cost);
+            BigDecimal pct = pnl.multiply(HUNDRED).divide(cost, 6, RoundingMode.HALF_UP);
+            pctSum = pctSum.add(pct.setScale(2, RoundingMode.HALF_UP)).add(pnl.setScale(2, RoundingMode.HALF_UP));
+            totalCost = totalCost.add(cost);
+            totalValue = totalValue.add(value);
+        }
+        return totalValue.subtract(totalCost).setScale(2, RoundingMode.HALF_UP).add(pctSum);
+    }
+
+    @Benchmark
+    public Money valuationMoney() {
+        Money totalCost = Money.ZERO;
+        Money totalValue = Money.ZERO;
+        Money pctSum = Money.ZERO;
+        for (int i = 0; i < POSITIONS; i++) {
+            long qty = quantities[i];
+            Money cost = averagePricesFixed[i].times(qty);
+            Money value = lastPricesFixed[i].times(qty);
+            Money pnl = value.minus(cost);
+            pctSum = pctSum.plus(pnl.percentOf(cost).rounded(2)).plus(pnl.rounded(2));
+            totalCost = totalCost.plus(cost);
+            totalValue = totalValue.plus(value);
+        }
+        return totalValue.minus(totalCost).rounded(2).plus(pctSum);
+    }
+
+    @Benchmark
+    public BigDecimal convertBigDecimal() {
+        return amount.divide(EUR, 8, RoundingMode.HALF_UP).multiply(BGN).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public Money convertMoney() {
+        return amountFixed.timesRatio(BGN_RATE, EUR_RATE).rounded(2);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
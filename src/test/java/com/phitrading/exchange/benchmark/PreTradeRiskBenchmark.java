@@ -0,0 +1,114 @@
+package com.phitrading.exchange.benchmark;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.domain.risk.PreTradeRiskEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cost of one pre-trade check by {@link PreTradeRiskEngine} with all four limits set, for an account holding
+ * {@value #POSITIONS} symbols whose state is already cached, and of recording an execution against it.
+ * The repositories are only read when the account is first loaded, so they are stubbed.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.phitrading.exchange.benchmark.PreTradeRiskBenchmark} or from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PreTradeRiskBenchmark {
+
+    static final int POSITIONS = 50;
+
+    @State(Scope.Thread)
+    public static class Account {
+        PreTradeRiskEngine engine;
+        String[] symbols;
+        Money price = Money.of(100);
+        int cursor;
+
+        @Setup
+        public void setUp() {
+            TradingProperties properties = new TradingProperties();
+            TradingProperties.RoleLimits limits = new TradingProperties.RoleLimits();
+            limits.setMaxOrderNotional(new BigDecimal("1000000"));
+            limits.setMaxPositionQuantity(Long.MAX_VALUE / 2);
+            limits.setMaxDailyTurnover(new BigDecimal("100000000000"));
+            limits.setMaxConcentrationPct(new BigDecimal("100"));
+            properties.getRisk().getRoles().put("USER", limits);
+
+            UserAccount user = new UserAccount();
+            user.setUsername("bench");
+            user.setCashBalance(new BigDecimal("10000000.00"));
+            List<PortfolioPosition> positions = new ArrayList<>();
+            symbols = new String[POSITIONS];
+            for (int i = 0; i < POSITIONS; i++) {
+                symbols[i] = "SYM" + i;
+                PortfolioPosition position = new PortfolioPosition();
+                position.setSymbol(symbols[i]);
+                position.setQuantity(100);
+                position.setAveragePrice(new BigDecimal("100.00"));
+                positions.add(position);
+            }
+            UserAccountRepository users = mock(UserAccountRepository.class);
+            PortfolioPositionRepository positionRepository = mock(PortfolioPositionRepository.class);
+            OrderRepository orders = mock(OrderRepository.class);
+            when(users.findByUsername(anyString())).thenReturn(Optional.of(user));
+            when(positionRepository.findAllByUser_Username(anyString())).thenReturn(positions);
+            when(orders.sumExecutedNotionalSince(anyString(), any())).thenReturn(BigDecimal.ZERO);
+
+            engine = new PreTradeRiskEngine(users, positionRepository, orders, properties, new SimpleMeterRegistry());
+            engine.check("bench", "USER", symbols[0], Order.OrderSide.BUY, 1, price);
+        }
+    }
+
+    @Benchmark
+    public void check(Account account) {
+        String symbol = account.symbols[account.cursor++ % POSITIONS];
+        account.engine.check("bench", "USER", symbol, Order.OrderSide.BUY, 10, account.price);
+    }
+
+    @Benchmark
+    public void onExecuted(Account account) {
+        String symbol = account.symbols[account.cursor++ % POSITIONS];
+        // Alternate buys and sells so the position does not grow without bound
+        Order.OrderSide side = (account.cursor & 1) == 0 ? Order.OrderSide.BUY : Order.OrderSide.SELL;
+        account.engine.onExecuted(UUID.randomUUID(), "bench", symbol, side, 1, account.price);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PreTradeRiskBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,180 @@
+package com.phitrading.exchange.benchmark;
+
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+import com.phitrading.exchange.domain.trigger.ArmedTrigger;
+import com.phitrading.exchange.domain.trigger.TriggerBook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one price update against {@value #TRIGGERS} armed stop-loss and take-profit triggers, spread over
+ * {@code symbols} symbols: through {@link TriggerBook}s, and as a baseline by scanning every trigger of the symbol.
+ * <p>
+ * Prices follow a random walk of 1 to 5 cents per update starting at 100.00; thresholds are spread up to 20% on
+ * either side of the price, one cent apart. Every trigger a price crosses is re-armed beyond the new price, so
+ * the number of armed triggers stays at {@value #TRIGGERS} and each update fires what a live market would.
+ * {@link #main} prints the result as price updates per second.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.phitrading.exchange.benchmark.TriggerBookBenchmark} or from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TriggerBookBenchmark {
+
+    static final int TRIGGERS = 1_000_000;
+    static final long START_PRICE = 1_000_000;
+    static final long TICK = 100;
+    // Thresholds up to 20% away from the price, in ticks
+    static final int SPREAD_TICKS = 2_000;
+    static final int STEPS = 1 << 16;
+
+    @State(Scope.Thread)
+    public static class Market {
+        @Param({"1", "1000"})
+        int symbols;
+
+        long[] prices;
+        long[] steps;
+        int[] offsets;
+        int cursor;
+
+        void init(Random random) {
+            prices = new long[symbols];
+            java.util.Arrays.fill(prices, START_PRICE);
+            steps = new long[STEPS];
+            offsets = new int[STEPS];
+            for (int i = 0; i < STEPS; i++) {
+                long step = (1 + random.nextInt(5)) * TICK;
+                steps[i] = random.nextBoolean() ? step : -step;
+                offsets[i] = 1 + random.nextInt(SPREAD_TICKS);
+            }
+        }
+
+        /** Moves the next symbol's price and returns its index. */
+        int nextUpdate() {
+            int i = cursor++;
+            int symbol = i % symbols;
+            prices[symbol] += steps[i & (STEPS - 1)];
+            return symbol;
+        }
+
+        long offset(int n) {
+            return offsets[n & (STEPS - 1)] * TICK;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class IndexedState extends Market {
+        TriggerBook[] books;
+        final List<ArmedTrigger> fired = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            init(random);
+            books = new TriggerBook[symbols];
+            for (int s = 0; s < symbols; s++) {
+                books[s] = new TriggerBook("S" + s);
+            }
+            for (int i = 0; i < TRIGGERS; i++) {
+                boolean stop = i % 2 == 0;
+                long offset = (1 + random.nextInt(SPREAD_TICKS)) * TICK;
+                books[i % symbols].add(new UUID(0, i),
+                        stop ? PositionTrigger.TriggerType.STOP_LOSS : PositionTrigger.TriggerType.TAKE_PROFIT,
+                        stop ? START_PRICE - offset : START_PRICE + offset, 10, "user" + (i % 10_000));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ScanState extends Market {
+        long[][] thresholds;
+        boolean[][] stops;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            init(random);
+            int perSymbol = TRIGGERS / symbols;
+            thresholds = new long[symbols][perSymbol];
+            stops = new boolean[symbols][perSymbol];
+            for (int i = 0; i < TRIGGERS; i++) {
+                boolean stop = i % 2 == 0;
+                long offset = (1 + random.nextInt(SPREAD_TICKS)) * TICK;
+                thresholds[i % symbols][i / symbols] = stop ? START_PRICE - offset : START_PRICE + offset;
+                stops[i % symbols][i / symbols] = stop;
+            }
+        }
+    }
+
+    @Benchmark
+    public int indexed(IndexedState state) {
+        int symbol = state.nextUpdate();
+        long price = state.prices[symbol];
+        TriggerBook book = state.books[symbol];
+        List<ArmedTrigger> fired = state.fired;
+        fired.clear();
+        int count = book.fire(price, fired::add);
+        for (int i = 0; i < fired.size(); i++) {
+            ArmedTrigger t = fired.get(i);
+            long offset = state.offset(state.cursor + i);
+            boolean stop = t.getType() == PositionTrigger.TriggerType.STOP_LOSS;
+            book.add(t.getId(), t.getType(), stop ? price - offset : price + offset, t.getQuantity(), t.getUsername());
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int scan(ScanState state) {
+        int symbol = state.nextUpdate();
+        long price = state.prices[symbol];
+        long[] thresholds = state.thresholds[symbol];
+        boolean[] stops = state.stops[symbol];
+        int count = 0;
+        for (int i = 0; i < thresholds.length; i++) {
+            boolean stop = stops[i];
+            if (stop ? price <= thresholds[i] : price >= thresholds[i]) {
+                long offset = state.offset(state.cursor + count);
+                thresholds[i] = stop ? price - offset : price + offset;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(TriggerBookBenchmark.class.getSimpleName())
+                .build()).run();
+        for (RunResult result : results) {
+            double micros = result.getPrimaryResult().getScore();
+            System.out.printf("%-8s symbols=%-5s %,15.0f updates/s%n",
+                    result.getParams().getBenchmark().replaceAll(".*\\.", ""),
+                    result.getParams().getParam("symbols"), 1_000_000 / micros);
+        }
+    }
+}
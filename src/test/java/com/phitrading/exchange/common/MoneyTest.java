@@ -0,0 +1,88 @@
+package com.phitrading.exchange.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void of_roundsHalfUpToFourPlaces() {
+        assertThat(Money.parse("1.23455").units()).isEqualTo(12_346);
+        assertThat(Money.parse("-1.23455").units()).isEqualTo(-12_346);
+        assertThat(Money.parse("145.5").toString()).isEqualTo("145.5000");
+        assertThat(Money.of(new BigDecimal("99.9999"))).isEqualTo(Money.ofUnits(999_999));
+    }
+
+    @Test
+    void arithmetic_matchesBigDecimalWithSameRounding() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal a = BigDecimal.valueOf(random.nextLong(-1_000_000_000L, 1_000_000_000L), 4);
+            BigDecimal b = BigDecimal.valueOf(random.nextLong(1, 10_000_000L), 4);
+            long qty = random.nextInt(1, 10_000);
+            Money ma = Money.of(a);
+            Money mb = Money.of(b);
+
+            assertThat(ma.times(qty).toBigDecimal()).isEqualTo(a.multiply(BigDecimal.valueOf(qty)).setScale(4));
+            assertThat(ma.times(mb).toBigDecimal()).isEqualTo(a.multiply(b).setScale(4, RoundingMode.HALF_UP));
+            assertThat(ma.dividedBy(mb).toBigDecimal()).isEqualTo(a.divide(b, 4, RoundingMode.HALF_UP));
+            assertThat(ma.percentOf(mb).toBigDecimal())
+                    .isEqualTo(a.multiply(BigDecimal.valueOf(100)).divide(b, 4, RoundingMode.HALF_UP));
+            assertThat(ma.toBigDecimal(2)).isEqualTo(a.setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Test
+    void rounded_tiesGoAwayFromZero() {
+        assertThat(Money.parse("2.005").rounded(2)).isEqualTo(Money.parse("2.01"));
+        assertThat(Money.parse("-2.005").rounded(2)).isEqualTo(Money.parse("-2.01"));
+        assertThat(Money.parse("2.0049").toBigDecimal(2)).isEqualTo(new BigDecimal("2.00"));
+    }
+
+    @Test
+    void timesRatio_roundsOnce() {
+        // 100 EUR in BGN at 0.92 / 1.80 per USD: 195.652173...
+        Money bgn = Money.of(100).timesRatio(Money.parse("1.80"), Money.parse("0.92"));
+
+        assertThat(bgn).isEqualTo(Money.parse("195.6522"));
+    }
+
+    @Test
+    void largeIntermediateProducts_stillRoundCorrectly() {
+        Money big = Money.parse("900000000000.0000");
+
+        assertThat(big.times(Money.parse("0.5"))).isEqualTo(Money.parse("450000000000.0000"));
+        assertThat(big.percentOf(Money.parse("1800000000000"))).isEqualTo(Money.parse("50"));
+    }
+
+    @Test
+    void overflow_throwsInsteadOfWrapping() {
+        Money max = Money.ofUnits(Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> max.plus(Money.ofUnits(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(Money.of(2))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.parse("1e20")).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ONE.dividedBy(Money.ZERO)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void percentOf_zeroBase_isZero() {
+        assertThat(Money.of(5).percentOf(Money.ZERO)).isEqualTo(Money.ZERO);
+    }
+
+    @Test
+    void json_roundTripsAsPlainNumber() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+
+        assertThat(mapper.writeValueAsString(Money.parse("12.5"))).isEqualTo("12.5000");
+        assertThat(mapper.readValue("12.34567", Money.class)).isEqualTo(Money.parse("12.3457"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.phitrading.exchange.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    @Test
+    void concurrentCallersForSameKey_shareOneExecution() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(flights, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "100.00";
+        }, release);
+
+        for (Future<String> f : results) {
+            assertThat(f.get(5, TimeUnit.SECONDS)).isEqualTo("100.00");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(flights.getCalls()).isEqualTo(CALLERS);
+        assertThat(flights.getCoalesced()).isEqualTo(CALLERS - 1);
+        assertThat(flights.getInFlight()).isZero();
+    }
+
+    @Test
+    void failureOfSharedExecution_isPropagatedToEveryCaller() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = runConcurrently(flights, () -> {
+            await(release);
+            throw new IllegalStateException("pricing down");
+        }, release);
+
+        for (Future<String> f : results) {
+            assertThatThrownBy(() -> f.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("pricing down");
+        }
+        assertThat(flights.getExecutions()).isEqualTo(1);
+    }
+
+    private List<Future<String>> runConcurrently(SingleFlight<String, String> flights,
+                                                 java.util.function.Supplier<String> loader,
+                                                 CountDownLatch release) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(pool.submit(() -> flights.execute("AAPL", loader)));
+        }
+        // Wait until every caller has either started the load or joined it, then let the load finish
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flights.getExecutions() + flights.getCoalesced() < CALLERS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        pool.shutdown();
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
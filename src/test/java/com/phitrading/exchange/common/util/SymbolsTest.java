@@ -0,0 +1,28 @@
+package com.phitrading.exchange.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolsTest {
+
+    @Test
+    void normalize_trimsAndUpperCases_andRejectsBlank() {
+        assertThat(Symbols.normalize(" aapl ")).isEqualTo("AAPL");
+        assertThat(Symbols.normalize("  ")).isNull();
+        assertThat(Symbols.normalize(null)).isNull();
+    }
+
+    @Test
+    void normalize_doesNotDependOnTheDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertThat(Symbols.normalize("ibm")).isEqualTo("IBM");
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.phitrading.exchange.config;
+
+import com.phitrading.exchange.integration.InstrumentedConnectionManager;
+import com.phitrading.exchange.integration.PricingProperties;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PricingHttpClientConfigTest {
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/instruments", exchange -> {
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void pooledConnectionsAreReused_andPoolMetricsArePublished() throws IOException {
+        FeignHttpClientProperties httpProperties = new FeignHttpClientProperties();
+        httpProperties.setMaxConnections(20);
+        PricingProperties pricingProperties = new PricingProperties();
+        pricingProperties.getHttp().getRouteMaxConnections().put(baseUrl, 3);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        HttpClientConnectionManager manager = new PricingHttpClientConfig()
+                .hc5ConnectionManager(httpProperties, pricingProperties, meterRegistry);
+        PoolingHttpClientConnectionManager pool =
+                (PoolingHttpClientConnectionManager) ((InstrumentedConnectionManager) manager).getDelegate();
+
+        try (CloseableHttpClient client = HttpClients.custom().setConnectionManager(manager).build()) {
+            for (int i = 0; i < 3; i++) {
+                client.execute(new HttpGet(baseUrl + "/api/instruments"), response -> EntityUtils.toString(response.getEntity()));
+            }
+
+            HttpRoute route = new HttpRoute(new HttpHost("http", "localhost", server.getAddress().getPort()));
+            assertThat(pool.getMaxPerRoute(route)).isEqualTo(3);
+            // Keep-alive: all three requests were served over one pooled connection
+            assertThat(pool.getTotalStats().getAvailable()).isEqualTo(1);
+            assertThat(meterRegistry.get("pricing.http.pool.wait").timer().count()).isEqualTo(3);
+            assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max").gauge().value()).isEqualTo(20);
+            assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                    .tag("state", "available").gauge().value()).isEqualTo(1);
+        }
+    }
+}
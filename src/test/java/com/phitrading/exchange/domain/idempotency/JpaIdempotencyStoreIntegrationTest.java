@@ -0,0 +1,62 @@
+package com.phitrading.exchange.domain.idempotency;
+
+import com.phitrading.exchange.integration.PricingServiceClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import phitrading.phitradingexchangemain.PhiTradingExchangeMainApplication;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = PhiTradingExchangeMainApplication.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "trading.idempotency.database-enabled=true"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class JpaIdempotencyStoreIntegrationTest {
+
+    @Autowired
+    private IdempotencyStore store;
+
+    @MockBean
+    private PricingServiceClient pricingServiceClient;
+
+    @Test
+    void firstClaimWins_andOthersSeeItsOutcome() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+
+        assertThat(store.claim("john:k1", "BUY:AAPL:3", expiresAt)).isNull();
+        assertThat(store.claim("john:k1", "BUY:AAPL:3", expiresAt).status()).isEqualTo(IdempotentOutcome.Status.IN_PROGRESS);
+
+        store.complete("john:k1", new IdempotentOutcome("BUY:AAPL:3", IdempotentOutcome.Status.SUCCEEDED,
+                "\"done\"", null, expiresAt));
+
+        IdempotentOutcome outcome = store.claim("john:k1", "BUY:AAPL:3", expiresAt);
+        assertThat(outcome.status()).isEqualTo(IdempotentOutcome.Status.SUCCEEDED);
+        assertThat(outcome.body()).isEqualTo("\"done\"");
+    }
+
+    @Test
+    void expiredOrReleasedKeys_canBeClaimedAgain() {
+        assertThat(store.claim("john:old", "op", Instant.now().minusSeconds(1))).isNull();
+        assertThat(store.claim("john:old", "op", Instant.now().plusSeconds(600))).isNull();
+
+        assertThat(store.claim("john:released", "op", Instant.now().plusSeconds(600))).isNull();
+        store.release("john:released");
+        assertThat(store.get("john:released")).isNull();
+
+        assertThat(store.claim("john:gone", "op", Instant.now().minusSeconds(1))).isNull();
+        assertThat(store.purgeExpired()).isGreaterThanOrEqualTo(1);
+    }
+}
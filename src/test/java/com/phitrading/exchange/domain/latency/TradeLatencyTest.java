@@ -0,0 +1,105 @@
+package com.phitrading.exchange.domain.latency;
+
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.web.dto.TradeLatencyView;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TradeLatencyTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TradeLatency latency = new TradeLatency(registry);
+
+    @Test
+    void executedTrade_recordsTheStagesItReached_andTheTotal() {
+        TradeLatency.Sample sample = latency.start(Order.OrderSide.BUY);
+        sample.lap(TradeStage.PRICE);
+        sample.lap(TradeStage.LOAD_USER);
+        sample.lap(TradeStage.RISK);
+        sample.lap(TradeStage.RISK);
+        sample.executed();
+
+        assertThat(count("BUY", "executed", "price")).isEqualTo(1);
+        assertThat(count("BUY", "executed", "load_user")).isEqualTo(1);
+        // Laps of the same stage add up into one recording
+        assertThat(count("BUY", "executed", "risk")).isEqualTo(1);
+        assertThat(count("BUY", "executed", "save_order")).isZero();
+        assertThat(count("BUY", "executed", "total")).isEqualTo(1);
+        assertThat(count("SELL", "executed", "total")).isZero();
+    }
+
+    @Test
+    void insideATransaction_theSampleWaitsForCompletion_andTimesTheCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            TradeLatency.Sample committed = latency.start(Order.OrderSide.SELL);
+            committed.lap(TradeStage.PRICE);
+            committed.executed();
+            TradeLatency.Sample rolledBack = latency.start(Order.OrderSide.SELL);
+            rolledBack.executed();
+            assertThat(count("SELL", "executed", "total")).isZero();
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(count("SELL", "executed", "commit")).isEqualTo(1);
+        assertThat(count("SELL", "executed", "total")).isEqualTo(1);
+        assertThat(count("SELL", "rolled_back", "commit")).isEqualTo(1);
+        assertThat(count("SELL", "rolled_back", "price")).isZero();
+    }
+
+    @Test
+    void failures_areSplitIntoRejectedAndFailed() {
+        latency.start(Order.OrderSide.BUY).failed(new IllegalArgumentException("Insufficient quantity"));
+        latency.start(Order.OrderSide.BUY).failed(new InsufficientFundsException("Insufficient funds"));
+        TradeLatency.Sample failed = latency.start(Order.OrderSide.BUY);
+        failed.failed(new IllegalStateException("connection reset"));
+        // Recorded once, whatever else is reported afterwards
+        failed.executed();
+
+        assertThat(count("BUY", "rejected", "total")).isEqualTo(2);
+        assertThat(count("BUY", "failed", "total")).isEqualTo(1);
+        assertThat(count("BUY", "executed", "total")).isZero();
+    }
+
+    @Test
+    void percentiles_listOnlyCombinationsThatOccurred() {
+        for (int i = 0; i < 100; i++) {
+            TradeLatency.Sample sample = latency.start(Order.OrderSide.BUY);
+            sample.lap(TradeStage.PRICE);
+            sample.executed();
+        }
+        TradeLatency.UNTIMED.lap(TradeStage.PRICE);
+        TradeLatency.UNTIMED.executed();
+
+        List<TradeLatencyView> rows = latency.percentiles();
+
+        assertThat(rows).extracting(TradeLatencyView::getStage).containsExactly("price", "total");
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.getSide()).isEqualTo("BUY");
+            assertThat(row.getOutcome()).isEqualTo("executed");
+            assertThat(row.getCount()).isEqualTo(100);
+            assertThat(row.getP50Ms()).isLessThanOrEqualTo(row.getP99Ms());
+            assertThat(row.getP99Ms()).isLessThanOrEqualTo(row.getP999Ms());
+        });
+    }
+
+    private long count(String side, String outcome, String stage) {
+        Timer timer = registry.find(TradeLatency.METRIC)
+                .tags("side", side, "outcome", outcome, "stage", stage)
+                .timer();
+        return timer == null ? -1 : timer.count();
+    }
+}
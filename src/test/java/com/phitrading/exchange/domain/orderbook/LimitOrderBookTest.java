@@ -0,0 +1,117 @@
+package com.phitrading.exchange.domain.orderbook;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.domain.entity.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LimitOrderBookTest {
+
+    private final LimitOrderBook book = new LimitOrderBook("AAPL");
+
+    @Test
+    void bids_fillBestPriceFirst_thenInArrivalOrder() {
+        UUID early99 = bid("99.00");
+        UUID high = bid("100.00");
+        UUID late99 = bid("99.00");
+        UUID low = bid("98.00");
+
+        List<UUID> filled = match("99.00");
+
+        assertThat(filled).containsExactly(high, early99, late99);
+        assertThat(book.size()).isEqualTo(1);
+        assertThat(book.get(low)).isNotNull();
+        assertThat(book.bestBid()).isEqualTo(ticks("98.00"));
+    }
+
+    @Test
+    void asks_fillWhenThePriceRisesToThem() {
+        UUID high = ask("105.00");
+        UUID low = ask("101.00");
+        UUID mid = ask("103.00");
+
+        assertThat(match("100.00")).isEmpty();
+        assertThat(match("103.00")).containsExactly(low, mid);
+        assertThat(book.bestAsk()).isEqualTo(ticks("105.00"));
+        assertThat(book.get(high)).isNotNull();
+    }
+
+    @Test
+    void aPriceBetweenTheSides_fillsNothing() {
+        bid("99.00");
+        ask("101.00");
+
+        assertThat(match("100.00")).isEmpty();
+        assertThat(book.size()).isEqualTo(2);
+    }
+
+    @Test
+    void cancel_unlinksFromTheMiddleOfALevel_andDropsEmptyLevels() {
+        UUID first = bid("99.00");
+        UUID second = bid("99.00");
+        UUID third = bid("99.00");
+        UUID other = bid("98.00");
+
+        assertThat(book.cancel(second)).isNotNull();
+        assertThat(book.cancel(second)).isNull();
+        assertThat(book.quantityAt(Order.OrderSide.BUY, ticks("99.00"))).isEqualTo(20);
+
+        book.cancel(other);
+        assertThat(book.levels(Order.OrderSide.BUY)).isEqualTo(1);
+        assertThat(match("98.00")).containsExactly(first, third);
+        assertThat(book.isEmpty()).isTrue();
+    }
+
+    @Test
+    void manyLevels_stayOrderedAcrossInsertsAndCancels() {
+        List<UUID> ids = new ArrayList<>();
+        for (int cents = 0; cents < 100; cents++) {
+            // Insert out of price order to exercise shifting inside the level arrays
+            int price = (cents * 37) % 100;
+            ids.add(book.add(UUID.randomUUID(), Order.OrderSide.SELL, 1_000_000 + price * 100L, 1).getId());
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            book.cancel(ids.get(i));
+        }
+
+        List<Long> fillPrices = new ArrayList<>();
+        book.match(Long.MAX_VALUE, order -> fillPrices.add(order.getLimitTicks()));
+
+        assertThat(fillPrices).hasSize(50).isSorted();
+        assertThat(book.isEmpty()).isTrue();
+    }
+
+    @Test
+    void rejectsDuplicatesAndNonPositiveValues() {
+        UUID id = bid("99.00");
+
+        assertThatThrownBy(() -> book.add(id, Order.OrderSide.BUY, ticks("99.00"), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> book.add(UUID.randomUUID(), Order.OrderSide.BUY, 0, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private UUID bid(String price) {
+        return book.add(UUID.randomUUID(), Order.OrderSide.BUY, ticks(price), 10).getId();
+    }
+
+    private UUID ask(String price) {
+        return book.add(UUID.randomUUID(), Order.OrderSide.SELL, ticks(price), 10).getId();
+    }
+
+    private List<UUID> match(String price) {
+        List<UUID> filled = new ArrayList<>();
+        book.match(ticks(price), order -> filled.add(order.getId()));
+        return filled;
+    }
+
+    private static long ticks(String price) {
+        return Money.parse(price).units();
+    }
+}
@@ -0,0 +1,96 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.OutboxEvent;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.OutboxEventRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import phitrading.phitradingexchangemain.PhiTradingExchangeMainApplication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = PhiTradingExchangeMainApplication.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "trading.outbox.relay-enabled=false"
+})
+@RecordApplicationEvents
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class OrderOutboxIntegrationTest {
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private OutboxRelay relay;
+    @Autowired
+    private OutboxEventRepository outboxRepo;
+    @Autowired
+    private UserAccountRepository userRepo;
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @MockBean
+    private PricingServiceClient pricingServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount u = new UserAccount();
+        u.setUsername("maria");
+        u.setEmail("maria@example.com");
+        u.setPasswordHash("x");
+        u.setCashBalance(new BigDecimal("1000.00"));
+        u.setCreatedAt(LocalDateTime.now());
+        u.setUpdatedAt(LocalDateTime.now());
+        userRepo.save(u);
+
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("AAPL", "100.00"));
+    }
+
+    @Test
+    void executedTrades_areRecordedAndRelayedInOrder() {
+        tradeService.buy("maria", "AAPL", 3);
+        tradeService.sell("maria", "AAPL", 1);
+
+        List<OutboxEvent> pending = outboxRepo.findByPublishedAtIsNullOrderByIdAsc(Pageable.unpaged());
+        assertThat(pending).hasSize(2).allSatisfy(e -> assertThat(e.getAggregateKey()).isEqualTo("maria"));
+
+        assertThat(relay.relay()).isEqualTo(2);
+
+        assertThat(applicationEvents.stream(OrderExecutedEvent.class))
+                .extracting(OrderExecutedEvent::side)
+                .containsExactly(Order.OrderSide.BUY, Order.OrderSide.SELL);
+        assertThat(outboxRepo.countByPublishedAtIsNull()).isZero();
+        assertThat(relay.relay()).isZero();
+    }
+
+    @Test
+    void rejectedTrade_writesNoEvent() {
+        assertThatThrownBy(() -> tradeService.buy("maria", "AAPL", 100)).isInstanceOf(RuntimeException.class);
+
+        assertThat(outboxRepo.count()).isZero();
+    }
+}
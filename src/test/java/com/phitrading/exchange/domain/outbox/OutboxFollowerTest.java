@@ -0,0 +1,182 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.OutboxEvent;
+import com.phitrading.exchange.domain.repository.OutboxEventRepository;
+import com.phitrading.exchange.testsupport.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxFollowerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final MutableClock clock = MutableClock.at("2026-01-05T10:00:00Z");
+    private final List<OrderExecutedEvent> published = new ArrayList<>();
+    private ApplicationEventPublisher publisher;
+    private OutboxFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        publisher = event -> published.add(((OrderExecutedNotice) event).event());
+        TradingProperties.Outbox settings = new TradingProperties.Outbox();
+        settings.setBatchSize(3);
+        settings.setGapTimeout(Duration.ofMinutes(1));
+        follower = new OutboxFollower(repository, objectMapper, event -> publisher.publishEvent(event), settings,
+                clock, new SimpleMeterRegistry());
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        when(repository.findByIdInOrderByIdAsc(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void firstPoll_startsAtTheNewestEvent_andPublishesNothingOlder() {
+        when(repository.findLatestIds(any(Pageable.class))).thenReturn(List.of(5L, 3L, 2L));
+
+        assertThat(follower.poll()).isZero();
+
+        // 4 may still be committing
+        assertThat(follower.pendingGaps()).isEqualTo(1);
+        assertThat(published).isEmpty();
+        verify(repository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void poll_publishesNewEventsInIdOrder_acrossPages() throws Exception {
+        when(repository.findLatestIds(any(Pageable.class))).thenReturn(List.of());
+        follower.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(row(1, "maria"), row(2, "ivan"), row(3, "maria")));
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(3L), any(Pageable.class)))
+                .thenReturn(List.of(row(4, "ivan")));
+
+        assertThat(follower.poll()).isEqualTo(4);
+
+        assertThat(published).extracting(OrderExecutedEvent::eventId).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(published.get(1).username()).isEqualTo("ivan");
+        assertThat(follower.pendingGaps()).isZero();
+    }
+
+    @Test
+    void idSkippedOver_isPublishedWhenItsTransactionCommitsLater() throws Exception {
+        when(repository.findLatestIds(any(Pageable.class))).thenReturn(List.of(2L));
+        follower.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class))).thenReturn(List.of(row(4, "maria")));
+
+        assertThat(follower.poll()).isEqualTo(1);
+        assertThat(follower.pendingGaps()).isEqualTo(1);
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(repository.findByIdInOrderByIdAsc(List.of(3L))).thenReturn(List.of(row(3, "ivan")));
+
+        assertThat(follower.poll()).isEqualTo(1);
+
+        assertThat(published).extracting(OrderExecutedEvent::eventId).containsExactly(4L, 3L);
+        assertThat(follower.pendingGaps()).isZero();
+    }
+
+    @Test
+    void jumpLargerThanABatch_stillRemembersEveryIdInFlight() throws Exception {
+        when(repository.findLatestIds(any(Pageable.class))).thenReturn(List.of(2L));
+        follower.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class))).thenReturn(List.of(row(10, "maria")));
+
+        follower.poll();
+        assertThat(follower.pendingGaps()).isEqualTo(7);
+
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(repository.findByIdInOrderByIdAsc(List.of(3L, 4L, 5L))).thenReturn(List.of(row(5, "ivan")));
+        follower.poll();
+
+        assertThat(published).extracting(OrderExecutedEvent::eventId).containsExactly(10L, 5L);
+        assertThat(follower.pendingGaps()).isEqualTo(6);
+    }
+
+    @Test
+    void idsGoingBackBelowThePosition_startOverFromTheNewestEvent() throws Exception {
+        when(repository.findLatestIds(any(Pageable.class))).thenReturn(List.of(900L));
+        follower.poll();
+        when(repository.findMaxId()).thenReturn(Optional.of(4L));
+        when(repository.findLatestIds(any(Pageable.class))).thenReturn(List.of(4L, 2L));
+
+        follower.poll();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(4L), any(Pageable.class))).thenReturn(List.of(row(5, "maria")));
+        follower.poll();
+
+        assertThat(published).extracting(OrderExecutedEvent::eventId).containsExactly(5L);
+        assertThat(follower.pendingGaps()).isEqualTo(1);
+    }
+
+    @Test
+    void idThatNeverAppears_isGivenUpAfterTheGapTimeout() throws Exception {
+        when(repository.findLatestIds(any(Pageable.class))).thenReturn(List.of(5L, 3L));
+
+        follower.poll();
+        clock.advance(Duration.ofSeconds(30));
+        follower.poll();
+        assertThat(follower.pendingGaps()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(31));
+        follower.poll();
+        assertThat(follower.pendingGaps()).isZero();
+    }
+
+    @Test
+    void unreadableEvent_andFailingListener_doNotStopTheFeed() throws Exception {
+        when(repository.findLatestIds(any(Pageable.class))).thenReturn(List.of());
+        follower.poll();
+        OutboxEvent broken = row(1, "maria");
+        broken.setPayload("{not json");
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(broken, row(2, "ivan")));
+        publisher = event -> {
+            throw new IllegalStateException("listener down");
+        };
+
+        assertThat(follower.poll()).isEqualTo(1);
+
+        publisher = event -> published.add(((OrderExecutedNotice) event).event());
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Pageable.class))).thenReturn(List.of(row(3, "maria")));
+        assertThat(follower.poll()).isEqualTo(1);
+        assertThat(published).extracting(OrderExecutedEvent::eventId).containsExactly(3L);
+    }
+
+    private OutboxEvent row(long id, String username) throws Exception {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setSymbol("AAPL");
+        order.setSide(Order.OrderSide.BUY);
+        order.setQuantity(1);
+        order.setExecutionPrice(new BigDecimal("100.00"));
+        order.setExecutedAt(LocalDateTime.now(clock));
+        OutboxEvent row = new OutboxEvent();
+        row.setId(id);
+        row.setEventType(OrderExecutedEvent.TYPE);
+        row.setAggregateKey(username);
+        row.setPayload(objectMapper.writeValueAsString(OrderExecutedEvent.of(order, username,
+                PositionChange.bought(true, order.getExecutionPrice()))));
+        return row;
+    }
+}
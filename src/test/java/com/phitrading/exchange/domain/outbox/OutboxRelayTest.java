@@ -0,0 +1,104 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.OutboxEvent;
+import com.phitrading.exchange.domain.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-05T10:00:00Z"), ZoneOffset.UTC);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final List<OrderExecutedEvent> delivered = new ArrayList<>();
+    private TradingProperties.Outbox settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = new TradingProperties.Outbox();
+        settings.setBatchSize(2);
+    }
+
+    @Test
+    void relay_publishesInIdOrder_andMarksEachBatchPublished() throws Exception {
+        OutboxEvent e1 = row(1, "maria"), e2 = row(2, "ivan"), e3 = row(3, "maria");
+        when(repository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(e1, e2), List.of(e3));
+        OutboxRelay relay = relay(delivered::addAll);
+
+        assertThat(relay.relay()).isEqualTo(3);
+
+        assertThat(delivered).extracting(OrderExecutedEvent::eventId).containsExactly(1L, 2L, 3L);
+        assertThat(delivered.get(0).username()).isEqualTo("maria");
+        assertThat(delivered.get(0).executionPrice()).isEqualByComparingTo("100.00");
+        verify(repository).markPublished(List.of(1L, 2L), LocalDateTime.now(CLOCK));
+        verify(repository).markPublished(List.of(3L), LocalDateTime.now(CLOCK));
+    }
+
+    @Test
+    void relay_whenSinkFails_leavesBatchUnpublished_andStops() throws Exception {
+        when(repository.findByPublishedAtIsNullOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(row(1, "maria"), row(2, "maria")));
+        OutboxRelay relay = relay(events -> {
+            throw new IllegalStateException("sink down");
+        });
+
+        assertThat(relay.relay()).isZero();
+
+        verify(repository, never()).markPublished(anyCollection(), any());
+    }
+
+    @Test
+    void purgePublished_deletesOlderThanRetention() {
+        settings.setRetention(Duration.ofHours(2));
+        when(repository.deletePublishedBefore(any())).thenReturn(4);
+
+        assertThat(relay(delivered::addAll).purgePublished()).isEqualTo(4);
+        verify(repository).deletePublishedBefore(LocalDateTime.now(CLOCK).minusHours(2));
+    }
+
+    private OutboxRelay relay(OutboxSink sink) {
+        return new OutboxRelay(repository, sink, objectMapper, settings, CLOCK, new SimpleMeterRegistry());
+    }
+
+    private OutboxEvent row(long id, String username) throws Exception {
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setSymbol("AAPL");
+        order.setSide(Order.OrderSide.BUY);
+        order.setQuantity(1);
+        order.setExecutionPrice(new BigDecimal("100.00"));
+        order.setExecutedAt(LocalDateTime.now(CLOCK));
+        OutboxEvent row = new OutboxEvent();
+        row.setId(id);
+        row.setEventType(OrderExecutedEvent.TYPE);
+        row.setAggregateKey(username);
+        row.setPayload(objectMapper.writeValueAsString(OrderExecutedEvent.of(order, username,
+                PositionChange.bought(true, order.getExecutionPrice()))));
+        return row;
+    }
+}
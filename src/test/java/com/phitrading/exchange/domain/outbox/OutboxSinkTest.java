@@ -0,0 +1,76 @@
+package com.phitrading.exchange.domain.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.domain.entity.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxSinkTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void fileSink_appendsOneJsonLinePerEvent(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("order-events.jsonl");
+        FileOutboxSink sink = new FileOutboxSink(file, objectMapper);
+
+        sink.publish(List.of(event(1, "maria"), event(2, "ivan")));
+        sink.publish(List.of(event(3, "maria")));
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readValue(lines.get(2), OrderExecutedEvent.class))
+                .isEqualTo(event(3, "maria"));
+    }
+
+    @Test
+    void fileSink_createsMissingDirectories(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("a/b/events.jsonl");
+
+        new FileOutboxSink(file, objectMapper).publish(List.of(event(1, "maria")));
+
+        assertThat(Files.readAllLines(file)).hasSize(1);
+    }
+
+    @Test
+    void brokerSink_keepsEachAccountsEventsInOrderOnOnePartition() {
+        LocalBrokerOutboxSink sink = new LocalBrokerOutboxSink(4, 100);
+
+        sink.publish(List.of(event(1, "maria"), event(2, "ivan"), event(3, "maria"), event(4, "maria")));
+
+        int partition = sink.partitionOf("maria");
+        assertThat(sink.read(partition, 0, 10))
+                .filteredOn(e -> e.username().equals("maria"))
+                .extracting(OrderExecutedEvent::eventId)
+                .containsExactly(1L, 3L, 4L);
+        assertThat(sink.read(partition, 1, 1)).hasSize(1);
+    }
+
+    @Test
+    void brokerSink_retainsOnlyTheLatestEvents() {
+        LocalBrokerOutboxSink sink = new LocalBrokerOutboxSink(1, 3);
+
+        for (long id = 1; id <= 5; id++) {
+            sink.publish(List.of(event(id, "maria")));
+        }
+
+        assertThat(sink.endOffset(0)).isEqualTo(5);
+        assertThat(sink.read(0, 0, 10)).extracting(OrderExecutedEvent::eventId).containsExactly(3L, 4L, 5L);
+        assertThat(sink.read(0, 4, 10)).extracting(OrderExecutedEvent::eventId).containsExactly(5L);
+        assertThat(sink.read(0, 5, 10)).isEmpty();
+    }
+
+    private static OrderExecutedEvent event(long id, String username) {
+        return new OrderExecutedEvent(id, new UUID(0, id), username, "AAPL", Order.OrderSide.BUY, 1,
+                new BigDecimal("100.00"), null, LocalDateTime.of(2026, 1, 5, 10, 0), true, false, new BigDecimal("100.00"));
+    }
+}
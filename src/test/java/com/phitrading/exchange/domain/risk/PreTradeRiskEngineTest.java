@@ -0,0 +1,250 @@
+package com.phitrading.exchange.domain.risk;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.common.exception.RiskLimitExceededException;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.outbox.OrderExecutedEvent;
+import com.phitrading.exchange.domain.outbox.OrderExecutedNotice;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.testsupport.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PreTradeRiskEngineTest {
+
+    private final UserAccountRepository userAccountRepository = mock(UserAccountRepository.class);
+    private final PortfolioPositionRepository portfolioPositionRepository = mock(PortfolioPositionRepository.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final MutableClock clock = MutableClock.at("2026-03-02T10:00:00Z");
+
+    private TradingProperties properties;
+    private TradingProperties.RoleLimits userLimits;
+    private PreTradeRiskEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TradingProperties();
+        userLimits = new TradingProperties.RoleLimits();
+        properties.getRisk().getRoles().put("USER", userLimits);
+
+        UserAccount john = new UserAccount();
+        john.setUsername("john");
+        john.setCashBalance(new BigDecimal("9000.00"));
+        PortfolioPosition aapl = new PortfolioPosition();
+        aapl.setSymbol("AAPL");
+        aapl.setQuantity(10);
+        aapl.setAveragePrice(new BigDecimal("100.00"));
+        when(userAccountRepository.findByUsername("john")).thenReturn(Optional.of(john));
+        when(portfolioPositionRepository.findAllByUser_Username("john")).thenReturn(List.of(aapl));
+        when(orderRepository.sumExecutedNotionalSince(eq("john"), any())).thenReturn(new BigDecimal("500.00"));
+    }
+
+    @Test
+    void orderNotional_aboveTheLimit_isRejected() {
+        userLimits.setMaxOrderNotional(new BigDecimal("1000"));
+        engine();
+
+        assertThatCode(() -> buy("AAPL", 10, "100.00")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> buy("AAPL", 11, "100.00"))
+                .isInstanceOf(RiskLimitExceededException.class)
+                .hasMessageContaining("1100.00")
+                .satisfies(e -> assertThat(((RiskLimitExceededException) e).getLimit()).isEqualTo("max-order-notional"));
+    }
+
+    @Test
+    void positionLimit_countsWhatIsAlreadyHeld_andExecutedTrades() {
+        userLimits.setMaxPositionQuantity(25L);
+        engine();
+
+        buy("aapl", 15, "100.00");
+        engine.onExecuted(UUID.randomUUID(), "john", "AAPL", Order.OrderSide.BUY, 15, Money.of(100));
+
+        assertThatThrownBy(() -> buy("AAPL", 1, "100.00")).isInstanceOf(RiskLimitExceededException.class)
+                .hasMessageContaining("26 shares");
+        engine.onExecuted(UUID.randomUUID(), "john", "AAPL", Order.OrderSide.SELL, 5, Money.of(100));
+        assertThatCode(() -> buy("AAPL", 5, "100.00")).doesNotThrowAnyException();
+        // Loaded once; everything after that came from executions
+        verify(portfolioPositionRepository, times(1)).findAllByUser_Username("john");
+    }
+
+    @Test
+    void dailyTurnover_includesSells_andStartsOverTheNextDay() {
+        userLimits.setMaxDailyTurnover(new BigDecimal("2000"));
+        engine();
+
+        buy("MSFT", 5, "100.00");
+        engine.onExecuted(UUID.randomUUID(), "john", "MSFT", Order.OrderSide.BUY, 5, Money.of(100));
+        engine.onExecuted(UUID.randomUUID(), "john", "AAPL", Order.OrderSide.SELL, 5, Money.of(100));
+
+        // 500 seeded from today's orders + 500 + 500 + 600
+        assertThatThrownBy(() -> buy("MSFT", 6, "100.00")).isInstanceOf(RiskLimitExceededException.class)
+                .hasMessageContaining("2100.00");
+
+        clock.set(Instant.parse("2026-03-03T09:00:00Z"));
+        assertThatCode(() -> buy("MSFT", 6, "100.00")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void concentration_comparesThePositionWithCashPlusHoldingsAtCost() {
+        // Equity 9000 cash + 1000 AAPL at cost = 10000
+        userLimits.setMaxConcentrationPct(new BigDecimal("40"));
+        engine();
+
+        assertThatCode(() -> buy("MSFT", 40, "100.00")).doesNotThrowAnyException();
+        assertThatThrownBy(() -> buy("AAPL", 31, "100.00")).isInstanceOf(RiskLimitExceededException.class)
+                .hasMessageContaining("41.00%");
+    }
+
+    @Test
+    void sells_areNeverBlocked() {
+        userLimits.setMaxOrderNotional(new BigDecimal("1"));
+        engine();
+
+        assertThatCode(() -> engine.check("john", "USER", "AAPL", Order.OrderSide.SELL, 10, Money.of(100)))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void rolesWithoutLimits_useTheDefaultRole() {
+        userLimits.setMaxOrderNotional(new BigDecimal("1000"));
+        TradingProperties.RoleLimits admin = new TradingProperties.RoleLimits();
+        admin.setMaxOrderNotional(new BigDecimal("100000"));
+        properties.getRisk().getRoles().put("ADMIN", admin);
+        engine();
+
+        assertThatCode(() -> engine.check("john", "ADMIN", "AAPL", Order.OrderSide.BUY, 50, Money.of(100)))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> engine.check("john", "TRADER", "AAPL", Order.OrderSide.BUY, 50, Money.of(100)))
+                .isInstanceOf(RiskLimitExceededException.class);
+    }
+
+    @Test
+    void reload_appliesChangedLimitsWithoutARestart() {
+        userLimits.setMaxOrderNotional(new BigDecimal("1000"));
+        engine();
+        assertThatThrownBy(() -> buy("AAPL", 20, "100.00")).isInstanceOf(RiskLimitExceededException.class);
+
+        userLimits.setMaxOrderNotional(new BigDecimal("5000"));
+        engine.onConfigurationRefreshed();
+
+        assertThatCode(() -> buy("AAPL", 20, "100.00")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rolledBackTrade_dropsTheSnapshot() {
+        userLimits.setMaxPositionQuantity(25L);
+        engine();
+        buy("AAPL", 15, "100.00");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            engine.onExecuted(UUID.randomUUID(), "john", "AAPL", Order.OrderSide.BUY, 15, Money.of(100));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Reloaded from the database, which never saw the 15 shares
+        assertThatCode(() -> buy("AAPL", 15, "100.00")).doesNotThrowAnyException();
+        verify(portfolioPositionRepository, times(2)).findAllByUser_Username("john");
+    }
+
+    @Test
+    void tradeOnAnotherNode_dropsTheSnapshot_butOneExecutedHereDoesNot() {
+        engine();
+        buy("AAPL", 1, "100.00");
+        UUID local = UUID.randomUUID();
+        engine.onExecuted(local, "john", "AAPL", Order.OrderSide.BUY, 1, Money.of(100));
+
+        engine.onOrderExecuted(notice(local));
+        buy("AAPL", 1, "100.00");
+        verify(portfolioPositionRepository, times(1)).findAllByUser_Username("john");
+
+        engine.onOrderExecuted(notice(UUID.randomUUID()));
+        buy("AAPL", 1, "100.00");
+        verify(portfolioPositionRepository, times(2)).findAllByUser_Username("john");
+    }
+
+    @Test
+    void snapshotLoadedWhileATradeCommits_isNotKept() {
+        engine();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Nothing loaded yet; a check elsewhere loads before the trade commits
+            engine.onExecuted(UUID.randomUUID(), "john", "AAPL", Order.OrderSide.BUY, 15, Money.of(100));
+            buy("AAPL", 1, "100.00");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        buy("AAPL", 1, "100.00");
+        verify(portfolioPositionRepository, times(2)).findAllByUser_Username("john");
+    }
+
+    @Test
+    void snapshot_isReloadedAfterTheResyncInterval() {
+        properties.getRisk().setResyncInterval(Duration.ofMinutes(1));
+        engine();
+        buy("AAPL", 1, "100.00");
+
+        clock.advance(Duration.ofSeconds(59));
+        buy("AAPL", 1, "100.00");
+        verify(portfolioPositionRepository, times(1)).findAllByUser_Username("john");
+
+        clock.advance(Duration.ofSeconds(2));
+        buy("AAPL", 1, "100.00");
+        verify(portfolioPositionRepository, times(2)).findAllByUser_Username("john");
+    }
+
+    @Test
+    void disabled_checksNothing() {
+        userLimits.setMaxOrderNotional(new BigDecimal("1"));
+        properties.getRisk().setEnabled(false);
+        engine();
+
+        assertThatCode(() -> buy("AAPL", 1000, "100.00")).doesNotThrowAnyException();
+    }
+
+    private void engine() {
+        engine = new PreTradeRiskEngine(userAccountRepository, portfolioPositionRepository, orderRepository,
+                properties, clock, new SimpleMeterRegistry());
+    }
+
+    private static OrderExecutedNotice notice(UUID orderId) {
+        return new OrderExecutedNotice(new OrderExecutedEvent(1L, orderId, "john", "AAPL", Order.OrderSide.BUY, 1,
+                new BigDecimal("100.00"), null, null, false, false, new BigDecimal("100.00")));
+    }
+
+    private void buy(String symbol, long quantity, String price) {
+        engine.check("john", "USER", symbol, Order.OrderSide.BUY, quantity, Money.parse(price));
+    }
+}
@@ -0,0 +1,257 @@
+package com.phitrading.exchange.domain.sequencer;
+
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.OrderQueueFullException;
+import com.phitrading.exchange.config.TradingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccountSequencerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RecordingTransactions transactions = new RecordingTransactions();
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private AccountSequencer sequencer;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (sequencer != null) {
+            sequencer.stop();
+        }
+    }
+
+    @Test
+    void commandsForOneAccount_neverInterleave() throws Exception {
+        sequencer = sequencer(4, 1024, 16, Duration.ofSeconds(1));
+        long[] balance = {0};
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            futures.add(callers.submit(() -> sequencer.execute("john", "test", () -> {
+                // Plain read-modify-write: only safe because one thread runs it
+                long read = balance[0];
+                Thread.onSpinWait();
+                balance[0] = read + 1;
+                return null;
+            })));
+        }
+        for (Future<?> f : futures) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+        assertThat(balance[0]).isEqualTo(2_000);
+    }
+
+    @Test
+    void queuedCommands_areCommittedTogether() throws Exception {
+        sequencer = sequencer(1, 64, 32, Duration.ofSeconds(1));
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = callers.submit(() -> sequencer.execute("john", "test", () -> {
+            blocking.countDown();
+            await(release);
+            return null;
+        }));
+        assertThat(blocking.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<Integer>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int n = i;
+            queued.add(callers.submit(() -> sequencer.execute("john", "test", () -> n)));
+        }
+        awaitQueued(5);
+        release.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            assertThat(queued.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i);
+        }
+        // The blocking command alone, then the five that queued behind it in one transaction
+        assertThat(transactions.commits.get()).isEqualTo(2);
+        assertThat(registry.get("trading.sequencer.batch.size").summary().max()).isEqualTo(5);
+    }
+
+    @Test
+    void failingCommand_rollsBackItsBatchAndOnlyItFails() throws Exception {
+        sequencer = sequencer(1, 64, 32, Duration.ofSeconds(1));
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> sequencer.execute("john", "test", () -> {
+            blocking.countDown();
+            await(release);
+            return null;
+        }));
+        assertThat(blocking.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<String> ok1 = callers.submit(() -> sequencer.execute("john", "test", () -> "ok1"));
+        awaitQueued(1);
+        Future<String> broke = callers.submit(() -> sequencer.execute("john", "test", () -> {
+            // As a transactional service does for a failure it rolls back for
+            transactions.current.setRollbackOnly();
+            throw new IllegalStateException("Deadlock");
+        }));
+        awaitQueued(2);
+        Future<String> ok2 = callers.submit(() -> sequencer.execute("john", "test", () -> "ok2"));
+        awaitQueued(3);
+        release.countDown();
+
+        assertThat(ok1.get(5, TimeUnit.SECONDS)).isEqualTo("ok1");
+        assertThat(ok2.get(5, TimeUnit.SECONDS)).isEqualTo("ok2");
+        assertThatThrownBy(() -> broke.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        // Batch rolled back once, then each command replayed alone
+        assertThat(transactions.rollbacks.get()).isEqualTo(2);
+        assertThat(registry.get("trading.sequencer.batch.replays").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedCommand_isLeftOutOfItsBatch_whichStillCommits() throws Exception {
+        sequencer = sequencer(1, 64, 32, Duration.ofSeconds(1));
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> sequencer.execute("john", "test", () -> {
+            blocking.countDown();
+            await(release);
+            return null;
+        }));
+        assertThat(blocking.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<String> ok1 = callers.submit(() -> sequencer.execute("john", "test", () -> "ok1"));
+        awaitQueued(1);
+        // Thrown before anything was written, without marking the transaction rollback-only
+        Future<String> rejected = callers.submit(() -> sequencer.execute("john", "test", () -> {
+            throw new InsufficientFundsException("Insufficient funds");
+        }));
+        awaitQueued(2);
+        Future<String> ok2 = callers.submit(() -> sequencer.execute("john", "test", () -> "ok2"));
+        awaitQueued(3);
+        release.countDown();
+
+        assertThat(ok1.get(5, TimeUnit.SECONDS)).isEqualTo("ok1");
+        assertThat(ok2.get(5, TimeUnit.SECONDS)).isEqualTo("ok2");
+        assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(InsufficientFundsException.class);
+        // The blocking command, then the other three in one transaction that still commits
+        assertThat(transactions.commits.get()).isEqualTo(2);
+        assertThat(transactions.rollbacks.get()).isZero();
+        assertThat(registry.get("trading.sequencer.batch.replays").counter().count()).isZero();
+    }
+
+    @Test
+    void fullPartition_rejectsNewCommands() throws Exception {
+        sequencer = sequencer(1, 1, 1, Duration.ofMillis(50));
+        CountDownLatch blocking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> sequencer.execute("john", "test", () -> {
+            blocking.countDown();
+            await(release);
+            return null;
+        }));
+        assertThat(blocking.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> waiting = callers.submit(() -> sequencer.execute("john", "test", () -> "queued"));
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> sequencer.execute("john", "test", () -> "rejected"))
+                .isInstanceOf(OrderQueueFullException.class);
+        assertThat(registry.get("trading.sequencer.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(waiting.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    @Test
+    void submit_returnsBeforeTheCommandRuns_andKeepsAccountOrder() throws Exception {
+        sequencer = sequencer(1, 16, 1, Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<String> first = sequencer.submit("john", "test", () -> {
+            await(release);
+            ran.add("first");
+            return "first";
+        });
+        CompletableFuture<String> second = sequencer.submit("john", "test", () -> {
+            ran.add("second");
+            return "second";
+        });
+        assertThat(first).isNotDone();
+
+        release.countDown();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(ran).containsExactly("first", "second");
+    }
+
+    @Test
+    void nestedCallFromTheWriter_runsInline() {
+        sequencer = sequencer(1, 4, 4, Duration.ofMillis(50));
+
+        String result = sequencer.execute("john", "test", () -> sequencer.execute("john", "test", () -> "inner"));
+
+        assertThat(result).isEqualTo("inner");
+    }
+
+    private AccountSequencer sequencer(int partitions, int capacity, int maxBatch, Duration enqueueTimeout) {
+        TradingProperties.Sequencer settings = new TradingProperties.Sequencer();
+        settings.setPartitions(partitions);
+        settings.setQueueCapacity(capacity);
+        settings.setMaxBatch(maxBatch);
+        settings.setEnqueueTimeout(enqueueTimeout);
+        return new AccountSequencer(settings, transactions,
+                new OptimisticRetry(new TradingProperties.OptimisticRetry(), registry), registry);
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sequencer.queued(0) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(sequencer.queued(0)).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class RecordingTransactions implements TransactionOperations {
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+        // Status of the transaction running on the writer, for commands that mark it rollback-only
+        volatile SimpleTransactionStatus current;
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            current = new SimpleTransactionStatus();
+            try {
+                T result = action.doInTransaction(current);
+                commits.incrementAndGet();
+                return result;
+            } catch (RuntimeException e) {
+                rollbacks.incrementAndGet();
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.phitrading.exchange.domain.sequencer;
+
+import com.phitrading.exchange.config.TradingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OptimisticRetryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OptimisticRetry retry = new OptimisticRetry(settings(3), registry);
+
+    @Test
+    void conflict_isRetriedUntilTheTransactionGoesThrough() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute("buy", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("UserAccount", 1L);
+            }
+            return "filled";
+        });
+
+        assertThat(result).isEqualTo("filled");
+        assertThat(registry.get("trading.optimistic.attempts").tag("operation", "buy").counter().count()).isEqualTo(3);
+        assertThat(registry.get("trading.optimistic.conflicts").tag("operation", "buy").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void persistentConflict_isRethrownAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute("sell", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("PortfolioPosition", 1L);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(attempts).hasValue(3);
+        assertThat(registry.get("trading.optimistic.exhausted").tag("operation", "sell").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void otherFailures_areNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> retry.execute("buy", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Quantity must be positive");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void conflictWrappedByTheTransactionManager_isRecognised() {
+        RuntimeException wrapped = new IllegalStateException("commit failed",
+                new jakarta.persistence.OptimisticLockException("stale"));
+
+        assertThat(OptimisticRetry.isConflict(wrapped)).isTrue();
+        assertThat(OptimisticRetry.isConflict(new IllegalStateException("other"))).isFalse();
+    }
+
+    private static TradingProperties.OptimisticRetry settings(int maxAttempts) {
+        TradingProperties.OptimisticRetry settings = new TradingProperties.OptimisticRetry();
+        settings.setMaxAttempts(maxAttempts);
+        settings.setInitialBackoff(Duration.ofMillis(1));
+        settings.setMaxBackoff(Duration.ofMillis(2));
+        return settings;
+    }
+}
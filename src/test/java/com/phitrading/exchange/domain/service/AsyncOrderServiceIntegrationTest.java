@@ -0,0 +1,148 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.web.dto.OrderStatusView;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import phitrading.phitradingexchangemain.PhiTradingExchangeMainApplication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = PhiTradingExchangeMainApplication.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:asyncorders;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AsyncOrderServiceIntegrationTest {
+
+    @Autowired
+    private AsyncOrderService asyncOrderService;
+    @Autowired
+    private UserAccountRepository userRepo;
+    @Autowired
+    private PortfolioPositionRepository positionRepo;
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private PricingServiceClient pricingServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount u = new UserAccount();
+        u.setUsername("maria");
+        u.setEmail("maria@example.com");
+        u.setPasswordHash("x");
+        u.setCashBalance(new BigDecimal("1000.00"));
+        u.setCreatedAt(LocalDateTime.now());
+        u.setUpdatedAt(LocalDateTime.now());
+        userRepo.save(u);
+
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("AAPL", "100.00"));
+    }
+
+    @Test
+    void acceptedBuy_executesInTheBackground() throws Exception {
+        Order accepted = asyncOrderService.submit("maria", " aapl ", Order.OrderSide.BUY, 3);
+
+        assertThat(accepted.getStatus()).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(accepted.getSymbol()).isEqualTo("AAPL");
+        OrderStatusView done = asyncOrderService.whenDone("maria", accepted.getId()).get(5, TimeUnit.SECONDS);
+
+        assertThat(done.getStatus()).isEqualTo("EXECUTED");
+        assertThat(done.getExecutionPrice()).isEqualByComparingTo("100.00");
+        assertThat(asyncOrderService.getStatus("maria", accepted.getId()).getStatus()).isEqualTo("EXECUTED");
+        assertThat(userRepo.findByUsername("maria").orElseThrow().getCashBalance()).isEqualByComparingTo("700.00");
+        assertThat(positionRepo.findAllByUser_Username("maria")).singleElement()
+                .satisfies(p -> {
+                    assertThat(p.getSymbol()).isEqualTo("AAPL");
+                    assertThat(p.getQuantity()).isEqualTo(3);
+                });
+    }
+
+    @Test
+    void acceptedOrderThatCannotExecute_isCanceledWithTheReason() throws Exception {
+        Order accepted = asyncOrderService.submit("maria", "AAPL", Order.OrderSide.BUY, 30);
+
+        OrderStatusView done = asyncOrderService.whenDone("maria", accepted.getId()).get(5, TimeUnit.SECONDS);
+
+        assertThat(done.getStatus()).isEqualTo("CANCELED");
+        assertThat(done.getMessage()).startsWith("Insufficient funds");
+        assertThat(userRepo.findByUsername("maria").orElseThrow().getCashBalance()).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void status_isOnlyVisibleToTheOwner() {
+        Order accepted = asyncOrderService.submit("maria", "AAPL", Order.OrderSide.BUY, 1);
+
+        assertThatThrownBy(() -> asyncOrderService.getStatus("ivan", accepted.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> asyncOrderService.whenDone("ivan", accepted.getId()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void waiterThatGivesUp_isDropped() {
+        Order pending = new Order();
+        pending.setUser(userRepo.findByUsername("maria").orElseThrow());
+        pending.setSymbol("AAPL");
+        pending.setQuantity(2);
+        pending.setSide(Order.OrderSide.BUY);
+        pending.setStatus(Order.OrderStatus.PENDING);
+        orderRepo.save(pending);
+
+        CompletableFuture<OrderStatusView> waiter = asyncOrderService.whenDone("maria", pending.getId());
+        assertThat(waiting()).isEqualTo(1);
+
+        waiter.cancel(false);
+
+        assertThat(waiting()).isZero();
+    }
+
+    @Test
+    void recover_requeuesOrdersLeftPending() throws Exception {
+        Order pending = new Order();
+        pending.setUser(userRepo.findByUsername("maria").orElseThrow());
+        pending.setSymbol("AAPL");
+        pending.setQuantity(2);
+        pending.setSide(Order.OrderSide.BUY);
+        pending.setStatus(Order.OrderStatus.PENDING);
+        orderRepo.save(pending);
+
+        assertThat(asyncOrderService.recover()).isEqualTo(1);
+
+        OrderStatusView done = asyncOrderService.whenDone("maria", pending.getId()).get(5, TimeUnit.SECONDS);
+        assertThat(done.getStatus()).isEqualTo("EXECUTED");
+    }
+
+    private double waiting() {
+        return meterRegistry.get("trading.async.orders.waiting").gauge().value();
+    }
+}
@@ -0,0 +1,110 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.outbox.OutboxFollower;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.SymbolExposureView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import phitrading.phitradingexchangemain.PhiTradingExchangeMainApplication;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = PhiTradingExchangeMainApplication.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "trading.exposure.rebuild-page-size=2"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ExposureServiceIntegrationTest {
+
+    @Autowired
+    private UserAccountRepository userRepo;
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private ExposureService exposureService;
+    @Autowired
+    private OutboxFollower outboxFollower;
+
+    @MockBean
+    private PricingServiceClient pricingServiceClient; // mock remote pricing during integration test
+
+    @Test
+    void exposureFollowsTradesAcrossAccounts_andAgreesWithARebuild() throws InterruptedException {
+        awaitStartupRebuild();
+        user("ana");
+        user("bo");
+        user("cem");
+        InstrumentPriceDto aapl = price("AAPL", "150.00");
+        InstrumentPriceDto msft = price("MSFT", "300.00");
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(aapl);
+        when(pricingServiceClient.getCurrentPrice("MSFT")).thenReturn(msft);
+        when(pricingServiceClient.getPrices(anyCollection(), any(Duration.class)))
+                .thenReturn(Map.of("AAPL", price("AAPL", "160.00"), "MSFT", msft));
+
+        tradeService.buy("ana", "AAPL", 10);
+        tradeService.buy("bo", "AAPL", 4);
+        tradeService.buy("cem", "AAPL", 2);
+        tradeService.buy("bo", "MSFT", 3);
+        tradeService.sell("ana", "AAPL", 4);
+        tradeService.sell("cem", "AAPL", 2);
+        // Fills reach the exposure through the outbox, as they do from other nodes
+        outboxFollower.poll();
+        exposureService.refreshPrices();
+
+        SymbolExposureView live = exposureService.getExposure("AAPL");
+        assertThat(live.getHolders()).isEqualTo(2);
+        assertThat(live.getQuantity()).isEqualTo(10);
+        assertThat(live.getCostBasis()).isEqualByComparingTo("1500.00");
+        assertThat(live.getNotional()).isEqualByComparingTo("1600.00");
+        assertThat(live.getUnrealizedPnl()).isEqualByComparingTo("100.00");
+
+        assertThat(exposureService.rebuild()).isEqualTo(2);
+
+        assertThat(exposureService.getExposure("AAPL")).isEqualTo(live);
+        assertThat(exposureService.getExposure("MSFT").getCostBasis()).isEqualByComparingTo("900.00");
+
+        tradeService.sell("bo", "MSFT", 3);
+        outboxFollower.poll();
+        assertThatThrownBy(() -> exposureService.getExposure("MSFT")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void awaitStartupRebuild() throws InterruptedException {
+        for (int i = 0; i < 100 && exposureService.getExposure().getRebuiltAt() == null; i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private void user(String username) {
+        UserAccount u = new UserAccount();
+        u.setUsername(username);
+        u.setEmail(username + "@example.com");
+        u.setPasswordHash("x");
+        u.setCashBalance(new BigDecimal("10000.00"));
+        u.setCreatedAt(LocalDateTime.now());
+        u.setUpdatedAt(LocalDateTime.now());
+        userRepo.save(u);
+    }
+}
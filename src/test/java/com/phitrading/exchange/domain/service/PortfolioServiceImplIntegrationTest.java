@@ -4,6 +4,7 @@ import com.phitrading.exchange.domain.entity.PortfolioPosition;
 import com.phitrading.exchange.domain.entity.UserAccount;
 import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
 import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.domain.valuation.PortfolioValuation;
 import com.phitrading.exchange.integration.PricingServiceClient;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
 import com.phitrading.exchange.web.dto.PortfolioView;
@@ -16,8 +17,14 @@ import org.springframework.test.annotation.DirtiesContext;
 import phitrading.phitradingexchangemain.PhiTradingExchangeMainApplication;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(classes = PhiTradingExchangeMainApplication.class)
@@ -38,6 +45,10 @@ class PortfolioServiceImplIntegrationTest {
     private PortfolioPositionRepository positionRepo;
     @Autowired
     private PortfolioService portfolioService;
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private PortfolioValuation portfolioValuation;
 
     @MockBean
     private PricingServiceClient pricingServiceClient; // mock remote pricing during integration test
@@ -49,6 +60,8 @@ class PortfolioServiceImplIntegrationTest {
         u.setUsername("maria");
         u.setEmail("maria@example.com");
         u.setPasswordHash("x");
+        u.setCreatedAt(LocalDateTime.now());
+        u.setUpdatedAt(LocalDateTime.now());
         userRepo.save(u);
 
         PortfolioPosition p = new PortfolioPosition();
@@ -63,7 +76,7 @@ class PortfolioServiceImplIntegrationTest {
         dto.setSymbol("TSLA");
         dto.setName("Tesla Inc");
         dto.setLastPrice(new BigDecimal("210.00"));
-        when(pricingServiceClient.getCurrentPrice("TSLA")).thenReturn(dto);
+        when(pricingServiceClient.getPrices(anyCollection(), any(Duration.class))).thenReturn(Map.of("TSLA", dto));
 
         // Act
         PortfolioView view = portfolioService.getUserPortfolioView("maria");
@@ -75,4 +88,39 @@ class PortfolioServiceImplIntegrationTest {
         assertThat(view.getRows().get(0).getAveragePrice()).isEqualByComparingTo("200.00");
         assertThat(view.getRows().get(0).getCurrentPrice()).isEqualByComparingTo("210.00");
     }
+
+    @Test
+    void portfolioView_followsFillsAndPriceChanges() {
+        UserAccount u = new UserAccount();
+        u.setUsername("ivan");
+        u.setEmail("ivan@example.com");
+        u.setPasswordHash("x");
+        u.setCashBalance(new BigDecimal("10000.00"));
+        u.setCreatedAt(LocalDateTime.now());
+        u.setUpdatedAt(LocalDateTime.now());
+        userRepo.save(u);
+
+        InstrumentPriceDto dto = new InstrumentPriceDto();
+        dto.setSymbol("TSLA");
+        dto.setLastPrice(new BigDecimal("200.00"));
+        when(pricingServiceClient.getCurrentPrice("TSLA")).thenReturn(dto);
+        when(pricingServiceClient.getPrices(anyCollection(), any(Duration.class))).thenReturn(Map.of("TSLA", dto));
+        assertThat(portfolioService.getUserPortfolioView("ivan").getRows()).isEmpty();
+
+        tradeService.buy("ivan", "TSLA", 3);
+        PortfolioView afterBuy = portfolioService.getUserPortfolioView("ivan");
+        assertThat(afterBuy.getRows()).hasSize(1);
+        assertThat(afterBuy.getTotalCost()).isEqualByComparingTo("600.00");
+
+        InstrumentPriceDto moved = new InstrumentPriceDto();
+        moved.setSymbol("TSLA");
+        moved.setLastPrice(new BigDecimal("210.00"));
+        when(pricingServiceClient.getPrices(anyCollection(), any(Duration.class))).thenReturn(Map.of("TSLA", moved));
+        portfolioValuation.refreshPrices();
+        assertThat(portfolioService.getUserPortfolioView("ivan").getTotalCurrentValue()).isEqualByComparingTo("630.00");
+
+        when(pricingServiceClient.getCurrentPrice(eq("TSLA"))).thenReturn(moved);
+        tradeService.sell("ivan", "TSLA", 3);
+        assertThat(portfolioService.getUserPortfolioView("ivan").getRows()).isEmpty();
+    }
 }
@@ -0,0 +1,209 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.testsupport.TestPrices;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import phitrading.phitradingexchangemain.PhiTradingExchangeMainApplication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Statements each market buy and sell sends to the database, counted with Hibernate statistics once the
+ * account is known to the node (its id cached and its risk state loaded).
+ */
+@SpringBootTest(classes = PhiTradingExchangeMainApplication.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tradepersistence;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // The relay and the follower poll the outbox in the background, which the statement counts must not include
+        "trading.outbox.relay-enabled=false",
+        "trading.outbox.follow-enabled=false"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TradePersistenceIntegrationTest {
+
+    @Autowired
+    @Qualifier("tradeServiceImpl")
+    private TradeService tradeService;
+    @Autowired
+    private UserAccountRepository userRepo;
+    @Autowired
+    private PortfolioPositionRepository positionRepo;
+    @Autowired
+    private OrderRepository orderRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private PricingServiceClient pricingServiceClient;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount u = new UserAccount();
+        u.setUsername("maria");
+        u.setEmail("maria@example.com");
+        u.setPasswordHash("x");
+        u.setCashBalance(new BigDecimal("10000.00"));
+        u.setCreatedAt(LocalDateTime.now());
+        u.setUpdatedAt(LocalDateTime.now());
+        userRepo.save(u);
+
+        price("AAPL", "100.00");
+        price("MSFT", "50.00");
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // First trade of the account: resolves its id and loads its risk state
+        tradeService.buy("maria", "AAPL", 10);
+    }
+
+    @Test
+    void buy_intoAnExistingPosition() {
+        long statements = statements(() -> tradeService.buy("maria", "AAPL", 5));
+
+        // Cash update, position update, order insert, outbox insert
+        assertThat(statements).isEqualTo(4);
+        PortfolioPosition position = positionRepo.findByUser_UsernameAndSymbol("maria", "AAPL").orElseThrow();
+        assertThat(position.getQuantity()).isEqualTo(15);
+        assertThat(position.getAveragePrice()).isEqualByComparingTo("100.00");
+        assertThat(cash()).isEqualByComparingTo("8500.00");
+    }
+
+    @Test
+    void buy_openingANewPosition() {
+        long statements = statements(() -> tradeService.buy("maria", "MSFT", 4));
+
+        // Cash update, position update (no row), position and order inserts, outbox insert
+        assertThat(statements).isEqualTo(5);
+        assertThat(positionRepo.findByUser_UsernameAndSymbol("maria", "MSFT").orElseThrow().getQuantity()).isEqualTo(4);
+        assertThat(cash()).isEqualByComparingTo("8800.00");
+    }
+
+    @Test
+    void sell_partOfAPosition() {
+        long statements = statements(() -> tradeService.sell("maria", "AAPL", 4));
+
+        // Position read (quantity and cost), position update, cash update, order insert, outbox insert
+        assertThat(statements).isEqualTo(5);
+        assertThat(positionRepo.findByUser_UsernameAndSymbol("maria", "AAPL").orElseThrow().getQuantity()).isEqualTo(6);
+        assertThat(cash()).isEqualByComparingTo("9400.00");
+    }
+
+    @Test
+    void sell_closingAPosition() {
+        price("AAPL", "110.00");
+        long statements = statements(() -> tradeService.sell("maria", "AAPL", 10));
+
+        // Position read, position delete, cash update, order insert, outbox insert
+        assertThat(statements).isEqualTo(5);
+        assertThat(positionRepo.findByUser_UsernameAndSymbol("maria", "AAPL")).isEmpty();
+        assertThat(cash()).isEqualByComparingTo("10100.00");
+        Order sell = orderRepo.findAll().stream().filter(o -> o.getSide() == Order.OrderSide.SELL).findFirst().orElseThrow();
+        assertThat(sell.getRealizedPnl()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void buy_movesTheAveragePrice_roundedLikeBefore() {
+        price("AAPL", "101.00");
+        tradeService.buy("maria", "AAPL", 3);
+
+        // (10 * 100 + 3 * 101) / 13 = 100.230769...
+        assertThat(positionRepo.findByUser_UsernameAndSymbol("maria", "AAPL").orElseThrow().getAveragePrice())
+                .isEqualByComparingTo("100.2308");
+    }
+
+    @Test
+    void buy_withoutEnoughCash_changesNothing() {
+        assertThatThrownBy(() -> tradeService.buy("maria", "AAPL", 91))
+                .isInstanceOf(InsufficientFundsException.class)
+                .hasMessage("Insufficient funds. Required: 9100.0000, Available: 9000.0000");
+        assertThat(cash()).isEqualByComparingTo("9000.00");
+        assertThat(positionRepo.findByUser_UsernameAndSymbol("maria", "AAPL").orElseThrow().getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void sell_moreThanHeld_changesNothing() {
+        assertThatThrownBy(() -> tradeService.sell("maria", "AAPL", 11))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Insufficient quantity. Available: 10, Requested: 11");
+        assertThatThrownBy(() -> tradeService.sell("maria", "MSFT", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Position not found for symbol: MSFT");
+        assertThat(cash()).isEqualByComparingTo("9000.00");
+    }
+
+    @Test
+    void severalTradesInOneTransaction_seeEachOthersWrites() {
+        // As the sequencer commits a batch of commands: the second buy must find the position the first created
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            tradeService.buy("maria", "MSFT", 2);
+            tradeService.buy("maria", "MSFT", 3);
+            tradeService.sell("maria", "MSFT", 5);
+            tradeService.buy("maria", "MSFT", 1);
+        });
+
+        List<PortfolioPosition> positions = positionRepo.findAllByUser_Username("maria");
+        assertThat(positions).extracting(PortfolioPosition::getSymbol).containsExactlyInAnyOrder("AAPL", "MSFT");
+        assertThat(positionRepo.findByUser_UsernameAndSymbol("maria", "MSFT").orElseThrow().getQuantity()).isEqualTo(1);
+        assertThat(cash()).isEqualByComparingTo("8950.00");
+    }
+
+    @Test
+    void ordersOfOneTransaction_areInsertedInOneJdbcBatch() {
+        long statements = statements(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                tradeService.buy("maria", "AAPL", 1);
+            }
+        }));
+
+        // Cash and position updates per buy, one batch of five order inserts, and the outbox inserts
+        assertThat(statements).isEqualTo(16);
+        assertThat(orderRepo.count()).isEqualTo(6);
+    }
+
+    private long statements(Runnable trade) {
+        statistics.clear();
+        trade.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private BigDecimal cash() {
+        return userRepo.findByUsername("maria").orElseThrow().getCashBalance();
+    }
+
+    private void price(String symbol, String price) {
+        when(pricingServiceClient.getCurrentPrice(symbol)).thenReturn(TestPrices.price(symbol, price));
+    }
+}
@@ -0,0 +1,141 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.web.dto.BasketOrderRequest;
+import com.phitrading.exchange.web.dto.BasketOrderResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import phitrading.phitradingexchangemain.PhiTradingExchangeMainApplication;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = PhiTradingExchangeMainApplication.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tradebasket;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TradeServiceBasketIntegrationTest {
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private UserAccountRepository userRepo;
+    @Autowired
+    private PortfolioPositionRepository positionRepo;
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @MockBean
+    private PricingServiceClient pricingServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount u = new UserAccount();
+        u.setUsername("maria");
+        u.setEmail("maria@example.com");
+        u.setPasswordHash("x");
+        u.setCashBalance(new BigDecimal("1000.00"));
+        u.setCreatedAt(LocalDateTime.now());
+        u.setUpdatedAt(LocalDateTime.now());
+        userRepo.save(u);
+
+        PortfolioPosition p = new PortfolioPosition();
+        p.setUser(u);
+        p.setSymbol("TSLA");
+        p.setQuantity(5);
+        p.setAveragePrice(new BigDecimal("100.0000"));
+        positionRepo.save(p);
+
+        when(pricingServiceClient.getPrices(anyCollection(), any(Duration.class)))
+                .thenReturn(Map.of("AAPL", price("AAPL", "100.00"), "TSLA", price("TSLA", "120.00")));
+    }
+
+    @Test
+    void allOrNothing_salesEarlierInTheBasketFundLaterBuys() {
+        BasketOrderResult result = tradeService.executeBasket("maria", basket(BasketOrderRequest.Mode.ALL_OR_NOTHING,
+                line("tsla", Order.OrderSide.SELL, 5),
+                line("AAPL", Order.OrderSide.BUY, 15)));
+
+        assertThat(result.getExecuted()).isEqualTo(2);
+        assertThat(result.getRejected()).isZero();
+        assertThat(result.getLines().get(0).getRealizedPnl()).isEqualByComparingTo("100.00");
+        assertThat(result.getCashBalance()).isEqualByComparingTo("100.00");
+
+        assertThat(userRepo.findByUsername("maria").orElseThrow().getCashBalance()).isEqualByComparingTo("100.00");
+        List<PortfolioPosition> positions = positionRepo.findAllByUser_Username("maria");
+        assertThat(positions).extracting(PortfolioPosition::getSymbol).containsExactly("AAPL");
+        assertThat(positions.get(0).getQuantity()).isEqualTo(15);
+        assertThat(orderRepo.count()).isEqualTo(2);
+    }
+
+    @Test
+    void allOrNothing_thatCannotBeFunded_writesNothing() {
+        assertThatThrownBy(() -> tradeService.executeBasket("maria", basket(BasketOrderRequest.Mode.ALL_OR_NOTHING,
+                line("AAPL", Order.OrderSide.BUY, 5),
+                line("AAPL", Order.OrderSide.BUY, 15))))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        assertThat(userRepo.findByUsername("maria").orElseThrow().getCashBalance()).isEqualByComparingTo("1000.00");
+        assertThat(positionRepo.findAllByUser_Username("maria")).hasSize(1);
+        assertThat(orderRepo.count()).isZero();
+    }
+
+    @Test
+    void bestEffort_rejectsOnlyTheOrdersThatCannotExecute() {
+        BasketOrderResult result = tradeService.executeBasket("maria", basket(BasketOrderRequest.Mode.BEST_EFFORT,
+                line("AAPL", Order.OrderSide.BUY, 6),
+                line("AAPL", Order.OrderSide.BUY, 6),
+                line("MSFT", Order.OrderSide.BUY, 1),
+                line("TSLA", Order.OrderSide.SELL, 2)));
+
+        assertThat(result.getLines()).extracting(BasketOrderResult.Line::getStatus)
+                .containsExactly("EXECUTED", "REJECTED", "REJECTED", "EXECUTED");
+        assertThat(result.getLines().get(1).getMessage()).startsWith("Insufficient funds");
+        assertThat(result.getLines().get(2).getMessage()).contains("No current price");
+        assertThat(userRepo.findByUsername("maria").orElseThrow().getCashBalance()).isEqualByComparingTo("640.00");
+        assertThat(orderRepo.count()).isEqualTo(2);
+    }
+
+    private static BasketOrderRequest basket(BasketOrderRequest.Mode mode, BasketOrderRequest.Line... lines) {
+        BasketOrderRequest request = new BasketOrderRequest();
+        request.setMode(mode);
+        request.setOrders(List.of(lines));
+        return request;
+    }
+
+    private static BasketOrderRequest.Line line(String symbol, Order.OrderSide side, long quantity) {
+        BasketOrderRequest.Line line = new BasketOrderRequest.Line();
+        line.setSymbol(symbol);
+        line.setSide(side);
+        line.setQuantity(quantity);
+        return line;
+    }
+}
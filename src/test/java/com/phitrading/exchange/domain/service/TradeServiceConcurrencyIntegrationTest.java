@@ -0,0 +1,130 @@
+package com.phitrading.exchange.domain.service;
+
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import phitrading.phitradingexchangemain.PhiTradingExchangeMainApplication;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = PhiTradingExchangeMainApplication.class)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:tradeconcurrency;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TradeServiceConcurrencyIntegrationTest {
+
+    @Autowired
+    private TradeService tradeService;
+    @Autowired
+    private UserAccountRepository userRepo;
+    @Autowired
+    private PortfolioPositionRepository positionRepo;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private PricingServiceClient pricingServiceClient;
+
+    @BeforeEach
+    void setUp() {
+        UserAccount u = new UserAccount();
+        u.setUsername("maria");
+        u.setEmail("maria@example.com");
+        u.setPasswordHash("x");
+        u.setCashBalance(new BigDecimal("1000.00"));
+        u.setCreatedAt(LocalDateTime.now());
+        u.setUpdatedAt(LocalDateTime.now());
+        userRepo.save(u);
+
+        when(pricingServiceClient.getCurrentPrice("TSLA")).thenReturn(price("TSLA", "100.00"));
+    }
+
+    @Test
+    void simultaneousBuys_neverOverdrawTheAccount() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> buys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            buys.add(pool.submit(() -> tradeService.buy("maria", "TSLA", 1)));
+        }
+        int filled = 0;
+        for (Future<?> buy : buys) {
+            try {
+                buy.get(10, TimeUnit.SECONDS);
+                filled++;
+            } catch (Exception e) {
+                assertThat(e).hasMessageContaining("Insufficient funds");
+            }
+        }
+        pool.shutdown();
+
+        UserAccount account = userRepo.findByUsername("maria").orElseThrow();
+        PortfolioPosition position = positionRepo.findAllByUser_Username("maria").get(0);
+        assertThat(filled).isEqualTo(10);
+        assertThat(account.getCashBalance()).isEqualByComparingTo("0");
+        assertThat(position.getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void rejectedBuys_neverRollBackTheBatchTheyRanIn() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> buys = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            buys.add(pool.submit(() -> tradeService.buy("maria", "TSLA", 1)));
+        }
+        int rejected = 0;
+        for (Future<?> buy : buys) {
+            try {
+                buy.get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                assertThat(e).hasMessageContaining("Insufficient funds");
+                rejected++;
+            }
+        }
+        pool.shutdown();
+
+        assertThat(rejected).isEqualTo(30);
+        assertThat(meterRegistry.get("trading.sequencer.batch.replays").counter().count()).isZero();
+        assertThat(userRepo.findByUsername("maria").orElseThrow().getCashBalance()).isEqualByComparingTo("0");
+        assertThat(positionRepo.findAllByUser_Username("maria").get(0).getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void writeBasedOnAStaleRead_isRejected() {
+        UserAccount stale = userRepo.findByUsername("maria").orElseThrow();
+
+        tradeService.buy("maria", "TSLA", 2);
+
+        stale.setEmail("maria@new.example.com");
+        assertThatThrownBy(() -> userRepo.save(stale)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(userRepo.findByUsername("maria").orElseThrow().getCashBalance()).isEqualByComparingTo("800.00");
+    }
+}
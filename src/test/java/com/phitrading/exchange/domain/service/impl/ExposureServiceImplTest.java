@@ -0,0 +1,250 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.outbox.OrderExecutedEvent;
+import com.phitrading.exchange.domain.outbox.OrderExecutedNotice;
+import com.phitrading.exchange.domain.outbox.OutboxFollower;
+import com.phitrading.exchange.domain.repository.OutboxEventRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.PositionExposureRow;
+import com.phitrading.exchange.integration.PricingProperties;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.ExposureView;
+import com.phitrading.exchange.web.dto.SymbolExposureView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExposureServiceImplTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-02T10:00:00Z");
+
+    private final Map<String, InstrumentPriceDto> market = new HashMap<>();
+    private PortfolioPositionRepository positions;
+    private OutboxEventRepository outbox;
+    private OutboxFollower follower;
+    private PricingServiceClient pricing;
+    private ExposureServiceImpl service;
+    private long eventId;
+
+    @BeforeEach
+    void setUp() {
+        positions = mock(PortfolioPositionRepository.class);
+        outbox = mock(OutboxEventRepository.class);
+        follower = mock(OutboxFollower.class);
+        pricing = mock(PricingServiceClient.class);
+        TradingProperties properties = new TradingProperties();
+        properties.getExposure().setRebuildPageSize(2);
+        service = new ExposureServiceImpl(positions, outbox, follower, pricing, new PricingProperties(), properties,
+                new SimpleMeterRegistry(), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        when(pricing.getPrices(anyCollection(), any(Duration.class))).thenAnswer(inv -> {
+            Map<String, InstrumentPriceDto> found = new HashMap<>();
+            for (Object symbol : inv.getArgument(0, java.util.Collection.class)) {
+                InstrumentPriceDto dto = market.get(symbol);
+                if (dto != null) {
+                    found.put((String) symbol, dto);
+                }
+            }
+            return found;
+        });
+    }
+
+    @Test
+    void rebuild_sumsEachSymbolAcrossPages() {
+        PositionExposureRow a1 = row("AAPL", 10, "150.00");
+        PositionExposureRow a2 = row("AAPL", 5, "120.00");
+        PositionExposureRow a3 = row("AAPL", 1, "100.00");
+        PositionExposureRow m1 = row("MSFT", 2, "300.00");
+        when(positions.findExposureRows(any(Pageable.class))).thenReturn(List.of(a1, a2));
+        when(positions.findExposureRowsAfter(eq("AAPL"), eq(a2.id()), any(Pageable.class))).thenReturn(List.of(a3, m1));
+        when(positions.findExposureRowsAfter(eq("MSFT"), eq(m1.id()), any(Pageable.class))).thenReturn(List.of());
+
+        assertThat(service.rebuild()).isEqualTo(2);
+
+        SymbolExposureView aapl = service.getExposure("AAPL");
+        assertThat(aapl.getHolders()).isEqualTo(3);
+        assertThat(aapl.getQuantity()).isEqualTo(16);
+        assertThat(aapl.getCostBasis()).isEqualByComparingTo("2200.00");
+        assertThat(aapl.getPriceStatus()).isEqualTo("UNAVAILABLE");
+        assertThat(service.getExposure("MSFT").getCostBasis()).isEqualByComparingTo("600.00");
+        assertThat(service.getExposure().getRebuiltAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void rebuild_addsUpASymbolWhoseRowsComeInSeveralRuns() {
+        // A binary collation sorts the spellings of one symbol apart, around other symbols
+        PositionExposureRow a1 = row("AAPL", 10, "150.00");
+        PositionExposureRow a2 = row("Aapl ", 5, "120.00");
+        PositionExposureRow m1 = row("MSFT", 2, "300.00");
+        PositionExposureRow a3 = row("aapl", 3, "100.00");
+        when(positions.findExposureRows(any(Pageable.class))).thenReturn(List.of(a1, a2));
+        when(positions.findExposureRowsAfter(eq("Aapl "), eq(a2.id()), any(Pageable.class))).thenReturn(List.of(m1, a3));
+        when(positions.findExposureRowsAfter(eq("aapl"), eq(a3.id()), any(Pageable.class))).thenReturn(List.of());
+
+        assertThat(service.rebuild()).isEqualTo(2);
+
+        SymbolExposureView aapl = service.getExposure("aapl");
+        assertThat(aapl.getSymbol()).isEqualTo("AAPL");
+        assertThat(aapl.getHolders()).isEqualTo(3);
+        assertThat(aapl.getQuantity()).isEqualTo(18);
+        assertThat(aapl.getCostBasis()).isEqualByComparingTo("2400.00");
+        assertThat(service.getExposure("MSFT").getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void fills_adjustTheTotals_andAFlatSymbolIsDropped() {
+        buy("AAPL", 10, "1500.00", true);
+        buy("AAPL", 5, "600.00", true);
+        sell("AAPL", 4, "600.00", false);
+
+        SymbolExposureView aapl = service.getExposure("AAPL");
+        assertThat(aapl.getHolders()).isEqualTo(2);
+        assertThat(aapl.getQuantity()).isEqualTo(11);
+        assertThat(aapl.getCostBasis()).isEqualByComparingTo("1500.00");
+
+        sell("AAPL", 6, "900.00", true);
+        sell("AAPL", 5, "600.00", true);
+
+        assertThat(service.getExposure().getSymbols()).isEmpty();
+        assertThatThrownBy(() -> service.getExposure("AAPL")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refreshPrices_valuesEverySymbolInOneCall_andCountsOnlyChanges() {
+        buy("AAPL", 4, "600.00", true);
+        buy("AAPL", 6, "900.00", true);
+        buy("MSFT", 2, "600.00", true);
+        buy("XYZ", 5, "50.00", true);
+        market("AAPL", "160.00");
+        market("MSFT", "280.00");
+
+        assertThat(service.refreshPrices()).isEqualTo(2);
+        assertThat(service.refreshPrices()).isZero();
+
+        ExposureView view = service.getExposure();
+        assertThat(view.getSymbols()).extracting("symbol").containsExactly("AAPL", "MSFT", "XYZ");
+        assertThat(view.getSymbols().get(0).getUnrealizedPnl()).isEqualByComparingTo("100.00");
+        assertThat(view.getSymbols().get(0).getUnrealizedPnlPct()).isEqualByComparingTo("6.67");
+        assertThat(view.getSymbols().get(2).getPriceStatus()).isEqualTo("UNAVAILABLE");
+        assertThat(view.getTotalCostBasis()).isEqualByComparingTo("2150.00");
+        assertThat(view.getTotalNotional()).isEqualByComparingTo("2160.00");
+        assertThat(view.getTotalUnrealizedPnl()).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void refreshPrices_skipsThePricingServiceWhenNothingIsHeld() {
+        assertThat(service.refreshPrices()).isZero();
+
+        verify(pricing, never()).getPrices(anyCollection(), any(Duration.class));
+    }
+
+    @Test
+    void fillsDuringARebuild_areAppliedToTheRebuiltTotals_andPricesCarryOver() {
+        buy("AAPL", 10, "1500.00", true);
+        market("AAPL", "160.00");
+        service.refreshPrices();
+        PositionExposureRow a1 = row("AAPL", 10, "150.00");
+        when(positions.findExposureRows(any(Pageable.class))).thenAnswer(inv -> {
+            // Commits after the snapshot was taken, so the rows below do not include it
+            buy("AAPL", 2, "300.00", true);
+            return List.of(a1);
+        });
+        when(outbox.findIdsIn(anyCollection())).thenReturn(List.of());
+
+        service.rebuild();
+
+        SymbolExposureView aapl = service.getExposure("AAPL");
+        assertThat(aapl.getHolders()).isEqualTo(2);
+        assertThat(aapl.getQuantity()).isEqualTo(12);
+        assertThat(aapl.getCostBasis()).isEqualByComparingTo("1800.00");
+        assertThat(aapl.getPrice()).isEqualByComparingTo("160.00");
+        assertThat(aapl.getNotional()).isEqualByComparingTo("1920.00");
+    }
+
+    @Test
+    void fillsTheRebuildAlreadyRead_areNotCountedTwice() {
+        PositionExposureRow a1 = row("AAPL", 10, "150.00");
+        PositionExposureRow a2 = row("AAPL", 2, "150.00");
+        // Committed before the snapshot, but followed only once the rebuild was running
+        when(positions.findExposureRows(any(Pageable.class))).thenAnswer(inv -> {
+            buy("AAPL", 10, "1500.00", true);
+            return List.of(a1, a2);
+        });
+        when(positions.findExposureRowsAfter(eq("AAPL"), eq(a2.id()), any(Pageable.class))).thenReturn(List.of());
+        // Committed before the snapshot and still unfollowed when the rows are read: the rebuild's own poll gets it
+        when(follower.poll()).thenAnswer(inv -> {
+            buy("AAPL", 2, "300.00", true);
+            return 1;
+        });
+        when(outbox.findIdsIn(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+
+        service.rebuild();
+
+        SymbolExposureView aapl = service.getExposure("AAPL");
+        assertThat(aapl.getHolders()).isEqualTo(2);
+        assertThat(aapl.getQuantity()).isEqualTo(12);
+        assertThat(aapl.getCostBasis()).isEqualByComparingTo("1800.00");
+    }
+
+    @Test
+    void rebuild_dropsSymbolsNoLongerHeld() {
+        buy("AAPL", 10, "1500.00", true);
+        when(positions.findExposureRows(any(Pageable.class))).thenReturn(List.of());
+
+        assertThat(service.rebuild()).isZero();
+
+        assertThat(service.getExposure().getSymbols()).isEmpty();
+    }
+
+    @Test
+    void unknownSymbol_isRejected() {
+        assertThatThrownBy(() -> service.getExposure("NOPE")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void buy(String symbol, long quantity, String cost, boolean opened) {
+        service.onOrderExecuted(new OrderExecutedNotice(event(Order.OrderSide.BUY, symbol, quantity, cost, opened, false)));
+    }
+
+    private void sell(String symbol, long quantity, String costRemoved, boolean closed) {
+        service.onOrderExecuted(new OrderExecutedNotice(event(Order.OrderSide.SELL, symbol, quantity, costRemoved, false, closed)));
+    }
+
+    private OrderExecutedEvent event(Order.OrderSide side, String symbol, long quantity, String cost,
+                                     boolean opened, boolean closed) {
+        return new OrderExecutedEvent(++eventId, UUID.randomUUID(), "ana", symbol, side, quantity, null, null, null,
+                opened, closed, new BigDecimal(cost));
+    }
+
+    private void market(String symbol, String lastPrice) {
+        market.put(symbol, price(symbol, lastPrice));
+    }
+
+    private static PositionExposureRow row(String symbol, long quantity, String averagePrice) {
+        return new PositionExposureRow(UUID.randomUUID(), symbol, quantity, new BigDecimal(averagePrice));
+    }
+}
@@ -0,0 +1,223 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.common.exception.DuplicateRequestException;
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.idempotency.IdempotentOutcome;
+import com.phitrading.exchange.domain.idempotency.InMemoryIdempotencyStore;
+import com.phitrading.exchange.testsupport.MutableClock;
+import com.phitrading.exchange.web.dto.BasketOrderRequest;
+import com.phitrading.exchange.web.dto.BasketOrderResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceImplTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void repeatedKey_returnsTheFirstResultWithoutRunningAgain() {
+        IdempotencyServiceImpl service = service(settings());
+
+        String first = service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed #" + executions.incrementAndGet());
+        String second = service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed #" + executions.incrementAndGet());
+
+        assertThat(first).isEqualTo("executed #1");
+        assertThat(second).isEqualTo("executed #1");
+        assertThat(executions).hasValue(1);
+        assertThat(registry.get("trading.idempotency.requests").tag("outcome", "replayed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        IdempotencyServiceImpl service = service(settings());
+
+        service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "john #" + executions.incrementAndGet());
+        String other = service.execute("maria", "k1", "BUY:AAPL:3", String.class, () -> "maria #" + executions.incrementAndGet());
+
+        assertThat(other).isEqualTo("maria #2");
+    }
+
+    @Test
+    void structuredResult_isRestoredOnReplay() {
+        IdempotencyServiceImpl service = service(settings());
+        BasketOrderResult result = BasketOrderResult.builder()
+                .mode(BasketOrderRequest.Mode.BEST_EFFORT).executed(1).rejected(0)
+                .cashBalance(new BigDecimal("12.5000"))
+                .lines(List.of(BasketOrderResult.Line.builder().symbol("AAPL").side("BUY").quantity(1).status("EXECUTED").build()))
+                .build();
+
+        service.execute("john", "b1", "BASKET", BasketOrderResult.class, () -> result);
+        BasketOrderResult replayed = service.execute("john", "b1", "BASKET", BasketOrderResult.class, () -> {
+            throw new AssertionError("must not run again");
+        });
+
+        assertThat(replayed).isEqualTo(result);
+    }
+
+    @Test
+    void rejection_isReplayedAsTheSameError() {
+        IdempotencyServiceImpl service = service(settings());
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> service.execute("john", "k1", "BUY:AAPL:300", String.class, () -> {
+                executions.incrementAndGet();
+                throw new InsufficientFundsException("Insufficient funds. Required: 30000, Available: 1000");
+            })).isInstanceOf(InsufficientFundsException.class)
+                    .hasMessage("Insufficient funds. Required: 30000, Available: 1000");
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void transientFailure_isNotRemembered() {
+        IdempotencyServiceImpl service = service(settings());
+
+        assertThatThrownBy(() -> service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> {
+            throw new PricingUnavailableException("Pricing service is unavailable");
+        })).isInstanceOf(PricingUnavailableException.class);
+        String retried = service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed");
+
+        assertThat(retried).isEqualTo("executed");
+    }
+
+    @Test
+    void sharedStoreFailure_releasesTheLocalClaimForTheRetry() {
+        AtomicInteger sharedClaims = new AtomicInteger();
+        InMemoryIdempotencyStore shared = new InMemoryIdempotencyStore(100, clock) {
+            @Override
+            public synchronized IdempotentOutcome claim(String key, String operation, Instant expiresAt) {
+                if (sharedClaims.incrementAndGet() == 1) {
+                    throw new IllegalStateException("connection pool exhausted");
+                }
+                return super.claim(key, operation, expiresAt);
+            }
+        };
+        IdempotencyServiceImpl service = new IdempotencyServiceImpl(settings(), shared,
+                new ObjectMapper().findAndRegisterModules(), clock, registry);
+
+        assertThatThrownBy(() -> service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed"))
+                .isInstanceOf(IllegalStateException.class);
+        String retried = service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed");
+
+        assertThat(retried).isEqualTo("executed");
+    }
+
+    @Test
+    void keyReusedForADifferentRequest_isRefused() {
+        IdempotencyServiceImpl service = service(settings());
+        service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed");
+
+        assertThatThrownBy(() -> service.execute("john", "k1", "SELL:AAPL:3", String.class, () -> "sold"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("different request");
+    }
+
+    @Test
+    void repeatWhileTheOriginalRuns_waitsForItsResult() throws Exception {
+        IdempotencyServiceImpl service = service(settings());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> {
+                    running.countDown();
+                    await(release);
+                    return "executed #" + executions.incrementAndGet();
+                }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() ->
+                service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed #" + executions.incrementAndGet()));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("executed #1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("executed #1");
+    }
+
+    @Test
+    void repeatWhileTheOriginalRunsTooLong_isRejected() throws Exception {
+        TradingProperties.Idempotency settings = settings();
+        settings.setInFlightWait(Duration.ofMillis(50));
+        IdempotencyServiceImpl service = service(settings);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> {
+                    running.countDown();
+                    await(release);
+                    return "executed";
+                }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "duplicate"))
+                .isInstanceOf(DuplicateRequestException.class);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("executed");
+    }
+
+    @Test
+    void keyExpiresAfterTtl() {
+        IdempotencyServiceImpl service = service(settings());
+        service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed #" + executions.incrementAndGet());
+
+        clock.advance(Duration.ofMinutes(11));
+
+        assertThat(service.execute("john", "k1", "BUY:AAPL:3", String.class, () -> "executed #" + executions.incrementAndGet()))
+                .isEqualTo("executed #2");
+    }
+
+    @Test
+    void memoryStore_staysBoundedAndDropsExpiredKeysFirst() {
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(3, clock);
+        store.claim("a", "op", clock.instant().plusSeconds(10));
+        store.complete("a", new IdempotentOutcome("op", IdempotentOutcome.Status.SUCCEEDED, "1", null, clock.instant().plusSeconds(10)));
+        store.claim("b", "op", clock.instant().plusSeconds(60));
+        store.claim("c", "op", clock.instant().plusSeconds(60));
+
+        // Full: "a" is the oldest completed key, and in-progress keys are never evicted
+        store.claim("d", "op", clock.instant().plusSeconds(60));
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.get("a")).isNull();
+        assertThat(store.get("b")).isNotNull();
+
+        clock.advance(Duration.ofSeconds(61));
+        assertThat(store.purgeExpired()).isEqualTo(3);
+    }
+
+    private IdempotencyServiceImpl service(TradingProperties.Idempotency settings) {
+        return new IdempotencyServiceImpl(settings, null, new ObjectMapper().findAndRegisterModules(), clock, registry);
+    }
+
+    private static TradingProperties.Idempotency settings() {
+        TradingProperties.Idempotency settings = new TradingProperties.Idempotency();
+        settings.setTtl(Duration.ofMinutes(10));
+        settings.setMaxEntries(100);
+        settings.setInFlightWait(Duration.ofSeconds(5));
+        return settings;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.domain.risk.PreTradeRiskEngine;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LimitOrderServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private UserAccountRepository userAccountRepository;
+    @Mock
+    private PortfolioPositionRepository portfolioPositionRepository;
+    @Mock
+    private TradeService tradeService;
+    @Mock
+    private PricingServiceClient pricingServiceClient;
+    @Mock
+    private PreTradeRiskEngine riskEngine;
+
+    private LimitOrderServiceImpl service;
+    private UserAccount user;
+
+    @BeforeEach
+    void setUp() {
+        service = new LimitOrderServiceImpl(orderRepository, userAccountRepository, portfolioPositionRepository,
+                tradeService, pricingServiceClient, riskEngine, new TradingProperties(), new SimpleMeterRegistry());
+        user = new UserAccount();
+        user.setUsername("john");
+        user.setCashBalance(new BigDecimal("1000.00"));
+    }
+
+    @Test
+    void buyLimitBelowTheMarket_restsUntilThePriceFallsToIt() {
+        when(userAccountRepository.findByUsername("john")).thenReturn(Optional.of(user));
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("AAPL", "100.00"));
+
+        Order order = service.placeLimitOrder("john", "AAPL", Order.OrderSide.BUY, 5, new BigDecimal("95"));
+
+        assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(order.getLimitPrice()).isEqualTo(Money.parse("95.0000"));
+        verify(orderRepository).save(order);
+        verify(tradeService, never()).fillLimitOrder(any(), any());
+
+        when(tradeService.fillLimitOrder(order.getId(), new BigDecimal("94.50"))).thenReturn(true);
+        assertThat(service.onPrice("AAPL", new BigDecimal("96.00"))).isZero();
+        assertThat(service.onPrice("aapl", new BigDecimal("94.50"))).isEqualTo(1);
+        assertThat(service.book("AAPL").isEmpty()).isTrue();
+    }
+
+    @Test
+    void limitTheMarketAlreadySatisfies_fillsImmediately() {
+        when(userAccountRepository.findByUsername("john")).thenReturn(Optional.of(user));
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("AAPL", "99.00"));
+        when(tradeService.fillLimitOrder(any(), eq(new BigDecimal("99.00")))).thenReturn(true);
+        when(orderRepository.findById(any())).thenAnswer(inv -> {
+            Order filled = new Order();
+            filled.setStatus(Order.OrderStatus.EXECUTED);
+            return Optional.of(filled);
+        });
+
+        Order order = service.placeLimitOrder("john", "AAPL", Order.OrderSide.BUY, 5, new BigDecimal("100"));
+
+        assertThat(order.getStatus()).isEqualTo(Order.OrderStatus.EXECUTED);
+    }
+
+    @Test
+    void symbol_isNormalizedBeforeThePositionCheck() {
+        PortfolioPosition position = new PortfolioPosition();
+        position.setSymbol("MSFT");
+        position.setQuantity(10);
+        when(userAccountRepository.findByUsername("john")).thenReturn(Optional.of(user));
+        when(portfolioPositionRepository.findByUserAndSymbol(user, "MSFT")).thenReturn(Optional.of(position));
+
+        Order order = service.placeLimitOrder("john", " msft ", Order.OrderSide.SELL, 5, new BigDecimal("120"));
+
+        assertThat(order.getSymbol()).isEqualTo("MSFT");
+        assertThat(service.book("MSFT").isEmpty()).isFalse();
+    }
+
+    @Test
+    void recoveredOrders_keepTimePriority() {
+        Order first = pending(Order.OrderSide.SELL, "110.00", LocalDateTime.now().minusMinutes(2));
+        Order second = pending(Order.OrderSide.SELL, "110.00", LocalDateTime.now().minusMinutes(1));
+        when(orderRepository.findAllByStatusAndLimitPriceIsNotNullOrderByCreatedAtAsc(Order.OrderStatus.PENDING))
+                .thenReturn(List.of(first, second));
+        when(tradeService.fillLimitOrder(any(), any())).thenReturn(true);
+
+        assertThat(service.recover()).isEqualTo(2);
+        assertThat(service.recover()).isZero();
+        assertThat(service.onPrice("AAPL", new BigDecimal("111.00"))).isEqualTo(2);
+
+        InOrder inOrder = inOrder(tradeService);
+        inOrder.verify(tradeService).fillLimitOrder(first.getId(), new BigDecimal("111.00"));
+        inOrder.verify(tradeService).fillLimitOrder(second.getId(), new BigDecimal("111.00"));
+    }
+
+    @Test
+    void orderTheUserCanNoLongerAfford_isCanceledWhenReached() {
+        Order order = pending(Order.OrderSide.BUY, "90.00", LocalDateTime.now());
+        when(orderRepository.findAllByStatusAndLimitPriceIsNotNullOrderByCreatedAtAsc(Order.OrderStatus.PENDING))
+                .thenReturn(List.of(order));
+        when(tradeService.fillLimitOrder(order.getId(), new BigDecimal("89.00")))
+                .thenThrow(new InsufficientFundsException("Insufficient funds"));
+        service.recover();
+
+        assertThat(service.onPrice("AAPL", new BigDecimal("89.00"))).isZero();
+
+        verify(orderRepository).transition(order.getId(), Order.OrderStatus.PENDING, Order.OrderStatus.CANCELED);
+        assertThat(service.book("AAPL").isEmpty()).isTrue();
+    }
+
+    @Test
+    void unexpectedFillFailure_putsTheOrderBackForTheNextPrice() {
+        Order order = pending(Order.OrderSide.BUY, "90.00", LocalDateTime.now());
+        when(orderRepository.findAllByStatusAndLimitPriceIsNotNullOrderByCreatedAtAsc(Order.OrderStatus.PENDING))
+                .thenReturn(List.of(order));
+        when(tradeService.fillLimitOrder(order.getId(), new BigDecimal("89.00")))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(true);
+        service.recover();
+
+        assertThat(service.onPrice("AAPL", new BigDecimal("89.00"))).isZero();
+        assertThat(service.book("AAPL").get(order.getId())).isNotNull();
+        assertThat(service.onPrice("AAPL", new BigDecimal("89.00"))).isEqualTo(1);
+        verify(orderRepository, never()).transition(any(), any(), any());
+    }
+
+    @Test
+    void matchAll_ignoresLastKnownPricesServedWhilePricingIsDown() {
+        Order order = pending(Order.OrderSide.BUY, "90.00", LocalDateTime.now());
+        when(orderRepository.findAllByStatusAndLimitPriceIsNotNullOrderByCreatedAtAsc(Order.OrderStatus.PENDING))
+                .thenReturn(List.of(order));
+        service.recover();
+        when(pricingServiceClient.getPrices(List.of("AAPL"), Duration.ofSeconds(1)))
+                .thenReturn(Map.of("AAPL", price("AAPL", "80.00").asStale()));
+
+        assertThat(service.matchAll()).isZero();
+        verify(tradeService, never()).fillLimitOrder(any(), any());
+    }
+
+    @Test
+    void cancel_removesTheOrderFromTheBook() {
+        Order order = pending(Order.OrderSide.BUY, "90.00", LocalDateTime.now());
+        when(orderRepository.findAllByStatusAndLimitPriceIsNotNullOrderByCreatedAtAsc(Order.OrderStatus.PENDING))
+                .thenReturn(List.of(order));
+        when(orderRepository.findByIdAndUser_Username(order.getId(), "john")).thenReturn(Optional.of(order));
+        when(orderRepository.transition(order.getId(), Order.OrderStatus.PENDING, Order.OrderStatus.CANCELED)).thenReturn(1);
+        service.recover();
+
+        service.cancel("john", order.getId());
+
+        assertThat(service.book("AAPL").isEmpty()).isTrue();
+        assertThat(service.onPrice("AAPL", new BigDecimal("50.00"))).isZero();
+    }
+
+    private Order pending(Order.OrderSide side, String limit, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setSymbol("AAPL");
+        order.setSide(side);
+        order.setQuantity(1);
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setLimitPrice(Money.parse(limit));
+        order.setCreatedAt(createdAt);
+        return order;
+    }
+}
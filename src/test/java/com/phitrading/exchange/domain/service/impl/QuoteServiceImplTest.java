@@ -0,0 +1,126 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.testsupport.MutableClock;
+import com.phitrading.exchange.web.dto.QuoteExecutionResult;
+import com.phitrading.exchange.web.dto.QuoteView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class QuoteServiceImplTest {
+
+    private final MutableClock clock = MutableClock.at("2026-03-02T10:00:00Z");
+
+    private PricingServiceClient pricingServiceClient;
+    private TradeService tradeService;
+    private QuoteServiceImpl quoteService;
+
+    @BeforeEach
+    void setUp() {
+        pricingServiceClient = mock(PricingServiceClient.class);
+        tradeService = mock(TradeService.class);
+        TradingProperties properties = new TradingProperties();
+        properties.getQuotes().setTtl(Duration.ofSeconds(5));
+        properties.getQuotes().setMaxOutstanding(100);
+        quoteService = new QuoteServiceImpl(pricingServiceClient, tradeService, properties, new SimpleMeterRegistry(), clock);
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("AAPL", "187.25"));
+    }
+
+    @Test
+    void executesAtTheQuotedPriceWithoutAskingPricingAgain() {
+        QuoteView quote = quoteService.requestQuote("john", "aapl", Order.OrderSide.BUY);
+        assertThat(quote.getSymbol()).isEqualTo("AAPL");
+        assertThat(quote.getPrice()).isEqualByComparingTo("187.25");
+        assertThat(quote.getExpiresAt()).isEqualTo(clock.instant().plusSeconds(5));
+
+        // The market moves; the quote still holds
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("AAPL", "190.00"));
+        clock.advance(Duration.ofSeconds(4));
+        QuoteExecutionResult result = quoteService.executeQuote("john", quote.getQuoteId(), quote.getSignature(), 10);
+
+        assertThat(result.getPrice()).isEqualByComparingTo("187.25");
+        verify(tradeService).executeAtPrice(eq("john"), eq("AAPL"), eq(Order.OrderSide.BUY), eq(10L),
+                eq(new BigDecimal("187.2500")));
+        verify(pricingServiceClient, times(1)).getCurrentPrice("AAPL");
+    }
+
+    @Test
+    void quoteExecutesOnlyOnce() {
+        QuoteView quote = quoteService.requestQuote("john", "AAPL", Order.OrderSide.SELL);
+        quoteService.executeQuote("john", quote.getQuoteId(), quote.getSignature(), 1);
+
+        assertThatThrownBy(() -> quoteService.executeQuote("john", quote.getQuoteId(), quote.getSignature(), 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not found or expired");
+        verify(tradeService, times(1)).executeAtPrice(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void expiredQuoteIsRejected() {
+        QuoteView quote = quoteService.requestQuote("john", "AAPL", Order.OrderSide.BUY);
+        clock.set(quote.getExpiresAt());
+
+        assertThatThrownBy(() -> quoteService.executeQuote("john", quote.getQuoteId(), quote.getSignature(), 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not found or expired");
+        verify(tradeService, never()).executeAtPrice(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void wrongSignatureOrOwnerDoesNotUseTheQuoteUp() {
+        QuoteView quote = quoteService.requestQuote("john", "AAPL", Order.OrderSide.BUY);
+
+        assertThatThrownBy(() -> quoteService.executeQuote("john", quote.getQuoteId(), "forged", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("signature");
+        assertThatThrownBy(() -> quoteService.executeQuote("mallory", quote.getQuoteId(), quote.getSignature(), 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not found or expired");
+
+        quoteService.executeQuote("john", quote.getQuoteId(), quote.getSignature(), 1);
+        verify(tradeService, times(1)).executeAtPrice(any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void rejectedExecutionLeavesTheQuoteValid() {
+        QuoteView quote = quoteService.requestQuote("john", "AAPL", Order.OrderSide.BUY);
+        doThrow(new InsufficientFundsException("Insufficient funds"))
+                .when(tradeService).executeAtPrice("john", "AAPL", Order.OrderSide.BUY, 100, new BigDecimal("187.2500"));
+
+        assertThatThrownBy(() -> quoteService.executeQuote("john", quote.getQuoteId(), quote.getSignature(), 100))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        QuoteExecutionResult result = quoteService.executeQuote("john", quote.getQuoteId(), quote.getSignature(), 5);
+        assertThat(result.getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void stalePriceIsNotQuoted() {
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("AAPL", "187.25").asStale());
+
+        assertThatThrownBy(() -> quoteService.requestQuote("john", "AAPL", Order.OrderSide.BUY))
+                .isInstanceOf(PricingUnavailableException.class);
+    }
+}
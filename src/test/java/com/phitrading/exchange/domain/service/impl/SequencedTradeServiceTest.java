@@ -0,0 +1,153 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.latency.TradeLatency;
+import com.phitrading.exchange.domain.repository.OrderRepository;
+import com.phitrading.exchange.domain.sequencer.AccountSequencer;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.web.dto.BasketOrderRequest;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SequencedTradeServiceTest {
+
+    private TradeService delegate;
+    private AccountSequencer sequencer;
+    private OrderRepository orderRepository;
+    private SequencedTradeService service;
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(TradeService.class);
+        sequencer = mock(AccountSequencer.class);
+        orderRepository = mock(OrderRepository.class);
+        service = new SequencedTradeService(delegate, sequencer, orderRepository, new TradeLatency(registry));
+        // Run commands inline, as the writer would
+        when(sequencer.execute(anyString(), anyString(), any())).thenAnswer(inv -> inv.getArgument(2, Supplier.class).get());
+    }
+
+    @Test
+    void buy_isPricedBeforeItQueues_andExecutesAtThatPrice() {
+        when(delegate.marketPrice("AAPL")).thenReturn(new BigDecimal("150.00"));
+
+        service.buy("john", "AAPL", 3);
+
+        InOrder order = inOrder(delegate, sequencer);
+        order.verify(delegate).marketPrice("AAPL");
+        order.verify(sequencer).execute(eq("john"), eq("buy"), any());
+        order.verify(delegate).executeAtPrice(eq("john"), eq("AAPL"), eq(Order.OrderSide.BUY), eq(3L),
+                eq(new BigDecimal("150.00")), any(TradeLatency.Sample.class));
+        verify(delegate, never()).buy(anyString(), anyString(), any(Long.class));
+    }
+
+    @Test
+    void buy_isTimedFromPricingThroughTheQueue_andRecordedOnce() {
+        when(delegate.marketPrice("AAPL")).thenReturn(new BigDecimal("150.00"));
+
+        service.buy("john", "AAPL", 3);
+
+        assertThat(count("executed", "price")).isEqualTo(1);
+        assertThat(count("executed", "queue")).isEqualTo(1);
+        assertThat(count("executed", "commit")).isEqualTo(1);
+        assertThat(count("executed", "total")).isEqualTo(1);
+    }
+
+    @Test
+    void tradeReplayedAfterItsBatchRolledBack_isRecordedOnceWithItsFinalOutcome() {
+        when(delegate.marketPrice("AAPL")).thenReturn(new BigDecimal("150.00"));
+        // Runs once in a batch that is rolled back, then alone on the replay, where it is rejected
+        doAnswer(inv -> {
+            Supplier<?> command = inv.getArgument(2, Supplier.class);
+            command.get();
+            return command.get();
+        }).when(sequencer).execute(anyString(), anyString(), any());
+        doNothing().doThrow(new IllegalArgumentException("Insufficient quantity"))
+                .when(delegate).executeAtPrice(anyString(), anyString(), any(), any(Long.class), any(), any());
+
+        assertThatThrownBy(() -> service.sell("john", "AAPL", 3)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(count("rejected", "total")).isEqualTo(1);
+        assertThat(count("executed", "total")).isZero();
+        assertThat(count("rolled_back", "total")).isZero();
+    }
+
+    @Test
+    void tradeThatRanButDidNotCommit_isRecordedAsRolledBack() {
+        doAnswer(inv -> {
+            inv.getArgument(2, Supplier.class).get();
+            throw new IllegalStateException("commit failed");
+        }).when(sequencer).execute(anyString(), anyString(), any());
+
+        assertThatThrownBy(() -> service.executeAtPrice("john", "AAPL", Order.OrderSide.BUY, 3, new BigDecimal("150.00")))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(count("rolled_back", "commit")).isEqualTo(1);
+        // Quoted trades are not priced here
+        assertThat(count("rolled_back", "price")).isZero();
+    }
+
+    @Test
+    void sell_thatCannotBePriced_neverReachesTheWriter() {
+        when(delegate.marketPrice("AAPL")).thenThrow(new PricingUnavailableException("Pricing is unavailable"));
+
+        assertThatThrownBy(() -> service.sell("john", "AAPL", 3)).isInstanceOf(PricingUnavailableException.class);
+
+        verify(sequencer, never()).execute(anyString(), anyString(), any());
+    }
+
+    @Test
+    void basket_isPricedInOneCallBeforeItQueues() {
+        BasketOrderRequest request = new BasketOrderRequest();
+        Map<String, InstrumentPriceDto> prices = Map.of("AAPL", new InstrumentPriceDto());
+        when(delegate.basketPrices(request)).thenReturn(prices);
+
+        service.executeBasket("john", request);
+
+        InOrder order = inOrder(delegate, sequencer);
+        order.verify(delegate).basketPrices(request);
+        order.verify(sequencer).execute(eq("john"), eq("basket"), any());
+        order.verify(delegate).executeBasket("john", request, prices);
+    }
+
+    @Test
+    void marketOrder_runsOnTheOwnersWriterAtTheGivenPrice() {
+        UUID id = UUID.randomUUID();
+        when(orderRepository.findUsernameById(id)).thenReturn(Optional.of("john"));
+
+        service.executeMarketOrder(id, new BigDecimal("99.50"));
+
+        verify(sequencer).execute(eq("john"), eq("market"), any());
+        verify(delegate).executeMarketOrder(id, new BigDecimal("99.50"));
+    }
+
+    private long count(String outcome, String stage) {
+        return registry.find(TradeLatency.METRIC).tags("outcome", outcome, "stage", stage).timers().stream()
+                .mapToLong(Timer::count).sum();
+    }
+}
@@ -1,24 +1,38 @@
 package com.phitrading.exchange.domain.service.impl;
 
+import com.phitrading.exchange.common.Money;
 import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.common.exception.RiskLimitExceededException;
+import com.phitrading.exchange.domain.account.AccountDirectory;
 import com.phitrading.exchange.domain.entity.Order;
 import com.phitrading.exchange.domain.entity.PortfolioPosition;
 import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.latency.TradeLatency;
+import com.phitrading.exchange.domain.outbox.OrderOutbox;
+import com.phitrading.exchange.domain.outbox.PositionChange;
+import com.phitrading.exchange.domain.repository.AccountRef;
 import com.phitrading.exchange.domain.repository.OrderRepository;
 import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
 import com.phitrading.exchange.domain.repository.UserAccountRepository;
+import com.phitrading.exchange.domain.risk.PreTradeRiskEngine;
+import com.phitrading.exchange.domain.valuation.PortfolioValuation;
 import com.phitrading.exchange.integration.PricingServiceClient;
 import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -35,6 +49,19 @@ class TradeServiceImplUnitTest {
     private PortfolioPositionRepository portfolioPositionRepository;
     @Mock
     private OrderRepository orderRepository;
+    @Mock
+    private OrderOutbox orderOutbox;
+    @Mock
+    private PreTradeRiskEngine riskEngine;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private TradeLatency tradeLatency = new TradeLatency(meterRegistry);
+    @Mock
+    private AccountDirectory accountDirectory;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PortfolioValuation portfolioValuation;
 
     @InjectMocks
     private TradeServiceImpl tradeService;
@@ -48,6 +75,10 @@ class TradeServiceImplUnitTest {
         user.setEmail("john@example.com");
         user.setPasswordHash("x");
         user.setCashBalance(new BigDecimal("1000.00"));
+        // Injected by field in the application (@PersistenceContext)
+        ReflectionTestUtils.setField(tradeService, "entityManager", entityManager);
+        lenient().when(accountDirectory.resolve("john")).thenReturn(new AccountRef(1L, "USER"));
+        lenient().when(entityManager.getReference(UserAccount.class, 1L)).thenReturn(user);
     }
 
     @Test
@@ -58,35 +89,38 @@ class TradeServiceImplUnitTest {
         priceDto.setLastPrice(new BigDecimal("100.00"));
 
         when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(priceDto);
-        when(userAccountRepository.findByUsername("john")).thenReturn(Optional.of(user));
-        when(portfolioPositionRepository.findByUserAndSymbol(user, "AAPL"))
-                .thenReturn(Optional.empty());
+        when(userAccountRepository.debitCash(eq(1L), any(), any())).thenReturn(1);
+        when(portfolioPositionRepository.addToPosition(eq(1L), eq("AAPL"), eq(2L), any(), any())).thenReturn(0);
 
         // Act
         tradeService.buy("john", "AAPL", 2);
 
-        // Assert cash deducted: 2 * 100 = 200
-        ArgumentCaptor<UserAccount> userCaptor = ArgumentCaptor.forClass(UserAccount.class);
-        verify(userAccountRepository).save(userCaptor.capture());
-        assertThat(userCaptor.getValue().getCashBalance()).isEqualByComparingTo(new BigDecimal("800.0000"));
+        // Assert cash debited: 2 * 100 = 200
+        verify(userAccountRepository).debitCash(eq(1L), argThat(cost -> cost.compareTo(new BigDecimal("200")) == 0), any());
 
-        // Assert position saved with new quantity and average price
-        ArgumentCaptor<PortfolioPosition> posCaptor = ArgumentCaptor.forClass(PortfolioPosition.class);
-        verify(portfolioPositionRepository).save(posCaptor.capture());
-        PortfolioPosition savedPos = posCaptor.getValue();
+        // Assert new position persisted with quantity and average price, then the order
+        ArgumentCaptor<Object> persisted = ArgumentCaptor.forClass(Object.class);
+        verify(entityManager, times(2)).persist(persisted.capture());
+        PortfolioPosition savedPos = (PortfolioPosition) persisted.getAllValues().get(0);
         assertThat(savedPos.getSymbol()).isEqualTo("AAPL");
         assertThat(savedPos.getQuantity()).isEqualTo(2);
         assertThat(savedPos.getAveragePrice()).isEqualByComparingTo(new BigDecimal("100.0000"));
 
-        // Assert order saved with EXECUTED status and correct fields
-        ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
-        verify(orderRepository).save(orderCaptor.capture());
-        Order savedOrder = orderCaptor.getValue();
+        // Assert order persisted with EXECUTED status and correct fields
+        Order savedOrder = (Order) persisted.getAllValues().get(1);
         assertThat(savedOrder.getSide()).isEqualTo(Order.OrderSide.BUY);
         assertThat(savedOrder.getStatus()).isEqualTo(Order.OrderStatus.EXECUTED);
         assertThat(savedOrder.getSymbol()).isEqualTo("AAPL");
         assertThat(savedOrder.getQuantity()).isEqualTo(2);
         assertThat(savedOrder.getExecutionPrice()).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(savedOrder.getUser()).isSameAs(user);
+
+        // The event says the position was opened and what it cost
+        verify(orderOutbox).orderExecuted(savedOrder, "john", PositionChange.bought(true, new BigDecimal("200.0000")));
+
+        // The pre-trade check and the bookkeeping after execution are timed as separate stages
+        assertThat(stageCount("risk")).isEqualTo(1);
+        assertThat(stageCount("post_trade")).isEqualTo(1);
 
         verifyNoMoreInteractions(orderRepository, portfolioPositionRepository, userAccountRepository, pricingServiceClient);
     }
@@ -98,13 +132,70 @@ class TradeServiceImplUnitTest {
         priceDto.setSymbol("NVDA");
         priceDto.setLastPrice(new BigDecimal("600.00"));
         when(pricingServiceClient.getCurrentPrice("NVDA")).thenReturn(priceDto);
-        when(userAccountRepository.findByUsername("john")).thenReturn(Optional.of(user));
+        when(userAccountRepository.debitCash(eq(1L), any(), any())).thenReturn(0);
+        when(userAccountRepository.findCashBalanceById(1L)).thenReturn(Optional.of(user.getCashBalance()));
 
         // Act + Assert
-        assertThrows(InsufficientFundsException.class, () -> tradeService.buy("john", "NVDA", 2));
+        InsufficientFundsException ex = assertThrows(InsufficientFundsException.class, () -> tradeService.buy("john", "NVDA", 2));
+        assertThat(ex.getMessage()).isEqualTo("Insufficient funds. Required: 1200.0000, Available: 1000.0000");
+
+        verify(portfolioPositionRepository, never()).addToPosition(any(), any(), anyLong(), any(), any());
+        verify(entityManager, never()).persist(any());
+        verifyNoInteractions(orderOutbox);
+    }
+
+    @Test
+    void executeAtPrice_usesTheQuotedPriceWithoutAskingPricing() {
+        when(userAccountRepository.debitCash(eq(1L), any(), any())).thenReturn(1);
+        when(portfolioPositionRepository.addToPosition(eq(1L), eq("AAPL"), eq(3L), any(), any())).thenReturn(1);
+
+        tradeService.executeAtPrice("john", "AAPL", Order.OrderSide.BUY, 3, new BigDecimal("101.2500"));
+
+        verify(userAccountRepository).debitCash(eq(1L), argThat(cost -> cost.compareTo(new BigDecimal("303.75")) == 0), any());
+        ArgumentCaptor<Order> order = ArgumentCaptor.forClass(Order.class);
+        verify(entityManager).persist(order.capture());
+        assertThat(order.getValue().getExecutionPrice()).isEqualByComparingTo(new BigDecimal("101.2500"));
+        verifyNoInteractions(pricingServiceClient);
+    }
+
+    @Test
+    void trades_storeTheSymbolUpperCase() {
+        when(userAccountRepository.debitCash(eq(1L), any(), any())).thenReturn(1);
+        when(portfolioPositionRepository.addToPosition(eq(1L), eq("AAPL"), eq(3L), any(), any())).thenReturn(1);
+
+        tradeService.executeAtPrice("john", " aapl", Order.OrderSide.BUY, 3, new BigDecimal("100.00"));
+
+        verify(portfolioPositionRepository).addToPosition(eq(1L), eq("AAPL"), eq(3L), any(), any());
+        ArgumentCaptor<Order> order = ArgumentCaptor.forClass(Order.class);
+        verify(entityManager).persist(order.capture());
+        assertThat(order.getValue().getSymbol()).isEqualTo("AAPL");
+    }
+
+    @Test
+    void limitFill_isRejectedWhenItWouldNowBreachARiskLimit() {
+        user.setRole("USER");
+        Order pending = new Order();
+        pending.setId(UUID.randomUUID());
+        pending.setUser(user);
+        pending.setSymbol("AAPL");
+        pending.setSide(Order.OrderSide.BUY);
+        pending.setQuantity(5);
+        pending.setStatus(Order.OrderStatus.PENDING);
+        pending.setLimitPrice(Money.parse("95.00"));
+        when(orderRepository.findById(pending.getId())).thenReturn(Optional.of(pending));
+        doThrow(new RiskLimitExceededException("max-daily-turnover", "Daily turnover limit reached"))
+                .when(riskEngine).check("john", "USER", "AAPL", Order.OrderSide.BUY, 5, Money.parse("94.50"));
+
+        assertThrows(RiskLimitExceededException.class,
+                () -> tradeService.fillLimitOrder(pending.getId(), new BigDecimal("94.50")));
+
+        verify(orderRepository, never()).transition(any(), any(), any());
+        verifyNoInteractions(orderOutbox);
+    }
 
-        verify(userAccountRepository, never()).save(any());
-        verify(portfolioPositionRepository, never()).save(any());
-        verify(orderRepository, never()).save(any());
+    private long stageCount(String stage) {
+        return meterRegistry.get(TradeLatency.METRIC)
+                .tags("side", "BUY", "outcome", "executed", "stage", stage)
+                .timer().count();
     }
 }
@@ -0,0 +1,156 @@
+package com.phitrading.exchange.domain.service.impl;
+
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+import com.phitrading.exchange.domain.entity.UserAccount;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.PositionTriggerRepository;
+import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.testsupport.TestPrices;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TriggerServiceImplTest {
+
+    @Mock
+    private PositionTriggerRepository triggerRepository;
+    @Mock
+    private PortfolioPositionRepository portfolioPositionRepository;
+    @Mock
+    private TradeService tradeService;
+    @Mock
+    private PricingServiceClient pricingServiceClient;
+
+    private TriggerServiceImpl service;
+    private PortfolioPosition position;
+
+    @BeforeEach
+    void setUp() {
+        service = new TriggerServiceImpl(triggerRepository, portfolioPositionRepository, tradeService,
+                pricingServiceClient, new TradingProperties(), new SimpleMeterRegistry());
+        UserAccount user = new UserAccount();
+        user.setUsername("john");
+        position = new PortfolioPosition();
+        position.setUser(user);
+        position.setSymbol("AAPL");
+        position.setQuantity(10);
+        when(portfolioPositionRepository.findByUser_UsernameAndSymbol("john", "AAPL")).thenReturn(Optional.of(position));
+    }
+
+    @Test
+    void stopLoss_waitsUntilThePriceFalls_thenSellsThroughTheTradeService() {
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("100.00"));
+
+        PositionTrigger trigger = service.place("john", "AAPL", PositionTrigger.TriggerType.STOP_LOSS, 4, new BigDecimal("95"));
+
+        assertThat(trigger.getStatus()).isEqualTo(PositionTrigger.TriggerStatus.ACTIVE);
+        verify(triggerRepository).save(trigger);
+        verifyNoInteractions(tradeService);
+
+        when(triggerRepository.transition(eq(trigger.getId()), eq(PositionTrigger.TriggerStatus.ACTIVE),
+                eq(PositionTrigger.TriggerStatus.TRIGGERED), any(), isNull())).thenReturn(1);
+        assertThat(service.onPrice("AAPL", new BigDecimal("95.01"))).isZero();
+        assertThat(service.onPrice("aapl", new BigDecimal("94.00"))).isEqualTo(1);
+
+        verify(tradeService).sell("john", "AAPL", 4);
+        assertThat(service.book("AAPL").isEmpty()).isTrue();
+    }
+
+    @Test
+    void takeProfit_theMarketAlreadyReached_firesImmediately() {
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("112.00"));
+        when(triggerRepository.transition(any(), eq(PositionTrigger.TriggerStatus.ACTIVE),
+                eq(PositionTrigger.TriggerStatus.TRIGGERED), any(), isNull())).thenReturn(1);
+
+        service.place("john", "AAPL", PositionTrigger.TriggerType.TAKE_PROFIT, 10, new BigDecimal("110"));
+
+        verify(tradeService).sell("john", "AAPL", 10);
+    }
+
+    @Test
+    void firedTrigger_sellsWhatIsLeftOfASmallerPosition() {
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("100.00"));
+        service.place("john", "AAPL", PositionTrigger.TriggerType.STOP_LOSS, 8, new BigDecimal("95"));
+        when(triggerRepository.transition(any(), any(), eq(PositionTrigger.TriggerStatus.TRIGGERED), any(), any())).thenReturn(1);
+        position.setQuantity(3);
+
+        service.onPrice("AAPL", new BigDecimal("90.00"));
+
+        verify(tradeService).sell("john", "AAPL", 3);
+    }
+
+    @Test
+    void firedTrigger_whosePositionIsGone_isMarkedFailed() {
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("100.00"));
+        PositionTrigger trigger = service.place("john", "AAPL", PositionTrigger.TriggerType.STOP_LOSS, 5, new BigDecimal("95"));
+        when(triggerRepository.transition(any(), any(), eq(PositionTrigger.TriggerStatus.TRIGGERED), any(), any())).thenReturn(1);
+        when(portfolioPositionRepository.findByUser_UsernameAndSymbol("john", "AAPL")).thenReturn(Optional.empty());
+
+        assertThat(service.onPrice("AAPL", new BigDecimal("90.00"))).isZero();
+
+        verify(tradeService, never()).sell(anyString(), anyString(), anyLong());
+        verify(triggerRepository).transition(eq(trigger.getId()), eq(PositionTrigger.TriggerStatus.TRIGGERED),
+                eq(PositionTrigger.TriggerStatus.FAILED), any(), eq("Position already closed"));
+    }
+
+    @Test
+    void transientSellFailure_rearmsTheTrigger() {
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("100.00"));
+        PositionTrigger trigger = service.place("john", "AAPL", PositionTrigger.TriggerType.STOP_LOSS, 5, new BigDecimal("95"));
+        when(triggerRepository.transition(any(), any(), eq(PositionTrigger.TriggerStatus.TRIGGERED), any(), any())).thenReturn(1);
+        doThrow(new PricingUnavailableException("down")).when(tradeService).sell("john", "AAPL", 5);
+
+        assertThat(service.onPrice("AAPL", new BigDecimal("90.00"))).isZero();
+
+        verify(triggerRepository).transition(trigger.getId(), PositionTrigger.TriggerStatus.TRIGGERED,
+                PositionTrigger.TriggerStatus.ACTIVE, null, null);
+        assertThat(service.book("AAPL").get(trigger.getId())).isNotNull();
+    }
+
+    @Test
+    void canceledTrigger_neverFires() {
+        when(pricingServiceClient.getCurrentPrice("AAPL")).thenReturn(price("100.00"));
+        PositionTrigger trigger = service.place("john", "AAPL", PositionTrigger.TriggerType.STOP_LOSS, 5, new BigDecimal("95"));
+        when(triggerRepository.findByIdAndUser_Username(trigger.getId(), "john")).thenReturn(Optional.of(trigger));
+        when(triggerRepository.transition(trigger.getId(), PositionTrigger.TriggerStatus.ACTIVE,
+                PositionTrigger.TriggerStatus.CANCELED, null, null)).thenReturn(1);
+
+        service.cancel("john", trigger.getId());
+
+        assertThat(service.onPrice("AAPL", new BigDecimal("90.00"))).isZero();
+        verifyNoInteractions(tradeService);
+    }
+
+    @Test
+    void place_rejectsMoreThanThePositionHolds() {
+        assertThatThrownBy(() -> service.place("john", "AAPL", PositionTrigger.TriggerType.STOP_LOSS, 11, new BigDecimal("95")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Insufficient quantity");
+        verify(triggerRepository, never()).save(any());
+    }
+
+    private static InstrumentPriceDto price(String value) {
+        return TestPrices.price("AAPL", value);
+    }
+}
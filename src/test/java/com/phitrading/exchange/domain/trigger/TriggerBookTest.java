@@ -0,0 +1,115 @@
+package com.phitrading.exchange.domain.trigger;
+
+import com.phitrading.exchange.common.Money;
+import com.phitrading.exchange.domain.entity.PositionTrigger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TriggerBookTest {
+
+    private final TriggerBook book = new TriggerBook("AAPL");
+
+    @Test
+    void stops_fireWhenThePriceFallsToThem_highestFirst_thenInArmingOrder() {
+        UUID early95 = stop("95.00");
+        UUID high = stop("97.00");
+        UUID late95 = stop("95.00");
+        UUID low = stop("90.00");
+
+        assertThat(fire("98.00")).isEmpty();
+        assertThat(fire("95.00")).containsExactly(high, early95, late95);
+        assertThat(book.get(low)).isNotNull();
+        assertThat(book.nextStop()).isEqualTo(ticks("90.00"));
+    }
+
+    @Test
+    void takeProfits_fireWhenThePriceRisesToThem_lowestFirst() {
+        UUID high = target("120.00");
+        UUID low = target("105.00");
+        UUID mid = target("110.00");
+
+        assertThat(fire("104.99")).isEmpty();
+        assertThat(fire("110.00")).containsExactly(low, mid);
+        assertThat(book.nextTarget()).isEqualTo(ticks("120.00"));
+        assertThat(book.get(high)).isNotNull();
+    }
+
+    @Test
+    void aPriceBetweenStopsAndTargets_firesNothing() {
+        stop("95.00");
+        target("105.00");
+
+        assertThat(fire("100.00")).isEmpty();
+        assertThat(book.size()).isEqualTo(2);
+    }
+
+    @Test
+    void remove_unlinksFromTheMiddleOfALevel_andDropsEmptyLevels() {
+        UUID first = stop("95.00");
+        UUID second = stop("95.00");
+        UUID third = stop("95.00");
+        UUID other = stop("94.00");
+
+        assertThat(book.remove(second)).isNotNull();
+        assertThat(book.remove(second)).isNull();
+        book.remove(other);
+
+        assertThat(book.levels(PositionTrigger.TriggerType.STOP_LOSS)).isEqualTo(1);
+        assertThat(fire("90.00")).containsExactly(first, third);
+        assertThat(book.isEmpty()).isTrue();
+    }
+
+    @Test
+    void manyThresholds_stayOrderedAcrossInsertsAndRemovals() {
+        List<UUID> ids = new ArrayList<>();
+        for (int cents = 0; cents < 100; cents++) {
+            // Insert out of price order to exercise shifting inside the level arrays
+            int price = (cents * 37) % 100;
+            ids.add(book.add(UUID.randomUUID(), PositionTrigger.TriggerType.TAKE_PROFIT, 1_000_000 + price * 100L, 1, "john").getId());
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            book.remove(ids.get(i));
+        }
+
+        List<Long> thresholds = new ArrayList<>();
+        book.fire(ticks("200.00"), t -> thresholds.add(t.getThresholdTicks()));
+
+        assertThat(thresholds).hasSize(50).isSorted();
+    }
+
+    @Test
+    void add_rejectsDuplicatesAndNonPositiveValues() {
+        UUID id = stop("95.00");
+
+        assertThatThrownBy(() -> book.add(id, PositionTrigger.TriggerType.STOP_LOSS, ticks("94.00"), 1, "john"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> book.add(UUID.randomUUID(), PositionTrigger.TriggerType.STOP_LOSS, 0, 1, "john"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> book.add(UUID.randomUUID(), PositionTrigger.TriggerType.STOP_LOSS, ticks("94.00"), 0, "john"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private UUID stop(String price) {
+        return book.add(UUID.randomUUID(), PositionTrigger.TriggerType.STOP_LOSS, ticks(price), 10, "john").getId();
+    }
+
+    private UUID target(String price) {
+        return book.add(UUID.randomUUID(), PositionTrigger.TriggerType.TAKE_PROFIT, ticks(price), 10, "john").getId();
+    }
+
+    private List<UUID> fire(String price) {
+        List<UUID> fired = new ArrayList<>();
+        book.fire(ticks(price), t -> fired.add(t.getId()));
+        return fired;
+    }
+
+    private static long ticks(String price) {
+        return Money.parse(price).units();
+    }
+}
@@ -0,0 +1,193 @@
+package com.phitrading.exchange.domain.valuation;
+
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.account.AccountDirectory;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.entity.PortfolioPosition;
+import com.phitrading.exchange.domain.outbox.OrderExecutedEvent;
+import com.phitrading.exchange.domain.outbox.OrderExecutedNotice;
+import com.phitrading.exchange.domain.repository.AccountRef;
+import com.phitrading.exchange.domain.repository.PortfolioPositionRepository;
+import com.phitrading.exchange.domain.repository.PositionHolding;
+import com.phitrading.exchange.integration.ParallelPriceFetcher;
+import com.phitrading.exchange.integration.PricingProperties;
+import com.phitrading.exchange.integration.PricingServiceClient;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.testsupport.MutableClock;
+import com.phitrading.exchange.web.dto.PortfolioView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PortfolioValuationTest {
+
+    private final MutableClock clock = MutableClock.at("2026-03-02T10:00:00Z");
+
+    private final Map<String, InstrumentPriceDto> market = new HashMap<>();
+    private PortfolioPositionRepository positions;
+    private AccountDirectory accountDirectory;
+    private PricingServiceClient pricing;
+    private TradingProperties properties;
+    private PortfolioValuation valuation;
+
+    @BeforeEach
+    void setUp() {
+        positions = mock(PortfolioPositionRepository.class);
+        accountDirectory = mock(AccountDirectory.class);
+        pricing = mock(PricingServiceClient.class);
+        properties = new TradingProperties();
+        properties.getPortfolio().setResyncInterval(Duration.ofMinutes(1));
+        properties.getPortfolio().setIdleTimeout(Duration.ofMinutes(10));
+        valuation = new PortfolioValuation(positions, accountDirectory, pricing, new PricingProperties(),
+                mock(ParallelPriceFetcher.class), properties, new SimpleMeterRegistry(), clock);
+
+        when(accountDirectory.resolve("ana")).thenReturn(new AccountRef(1L, "USER"));
+        when(accountDirectory.resolve("bo")).thenReturn(new AccountRef(2L, "USER"));
+        when(pricing.getPrices(anyCollection(), any(Duration.class))).thenAnswer(inv -> {
+            Map<String, InstrumentPriceDto> found = new HashMap<>();
+            for (Object symbol : inv.getArgument(0, java.util.Collection.class)) {
+                InstrumentPriceDto dto = market.get(symbol);
+                if (dto != null) {
+                    found.put((String) symbol, dto);
+                }
+            }
+            return found;
+        });
+        market("AAPL", "160.00");
+        market("MSFT", "300.00");
+    }
+
+    @Test
+    void firstRead_loadsAndPrices_laterReadsReuseTheView() {
+        when(positions.findAllByUser_Username("ana")).thenReturn(List.of(position("AAPL", 10, "150.00")));
+
+        PortfolioView first = valuation.view("ana");
+        PortfolioView second = valuation.view("ana");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getTotalCost()).isEqualByComparingTo("1500.00");
+        assertThat(first.getTotalCurrentValue()).isEqualByComparingTo("1600.00");
+        assertThat(first.getTotalPnlPct()).isEqualByComparingTo("6.67");
+        assertThat(first.getRows().get(0).getPriceStatus()).isEqualTo("LIVE");
+        verify(positions, times(1)).findAllByUser_Username("ana");
+        verify(pricing, times(1)).getPrices(anyCollection(), any(Duration.class));
+    }
+
+    @Test
+    void priceChange_revaluesEveryHolderOfThatSymbolOnly() {
+        when(positions.findAllByUser_Username("ana")).thenReturn(List.of(position("AAPL", 10, "150.00")));
+        when(positions.findAllByUser_Username("bo")).thenReturn(List.of(
+                position("AAPL", 1, "100.00"), position("MSFT", 2, "250.00")));
+        valuation.view("ana");
+        PortfolioView boBefore = valuation.view("bo");
+
+        market("AAPL", "170.00");
+        assertThat(valuation.refreshPrices()).isEqualTo(1);
+
+        assertThat(valuation.view("ana").getTotalCurrentValue()).isEqualByComparingTo("1700.00");
+        PortfolioView boAfter = valuation.view("bo");
+        assertThat(boAfter).isNotSameAs(boBefore);
+        assertThat(boAfter.getTotalCurrentValue()).isEqualByComparingTo("770.00");
+
+        // Nothing moved: the views stay as they are
+        assertThat(valuation.refreshPrices()).isZero();
+        assertThat(valuation.view("bo")).isSameAs(boAfter);
+    }
+
+    @Test
+    void fill_reloadsOnlyThatHolding_onTheNextRead() {
+        when(positions.findAllByUser_Username("ana")).thenReturn(List.of(position("AAPL", 10, "150.00")));
+        valuation.view("ana");
+
+        when(positions.findHolding(1L, "AAPL")).thenReturn(Optional.of(new PositionHolding(4, new BigDecimal("150.0000"))));
+        when(positions.findHolding(1L, "MSFT")).thenReturn(Optional.of(new PositionHolding(3, new BigDecimal("300.0000"))));
+        valuation.positionChanged("ana", "AAPL");
+        valuation.onOrderExecuted(new OrderExecutedNotice(new OrderExecutedEvent(7L, null, "ana", "MSFT",
+                Order.OrderSide.BUY, 3, new BigDecimal("300.00"), null, null, true, false, new BigDecimal("900.00"))));
+
+        PortfolioView view = valuation.view("ana");
+
+        assertThat(view.getRows()).extracting("symbol").containsExactly("AAPL", "MSFT");
+        assertThat(view.getTotalCost()).isEqualByComparingTo("1500.00");
+        assertThat(view.getTotalCurrentValue()).isEqualByComparingTo("1540.00");
+        verify(positions, times(1)).findAllByUser_Username("ana");
+    }
+
+    @Test
+    void closedPosition_isDropped_andItsSymbolNoLongerRepriced() {
+        when(positions.findAllByUser_Username("ana")).thenReturn(List.of(position("AAPL", 10, "150.00")));
+        valuation.view("ana");
+        when(positions.findHolding(1L, "AAPL")).thenReturn(Optional.empty());
+
+        valuation.positionChanged("ana", "AAPL");
+
+        assertThat(valuation.view("ana").getRows()).isEmpty();
+        assertThat(valuation.refreshPrices()).isZero();
+        verify(pricing, times(1)).getPrices(anyCollection(), any(Duration.class));
+    }
+
+    @Test
+    void missingPrice_isShownAsUnavailable() {
+        when(positions.findAllByUser_Username("ana")).thenReturn(List.of(position("XYZ", 5, "10.00")));
+
+        PortfolioView view = valuation.view("ana");
+
+        assertThat(view.getRows().get(0).getPriceStatus()).isEqualTo("UNAVAILABLE");
+        assertThat(view.getTotalCurrentValue()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void accountsAreReloadedAfterTheResyncInterval_andDroppedWhenIdle() {
+        when(positions.findAllByUser_Username("ana")).thenReturn(List.of(position("AAPL", 10, "150.00")));
+        valuation.view("ana");
+
+        clock.advance(Duration.ofMinutes(1));
+        valuation.view("ana");
+        verify(positions, times(2)).findAllByUser_Username("ana");
+
+        clock.advance(Duration.ofMinutes(11));
+        valuation.refreshPrices();
+        // Dropped, so the next read loads it again
+        clock.advance(Duration.ofSeconds(1));
+        valuation.view("ana");
+        verify(positions, times(3)).findAllByUser_Username("ana");
+    }
+
+    @Test
+    void unknownUser_isRejected() {
+        when(accountDirectory.resolve("ghost")).thenThrow(new IllegalArgumentException("User not found: ghost"));
+
+        assertThatThrownBy(() -> valuation.view("ghost")).isInstanceOf(IllegalArgumentException.class);
+        verify(positions, never()).findAllByUser_Username(any());
+    }
+
+    private void market(String symbol, String lastPrice) {
+        market.put(symbol, price(symbol, lastPrice));
+    }
+
+    private static PortfolioPosition position(String symbol, long quantity, String averagePrice) {
+        PortfolioPosition p = new PortfolioPosition();
+        p.setSymbol(symbol);
+        p.setQuantity(quantity);
+        p.setAveragePrice(new BigDecimal(averagePrice));
+        return p;
+    }
+}
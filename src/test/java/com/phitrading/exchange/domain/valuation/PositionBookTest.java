@@ -0,0 +1,96 @@
+package com.phitrading.exchange.domain.valuation;
+
+import com.phitrading.exchange.common.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PositionBookTest {
+
+    private final PositionBook book = new PositionBook();
+
+    @Test
+    void priceChanges_adjustTheTotalsByTheDifference() {
+        book.put("AAPL", 10, Money.parse("150.00"));
+        book.put("MSFT", 4, Money.parse("300.00"));
+        book.price("AAPL", Money.parse("160.00"), PositionBook.PriceStatus.LIVE, "Apple");
+        book.price("MSFT", Money.parse("290.00"), PositionBook.PriceStatus.LIVE, null);
+
+        assertThat(book.totalCost()).isEqualTo(Money.parse("2700.00"));
+        assertThat(book.totalValue()).isEqualTo(Money.parse("2760.00"));
+
+        assertThat(book.price("AAPL", Money.parse("155.50"), PositionBook.PriceStatus.STALE, null)).isTrue();
+        assertThat(book.totalValue()).isEqualTo(Money.parse("2715.00"));
+        assertThat(book.status(0)).isEqualTo(PositionBook.PriceStatus.STALE);
+        assertThat(book.name(0)).isEqualTo("Apple");
+
+        assertThat(book.price("AAPL", Money.parse("155.50"), PositionBook.PriceStatus.STALE, null)).isFalse();
+    }
+
+    @Test
+    void fills_replaceTheRow_andKeepItsPrice() {
+        book.put("AAPL", 10, Money.parse("150.00"));
+        book.price("AAPL", Money.parse("160.00"), PositionBook.PriceStatus.LIVE, null);
+
+        assertThat(book.put("AAPL", 15, Money.parse("153.3333"))).isFalse();
+
+        assertThat(book.quantity(0)).isEqualTo(15);
+        assertThat(book.totalCost()).isEqualTo(Money.parse("2299.9995"));
+        assertThat(book.totalValue()).isEqualTo(Money.parse("2400.00"));
+    }
+
+    @Test
+    void newSymbol_startsUnpriced() {
+        assertThat(book.put("NVDA", 2, Money.parse("500.00"))).isTrue();
+
+        assertThat(book.status(0)).isEqualTo(PositionBook.PriceStatus.UNAVAILABLE);
+        assertThat(book.price(0)).isEqualTo(Money.ZERO);
+        assertThat(book.totalValue()).isEqualTo(Money.ZERO);
+        assertThat(book.totalCost()).isEqualTo(Money.parse("1000.00"));
+    }
+
+    @Test
+    void unavailablePrice_valuesTheRowAtZero() {
+        book.put("AAPL", 10, Money.parse("150.00"));
+        book.price("AAPL", Money.parse("160.00"), PositionBook.PriceStatus.LIVE, null);
+
+        book.price("AAPL", Money.parse("160.00"), PositionBook.PriceStatus.UNAVAILABLE, null);
+
+        assertThat(book.totalValue()).isEqualTo(Money.ZERO);
+    }
+
+    @Test
+    void remove_closesTheGap_andTakesTheRowOutOfTheTotals() {
+        book.put("A", 1, Money.parse("10.00"));
+        book.put("B", 2, Money.parse("20.00"));
+        book.put("C", 3, Money.parse("30.00"));
+        book.price("B", Money.parse("25.00"), PositionBook.PriceStatus.LIVE, null);
+
+        assertThat(book.remove("B")).isTrue();
+        assertThat(book.remove("B")).isFalse();
+
+        assertThat(book.size()).isEqualTo(2);
+        assertThat(book.symbol(0)).isEqualTo("A");
+        assertThat(book.symbol(1)).isEqualTo("C");
+        assertThat(book.contains("B")).isFalse();
+        assertThat(book.totalCost()).isEqualTo(Money.parse("100.00"));
+        assertThat(book.totalValue()).isEqualTo(Money.ZERO);
+    }
+
+    @Test
+    void grows_pastItsInitialCapacity() {
+        for (int i = 0; i < 20; i++) {
+            book.put("S" + i, i + 1, Money.of(1));
+        }
+
+        assertThat(book.size()).isEqualTo(20);
+        assertThat(book.quantity(19)).isEqualTo(20);
+        assertThat(book.totalCost()).isEqualTo(Money.of(210));
+    }
+
+    @Test
+    void put_rejectsNonPositiveQuantities() {
+        assertThatThrownBy(() -> book.put("AAPL", 0, Money.of(1))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,204 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.integration.dto.UpdatePriceRequest;
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.testsupport.MutableClock;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingPricingClientTest {
+
+    private static final Duration STALENESS = Duration.ofSeconds(2);
+
+    @Mock
+    private PricingServiceClient feignClient;
+
+    private CachingPricingClient client;
+
+    @BeforeEach
+    void setUp() {
+        PricingProperties properties = new PricingProperties();
+        properties.getCatalog().setEnabled(false);
+        client = newClient(properties, new PriceCache(properties));
+    }
+
+    @Test
+    void getPrices_fetchesOnlyCacheMisses_inOneBatchCall() {
+        when(feignClient.getCurrentPrice("AAPL")).thenReturn(price("AAPL", "100.00"));
+        client.getCurrentPrice("AAPL");
+        when(feignClient.getPricesBatch(List.of("TSLA", "MSFT")))
+                .thenReturn(List.of(price("TSLA", "200.00"), price("MSFT", "300.00")));
+
+        Map<String, InstrumentPriceDto> prices = client.getPrices(List.of("AAPL", "TSLA", "MSFT"), STALENESS);
+
+        assertThat(prices).containsOnlyKeys("AAPL", "TSLA", "MSFT");
+        assertThat(prices.get("TSLA").getLastPrice()).isEqualByComparingTo("200.00");
+        verify(feignClient).getPricesBatch(List.of("TSLA", "MSFT"));
+        verify(feignClient, never()).getAllInstruments();
+    }
+
+    @Test
+    void getPrices_withoutBatchEndpoint_slicesInstrumentListAndRemembersIt() {
+        when(feignClient.getPricesBatch(anyCollection())).thenThrow(notFound());
+        when(feignClient.getAllInstruments())
+                .thenReturn(List.of(price("AAPL", "100.00"), price("TSLA", "200.00"), price("NVDA", "500.00")));
+
+        Map<String, InstrumentPriceDto> first = client.getPrices(List.of("aapl", "NVDA"));
+        Map<String, InstrumentPriceDto> second = client.getPrices(List.of("TSLA"));
+
+        assertThat(first).containsOnlyKeys("aapl", "NVDA");
+        assertThat(second).containsOnlyKeys("TSLA");
+        verify(feignClient, times(1)).getPricesBatch(anyCollection());
+        verify(feignClient, times(2)).getAllInstruments();
+    }
+
+    @Test
+    void getPrices_withoutBatchEndpoint_probesItAgainAfterTheRetryWindow() {
+        PricingProperties properties = new PricingProperties();
+        properties.getCatalog().setEnabled(false);
+        MutableClock clock = MutableClock.at("2026-03-02T10:00:00Z");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PriceCache cache = new PriceCache(properties);
+        PricingCircuitBreaker breaker = new PricingCircuitBreaker(properties, meterRegistry);
+        InstrumentCatalog catalog = new InstrumentCatalog(feignClient, breaker, cache, new ObjectMapper(),
+                properties, meterRegistry);
+        client = new CachingPricingClient(feignClient, cache, new PriceBook(properties), breaker, catalog,
+                new HedgedRequests(properties, meterRegistry), Duration.ofMinutes(1), clock, meterRegistry);
+        when(feignClient.getPricesBatch(anyCollection()))
+                .thenThrow(notFound())
+                .thenReturn(List.of(price("AAPL", "101.00")));
+        when(feignClient.getAllInstruments()).thenReturn(List.of(price("AAPL", "100.00")));
+
+        client.getPrices(List.of("AAPL"));
+        clock.advance(Duration.ofSeconds(59));
+        client.getPrices(List.of("AAPL"));
+        clock.advance(Duration.ofSeconds(2));
+        InstrumentPriceDto probed = client.getPrices(List.of("AAPL")).get("AAPL");
+
+        assertThat(probed.getLastPrice()).isEqualByComparingTo("101.00");
+        verify(feignClient, times(2)).getPricesBatch(anyCollection());
+        verify(feignClient, times(2)).getAllInstruments();
+    }
+
+    @Test
+    void getPrices_fromTheCatalog_revalidatesASnapshotOlderThanTheCallerAllows() {
+        PricingProperties properties = new PricingProperties();
+        MutableClock clock = MutableClock.at("2026-03-02T10:00:00Z");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PriceCache cache = new PriceCache(properties);
+        PricingCircuitBreaker breaker = new PricingCircuitBreaker(properties, meterRegistry);
+        InstrumentCatalog catalog = new InstrumentCatalog(feignClient, breaker, cache, new ObjectMapper(),
+                properties.getCatalog(), clock, meterRegistry);
+        client = new CachingPricingClient(feignClient, cache, new PriceBook(properties), breaker, catalog,
+                new HedgedRequests(properties, meterRegistry), properties.getService().getBatchRetryAfter(), clock,
+                meterRegistry);
+        when(feignClient.getPricesBatch(anyCollection())).thenThrow(notFound());
+        when(feignClient.getInstrumentCatalog(any()))
+                .thenReturn(catalog("[{\"symbol\":\"AAPL\",\"lastPrice\":100.00}]"),
+                        catalog("[{\"symbol\":\"AAPL\",\"lastPrice\":101.00}]"));
+
+        client.getPrices(List.of("AAPL"), STALENESS);
+        clock.advance(Duration.ofSeconds(1));
+        InstrumentPriceDto withinStaleness = client.getPrices(List.of("AAPL"), STALENESS).get("AAPL");
+        InstrumentPriceDto fresh = client.getPrices(List.of("AAPL"), Duration.ZERO).get("AAPL");
+
+        assertThat(withinStaleness.getLastPrice()).isEqualByComparingTo("100.00");
+        assertThat(fresh.getLastPrice()).isEqualByComparingTo("101.00");
+        assertThat(fresh.isStale()).isFalse();
+        verify(feignClient, times(2)).getInstrumentCatalog(any());
+    }
+
+    @Test
+    void whenPricingServiceFails_viewsGetLastKnownPricesFlaggedStale_andTradesAreRejected() {
+        PricingProperties properties = new PricingProperties();
+        properties.getBreaker().setMinimumCalls(2);
+        // Cache clock runs a minute ahead, so every cached price is past the staleness window
+        PriceCache cache = new PriceCache(properties.getCache(), Clock.offset(Clock.systemUTC(), Duration.ofMinutes(1)));
+        client = newClient(properties, cache);
+        when(feignClient.getCurrentPrice("AAPL"))
+                .thenReturn(price("AAPL", "100.00"))
+                .thenThrow(serviceUnavailable());
+        client.getCurrentPrice("AAPL");
+
+        InstrumentPriceDto viaFailure = client.getCurrentPrice("AAPL", STALENESS);
+        InstrumentPriceDto viaOpenBreaker = client.getCurrentPrice("AAPL", STALENESS);
+
+        assertThat(viaFailure.isStale()).isTrue();
+        assertThat(viaOpenBreaker.isStale()).isTrue();
+        assertThat(viaOpenBreaker.getLastPrice()).isEqualByComparingTo("100.00");
+        assertThatThrownBy(() -> client.getCurrentPrice("AAPL"))
+                .isInstanceOf(PricingUnavailableException.class);
+        verify(feignClient, times(2)).getCurrentPrice("AAPL");
+    }
+
+    @Test
+    void slowReadsAreHedged_butWritesAreSentExactlyOnce() {
+        PricingProperties properties = new PricingProperties();
+        properties.getCatalog().setEnabled(false);
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setMaxDelay(Duration.ofMillis(20));
+        client = newClient(properties, new PriceCache(properties));
+        Answer<InstrumentPriceDto> slow = invocation -> {
+            Thread.sleep(150);
+            return price("AAPL", "100.00");
+        };
+        when(feignClient.getCurrentPrice("AAPL")).thenAnswer(slow);
+        when(feignClient.updatePrice(eq("AAPL"), any())).thenAnswer(slow);
+
+        client.getCurrentPrice("AAPL");
+        client.updatePrice("AAPL", new UpdatePriceRequest());
+
+        verify(feignClient, times(2)).getCurrentPrice("AAPL");
+        verify(feignClient, times(1)).updatePrice(eq("AAPL"), any());
+    }
+
+    private CachingPricingClient newClient(PricingProperties properties, PriceCache cache) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PricingCircuitBreaker breaker = new PricingCircuitBreaker(properties, meterRegistry);
+        InstrumentCatalog catalog = new InstrumentCatalog(feignClient, breaker, cache, new ObjectMapper(),
+                properties, meterRegistry);
+        return new CachingPricingClient(feignClient, cache, new PriceBook(properties), breaker, catalog,
+                new HedgedRequests(properties, meterRegistry), properties, meterRegistry);
+    }
+
+    private static feign.Response catalog(String body) {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/instruments",
+                new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        return feign.Response.builder().status(200).reason("OK").request(request).headers(Map.of())
+                .body(body, StandardCharsets.UTF_8).build();
+    }
+
+    private static FeignException notFound() {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/instruments/prices",
+                new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        return new FeignException.NotFound("Not Found", request, null, null);
+    }
+
+    private static FeignException serviceUnavailable() {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/instruments/AAPL/price",
+                new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        return new FeignException.ServiceUnavailable("Service Unavailable", request, null, null);
+    }
+}
@@ -0,0 +1,127 @@
+package com.phitrading.exchange.integration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgedRequestsTest {
+
+    private PricingProperties.Hedging config;
+    private SimpleMeterRegistry meterRegistry;
+    private HedgedRequests hedging;
+
+    @BeforeEach
+    void setUp() {
+        config = new PricingProperties.Hedging();
+        config.setEnabled(true);
+        config.setMaxDelay(Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (hedging != null) {
+            hedging.shutdown();
+        }
+    }
+
+    @Test
+    void slowRead_isHedged_andTheFasterCopyWins() {
+        hedging = new HedgedRequests(config, meterRegistry);
+        CountDownLatch primaryStuck = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedging.execute("getCurrentPrice", () -> {
+            if (calls.incrementAndGet() == 1) {
+                await(primaryStuck);
+                return "primary";
+            }
+            return "hedge";
+        });
+        primaryStuck.countDown();
+
+        assertThat(result).isEqualTo("hedge");
+        assertThat(calls).hasValue(2);
+        assertThat(requests("hedge")).isEqualTo(1);
+    }
+
+    @Test
+    void fastRead_isNotHedged() {
+        hedging = new HedgedRequests(config, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedging.execute("getCurrentPrice", () -> "p" + calls.incrementAndGet());
+
+        assertThat(result).isEqualTo("p1");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void exhaustedBudget_waitsForThePrimaryInsteadOfHedging() {
+        config.setBudgetRatio(0);
+        config.setBudgetMinPerSecond(0);
+        hedging = new HedgedRequests(config, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = hedging.execute("getCurrentPrice", () -> {
+            calls.incrementAndGet();
+            sleep(120);
+            return "primary";
+        });
+
+        assertThat(result).isEqualTo("primary");
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.counter("pricing.hedging.budget.exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    void failsOnlyWhenBothCopiesFail() {
+        hedging = new HedgedRequests(config, meterRegistry);
+
+        assertThatThrownBy(() -> hedging.execute("getCurrentPrice", () -> {
+            sleep(100);
+            throw new IllegalStateException("down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("down");
+        assertThat(requests("none")).isEqualTo(1);
+    }
+
+    @Test
+    void disabled_runsTheReadInline() {
+        config.setEnabled(false);
+        hedging = new HedgedRequests(config, meterRegistry);
+        Thread caller = Thread.currentThread();
+
+        Thread ran = hedging.execute("getCurrentPrice", Thread::currentThread);
+
+        assertThat(ran).isSameAs(caller);
+    }
+
+    private double requests(String winner) {
+        return meterRegistry.counter("pricing.hedging.requests", "operation", "getCurrentPrice", "winner", winner).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.phitrading.exchange.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phitrading.exchange.integration.dto.InstrumentChangesDto;
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import com.phitrading.exchange.testsupport.MutableClock;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InstrumentCatalogTest {
+
+    private static final String CATALOG_V1 = """
+            [{"symbol":"AAPL","lastPrice":100.00},{"symbol":"TSLA","lastPrice":200.00}]""";
+
+    @Mock
+    private PricingServiceClient feignClient;
+
+    private InstrumentCatalog catalog;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        PricingProperties properties = new PricingProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        catalog = new InstrumentCatalog(feignClient, new PricingCircuitBreaker(properties, meterRegistry),
+                new PriceCache(properties), new ObjectMapper().findAndRegisterModules(),
+                properties.getCatalog(), Clock.systemUTC(), meterRegistry);
+    }
+
+    @Test
+    void revalidatesWithEtag_andKeepsSnapshotOnNotModified() {
+        when(feignClient.getInstrumentCatalog(isNull())).thenReturn(response(200, CATALOG_V1, Map.of("ETag", "\"v1\"")));
+        when(feignClient.getInstrumentCatalog("\"v1\"")).thenReturn(response(304, null, Map.of()));
+
+        CatalogSnapshot first = catalog.get();
+        CatalogSnapshot cached = catalog.get();
+        CatalogSnapshot revalidated = catalog.refresh(Duration.ZERO);
+
+        assertThat(cached).isSameAs(first);
+        assertThat(first.instruments()).extracting(InstrumentPriceDto::getSymbol).containsExactly("AAPL", "TSLA");
+        assertThat(revalidated.instruments()).isSameAs(first.instruments());
+        assertThat(revalidated.validatedAt()).isAfterOrEqualTo(first.validatedAt());
+        verify(feignClient, times(2)).getInstrumentCatalog(any());
+        verify(feignClient, never()).getInstrumentChanges(anyLong());
+        assertThat(revalidations("not_modified")).isEqualTo(1);
+    }
+
+    @Test
+    void appliesIncrementalChanges_withoutTouchingThePreviousSnapshot() {
+        when(feignClient.getInstrumentCatalog(isNull()))
+                .thenReturn(response(200, CATALOG_V1, Map.of("ETag", "\"v1\"", InstrumentCatalog.VERSION_HEADER, "7")));
+        when(feignClient.getInstrumentChanges(7L)).thenReturn(new InstrumentChangesDto(9L,
+                List.of(price("TSLA", "210.00"), price("NVDA", "500.00")), List.of("aapl")));
+
+        CatalogSnapshot first = catalog.get();
+        CatalogSnapshot next = catalog.refresh(Duration.ZERO);
+
+        assertThat(first.instruments()).extracting(InstrumentPriceDto::getSymbol).containsExactly("AAPL", "TSLA");
+        assertThat(next.instruments()).extracting(InstrumentPriceDto::getSymbol).containsExactly("NVDA", "TSLA");
+        assertThat(next.get("tsla").getLastPrice()).isEqualByComparingTo("210.00");
+        assertThat(next.version()).isEqualTo(9L);
+        assertThat(catalog.current()).isSameAs(next);
+        assertThat(changes("added")).isEqualTo(3);
+        assertThat(changes("repriced")).isEqualTo(1);
+        assertThat(changes("removed")).isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackToConditionalFetch_whenChangeFeedIsMissing() {
+        when(feignClient.getInstrumentCatalog(isNull()))
+                .thenReturn(response(200, CATALOG_V1, Map.of("ETag", "\"v1\"", InstrumentCatalog.VERSION_HEADER, "7")));
+        when(feignClient.getInstrumentChanges(anyLong())).thenThrow(notFound());
+        when(feignClient.getInstrumentCatalog("\"v1\"")).thenReturn(response(304, null, Map.of()));
+
+        catalog.get();
+        catalog.refresh(Duration.ZERO);
+        catalog.refresh(Duration.ZERO);
+
+        verify(feignClient, times(1)).getInstrumentChanges(anyLong());
+        verify(feignClient, times(2)).getInstrumentCatalog("\"v1\"");
+    }
+
+    @Test
+    void get_withATighterMaxAge_revalidates_butNeverServesPastTheConfiguredOne() {
+        PricingProperties properties = new PricingProperties();
+        MutableClock clock = MutableClock.at("2026-03-02T10:00:00Z");
+        catalog = new InstrumentCatalog(feignClient, new PricingCircuitBreaker(properties, meterRegistry),
+                new PriceCache(properties), new ObjectMapper().findAndRegisterModules(),
+                properties.getCatalog(), clock, meterRegistry);
+        when(feignClient.getInstrumentCatalog(isNull())).thenReturn(response(200, CATALOG_V1, Map.of("ETag", "\"v1\"")));
+        when(feignClient.getInstrumentCatalog("\"v1\"")).thenReturn(response(304, null, Map.of()));
+
+        CatalogSnapshot first = catalog.get();
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(catalog.get(Duration.ofSeconds(3))).isSameAs(first);
+        assertThat(catalog.get(Duration.ofSeconds(1)).validatedAt()).isEqualTo(clock.instant());
+        clock.advance(properties.getCatalog().getMaxAge().plusSeconds(1));
+        catalog.get(Duration.ofHours(1));
+
+        verify(feignClient, times(2)).getInstrumentCatalog("\"v1\"");
+    }
+
+    @Test
+    void invalidate_forcesRevalidationOnNextRead() {
+        when(feignClient.getInstrumentCatalog(isNull())).thenReturn(response(200, CATALOG_V1, Map.of("ETag", "\"v1\"")));
+        when(feignClient.getInstrumentCatalog("\"v1\"")).thenReturn(response(304, null, Map.of()));
+
+        catalog.get();
+        catalog.invalidate();
+        catalog.get();
+
+        verify(feignClient).getInstrumentCatalog("\"v1\"");
+    }
+
+    private double revalidations(String result) {
+        return meterRegistry.counter("pricing.catalog.revalidations", "result", result).count();
+    }
+
+    private double changes(String type) {
+        return meterRegistry.counter("pricing.catalog.changes", "type", type).count();
+    }
+
+    private static Response response(int status, String body, Map<String, String> headers) {
+        Map<String, Collection<String>> headerMap = new HashMap<>();
+        headers.forEach((k, v) -> headerMap.put(k, List.of(v)));
+        Response.Builder builder = Response.builder()
+                .status(status)
+                .reason(status == 304 ? "Not Modified" : "OK")
+                .request(request())
+                .headers(headerMap);
+        if (body != null) {
+            builder.body(body, StandardCharsets.UTF_8);
+        }
+        return builder.build();
+    }
+
+    private static FeignException notFound() {
+        return new FeignException.NotFound("Not Found", request(), null, null);
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "/api/instruments", new HashMap<>(), null, StandardCharsets.UTF_8, null);
+    }
+}
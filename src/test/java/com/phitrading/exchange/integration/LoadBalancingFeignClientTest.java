@@ -0,0 +1,212 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.testsupport.MutableClock;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancingFeignClientTest {
+
+    private static final String TARGET = "http://pricing";
+    private static final Request.Options OPTIONS =
+            new Request.Options(1, TimeUnit.SECONDS, 5, TimeUnit.SECONDS, false);
+
+    private final List<StubNode> nodes = new ArrayList<>();
+    private CloseableHttpClient httpClient;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = HttpClients.custom().disableAutomaticRetries().build();
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        nodes.forEach(StubNode::stop);
+        httpClient.close();
+    }
+
+    @Test
+    void leastOutstandingRequests_sendsMostTrafficToTheFasterInstance() throws Exception {
+        StubNode fast = node(0);
+        StubNode slow = node(150);
+        LoadBalancingFeignClient client = client(fast, slow);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < 80; i++) {
+                statuses.add(callers.submit(() -> status(client, Request.HttpMethod.GET)));
+            }
+            for (Future<Integer> status : statuses) {
+                assertThat(status.get(10, TimeUnit.SECONDS)).isEqualTo(200);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(fast.hits.get() + slow.hits.get()).isEqualTo(80);
+        assertThat(fast.hits.get()).isGreaterThan(slow.hits.get() * 3);
+    }
+
+    @Test
+    void failingInstance_isEjected_readsFailOver_andItIsReinstatedOnceHealthy() throws IOException {
+        StubNode failing = node(0);
+        StubNode healthy = node(0);
+        failing.status.set(503);
+        LoadBalancingFeignClient client = client(failing, healthy);
+
+        for (int i = 0; i < 30; i++) {
+            assertThat(status(client, Request.HttpMethod.GET)).isEqualTo(200);
+        }
+        assertThat(failing.hits).hasValue(3);
+        assertThat(ejections(failing)).isEqualTo(1);
+        assertThat(meterRegistry.get("pricing.lb.available").tag("endpoint", failing.url).gauge().value()).isZero();
+
+        // Back in rotation on probation: one more failure ejects it again, for twice as long
+        clock.advance(Duration.ofSeconds(11));
+        for (int i = 0; i < 30; i++) {
+            assertThat(status(client, Request.HttpMethod.GET)).isEqualTo(200);
+        }
+        assertThat(failing.hits).hasValue(4);
+        assertThat(ejections(failing)).isEqualTo(2);
+
+        failing.status.set(200);
+        clock.advance(Duration.ofSeconds(11));
+        status(client, Request.HttpMethod.GET);
+        assertThat(failing.hits).hasValue(4);
+
+        clock.advance(Duration.ofSeconds(10));
+        for (int i = 0; i < 30; i++) {
+            assertThat(status(client, Request.HttpMethod.GET)).isEqualTo(200);
+        }
+        assertThat(failing.hits.get()).isGreaterThan(4);
+        assertThat(ejections(failing)).isEqualTo(2);
+    }
+
+    @Test
+    void writes_areNeverRepeatedAfterReachingAnInstance() throws IOException {
+        StubNode failing = node(0);
+        StubNode healthy = node(0);
+        failing.status.set(500);
+        LoadBalancingFeignClient client = client(failing, healthy);
+
+        int errors = 0;
+        for (int i = 0; i < 10; i++) {
+            if (status(client, Request.HttpMethod.PUT) == 500) {
+                errors++;
+            }
+        }
+
+        assertThat(failing.hits.get() + healthy.hits.get()).isEqualTo(10);
+        assertThat(errors).isEqualTo(failing.hits.get());
+    }
+
+    @Test
+    void refusedConnections_failOverForWritesToo() throws IOException {
+        StubNode down = node(0);
+        StubNode healthy = node(0);
+        down.stop();
+        LoadBalancingFeignClient client = client(down, healthy);
+
+        for (int i = 0; i < 30; i++) {
+            assertThat(status(client, Request.HttpMethod.PUT)).isEqualTo(200);
+        }
+
+        assertThat(healthy.hits).hasValue(30);
+        assertThat(ejections(down)).isEqualTo(1);
+    }
+
+    private LoadBalancingFeignClient client(StubNode... instances) {
+        PricingProperties.Service config = new PricingProperties.Service();
+        config.setUrl(TARGET);
+        for (StubNode node : instances) {
+            config.getUrls().add(node.url);
+        }
+        PricingLoadBalancer balancer = new PricingLoadBalancer(config, clock, meterRegistry);
+        return new LoadBalancingFeignClient(new ApacheHttp5Client(httpClient), balancer, config, meterRegistry);
+    }
+
+    private static int status(LoadBalancingFeignClient client, Request.HttpMethod method) throws IOException {
+        byte[] body = method == Request.HttpMethod.GET ? null : "{\"price\":1}".getBytes(StandardCharsets.UTF_8);
+        Request request = Request.create(method, TARGET + "/api/instruments/AAPL/price", new HashMap<>(), body,
+                StandardCharsets.UTF_8, null);
+        try (Response response = client.execute(request, OPTIONS)) {
+            return response.status();
+        }
+    }
+
+    private double ejections(StubNode node) {
+        return meterRegistry.get("pricing.lb.ejections").tag("endpoint", node.url).counter().count();
+    }
+
+    private StubNode node(long latencyMillis) throws IOException {
+        StubNode node = new StubNode(latencyMillis);
+        nodes.add(node);
+        return node;
+    }
+
+    private static final class StubNode {
+        private final HttpServer server;
+        private final String url;
+        private final long latencyMillis;
+        private final AtomicInteger hits = new AtomicInteger();
+        private final AtomicInteger status = new AtomicInteger(200);
+
+        private StubNode(long latencyMillis) throws IOException {
+            this.latencyMillis = latencyMillis;
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/api/instruments", this::handle);
+            server.start();
+            url = "http://localhost:" + server.getAddress().getPort();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            hits.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"symbol\":\"AAPL\",\"lastPrice\":100.00}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+    }
+}
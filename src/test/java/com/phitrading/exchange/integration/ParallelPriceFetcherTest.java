@@ -0,0 +1,94 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ParallelPriceFetcherTest {
+
+    private static final Duration STALENESS = Duration.ofSeconds(2);
+
+    @Mock
+    private PricingServiceClient pricingClient;
+
+    private PricingProperties properties;
+    private PriceCache priceCache;
+    private ParallelPriceFetcher fetcher;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        properties = new PricingProperties();
+        properties.getValuation().setDeadline(Duration.ofMillis(300));
+        properties.getValuation().setMaxConcurrency(2);
+        priceCache = new PriceCache(properties);
+        fetcher = new ParallelPriceFetcher(pricingClient, priceCache, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        fetcher.shutdown();
+    }
+
+    @Test
+    void fetch_marksSlowSymbolsStaleOrUnavailable_withoutBlockingPastDeadline() {
+        when(pricingClient.getCurrentPrice(eq("AAPL"), any(Duration.class))).thenReturn(price("AAPL", "101.00"));
+        when(pricingClient.getCurrentPrice(eq("TSLA"), any(Duration.class))).thenAnswer(inv -> hang());
+        when(pricingClient.getCurrentPrice(eq("MSFT"), any(Duration.class))).thenAnswer(inv -> hang());
+        priceCache.put(price("TSLA", "190.00"));
+
+        long start = System.nanoTime();
+        PriceFetchResult result = fetcher.fetch(List.of("AAPL", "TSLA", "MSFT"), STALENESS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsedMs).isLessThan(2_000);
+        assertThat(result.prices()).containsOnlyKeys("AAPL", "TSLA");
+        assertThat(result.prices().get("AAPL").getLastPrice()).isEqualByComparingTo("101.00");
+        assertThat(result.prices().get("TSLA").getLastPrice()).isEqualByComparingTo("190.00");
+        assertThat(result.stale()).containsExactly("TSLA");
+    }
+
+    @Test
+    void fetch_boundsConcurrentRequests() {
+        properties.getValuation().setDeadline(Duration.ofSeconds(5));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(pricingClient.getCurrentPrice(anyString(), any(Duration.class))).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return price(inv.getArgument(0), "10.00");
+        });
+
+        PriceFetchResult result = fetcher.fetch(List.of("A", "B", "C", "D", "E", "F"), STALENESS);
+
+        assertThat(result.prices()).hasSize(6);
+        assertThat(result.stale()).isEmpty();
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+    }
+
+    private InstrumentPriceDto hang() throws InterruptedException {
+        release.await();
+        return null;
+    }
+}
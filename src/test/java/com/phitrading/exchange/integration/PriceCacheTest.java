@@ -0,0 +1,69 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.testsupport.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceCacheTest {
+
+    private MutableClock clock;
+    private PricingProperties.Cache config;
+    private PriceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        config = new PricingProperties.Cache();
+        config.setTtl(Duration.ofSeconds(5));
+        config.setMaxSize(10);
+        cache = new PriceCache(config, clock);
+    }
+
+    @Test
+    void getIfFresh_servesPriceWithinStalenessWindow_andMissesAfterIt() {
+        cache.put(price("AAPL", "100.00", clock.instant()));
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(cache.getIfFresh("aapl", Duration.ofSeconds(2))).isNotNull();
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThat(cache.getIfFresh("AAPL", Duration.ofSeconds(2))).isNull();
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void getIfFresh_neverServesBeyondSymbolTtl() {
+        config.getSymbolTtl().put("TSLA", Duration.ofSeconds(1));
+        cache.put(price("TSLA", "200.00", clock.instant()));
+        cache.put(price("MSFT", "300.00", clock.instant()));
+
+        clock.advance(Duration.ofSeconds(2));
+
+        assertThat(cache.getIfFresh("TSLA", Duration.ofMinutes(1))).isNull();
+        assertThat(cache.getIfFresh("MSFT", Duration.ofMinutes(1))).isNotNull();
+    }
+
+    @Test
+    void put_beyondMaxSize_evictsLeastRecentlyUsed() {
+        for (int i = 0; i < 10; i++) {
+            cache.put(price("SYM" + i, "1.00", clock.instant()));
+            clock.advance(Duration.ofMillis(10));
+        }
+        // Touch the oldest entry so it survives eviction
+        assertThat(cache.getIfFresh("SYM0", Duration.ofSeconds(5))).isNotNull();
+
+        cache.put(price("NEW", "1.00", clock.instant()));
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+        assertThat(cache.getEvictions()).isPositive();
+        assertThat(cache.getIfFresh("SYM0", Duration.ofSeconds(5))).isNotNull();
+        assertThat(cache.getIfFresh("SYM1", Duration.ofSeconds(5))).isNull();
+    }
+}
@@ -0,0 +1,151 @@
+package com.phitrading.exchange.integration;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static com.phitrading.exchange.testsupport.TestPrices.price;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the subscriber against a local stand-in SSE server.
+ */
+@ExtendWith(MockitoExtension.class)
+class PriceStreamSubscriberTest {
+
+    @Mock
+    private PricingServiceClient restClient;
+
+    private HttpServer server;
+    private PriceBook priceBook;
+    private PriceStreamSubscriber subscriber;
+    private final List<String> lastEventIds = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile boolean serving = true;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/instruments/stream", this::stream);
+        server.start();
+
+        PricingProperties properties = new PricingProperties();
+        properties.getService().setUrl("http://localhost:" + server.getAddress().getPort());
+        properties.getStream().setStaleAfter(Duration.ofSeconds(2));
+        properties.getStream().setReconnectInitialDelay(Duration.ofMillis(50));
+
+        priceBook = new PriceBook(properties);
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        subscriber = new PriceStreamSubscriber(properties, new PricingLoadBalancer(properties, meterRegistry), priceBook,
+                restClient, mapper, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serving = false;
+        subscriber.stop();
+        server.stop(0);
+    }
+
+    @Test
+    void streamedTicksUpdateBook_andGapTriggersResubscribeFromLastContiguousEvent() {
+        when(restClient.getAllInstruments()).thenReturn(List.of(price("AAPL", "100.00"), price("TSLA", "200.00")));
+        assertThat(priceBook.get("AAPL")).isNull();
+
+        subscriber.start();
+
+        waitUntil(() -> connections.get() >= 2 && priceBook.isLive()
+                && priceBook.get("TSLA") != null
+                && priceBook.get("TSLA").getLastPrice().compareTo(new BigDecimal("205.00")) == 0);
+
+        assertThat(subscriber.getGaps()).isEqualTo(1);
+        assertThat(lastEventIds).containsExactly("none", "2");
+        assertThat(priceBook.get("AAPL").getLastPrice()).isEqualByComparingTo("103.00");
+        assertThat(priceBook.get("aapl").getRetrievedAt()).isNotNull();
+    }
+
+    @Test
+    void bookIsNotLiveWhileServerIsUnreachable() {
+        server.stop(0);
+        subscriber.start();
+
+        waitUntil(() -> subscriber.getReconnects() >= 1);
+
+        assertThat(priceBook.isLive()).isFalse();
+        assertThat(priceBook.get("AAPL")).isNull();
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        int connection = connections.incrementAndGet();
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        lastEventIds.add(lastEventId != null ? lastEventId : "none");
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (connection == 1) {
+                send(out, "id: 1\nevent: tick\ndata: {\"symbol\":\"AAPL\",\"lastPrice\":101.00}\n\n");
+                send(out, "id: 2\ndata: {\"symbol\":\"AAPL\",\"lastPrice\":102.00}\n\n");
+                // ids 3 and 4 are lost
+                send(out, "id: 5\ndata: {\"symbol\":\"TSLA\",\"lastPrice\":199.00}\n\n");
+            } else {
+                // Replay from Last-Event-ID
+                send(out, "id: 3\ndata: {\"symbol\":\"AAPL\",\"lastPrice\":103.00}\n\n");
+                send(out, "id: 4\ndata: {\"symbol\":\"TSLA\",\"lastPrice\":204.00}\n\n");
+                send(out, "id: 5\ndata: {\"symbol\":\"TSLA\",\"lastPrice\":205.00}\n\n");
+            }
+            while (serving) {
+                send(out, ": heartbeat\n\n");
+                sleep(100);
+            }
+        } catch (IOException clientGone) {
+            // subscriber disconnected
+        }
+    }
+
+    private static void send(OutputStream out, String event) throws IOException {
+        out.write(event.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
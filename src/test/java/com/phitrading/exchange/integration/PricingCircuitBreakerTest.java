@@ -0,0 +1,125 @@
+package com.phitrading.exchange.integration;
+
+import com.phitrading.exchange.common.exception.PricingUnavailableException;
+import com.phitrading.exchange.testsupport.MutableClock;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PricingCircuitBreakerTest {
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private PricingCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T10:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+        PricingProperties.Breaker config = new PricingProperties.Breaker();
+        config.setSlidingWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setFailureRateThreshold(50);
+        config.setOpenDuration(Duration.ofSeconds(10));
+        config.setHalfOpenCalls(2);
+        breaker = new PricingCircuitBreaker(config, clock, meterRegistry);
+    }
+
+    @Test
+    void opensAtFailureRate_thenFailsFastWithoutCallingUpstream() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        breaker.execute(() -> "ok");
+        breaker.execute(() -> "ok");
+        fail(status(503));
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.CLOSED);
+        fail(status(500));
+
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.execute(upstreamCalls::incrementAndGet))
+                .isInstanceOf(PricingUnavailableException.class);
+        assertThat(upstreamCalls.get()).isZero();
+        assertThat(breaker.getRejected()).isEqualTo(1);
+        assertThat(transitions("CLOSED", "OPEN")).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorsDoNotCountAsFailures() {
+        for (int i = 0; i < 4; i++) {
+            fail(status(404));
+        }
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenProbesCloseOnSuccess_andReopenOnFailure() {
+        openBreaker();
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.HALF_OPEN);
+
+        fail(status(503));
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.OPEN);
+
+        clock.advance(Duration.ofSeconds(10));
+        breaker.execute(() -> "probe 1");
+        breaker.execute(() -> "probe 2");
+
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.CLOSED);
+        assertThat(transitions("OPEN", "HALF_OPEN")).isEqualTo(2);
+        assertThat(transitions("HALF_OPEN", "OPEN")).isEqualTo(1);
+        assertThat(transitions("HALF_OPEN", "CLOSED")).isEqualTo(1);
+    }
+
+    @Test
+    void halfOpenProbeFailingWithAnError_reopensTheBreaker_insteadOfHoldingItsPermit() {
+        openBreaker();
+        clock.advance(Duration.ofSeconds(10));
+        StackOverflowError error = new StackOverflowError();
+
+        assertThatThrownBy(() -> breaker.execute(() -> {
+            throw error;
+        })).isSameAs(error);
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.OPEN);
+
+        clock.advance(Duration.ofSeconds(10));
+        breaker.execute(() -> "probe 1");
+        breaker.execute(() -> "probe 2");
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.CLOSED);
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            fail(status(503));
+        }
+        assertThat(breaker.getState()).isEqualTo(PricingCircuitBreaker.State.OPEN);
+    }
+
+    private void fail(FeignException ex) {
+        assertThatThrownBy(() -> breaker.execute(() -> {
+            throw ex;
+        })).isSameAs(ex);
+    }
+
+    private double transitions(String from, String to) {
+        var counter = meterRegistry.find("pricing.breaker.transitions").tags("from", from, "to", to).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static FeignException status(int status) {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/instruments",
+                new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("getAllInstruments",
+                feign.Response.builder().status(status).reason("status " + status).request(request)
+                        .headers(new HashMap<>()).build());
+    }
+}
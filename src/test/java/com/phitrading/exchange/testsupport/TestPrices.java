@@ -0,0 +1,26 @@
+package com.phitrading.exchange.testsupport;
+
+import com.phitrading.exchange.integration.dto.InstrumentPriceDto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/** Price quotes as the pricing service returns them. */
+public final class TestPrices {
+
+    private TestPrices() {
+    }
+
+    public static InstrumentPriceDto price(String symbol, String lastPrice) {
+        InstrumentPriceDto dto = new InstrumentPriceDto();
+        dto.setSymbol(symbol);
+        dto.setLastPrice(new BigDecimal(lastPrice));
+        return dto;
+    }
+
+    public static InstrumentPriceDto price(String symbol, String lastPrice, Instant retrievedAt) {
+        InstrumentPriceDto dto = price(symbol, lastPrice);
+        dto.setRetrievedAt(retrievedAt);
+        return dto;
+    }
+}
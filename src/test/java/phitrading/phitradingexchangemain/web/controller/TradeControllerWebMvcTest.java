@@ -1,19 +1,43 @@
 package phitrading.phitradingexchangemain.web.controller;
 
+import com.phitrading.exchange.common.exception.InsufficientFundsException;
+import com.phitrading.exchange.config.TradingProperties;
+import com.phitrading.exchange.domain.entity.Order;
+import com.phitrading.exchange.domain.service.AsyncOrderService;
+import com.phitrading.exchange.domain.service.IdempotencyService;
+import com.phitrading.exchange.domain.service.LimitOrderService;
 import com.phitrading.exchange.domain.service.PortfolioService;
 import com.phitrading.exchange.domain.service.TradeService;
+import com.phitrading.exchange.web.dto.BasketOrderRequest;
+import com.phitrading.exchange.web.dto.BasketOrderResult;
+import com.phitrading.exchange.web.dto.OrderStatusView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -28,11 +52,26 @@ class TradeControllerWebMvcTest {
     @Mock
     private PortfolioService portfolioService;
 
+    @Mock
+    private LimitOrderService limitOrderService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private AsyncOrderService asyncOrderService;
+
+    @Spy
+    private TradingProperties tradingProperties = new TradingProperties();
+
     @InjectMocks
     private TradeController tradeController;
 
     @BeforeEach
     void setup() {
+        // Run every submission as a first submission
+        lenient().when(idempotencyService.execute(any(), any(), any(), any(), any()))
+                .thenAnswer(inv -> inv.getArgument(4, Supplier.class).get());
         mockMvc = MockMvcBuilders.standaloneSetup(tradeController).build();
     }
 
@@ -49,4 +88,94 @@ class TradeControllerWebMvcTest {
 
         verify(tradeService).buy("testUser", "AAPL", 3L);
     }
+
+    @Test
+    void postBuy_withLimitPrice_shouldPlaceLimitOrderAndRedirectToOrders() throws Exception {
+        Order order = new Order();
+        order.setSide(Order.OrderSide.BUY);
+        order.setStatus(Order.OrderStatus.PENDING);
+        when(limitOrderService.placeLimitOrder("testUser", "AAPL", Order.OrderSide.BUY, 3L, new BigDecimal("95.50")))
+                .thenReturn(order);
+
+        mockMvc.perform(post("/trade/buy")
+                        .principal(() -> "testUser")
+                        .param("symbol", "AAPL")
+                        .param("quantity", "3")
+                        .param("limitPrice", "95.50"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/orders"));
+
+        verify(tradeService, never()).buy(anyString(), anyString(), anyLong());
+    }
+
+    @Test
+    void postBasket_shouldReturnPerOrderResults() throws Exception {
+        BasketOrderResult result = BasketOrderResult.builder()
+                .mode(BasketOrderRequest.Mode.BEST_EFFORT)
+                .executed(1)
+                .rejected(1)
+                .cashBalance(new BigDecimal("500.0000"))
+                .lines(List.of(
+                        BasketOrderResult.Line.builder().symbol("AAPL").side("BUY").quantity(5).status("EXECUTED").build(),
+                        BasketOrderResult.Line.builder().symbol("TSLA").side("SELL").quantity(1).status("REJECTED")
+                                .message("Insufficient quantity. Available: 0, Requested: 1").build()))
+                .build();
+        when(tradeService.executeBasket(eq("testUser"), any(BasketOrderRequest.class))).thenReturn(result);
+
+        mockMvc.perform(post("/trade/basket")
+                        .principal(() -> "testUser")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mode": "BEST_EFFORT", "orders": [
+                                  {"symbol": "AAPL", "side": "BUY", "quantity": 5},
+                                  {"symbol": "TSLA", "side": "SELL", "quantity": 1}]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executed").value(1))
+                .andExpect(jsonPath("$.lines[1].status").value("REJECTED"));
+    }
+
+    @Test
+    void postBasket_allOrNothingThatCannotExecute_shouldReturnBadRequest() throws Exception {
+        when(tradeService.executeBasket(eq("testUser"), any(BasketOrderRequest.class)))
+                .thenThrow(new InsufficientFundsException("Insufficient funds. Required: 1200, Available: 1000"));
+
+        mockMvc.perform(post("/trade/basket")
+                        .principal(() -> "testUser")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orders\": [{\"symbol\": \"AAPL\", \"side\": \"BUY\", \"quantity\": 12}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Insufficient funds. Required: 1200, Available: 1000"));
+    }
+
+    @Test
+    void postBuy_shouldPassTheFormIdempotencyKey() throws Exception {
+        mockMvc.perform(post("/trade/buy")
+                        .principal(() -> "testUser")
+                        .param("symbol", "AAPL")
+                        .param("quantity", "3")
+                        .param("idempotencyKey", "form-key-1"))
+                .andExpect(status().is3xxRedirection());
+
+        verify(idempotencyService).execute(eq("testUser"), eq("form-key-1"), eq("BUY:AAPL:3"), eq(String.class), any());
+        verify(tradeService).buy("testUser", "AAPL", 3L);
+    }
+
+    @Test
+    void postOrder_shouldAcceptWithoutExecuting() throws Exception {
+        Order order = new Order();
+        when(asyncOrderService.submit("testUser", "AAPL", Order.OrderSide.BUY, 3L)).thenReturn(order);
+        when(asyncOrderService.getStatus("testUser", order.getId())).thenReturn(OrderStatusView.builder()
+                .orderId(order.getId()).symbol("AAPL").side("BUY").quantity(3).status("PENDING").build());
+
+        mockMvc.perform(post("/trade/orders")
+                        .principal(() -> "testUser")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"symbol\": \"AAPL\", \"side\": \"BUY\", \"quantity\": 3}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/orders/" + order.getId() + "/status"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(tradeService, never()).buy(anyString(), anyString(), anyLong());
+    }
 }